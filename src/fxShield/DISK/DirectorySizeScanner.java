@@ -0,0 +1,258 @@
+package fxShield.DISK;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel directory-size scanner ("what is taking the space" for Optimize Disk).
+ *
+ * - ForkJoin over Files.newDirectoryStream: one task per directory, subdirectories forked,
+ *   files summed in place. Attributes are read with NOFOLLOW_LINKS right after listing, which on
+ *   Windows is served from the directory-listing data (no extra syscall per file).
+ * - Symlinks / junctions / reparse points are not followed (no loops, no double counting).
+ * - Reports the largest folders (down to {@link #REPORT_DEPTH}) and temp/cache candidates.
+ * - Streams progress and each finished top-level folder to a {@link Listener}; {@link #cancel()}
+ *   stops all tasks at the next directory.
+ *
+ * One instance per scan.
+ */
+public final class DirectorySizeScanner {
+
+    public static final int TOP_N = 10;
+    private static final int REPORT_DEPTH = 3;
+    private static final long PROGRESS_MS = 250;
+
+    // folder names that usually hold disposable data
+    private static final Set<String> CACHE_NAMES = Set.of(
+            "temp", "tmp", "cache", "caches", ".cache", "cache2", "code cache", "gpucache",
+            "shadercache", "inetcache", "crashdumps", "crashpad", "thumbnails", "$recycle.bin"
+    );
+
+    /** Partial results; called from scanner threads. */
+    public interface Listener {
+        default void onProgress(long files, long dirs, long bytes) {}
+
+        /** A top-level folder finished (final size). */
+        default void onFolderScanned(Path dir, long bytes) {}
+    }
+
+    public static final class Entry {
+        public final Path path;
+        public final long bytes;
+
+        Entry(Path path, long bytes) {
+            this.path = path;
+            this.bytes = bytes;
+        }
+    }
+
+    public static final class Report {
+        public final Path root;
+        public final long files;
+        public final long dirs;
+        public final long bytes;
+        public final long skipped; // unreadable directories
+        public final long elapsedMs;
+        public final boolean cancelled;
+        public final List<Entry> largestFolders;
+        public final List<Entry> cacheCandidates;
+
+        Report(Path root, long files, long dirs, long bytes, long skipped, long elapsedMs,
+               boolean cancelled, List<Entry> largestFolders, List<Entry> cacheCandidates) {
+            this.root = root;
+            this.files = files;
+            this.dirs = dirs;
+            this.bytes = bytes;
+            this.skipped = skipped;
+            this.elapsedMs = elapsedMs;
+            this.cancelled = cancelled;
+            this.largestFolders = largestFolders;
+            this.cacheCandidates = cacheCandidates;
+        }
+
+        public long cacheBytes() {
+            long sum = 0;
+            for (Entry e : cacheCandidates) sum += e.bytes;
+            return sum;
+        }
+    }
+
+    private final Path root;
+    private final Listener listener;
+    private final int parallelism;
+
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong dirs = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong lastProgressMs = new AtomicLong();
+
+    private final ConcurrentLinkedQueue<Entry> folders = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Entry> caches = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean cancelled = false;
+    private volatile ForkJoinPool pool;
+
+    public DirectorySizeScanner(Path root, Listener listener) {
+        this(root, listener, Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+    }
+
+    /** @param parallelism worker threads; I/O bound, so more than the core count helps */
+    public DirectorySizeScanner(Path root, Listener listener, int parallelism) {
+        this.root = root;
+        this.listener = (listener != null) ? listener : new Listener() {};
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public void cancel() {
+        cancelled = true;
+        ForkJoinPool p = pool;
+        if (p != null) p.shutdownNow();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Blocking scan; returns partial results when cancelled. */
+    public Report run() {
+        long t0 = System.currentTimeMillis();
+        lastProgressMs.set(t0);
+
+        ForkJoinPool p = new ForkJoinPool(parallelism, pool -> {
+            var t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("fxShield-dirscan-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+        pool = p;
+
+        try {
+            if (!cancelled) p.invoke(new DirTask(root, 0, false));
+        } catch (Exception ignored) {
+            // cancelled (pool shut down) or root unreadable
+        } finally {
+            p.shutdownNow();
+            try {
+                p.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pool = null;
+        }
+
+        long elapsed = System.currentTimeMillis() - t0;
+        listener.onProgress(files.get(), dirs.get(), bytes.get());
+
+        return new Report(root, files.get(), dirs.get(), bytes.get(), skipped.get(), elapsed, cancelled,
+                top(folders), top(caches));
+    }
+
+    private static List<Entry> top(ConcurrentLinkedQueue<Entry> q) {
+        List<Entry> all = new ArrayList<>(q);
+        all.sort(Comparator.comparingLong((Entry e) -> e.bytes).reversed());
+        return List.copyOf(all.subList(0, Math.min(TOP_N, all.size())));
+    }
+
+    // =========================================================================
+    // Walk
+    // =========================================================================
+
+    private final class DirTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L; // never serialized; ForkJoinTask is Serializable
+
+        private final transient Path dir;
+        private final int depth;
+        private final boolean insideCache; // an ancestor is already a cache candidate
+        private final boolean cacheRoot;
+
+        DirTask(Path dir, int depth, boolean insideCache) {
+            this.dir = dir;
+            this.depth = depth;
+            this.insideCache = insideCache;
+            this.cacheRoot = !insideCache && depth > 0 && isCacheName(dir);
+        }
+
+        @Override
+        protected Long compute() {
+            if (cancelled) return 0L;
+
+            long sum = 0;
+            long localFiles = 0;
+            List<DirTask> children = null;
+
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                for (Path p : ds) {
+                    if (cancelled) break;
+
+                    BasicFileAttributes a;
+                    try {
+                        a = Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException | SecurityException e) {
+                        continue;
+                    }
+
+                    if (a.isDirectory()) {
+                        // junctions / mount points show up as "other" on Windows
+                        if (a.isOther() || a.isSymbolicLink()) continue;
+                        DirTask t = new DirTask(p, depth + 1, insideCache || cacheRoot);
+                        t.fork();
+                        if (children == null) children = new ArrayList<>();
+                        children.add(t);
+                    } else if (a.isRegularFile()) {
+                        sum += a.size();
+                        localFiles++;
+                    }
+                }
+            } catch (IOException | SecurityException e) {
+                skipped.incrementAndGet();
+            }
+
+            files.addAndGet(localFiles);
+            bytes.addAndGet(sum);
+            dirs.incrementAndGet();
+            maybeProgress();
+
+            if (children != null) {
+                for (DirTask t : children) sum += t.join();
+            }
+
+            if (!cancelled && depth > 0) {
+                if (depth <= REPORT_DEPTH) folders.add(new Entry(dir, sum));
+                if (cacheRoot) caches.add(new Entry(dir, sum));
+                if (depth == 1) listener.onFolderScanned(dir, sum);
+            }
+            return sum;
+        }
+    }
+
+    private static boolean isCacheName(Path p) {
+        Path name = p.getFileName();
+        return name != null && CACHE_NAMES.contains(name.toString().toLowerCase(Locale.ROOT));
+    }
+
+    private void maybeProgress() {
+        long now = System.currentTimeMillis();
+        long last = lastProgressMs.get();
+        if (now - last < PROGRESS_MS) return;
+        if (!lastProgressMs.compareAndSet(last, now)) return;
+        try {
+            listener.onProgress(files.get(), dirs.get(), bytes.get());
+        } catch (Throwable ignored) {
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package fxShield.DISK;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single place that decides a disk's type: NVMe / SATA SSD / HDD / USB (or "Disk" when unknown),
+ * with a confidence 0..1.
+ *
+ * Inputs, strongest first:
+ * - hint from hardware queries (bus type, seek penalty, rotational flag, MediaType/RotationRate)
+ * - model string, matched against a precompiled keyword table: one pass over the word starts,
+ *   terms bucketed by first character, rules evaluated as bit masks (no regex)
+ * - a few part-number shapes in the same table ("ct#p": digit run in the middle, "wds*c": word
+ *   ending), for vendors whose SATA and NVMe parts differ only there
+ *
+ * Results are kept in a bounded map keyed by serial (model when there is no serial) and checked
+ * against the hint, so the UI thread only ever does a lock-free lookup.
+ */
+public final class DiskClassifier {
+
+    public static final String NVME = "NVMe";
+    public static final String SATA_SSD = "SATA SSD";
+    public static final String HDD = "HDD";
+    public static final String USB = "USB";
+    public static final String UNKNOWN = "Disk";
+
+    private static final int CACHE_MAX = 256;
+
+    private static final DiskClassifier SHARED = new DiskClassifier(CACHE_MAX);
+
+    public static DiskClassifier shared() {
+        return SHARED;
+    }
+
+    public static final class Result {
+        public final String type;
+        public final double confidence;
+        public final String source; // "hint", "model", "none"
+
+        Result(String type, double confidence, String source) {
+            this.type = type;
+            this.confidence = confidence;
+            this.source = source;
+        }
+
+        public boolean isKnown() {
+            return !UNKNOWN.equals(type);
+        }
+
+        @Override
+        public String toString() {
+            return type + " (" + Math.round(confidence * 100) + "%, " + source + ")";
+        }
+    }
+
+    private static final Result NONE = new Result(UNKNOWN, 0.0, "none");
+
+    // =========================================================================
+    // Matcher table
+    // =========================================================================
+
+    /**
+     * A rule matches when every {@code all} term and at least one {@code any} term (if given)
+     * occur at a word start in the model (case-insensitive). First matching rule wins.
+     *
+     * Terms are plain prefixes, except:
+     * - '#' matches one or more digits ("ct#mx" = CT500MX500SSD1)
+     * - '*' skips to the end of the word, which must end with the rest ("wds*c" = WDS500G3X0C)
+     */
+    private static final class Rule {
+        final String[] all;
+        final String[] any;
+        final Result result;
+        long[] allMask;
+        long[] anyMask;
+
+        Rule(String[] all, String[] any, String type, double confidence) {
+            this.all = all;
+            this.any = any;
+            this.result = new Result(type, confidence, "model");
+        }
+    }
+
+    private static Rule rule(String type, double confidence, String[] all, String... any) {
+        return new Rule(all, any, type, confidence);
+    }
+
+    private static String[] all(String... terms) {
+        return terms;
+    }
+
+    private static final String[] NO_TERMS = new String[0];
+
+    private static final Rule[] RULES = {
+            // bus / form factor words are the strongest model signals
+            rule(NVME, 0.85, NO_TERMS, "nvme", "nvm", "pcie", "pci-e", "pci express"),
+            rule(USB, 0.75, NO_TERMS, "usb", "flash drive", "mass storage", "card reader", "sd card", "external"),
+
+            // OEM part-number prefixes
+            rule(NVME, 0.75, NO_TERMS, "mzv", "ssdpe", "snv", "sn5", "sn7", "sn8", "kxg", "kbg", "mtfdh",
+                    "bc7", "bc9", "pc6", "pc7", "nm6", "nm7", "nm8", "ap0", "tm8f", "legend", "firecuda 5"),
+            // same prefix as the SATA parts below: WD Blue/Black NVMe end in C/E, Crucial P/T lines,
+            // Kingston A2000 / KC2000 / KC2500 / KC3000
+            rule(NVME, 0.75, NO_TERMS, "wds*c", "wds*e", "ct#p", "ct#t", "sa2000", "skc2", "skc3"),
+            rule(NVME, 0.7, all("samsung"), "960", "970", "980", "990"),
+            rule(SATA_SSD, 0.75, NO_TERMS, "mz7", "wds", "ssdsc", "sa400", "mtfdd", "su6", "su8",
+                    "ct#mx", "ct#bx", "skc6"),
+            rule(HDD, 0.7, NO_TERMS, "st1", "st2", "st3", "st4", "st5", "st6", "st8", "dt01", "mq0", "hts", "hds"),
+
+            rule(SATA_SSD, 0.8, NO_TERMS, "ssd", "solid state", "flash", "m.2", "m2"),
+            rule(HDD, 0.8, NO_TERMS, "hdd", "rotational", "rpm"),
+
+            // vendor product lines
+            rule(SATA_SSD, 0.7, all("samsung"), "evo", "pro", "pm", "qvo"),
+            rule(SATA_SSD, 0.6, NO_TERMS, "kingston", "crucial", "sandisk", "intel", "micron", "adata", "sk hynix", "hynix"),
+            rule(HDD, 0.55, NO_TERMS, "seagate", "western digital", "wd", "hgst", "toshiba dt", "toshiba mq", "hitachi"),
+
+            rule(SATA_SSD, 0.5, all("sata"), "evo", "pro", "mx", "qvo", "ext", "plus")
+    };
+
+    // distinct terms (bit index = position) bucketed by first character
+    private static final String[] TERMS;
+    private static final int[][] BUCKETS = new int[128][];
+    // position of '#' / '*' in each term, -1 for plain prefixes
+    private static final int[] DIGITS_AT;
+    private static final int[] WORD_END_AT;
+
+    private static final int WORDS;
+
+    static {
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        for (Rule r : RULES) {
+            for (String t : r.all) ids.putIfAbsent(t, ids.size());
+            for (String t : r.any) ids.putIfAbsent(t, ids.size());
+        }
+        TERMS = ids.keySet().toArray(new String[0]);
+        WORDS = (TERMS.length + 63) >>> 6;
+
+        DIGITS_AT = new int[TERMS.length];
+        WORD_END_AT = new int[TERMS.length];
+        for (int id = 0; id < TERMS.length; id++) {
+            DIGITS_AT[id] = TERMS[id].indexOf('#');
+            WORD_END_AT[id] = TERMS[id].indexOf('*');
+        }
+
+        for (Rule r : RULES) {
+            r.allMask = maskOf(ids, r.all);
+            r.anyMask = maskOf(ids, r.any);
+        }
+
+        int[] counts = new int[128];
+        for (String t : TERMS) counts[t.charAt(0)]++;
+        for (int c = 0; c < 128; c++) BUCKETS[c] = new int[counts[c]];
+        int[] fill = new int[128];
+        for (int id = 0; id < TERMS.length; id++) {
+            char c = TERMS[id].charAt(0);
+            BUCKETS[c][fill[c]++] = id;
+        }
+    }
+
+    private static long[] maskOf(Map<String, Integer> ids, String[] terms) {
+        long[] m = new long[WORDS];
+        for (String t : terms) {
+            int id = ids.get(t);
+            m[id >>> 6] |= 1L << id;
+        }
+        return m;
+    }
+
+    // =========================================================================
+    // Cache
+    // =========================================================================
+
+    /** Cached result plus the hint it was computed with (the hint changes once detection completes). */
+    private static final class Entry {
+        final String hint;
+        final Result result;
+
+        Entry(String hint, Result result) {
+            this.hint = hint;
+            this.result = result;
+        }
+    }
+
+    private final int maxEntries;
+    // keyed by the caller's own strings: a hit builds no key and takes no lock
+    private final ConcurrentHashMap<String, Entry> bySerial = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Entry> byModel = new ConcurrentHashMap<>();
+
+    public DiskClassifier(int maxEntries) {
+        this.maxEntries = Math.max(8, maxEntries);
+    }
+
+    // =========================================================================
+    // API
+    // =========================================================================
+
+    /**
+     * @param serial disk serial (may be null/blank)
+     * @param model  model string (may be null)
+     * @param hint   hardware hint: NVMe / SSD / HDD / USB or a raw MediaType string (may be null)
+     */
+    public Result classify(String serial, String model, String hint) {
+        boolean hasSerial = serial != null && !serial.isBlank() && !serial.trim().equalsIgnoreCase("unknown");
+        Map<String, Entry> cache = hasSerial ? bySerial : byModel;
+        String key = hasSerial ? serial : (model != null ? model : "");
+
+        Entry e = cache.get(key);
+        if (e != null && Objects.equals(e.hint, hint)) return e.result;
+
+        Result r = compute(model, hint);
+        // bounded: a machine has a handful of disks, so overflow only means churn; start over
+        if (cache.size() >= maxEntries) cache.clear();
+        cache.put(key, new Entry(hint, r));
+        return r;
+    }
+
+    public Result classifyModel(String model) {
+        return classify(null, model, null);
+    }
+
+    /** Uncached classification (benchmarks / one-off use). */
+    public static Result compute(String model, String hint) {
+        Result fromHint = fromHint(hint);
+        if (fromHint != null) return fromHint;
+
+        if (model == null || model.isBlank()) return NONE;
+
+        long[] found = new long[WORDS];
+        if (!scan(model, found)) return NONE;
+
+        for (Rule r : RULES) {
+            if (matches(r, found)) return r.result;
+        }
+        return NONE;
+    }
+
+    /**
+     * Windows MediaType / RotationRate (Get-PhysicalDisk, Win32_DiskDrive) to a hint; null when unknown.
+     */
+    public static String hintFromMedia(String mediaType, Integer rotationRate) {
+        String media = trim(mediaType).toLowerCase(Locale.ROOT);
+        if (media.contains("ssd")) return "SSD";
+        if (media.contains("hdd")) return HDD;
+        if (media.contains("removable") || media.contains("external")) return USB;
+        if (rotationRate != null) {
+            if (rotationRate == 0) return "SSD";
+            if (rotationRate > 0) return HDD;
+        }
+        return null;
+    }
+
+    private static Result fromHint(String hint) {
+        String h = trim(hint).toLowerCase(Locale.ROOT);
+        if (h.isEmpty()) return null;
+
+        if (h.equals("nvme")) return new Result(NVME, 0.95, "hint");
+        if (h.equals("usb")) return new Result(USB, 0.95, "hint");
+        if (h.equals("ssd") || h.equals("sata ssd") || h.contains("solid state")) return new Result(SATA_SSD, 0.9, "hint");
+        if (h.equals("hdd") || h.contains("hard disk")) return new Result(HDD, 0.9, "hint");
+        return null;
+    }
+
+    // =========================================================================
+    // Matching (no regex)
+    // =========================================================================
+
+    /**
+     * One pass over the model: at each word start, tries only the terms sharing its first
+     * character. Sets the bits of the terms found; returns false when none matched.
+     */
+    static boolean scan(String model, long[] found) {
+        boolean any = false;
+        int n = model.length();
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && Character.isLetterOrDigit(model.charAt(i - 1))) continue;
+
+            char c = Character.toLowerCase(model.charAt(i));
+            if (c >= 128) continue;
+
+            for (int id : BUCKETS[c]) {
+                if (termAt(model, i, id)) {
+                    found[id >>> 6] |= 1L << id;
+                    any = true;
+                }
+            }
+        }
+        return any;
+    }
+
+    private static boolean termAt(String model, int i, int id) {
+        String t = TERMS[id];
+        int digits = DIGITS_AT[id];
+        int wordEnd = WORD_END_AT[id];
+        if (digits < 0 && wordEnd < 0) return model.regionMatches(true, i, t, 0, t.length());
+
+        int n = model.length();
+        if (digits >= 0) {
+            if (!model.regionMatches(true, i, t, 0, digits)) return false;
+            int j = i + digits;
+            int start = j;
+            while (j < n && Character.isDigit(model.charAt(j))) j++;
+            return j > start && model.regionMatches(true, j, t, digits + 1, t.length() - digits - 1);
+        }
+
+        if (!model.regionMatches(true, i, t, 0, wordEnd)) return false;
+        int end = i + wordEnd;
+        while (end < n && Character.isLetterOrDigit(model.charAt(end))) end++;
+        int tail = t.length() - wordEnd - 1;
+        return end - tail >= i + wordEnd && model.regionMatches(true, end - tail, t, wordEnd + 1, tail);
+    }
+
+    private static boolean matches(Rule r, long[] found) {
+        boolean anyRequired = false;
+        boolean anyHit = false;
+        for (int w = 0; w < found.length; w++) {
+            if ((found[w] & r.allMask[w]) != r.allMask[w]) return false;
+            if (r.anyMask[w] != 0) {
+                anyRequired = true;
+                if ((found[w] & r.anyMask[w]) != 0) anyHit = true;
+            }
+        }
+        return !anyRequired || anyHit;
+    }
+
+    private static String trim(String s) {
+        return (s == null) ? "" : s.trim();
+    }
+}
@@ -0,0 +1,178 @@
+package fxShield.DISK;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Micro-benchmark for {@link DiskClassifier}. The corpus is {@link #MODELS}: 69 model strings as
+ * reported by OSHI / WMI / sysfs on real machines. For timing, each is expanded with synthetic
+ * suffix / revision variants (not real models; they only widen the input mix), about 3000
+ * strings. Accuracy is reported on the 69 real strings only.
+ *
+ * Prints ns per classification: uncached, and cache hits keyed by serial and by model (the
+ * monitor and the per-frame card paths).
+ *
+ * Run: java fxShield.DISK.DiskClassifierBenchmark [rounds]
+ */
+public final class DiskClassifierBenchmark {
+
+    private DiskClassifierBenchmark() {}
+
+    // model string -> actual drive type ("Disk" for virtual / unidentifiable devices)
+    private static final String[][] MODELS = {
+            {"Samsung SSD 980 PRO 1TB", DiskClassifier.NVME},
+            {"Samsung SSD 970 EVO Plus 500GB", DiskClassifier.NVME},
+            {"Samsung SSD 870 QVO 2TB", DiskClassifier.SATA_SSD},
+            {"Samsung SSD 860 EVO 250GB", DiskClassifier.SATA_SSD},
+            {"SAMSUNG MZVLB512HBJQ-000L7", DiskClassifier.NVME},
+            {"SAMSUNG MZVL21T0HCLR-00B00", DiskClassifier.NVME},
+            {"Samsung PM981 NVMe", DiskClassifier.NVME},
+            {"NVMe Samsung SSD 980", DiskClassifier.NVME},
+            {"WDC WD10EZEX-08WN4A0", DiskClassifier.HDD},
+            {"WDC WD20EZRZ-00Z5HB0", DiskClassifier.HDD},
+            {"WDC WDS500G2B0A-00SM50", DiskClassifier.SATA_SSD},
+            {"WD Blue SN570 1TB", DiskClassifier.NVME},
+            {"WD_BLACK SN850X 2000GB", DiskClassifier.NVME},
+            {"Western Digital Red Plus 4TB", DiskClassifier.HDD},
+            {"ST1000DM010-2EP102", DiskClassifier.HDD},
+            {"ST2000DM008-2FR102", DiskClassifier.HDD},
+            {"Seagate BarraCuda 2TB", DiskClassifier.HDD},
+            {"Seagate FireCuda 530 ZP1000GM30013", DiskClassifier.NVME},
+            {"TOSHIBA DT01ACA100", DiskClassifier.HDD},
+            {"TOSHIBA MQ04ABF100", DiskClassifier.HDD},
+            {"HGST HTS721010A9E630", DiskClassifier.HDD},
+            {"Hitachi HDS721010CLA332", DiskClassifier.HDD},
+            {"KINGSTON SA400S37240G", DiskClassifier.SATA_SSD},
+            {"KINGSTON SNV2S1000G", DiskClassifier.NVME},
+            {"Kingston A2000 NVMe", DiskClassifier.NVME},
+            {"CT500MX500SSD1", DiskClassifier.SATA_SSD},
+            {"Crucial MX500 1TB", DiskClassifier.SATA_SSD},
+            {"CT1000P3SSD8", DiskClassifier.NVME},
+            {"Crucial P5 Plus NVMe", DiskClassifier.NVME},
+            {"SanDisk SDSSDA240G", DiskClassifier.SATA_SSD},
+            {"SanDisk Ultra USB 3.0", DiskClassifier.USB},
+            {"SanDisk Cruzer Blade USB Device", DiskClassifier.USB},
+            {"INTEL SSDPEKNW512G8", DiskClassifier.NVME},
+            {"INTEL SSDSC2KW256G8", DiskClassifier.SATA_SSD},
+            {"Micron 2450 NVMe 512GB", DiskClassifier.NVME},
+            {"Micron_1100_MTFDDAK256TBN", DiskClassifier.SATA_SSD},
+            {"ADATA SU800", DiskClassifier.SATA_SSD},
+            {"ADATA LEGEND 960", DiskClassifier.NVME},
+            {"SK hynix BC711 HFM256GD3JX013N", DiskClassifier.NVME},
+            {"SK hynix PC601 NVMe 512GB", DiskClassifier.NVME},
+            {"KBG40ZNS256G NVMe KIOXIA 256GB", DiskClassifier.NVME},
+            {"KXG60ZNV512G TOSHIBA", DiskClassifier.NVME},
+            {"Micron MTFDHBA512TDV", DiskClassifier.NVME},
+            {"Lexar SSD NM620 1TB", DiskClassifier.NVME},
+            {"WDC WDS500G3X0C-00SJG0", DiskClassifier.NVME},
+            {"WDS100T2B0C", DiskClassifier.NVME},
+            {"KINGSTON SA2000M8500G", DiskClassifier.NVME},
+            {"KINGSTON SKC3000D2048G", DiskClassifier.NVME},
+            {"KINGSTON SKC600512G", DiskClassifier.SATA_SSD},
+            {"CT250BX500SSD1", DiskClassifier.SATA_SSD},
+            {"CT1000T700SSD3", DiskClassifier.NVME},
+            {"Patriot P300 M.2 PCIe", DiskClassifier.NVME},
+            {"TEAM TM8FP6512G", DiskClassifier.NVME},
+            {"Generic- SD/MMC USB Device", DiskClassifier.USB},
+            {"Generic Flash Disk USB Device", DiskClassifier.USB},
+            {"Realtek RTS5208 Card Reader", DiskClassifier.USB},
+            {"Seagate Expansion Desk USB Device", DiskClassifier.USB},
+            {"WD Elements 25A2 USB Device", DiskClassifier.USB},
+            {"WD My Passport 2626 USB Device", DiskClassifier.USB},
+            {"Samsung Portable SSD T7 USB Device", DiskClassifier.USB},
+            {"VBOX HARDDISK", DiskClassifier.UNKNOWN},
+            {"VMware Virtual NVMe Disk", DiskClassifier.NVME},
+            {"Msft Virtual Disk", DiskClassifier.UNKNOWN},
+            {"QEMU HARDDISK", DiskClassifier.UNKNOWN},
+            {"Red Hat VirtIO SCSI Disk Device", DiskClassifier.UNKNOWN},
+            {"Apple SSD AP0512M", DiskClassifier.NVME},
+            {"HDD 7200 RPM 1TB SATA", DiskClassifier.HDD},
+            {"Unknown", DiskClassifier.UNKNOWN},
+            {"", DiskClassifier.UNKNOWN},
+    };
+
+    private static final String[] SUFFIXES = {
+            "", " ATA Device", " SCSI Disk Device", " 256GB", " 512GB", " 1TB", " 2TB",
+            " FW:2B2QEXM7", " (Standard disk drives)", " /dev/sda", "-00B00", " SATA"
+    };
+
+    public static List<String> corpus() {
+        List<String> out = new ArrayList<>();
+        for (String[] m : MODELS) {
+            for (String sfx : SUFFIXES) {
+                for (int rev = 0; rev < 4; rev++) {
+                    out.add(m[0] + sfx + (rev == 0 ? "" : " r" + rev));
+                }
+            }
+        }
+        return out;
+    }
+
+    public static void main(String[] args) {
+        int rounds = (args.length > 0) ? Integer.parseInt(args[0]) : 50;
+        List<String> corpus = corpus();
+        String[] models = corpus.toArray(new String[0]);
+
+        // model-only accuracy on the base strings (hardware hints fix the rest at runtime)
+        int correct = 0;
+        for (String[] m : MODELS) {
+            String got = DiskClassifier.compute(m[0], null).type;
+            if (got.equals(m[1])) correct++;
+            else System.out.println("model-only miss: '" + m[0] + "' -> " + got + " (actual " + m[1] + ")");
+        }
+
+        // warm-up
+        long sink = 0;
+        for (int i = 0; i < 5; i++) {
+            for (String m : models) sink += DiskClassifier.compute(m, null).type.length();
+        }
+
+        long t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (String m : models) sink += DiskClassifier.compute(m, null).type.length();
+        }
+        long uncachedNs = System.nanoTime() - t0;
+
+        DiskClassifier cached = new DiskClassifier(models.length);
+        String[] serials = new String[models.length];
+        for (int i = 0; i < models.length; i++) {
+            serials[i] = String.format(Locale.ROOT, "S%08XN", i * 2654435761L & 0xffffffffL);
+            cached.classifyModel(models[i]);
+            cached.classify(serials[i], models[i], "SSD");
+        }
+        for (int i = 0; i < 5; i++) {
+            for (int k = 0; k < models.length; k++) {
+                sink += cached.classifyModel(models[k]).type.length();
+                sink += cached.classify(serials[k], models[k], "SSD").type.length();
+            }
+        }
+
+        t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (String m : models) sink += cached.classifyModel(m).type.length();
+        }
+        long cachedNs = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (int k = 0; k < models.length; k++) sink += cached.classify(serials[k], models[k], "SSD").type.length();
+        }
+        long serialNs = System.nanoTime() - t0;
+
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String m : models) mix.merge(DiskClassifier.compute(m, null).type, 1, Integer::sum);
+
+        double ops = (double) rounds * models.length;
+        System.out.println("corpus: " + MODELS.length + " real models, " + models.length
+                + " strings with synthetic variants, " + rounds + " rounds");
+        System.out.println(String.format(Locale.ROOT, "uncached:         %.1f ns/op", uncachedNs / ops));
+        System.out.println(String.format(Locale.ROOT, "cached by model:  %.1f ns/op", cachedNs / ops));
+        System.out.println(String.format(Locale.ROOT, "cached by serial: %.1f ns/op", serialNs / ops));
+        System.out.println("mix: " + mix);
+        System.out.println(String.format(Locale.ROOT, "model-only accuracy: %d/%d (sink %d)",
+                correct, MODELS.length, sink & 1));
+    }
+}
@@ -0,0 +1,235 @@
+package fxShield.DISK;
+
+import com.sun.jna.Memory;
+import com.sun.jna.platform.win32.Kernel32;
+import com.sun.jna.platform.win32.WinBase;
+import com.sun.jna.platform.win32.WinNT;
+import com.sun.jna.ptr.IntByReference;
+import fxShield.WIN.FxSettings;
+import oshi.hardware.HWDiskStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Disk media type hint (NVMe / SSD / HDD / USB) without spawning PowerShell.
+ * The hint feeds {@link DiskClassifier}, which makes the final call.
+ * Order:
+ * 1) persistent cache keyed by serial (falls back to model|size when the serial is empty)
+ * 2) native query:
+ *    - Windows: IOCTL_STORAGE_QUERY_PROPERTY on \\.\PhysicalDriveN
+ *      (StorageDeviceProperty -> BusType NVMe/USB, StorageDeviceSeekPenaltyProperty -> SSD/HDD)
+ *    - Linux: nvme* -> NVMe, device path under a USB controller -> USB,
+ *      else /sys/block/NAME/queue/rotational
+ * Unresolved disks return null so the caller can fall back to slower sources.
+ */
+public final class DiskMediaTypeDetector {
+
+    public static final String NVME = "NVMe";
+    public static final String SSD = "SSD";
+    public static final String HDD = "HDD";
+    public static final String USB = "USB";
+
+    private static final String FILE_NAME = "disk-types.properties";
+
+    // winioctl.h
+    private static final int IOCTL_STORAGE_QUERY_PROPERTY = 0x002D1400;
+    private static final int STORAGE_DEVICE_PROPERTY = 0;
+    private static final int STORAGE_DEVICE_SEEK_PENALTY_PROPERTY = 7;
+    private static final int PROPERTY_STANDARD_QUERY = 0;
+    private static final int BUS_TYPE_USB = 7;
+    private static final int BUS_TYPE_NVME = 17;
+    // STORAGE_DEVICE_DESCRIPTOR.BusType offset
+    private static final int BUS_TYPE_OFFSET = 28;
+    // DEVICE_SEEK_PENALTY_DESCRIPTOR.IncursSeekPenalty offset
+    private static final int SEEK_PENALTY_OFFSET = 8;
+
+    private final boolean isWindows;
+    private final Path cacheFile;
+    private final Properties cache = new Properties();
+    private boolean dirty = false;
+
+    public DiskMediaTypeDetector(boolean isWindows) {
+        this(isWindows, FxSettings.configDir().resolve(FILE_NAME));
+    }
+
+    public DiskMediaTypeDetector(boolean isWindows, Path cacheFile) {
+        this.isWindows = isWindows;
+        this.cacheFile = cacheFile;
+        load();
+    }
+
+    /** Cached label only (no I/O beyond the initial file load); null when unknown. */
+    public synchronized String cached(HWDiskStore d) {
+        String key = keyOf(d);
+        return (key == null) ? null : cache.getProperty(key);
+    }
+
+    /** Cache, then native query; stores new results in the cache. Null when unresolved. */
+    public String detect(HWDiskStore d) {
+        String hit = cached(d);
+        if (hit != null) return hit;
+
+        String label = isWindows ? queryWindows(d) : queryLinux(d);
+        if (label != null) remember(d, label);
+        return label;
+    }
+
+    /** Stores a label found by another source (e.g. the PowerShell fallback). */
+    public synchronized void remember(HWDiskStore d, String label) {
+        String key = keyOf(d);
+        if (key == null || label == null || label.isBlank()) return;
+        if (label.equals(cache.getProperty(key))) return;
+        cache.setProperty(key, label);
+        dirty = true;
+    }
+
+    // =========================================================================
+    // Native queries
+    // =========================================================================
+
+    private static String queryLinux(HWDiskStore d) {
+        String dev = shortName(d.getName());
+        if (dev.isEmpty()) return null;
+        if (dev.startsWith("nvme")) return NVME;
+
+        try {
+            // /sys/block/sdb -> ../devices/pci0000:00/.../usb2/2-1/.../block/sdb
+            Path real = Paths.get("/sys/block", dev).toRealPath();
+            if (real.toString().contains("/usb")) return USB;
+        } catch (IOException | SecurityException ignored) {
+        }
+
+        Path rot = Paths.get("/sys/block", dev, "queue", "rotational");
+        try {
+            if (!Files.isReadable(rot)) return null;
+            String v = Files.readString(rot, StandardCharsets.US_ASCII).trim();
+            if (v.equals("1")) return HDD;
+            if (v.equals("0")) return SSD;
+        } catch (IOException | SecurityException ignored) {
+        }
+        return null;
+    }
+
+    private static String queryWindows(HWDiskStore d) {
+        String path = d.getName(); // \\.\PHYSICALDRIVE0
+        if (path == null || path.isBlank()) return null;
+
+        WinNT.HANDLE h = null;
+        try {
+            // access 0: property queries don't need read rights (works without admin)
+            h = Kernel32.INSTANCE.CreateFile(path, 0,
+                    WinNT.FILE_SHARE_READ | WinNT.FILE_SHARE_WRITE,
+                    null, WinNT.OPEN_EXISTING, 0, null);
+            if (h == null || WinBase.INVALID_HANDLE_VALUE.equals(h)) return null;
+
+            Memory out = new Memory(1024);
+
+            if (queryProperty(h, STORAGE_DEVICE_PROPERTY, out) >= BUS_TYPE_OFFSET + 4) {
+                int bus = out.getInt(BUS_TYPE_OFFSET);
+                if (bus == BUS_TYPE_NVME) return NVME;
+                if (bus == BUS_TYPE_USB) return USB;
+            }
+
+            if (queryProperty(h, STORAGE_DEVICE_SEEK_PENALTY_PROPERTY, out) > SEEK_PENALTY_OFFSET) {
+                return out.getByte(SEEK_PENALTY_OFFSET) != 0 ? HDD : SSD;
+            }
+        } catch (Throwable ignored) {
+        } finally {
+            if (h != null && !WinBase.INVALID_HANDLE_VALUE.equals(h)) {
+                try { Kernel32.INSTANCE.CloseHandle(h); } catch (Throwable ignored) {}
+            }
+        }
+        return null;
+    }
+
+    private static int queryProperty(WinNT.HANDLE h, int propertyId, Memory out) {
+        // STORAGE_PROPERTY_QUERY { PropertyId, QueryType, AdditionalParameters[1] }
+        Memory q = new Memory(12);
+        q.clear();
+        q.setInt(0, propertyId);
+        q.setInt(4, PROPERTY_STANDARD_QUERY);
+
+        out.clear();
+        IntByReference returned = new IntByReference();
+        boolean ok = Kernel32.INSTANCE.DeviceIoControl(h, IOCTL_STORAGE_QUERY_PROPERTY,
+                q, (int) q.size(), out, (int) out.size(), returned, null);
+        return ok ? returned.getValue() : -1;
+    }
+
+    // =========================================================================
+    // Cache
+    // =========================================================================
+
+    private static String keyOf(HWDiskStore d) {
+        if (d == null) return null;
+        String serial = safe(d.getSerial());
+        if (!serial.isEmpty() && !serial.equalsIgnoreCase("unknown")) return "serial." + serial;
+
+        String model = safe(d.getModel());
+        if (model.equalsIgnoreCase("unknown")) model = "";
+        if (model.isEmpty() && d.getSize() <= 0) return null;
+        return "model." + model.toLowerCase(Locale.ROOT) + "|" + d.getSize();
+    }
+
+    private synchronized void load() {
+        if (cacheFile == null || !Files.exists(cacheFile)) return;
+        try (InputStream in = Files.newInputStream(cacheFile);
+             Reader r = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            cache.load(r);
+        } catch (Exception ignored) {
+        }
+    }
+
+    /** Persists new entries atomically (no-op when nothing changed). */
+    public synchronized void save() {
+        if (!dirty || cacheFile == null) return;
+
+        Path tmp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try {
+            Path dir = cacheFile.getParent();
+            if (dir != null) Files.createDirectories(dir);
+
+            try (OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                cache.store(w, "FxShield disk media types");
+            }
+
+            try {
+                Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            dirty = false;
+        } catch (IOException ignored) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    private static String shortName(String name) {
+        String s = safe(name);
+        int slash = s.lastIndexOf('/');
+        return (slash >= 0) ? s.substring(slash + 1) : s;
+    }
+
+    private static String safe(String s) {
+        return (s == null) ? "" : s.trim();
+    }
+}
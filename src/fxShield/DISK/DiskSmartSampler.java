@@ -0,0 +1,375 @@
+package fxShield.DISK;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import oshi.hardware.HWDiskStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * SMART health sampler (temperature, reallocated sectors, wear, power-on hours) via
+ * {@code smartctl -j -a DEVICE}.
+ *
+ * - Runs on its own daemon thread on a slow schedule; each disk is re-read every
+ *   {@link #REFRESH_MS}. The monitor loop only reads the result cache ({@link #cached}).
+ * - Binary: -Dfxshield.smartctl, else the default smartmontools install on Windows, else
+ *   "smartctl" from PATH. When it cannot be started, sampling pauses for {@link #MISSING_RETRY_MS}.
+ * - smartctl output goes to a temp file so a hung device never blocks a pipe read.
+ */
+public final class DiskSmartSampler {
+
+    public static final String HEALTH_OK = "OK";
+    public static final String HEALTH_WARNING = "Warning";
+    public static final String HEALTH_FAILING = "Failing";
+    public static final String HEALTH_UNKNOWN = "Unknown";
+
+    private static final long POLL_MS = 30_000;
+    private static final long FIRST_POLL_MS = 3_000;
+    private static final long REFRESH_MS = 10 * 60_000;
+    private static final long MISSING_RETRY_MS = 60 * 60_000;
+    private static final long TIMEOUT_MS = 8_000;
+
+    // warning thresholds
+    private static final int TEMP_WARN_HDD_C = 55;
+    private static final int TEMP_WARN_SSD_C = 70;
+    private static final int WEAR_WARN_PCT = 90;
+
+    private static final String WINDOWS_DEFAULT = "C:\\Program Files\\smartmontools\\bin\\smartctl.exe";
+
+    /** One SMART reading. Immutable; -1 = not reported by the device. */
+    public static final class SmartInfo {
+        public final String health;
+        public final int temperatureC;
+        public final long reallocatedSectors;
+        public final int wearPercent; // 0 = new, 100 = rated endurance used
+        public final long powerOnHours;
+        public final String reason; // why health is not OK (null when OK)
+        public final long sampledAtMs;
+
+        SmartInfo(String health, int temperatureC, long reallocatedSectors, int wearPercent,
+                  long powerOnHours, String reason, long sampledAtMs) {
+            this.health = health;
+            this.temperatureC = temperatureC;
+            this.reallocatedSectors = reallocatedSectors;
+            this.wearPercent = wearPercent;
+            this.powerOnHours = powerOnHours;
+            this.reason = reason;
+            this.sampledAtMs = sampledAtMs;
+        }
+
+        public boolean isOk() {
+            return HEALTH_OK.equals(health);
+        }
+    }
+
+    private final String binary;
+    private final boolean isWindows;
+    private final Supplier<HWDiskStore[]> disks;
+
+    private final Map<String, SmartInfo> cache = new ConcurrentHashMap<>();
+    // key -> last attempt (ms), successful or not
+    private final Map<String, Long> lastAttempt = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService exec;
+    private volatile long missingUntilMs = 0;
+    private Path outFile;
+
+    public DiskSmartSampler(boolean isWindows, Supplier<HWDiskStore[]> disks) {
+        this(resolveBinary(isWindows), isWindows, disks);
+    }
+
+    public DiskSmartSampler(String binary, boolean isWindows, Supplier<HWDiskStore[]> disks) {
+        this.binary = binary;
+        this.isWindows = isWindows;
+        this.disks = disks;
+    }
+
+    public synchronized void start() {
+        if (exec != null) return;
+        exec = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fxShield-smart");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        exec.scheduleWithFixedDelay(() -> {
+            try {
+                pollOnce(System.currentTimeMillis());
+            } catch (Throwable ignored) {
+            }
+        }, FIRST_POLL_MS, POLL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (exec != null) {
+            exec.shutdownNow();
+            exec = null;
+        }
+        if (outFile != null) {
+            try {
+                Files.deleteIfExists(outFile);
+            } catch (IOException ignored) {
+            }
+            outFile = null;
+        }
+    }
+
+    /** Latest reading for a disk, or null when not sampled (yet). Never blocks. */
+    public SmartInfo cached(String key) {
+        return (key == null) ? null : cache.get(key);
+    }
+
+    /** Cache key for a disk: serial, else device name. */
+    public static String keyOf(HWDiskStore d) {
+        String serial = safe(d.getSerial());
+        if (!serial.isEmpty() && !serial.equalsIgnoreCase("unknown")) return "serial:" + serial;
+        return "dev:" + safe(d.getName());
+    }
+
+    // =========================================================================
+    // Sampling
+    // =========================================================================
+
+    /** Reads every disk whose entry is older than {@link #REFRESH_MS}. Sampler thread only. */
+    void pollOnce(long now) {
+        if (now < missingUntilMs) return;
+
+        HWDiskStore[] list = disks.get();
+        if (list == null) return;
+
+        for (HWDiskStore d : list) {
+            if (Thread.currentThread().isInterrupted()) return;
+
+            String key = keyOf(d);
+            Long last = lastAttempt.get(key);
+            if (last != null && now - last < REFRESH_MS) continue;
+            lastAttempt.put(key, now);
+
+            String device = deviceOf(d.getName());
+            if (device == null) continue;
+
+            String json = runSmartctl(device);
+            if (json == null) {
+                if (now < missingUntilMs) return; // binary missing: stop this round
+                continue;
+            }
+
+            SmartInfo info = parse(json, System.currentTimeMillis());
+            if (info != null) cache.put(key, info);
+        }
+    }
+
+    private String runSmartctl(String device) {
+        Process p = null;
+        try {
+            Path out = outFile();
+            ProcessBuilder pb = new ProcessBuilder(binary, "-j", "-a", device);
+            pb.redirectOutput(out.toFile());
+            pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+            try {
+                p = pb.start();
+            } catch (IOException notInstalled) {
+                missingUntilMs = System.currentTimeMillis() + MISSING_RETRY_MS;
+                return null;
+            }
+
+            if (!p.waitFor(TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                p.destroyForcibly();
+                return null;
+            }
+
+            // exit status is a bit mask; bits 0-1 = bad command line / device open failed
+            if ((p.exitValue() & 0x3) != 0) return null;
+
+            String s = Files.readString(out, StandardCharsets.UTF_8);
+            return s.isBlank() ? null : s;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (p != null) p.destroyForcibly();
+            return null;
+        } catch (Exception e) {
+            if (p != null) p.destroyForcibly();
+            return null;
+        }
+    }
+
+    private synchronized Path outFile() throws IOException {
+        if (outFile == null) {
+            outFile = Files.createTempFile("fxshield-smart", ".json");
+            outFile.toFile().deleteOnExit();
+        }
+        return outFile;
+    }
+
+    /** OSHI name -> smartctl device: \\.\PHYSICALDRIVE2 -> /dev/pd2, /dev/sda stays. */
+    private String deviceOf(String name) {
+        String n = safe(name);
+        if (n.isEmpty()) return null;
+        if (!isWindows) return n;
+
+        String upper = n.toUpperCase(Locale.ROOT);
+        int at = upper.indexOf("PHYSICALDRIVE");
+        if (at < 0) return null;
+        String num = upper.substring(at + "PHYSICALDRIVE".length());
+        return num.isEmpty() ? null : "/dev/pd" + num;
+    }
+
+    // =========================================================================
+    // Parsing (smartctl JSON, ATA + NVMe + SCSI)
+    // =========================================================================
+
+    static SmartInfo parse(String json, long now) {
+        JsonObject root;
+        try {
+            JsonElement el = JsonParser.parseString(json);
+            if (!el.isJsonObject()) return null;
+            root = el.getAsJsonObject();
+        } catch (Exception e) {
+            return null;
+        }
+
+        Boolean passed = null;
+        JsonObject status = obj(root, "smart_status");
+        if (status != null && status.has("passed")) passed = bool(status, "passed");
+
+        int temp = (int) num(obj(root, "temperature"), "current");
+        long hours = num(obj(root, "power_on_time"), "hours");
+        long realloc = -1;
+        long pending = -1;
+        long mediaErrors = -1;
+        int wear = -1;
+        String failingAttr = null;
+        boolean nvme = false;
+
+        JsonObject nv = obj(root, "nvme_smart_health_information_log");
+        if (nv != null) {
+            nvme = true;
+            if (temp < 0) temp = (int) num(nv, "temperature");
+            if (hours < 0) hours = num(nv, "power_on_hours");
+            wear = (int) num(nv, "percentage_used");
+            mediaErrors = num(nv, "media_errors");
+            long critical = num(nv, "critical_warning");
+            if (critical > 0) failingAttr = "NVMe critical warning 0x" + Long.toHexString(critical);
+        }
+
+        JsonArray table = arr(obj(root, "ata_smart_attributes"), "table");
+        if (table != null) {
+            for (JsonElement e : table) {
+                if (!e.isJsonObject()) continue;
+                JsonObject a = e.getAsJsonObject();
+                int id = (int) num(a, "id");
+                long raw = num(obj(a, "raw"), "value");
+                long value = num(a, "value");
+
+                switch (id) {
+                    case 5 -> realloc = raw;
+                    case 197 -> pending = raw;
+                    // normalized life left (100 = new) on Samsung / Crucial / Intel / Kingston
+                    case 177, 231, 233 -> {
+                        if (wear < 0 && value >= 0 && value <= 100) wear = (int) (100 - value);
+                    }
+                    default -> {
+                    }
+                }
+
+                String whenFailed = str(a, "when_failed");
+                if (failingAttr == null && "now".equals(whenFailed)) {
+                    failingAttr = str(a, "name") + " below threshold";
+                }
+            }
+        }
+
+        if (realloc < 0) realloc = num(root, "scsi_grown_defect_list");
+
+        boolean rotational = num(root, "rotation_rate") > 0;
+        int tempWarn = (nvme || !rotational) ? TEMP_WARN_SSD_C : TEMP_WARN_HDD_C;
+
+        String health;
+        String reason = null;
+        if (Boolean.FALSE.equals(passed)) {
+            health = HEALTH_FAILING;
+            reason = "SMART self-assessment failed";
+        } else if (failingAttr != null) {
+            health = HEALTH_FAILING;
+            reason = failingAttr;
+        } else if (realloc > 0) {
+            health = HEALTH_WARNING;
+            reason = realloc + " reallocated sectors";
+        } else if (pending > 0) {
+            health = HEALTH_WARNING;
+            reason = pending + " pending sectors";
+        } else if (mediaErrors > 0) {
+            health = HEALTH_WARNING;
+            reason = mediaErrors + " media errors";
+        } else if (wear >= WEAR_WARN_PCT) {
+            health = HEALTH_WARNING;
+            reason = "wear " + wear + " %";
+        } else if (temp >= tempWarn) {
+            health = HEALTH_WARNING;
+            reason = "temperature " + temp + " °C";
+        } else if (passed != null || temp >= 0 || hours >= 0) {
+            health = HEALTH_OK;
+        } else {
+            health = HEALTH_UNKNOWN;
+        }
+
+        return new SmartInfo(health, temp, realloc, wear, hours, reason, now);
+    }
+
+    private static JsonObject obj(JsonObject o, String key) {
+        if (o == null) return null;
+        JsonElement e = o.get(key);
+        return (e != null && e.isJsonObject()) ? e.getAsJsonObject() : null;
+    }
+
+    private static JsonArray arr(JsonObject o, String key) {
+        if (o == null) return null;
+        JsonElement e = o.get(key);
+        return (e != null && e.isJsonArray()) ? e.getAsJsonArray() : null;
+    }
+
+    private static long num(JsonObject o, String key) {
+        if (o == null) return -1;
+        JsonElement e = o.get(key);
+        if (e == null || !e.isJsonPrimitive() || !e.getAsJsonPrimitive().isNumber()) return -1;
+        try {
+            return e.getAsLong();
+        } catch (Exception ex) {
+            return -1;
+        }
+    }
+
+    private static Boolean bool(JsonObject o, String key) {
+        JsonElement e = o.get(key);
+        return (e != null && e.isJsonPrimitive() && e.getAsJsonPrimitive().isBoolean()) ? e.getAsBoolean() : null;
+    }
+
+    private static String str(JsonObject o, String key) {
+        JsonElement e = o.get(key);
+        return (e != null && e.isJsonPrimitive()) ? e.getAsString() : null;
+    }
+
+    private static String resolveBinary(boolean isWindows) {
+        String prop = System.getProperty("fxshield.smartctl");
+        if (prop != null && !prop.isBlank()) return prop.trim();
+        if (isWindows && new File(WINDOWS_DEFAULT).isFile()) return WINDOWS_DEFAULT;
+        return "smartctl";
+    }
+
+    private static String safe(String s) {
+        return (s == null) ? "" : s.trim();
+    }
+}
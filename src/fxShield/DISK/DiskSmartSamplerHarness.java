@@ -0,0 +1,316 @@
+package fxShield.DISK;
+
+import oshi.hardware.HWDiskStore;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Drives {@link DiskSmartSampler} against a stand-in smartctl (a shell script passed through
+ * -Dfxshield.smartctl) that prints recorded {@code smartctl -j -a} output per device
+ * (no disks or smartmontools needed):
+ * - ATA: self-assessment, when_failed attributes, reallocated / pending sectors, wear from the
+ *   normalized life-left attributes, HDD vs SSD temperature limits
+ * - NVMe: critical warning, media errors, percentage used, temperature
+ * - SCSI: grown defect list
+ * - each threshold on both sides of its boundary
+ * - a device smartctl cannot open (exit bit 1) is not cached; non-fatal exit bits still parse
+ * - each disk is read once per refresh period
+ *
+ * Skips (exit 0) when /bin/sh is not available.
+ *
+ * Run: java fxShield.DISK.DiskSmartSamplerHarness
+ * Exit code 1 when a check fails.
+ */
+public final class DiskSmartSamplerHarness {
+
+    private static final String SCRIPT = """
+            #!/bin/sh
+            dir=$(dirname "$0")
+            echo "$3" >> "$dir/calls.log"
+            [ "$1" = "-j" ] && [ "$2" = "-a" ] || exit 1
+            dev=$(basename "$3")
+            [ -f "$dir/$dev.json" ] || exit 2
+            cat "$dir/$dev.json"
+            [ -f "$dir/$dev.rc" ] && exit $(cat "$dir/$dev.rc")
+            exit 0
+            """;
+
+    // recorded output, trimmed to the sections the sampler reads plus the usual header
+    private static final String ATA = """
+            {
+              "json_format_version": [1, 0],
+              "smartctl": {"version": [7, 4], "exit_status": 0},
+              "device": {"name": "/dev/%1$s", "info_name": "/dev/%1$s [SAT]", "type": "sat", "protocol": "ATA"},
+              "model_name": "%2$s",
+              "serial_number": "%1$s-serial",
+              "rotation_rate": %3$d,
+              "smart_status": {"passed": %4$s},
+              "ata_smart_attributes": {
+                "revision": 16,
+                "table": [
+                  {"id": 5, "name": "Reallocated_Sector_Ct", "value": 100, "worst": 100, "thresh": 10,
+                   "when_failed": "", "raw": {"value": %5$d, "string": "%5$d"}},
+                  {"id": 9, "name": "Power_On_Hours", "value": 95, "worst": 95, "thresh": 0,
+                   "when_failed": "", "raw": {"value": 21034, "string": "21034"}},
+                  {"id": %6$d, "name": "%7$s", "value": %8$d, "worst": %8$d, "thresh": %9$d,
+                   "when_failed": "%10$s", "raw": {"value": %11$d, "string": "%11$d"}},
+                  {"id": 194, "name": "Temperature_Celsius", "value": 64, "worst": 48, "thresh": 0,
+                   "when_failed": "", "raw": {"value": %12$d, "string": "%12$d (Min/Max 18/52)"}}
+                ]
+              },
+              "power_on_time": {"hours": 21034},
+              "temperature": {"current": %12$d}
+            }
+            """;
+
+    private static final String NVME = """
+            {
+              "json_format_version": [1, 0],
+              "smartctl": {"version": [7, 4], "exit_status": 0},
+              "device": {"name": "/dev/%1$s", "info_name": "/dev/%1$s", "type": "nvme", "protocol": "NVMe"},
+              "model_name": "Samsung SSD 970 EVO Plus 1TB",
+              "serial_number": "%1$s-serial",
+              "smart_status": {"passed": %2$s, "nvme": {"value": %3$d}},
+              "nvme_smart_health_information_log": {
+                "critical_warning": %3$d,
+                "temperature": %4$d,
+                "available_spare": 100,
+                "available_spare_threshold": 10,
+                "percentage_used": %5$d,
+                "data_units_read": 48122071,
+                "data_units_written": 61200931,
+                "power_cycles": 1721,
+                "power_on_hours": 9312,
+                "unsafe_shutdowns": 88,
+                "media_errors": %6$d,
+                "num_err_log_entries": 0
+              },
+              "temperature": {"current": %4$d},
+              "power_on_time": {"hours": 9312}
+            }
+            """;
+
+    private static final String SCSI = """
+            {
+              "json_format_version": [1, 0],
+              "smartctl": {"version": [7, 4], "exit_status": 0},
+              "device": {"name": "/dev/%1$s", "info_name": "/dev/%1$s", "type": "scsi", "protocol": "SCSI"},
+              "scsi_vendor": "SEAGATE",
+              "scsi_product": "ST4000NM0023",
+              "serial_number": "%1$s-serial",
+              "rotation_rate": 7200,
+              "smart_status": {"passed": true},
+              "temperature": {"current": %2$d, "drive_trip": 68},
+              "power_on_time": {"hours": 40211, "minutes": 12},
+              "scsi_grown_defect_list": %3$d
+            }
+            """;
+
+    private static final class Expect {
+        final String device;
+        final String health;
+        final String reason; // expected substring of the reason, null when OK / Unknown
+        final int wear;
+
+        Expect(String device, String health, String reason, int wear) {
+            this.device = device;
+            this.health = health;
+            this.reason = reason;
+            this.wear = wear;
+        }
+    }
+
+    private static int failures = 0;
+
+    private DiskSmartSamplerHarness() {}
+
+    public static void main(String[] args) throws Exception {
+        if (!Files.isExecutable(Path.of("/bin/sh"))) {
+            System.out.println("skip: /bin/sh not available");
+            return;
+        }
+
+        Path dir = Files.createTempDirectory("fxShield-smart-");
+        try {
+            run(dir);
+        } finally {
+            deleteTree(dir);
+        }
+
+        System.out.println(failures == 0 ? "all checks passed" : failures + " check(s) failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static void run(Path dir) throws IOException {
+        Path script = dir.resolve("smartctl");
+        Files.writeString(script, SCRIPT, StandardCharsets.UTF_8);
+        Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwxr-xr-x"));
+        System.setProperty("fxshield.smartctl", script.toString());
+
+        List<Expect> expect = new ArrayList<>();
+
+        // ATA HDD: 55 °C limit
+        ata(dir, "sda", 7200, true, 0, 197, "Current_Pending_Sector", 100, 0, "", 0, 54);
+        expect.add(new Expect("sda", DiskSmartSampler.HEALTH_OK, null, -1));
+        ata(dir, "sdb", 7200, true, 0, 197, "Current_Pending_Sector", 100, 0, "", 0, 55);
+        expect.add(new Expect("sdb", DiskSmartSampler.HEALTH_WARNING, "temperature 55", -1));
+        ata(dir, "sdc", 7200, true, 12, 197, "Current_Pending_Sector", 100, 0, "", 0, 40);
+        expect.add(new Expect("sdc", DiskSmartSampler.HEALTH_WARNING, "12 reallocated", -1));
+        ata(dir, "sdd", 7200, true, 0, 197, "Current_Pending_Sector", 100, 0, "", 3, 40);
+        expect.add(new Expect("sdd", DiskSmartSampler.HEALTH_WARNING, "3 pending", -1));
+        ata(dir, "sde", 7200, false, 0, 197, "Current_Pending_Sector", 100, 0, "", 0, 40);
+        expect.add(new Expect("sde", DiskSmartSampler.HEALTH_FAILING, "self-assessment", -1));
+        // when_failed "now": smartctl sets exit bit 3 (0x08), which still carries data
+        ata(dir, "sdf", 7200, true, 0, 10, "Spin_Retry_Count", 97, 97, "now", 0, 40);
+        Files.writeString(dir.resolve("sdf.rc"), "8");
+        expect.add(new Expect("sdf", DiskSmartSampler.HEALTH_FAILING, "Spin_Retry_Count below threshold", -1));
+
+        // ATA SSD: 70 °C limit, wear from normalized life left (177 / 231 / 233)
+        ata(dir, "sdg", 0, true, 0, 177, "Wear_Leveling_Count", 11, 0, "", 1452, 69);
+        expect.add(new Expect("sdg", DiskSmartSampler.HEALTH_OK, null, 89));
+        ata(dir, "sdh", 0, true, 0, 177, "Wear_Leveling_Count", 10, 0, "", 1510, 40);
+        expect.add(new Expect("sdh", DiskSmartSampler.HEALTH_WARNING, "wear 90", 90));
+        ata(dir, "sdi", 0, true, 0, 231, "SSD_Life_Left", 98, 0, "", 98, 70);
+        expect.add(new Expect("sdi", DiskSmartSampler.HEALTH_WARNING, "temperature 70", 2));
+
+        // NVMe
+        nvme(dir, "nvme0n1", true, 0, 69, 89, 0);
+        expect.add(new Expect("nvme0n1", DiskSmartSampler.HEALTH_OK, null, 89));
+        nvme(dir, "nvme1n1", true, 0, 70, 3, 0);
+        expect.add(new Expect("nvme1n1", DiskSmartSampler.HEALTH_WARNING, "temperature 70", 3));
+        nvme(dir, "nvme2n1", true, 0, 40, 90, 0);
+        expect.add(new Expect("nvme2n1", DiskSmartSampler.HEALTH_WARNING, "wear 90", 90));
+        nvme(dir, "nvme3n1", true, 0, 40, 3, 2);
+        expect.add(new Expect("nvme3n1", DiskSmartSampler.HEALTH_WARNING, "2 media errors", 3));
+        nvme(dir, "nvme4n1", false, 4, 40, 3, 0);
+        expect.add(new Expect("nvme4n1", DiskSmartSampler.HEALTH_FAILING, "self-assessment", 3));
+        nvme(dir, "nvme5n1", true, 4, 40, 3, 0);
+        expect.add(new Expect("nvme5n1", DiskSmartSampler.HEALTH_FAILING, "critical warning 0x4", 3));
+
+        // SCSI: grown defects count as reallocated, HDD temperature limit
+        scsi(dir, "sdj", 40, 0);
+        expect.add(new Expect("sdj", DiskSmartSampler.HEALTH_OK, null, -1));
+        scsi(dir, "sdk", 40, 3);
+        expect.add(new Expect("sdk", DiskSmartSampler.HEALTH_WARNING, "3 reallocated", -1));
+        scsi(dir, "sdl", 55, 0);
+        expect.add(new Expect("sdl", DiskSmartSampler.HEALTH_WARNING, "temperature 55", -1));
+
+        // nothing the sampler understands
+        Files.writeString(dir.resolve("sdm.json"), "{\"json_format_version\": [1, 0], \"device\": {\"name\": \"/dev/sdm\"}}");
+        expect.add(new Expect("sdm", DiskSmartSampler.HEALTH_UNKNOWN, null, -1));
+
+        // no sdz.json: the script exits 2 (device open failed)
+        List<HWDiskStore> disks = new ArrayList<>();
+        for (Expect e : expect) disks.add(disk("/dev/" + e.device, e.device + "-serial"));
+        disks.add(disk("/dev/sdz", "sdz-serial"));
+        HWDiskStore[] list = disks.toArray(new HWDiskStore[0]);
+
+        DiskSmartSampler sampler = new DiskSmartSampler(false, () -> list);
+        long now = System.currentTimeMillis();
+        sampler.pollOnce(now);
+
+        for (Expect e : expect) {
+            DiskSmartSampler.SmartInfo info = sampler.cached("serial:" + e.device + "-serial");
+            boolean ok = info != null && e.health.equals(info.health)
+                    && (e.reason == null ? info.reason == null : info.reason != null && info.reason.contains(e.reason))
+                    && info.wearPercent == e.wear;
+            check(e.device + " -> " + e.health + (e.reason != null ? " (" + e.reason + ")" : ""), ok, describe(info));
+        }
+
+        DiskSmartSampler.SmartInfo hdd = sampler.cached("serial:sda-serial");
+        check("ATA fields", hdd != null && hdd.temperatureC == 54 && hdd.powerOnHours == 21034
+                && hdd.reallocatedSectors == 0, describe(hdd));
+        DiskSmartSampler.SmartInfo nv = sampler.cached("serial:nvme0n1-serial");
+        check("NVMe fields", nv != null && nv.temperatureC == 69 && nv.powerOnHours == 9312, describe(nv));
+        DiskSmartSampler.SmartInfo sas = sampler.cached("serial:sdk-serial");
+        check("SCSI fields", sas != null && sas.reallocatedSectors == 3 && sas.powerOnHours == 40211, describe(sas));
+
+        check("open failure not cached", sampler.cached("serial:sdz-serial") == null, "cached");
+
+        int first = calls(dir);
+        check("one call per disk", first == list.length, first + " calls");
+        sampler.pollOnce(now + 60_000);
+        check("no re-read within the refresh period", calls(dir) == first, calls(dir) + " calls");
+        sampler.pollOnce(now + 11 * 60_000);
+        check("re-read after the refresh period", calls(dir) == 2 * first, calls(dir) + " calls");
+        sampler.stop();
+    }
+
+    // =========================================================================
+    // Recorded output
+    // =========================================================================
+
+    private static void ata(Path dir, String dev, int rpm, boolean passed, long realloc, int attrId, String attrName,
+                            int value, int thresh, String whenFailed, long raw, int tempC) throws IOException {
+        String model = rpm > 0 ? "ST2000DM008-2FR102" : "Samsung SSD 860 EVO 500GB";
+        Files.writeString(dir.resolve(dev + ".json"), ATA.formatted(dev, model, rpm, passed, realloc,
+                attrId, attrName, value, thresh, whenFailed, raw, tempC), StandardCharsets.UTF_8);
+    }
+
+    private static void nvme(Path dir, String dev, boolean passed, int critical, int tempC, int used,
+                             long mediaErrors) throws IOException {
+        Files.writeString(dir.resolve(dev + ".json"), NVME.formatted(dev, passed, critical, tempC, used, mediaErrors),
+                StandardCharsets.UTF_8);
+    }
+
+    private static void scsi(Path dir, String dev, int tempC, long grown) throws IOException {
+        Files.writeString(dir.resolve(dev + ".json"), SCSI.formatted(dev, tempC, grown), StandardCharsets.UTF_8);
+    }
+
+    // =========================================================================
+    // Helpers
+    // =========================================================================
+
+    /** Only name and serial are read by the sampler. */
+    private static HWDiskStore disk(String name, String serial) {
+        return (HWDiskStore) Proxy.newProxyInstance(HWDiskStore.class.getClassLoader(), new Class<?>[]{HWDiskStore.class},
+                (proxy, m, a) -> switch (m.getName()) {
+                    case "getName" -> name;
+                    case "getSerial" -> serial;
+                    case "getModel" -> "";
+                    case "toString" -> name;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == a[0];
+                    case "getPartitions" -> List.of();
+                    case "updateAttributes" -> false;
+                    default -> 0L;
+                });
+    }
+
+    private static int calls(Path dir) throws IOException {
+        Path log = dir.resolve("calls.log");
+        return Files.exists(log) ? Files.readAllLines(log).size() : 0;
+    }
+
+    private static String describe(DiskSmartSampler.SmartInfo i) {
+        if (i == null) return "null";
+        return i.health + " reason=" + i.reason + " temp=" + i.temperatureC + " realloc=" + i.reallocatedSectors
+                + " wear=" + i.wearPercent + " hours=" + i.powerOnHours;
+    }
+
+    private static void check(String name, boolean ok, String detail) {
+        System.out.println((ok ? "ok   " : "FAIL ") + name);
+        if (!ok) {
+            failures++;
+            System.out.println("     " + detail);
+        }
+    }
+
+    private static void deleteTree(Path root) {
+        try (Stream<Path> s = Files.walk(root)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try { Files.deleteIfExists(p); } catch (IOException ignored) {}
+            });
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package fxShield.DISK;
+
+import oshi.hardware.HWDiskStore;
+import oshi.hardware.HWPartition;
+import oshi.software.os.FileSystem;
+import oshi.software.os.OSFileStore;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Maps logical volumes (OSFileStore) to physical disks (HWDiskStore index).
+ * Matching per volume, first hit wins:
+ * - partition UUID == file store UUID
+ * - partition identification == file store volume (Linux: /dev/sda1)
+ * - partition mount point == file store mount (Windows: "C:" vs "C:\")
+ * - disk name == file store volume (whole-disk filesystem)
+ * Unmatched volumes go to the only disk when there is exactly one.
+ * A filesystem mounted at several points (btrfs subvolumes, bind mounts, a Windows volume with
+ * a drive letter and a folder mount) is counted once: stores are keyed by UUID, else volume.
+ *
+ * The map is built once and rebuilt only when the mount table changes; per-tick usage reads
+ * cached File roots (GetDiskFreeSpaceEx / statvfs) instead of re-enumerating file stores.
+ * The enumeration is slow (WMI on Windows), so a mount change hands the rebuild to an executor
+ * and readers keep the previous map until the new one is swapped in.
+ */
+public final class DiskVolumeMap {
+
+    private static final long MOUNT_CHECK_MS = 5000;
+    private static final Path LINUX_MOUNTS = Paths.get("/proc/self/mounts");
+
+    private final FileSystem fs;
+    private final boolean isWindows;
+
+    // index = disk index; swapped as a whole (readers never see a half-built map)
+    private volatile File[][] rootsByDisk = new File[0][];
+
+    // guarded by this
+    private long lastCheckMs = 0;
+    private long mountSignature = Long.MIN_VALUE;
+    private boolean rebuildPending = false;
+
+    public DiskVolumeMap(FileSystem fs, boolean isWindows) {
+        this.fs = fs;
+        this.isWindows = isWindows;
+    }
+
+    /** Full rebuild (enumerates file stores once; slow, never call it on the monitor thread). */
+    public void rebuild(HWDiskStore[] disks) {
+        long signature = readMountSignature();
+
+        int n = (disks == null) ? 0 : disks.length;
+        List<List<File>> byDisk = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) byDisk.add(new ArrayList<>());
+
+        List<OSFileStore> stores;
+        try {
+            stores = fs.getFileStores(true);
+        } catch (Throwable t) {
+            stores = Collections.emptyList();
+        }
+        if (stores == null) stores = Collections.emptyList();
+
+        Set<String> seenFilesystems = new HashSet<>();
+        for (OSFileStore st : stores) {
+            String mount = safe(st.getMount());
+            if (mount.isEmpty()) continue;
+            if (!seenFilesystems.add(filesystemKey(st, mount))) continue;
+
+            long total;
+            try {
+                total = st.getTotalSpace();
+            } catch (Throwable t) {
+                total = 0;
+            }
+            if (total <= 0) continue;
+
+            int idx = findDisk(disks, st);
+            if (idx < 0 && n == 1) idx = 0;
+            if (idx < 0) continue;
+
+            byDisk.get(idx).add(new File(mount));
+        }
+
+        File[][] out = new File[n][];
+        for (int i = 0; i < n; i++) out[i] = byDisk.get(i).toArray(new File[0]);
+
+        synchronized (this) {
+            mountSignature = signature;
+            lastCheckMs = System.currentTimeMillis();
+            rootsByDisk = out;
+        }
+    }
+
+    /**
+     * Cheap periodic check (every few seconds, reads the mount table only). When it changed, the
+     * rebuild runs on {@code executor} with the disks current at that time; one at a time.
+     */
+    public void refreshIfMountsChanged(Supplier<HWDiskStore[]> disks, long nowMs, Executor executor) {
+        if (executor == null) return;
+        synchronized (this) {
+            if (rebuildPending || nowMs - lastCheckMs < MOUNT_CHECK_MS) return;
+            lastCheckMs = nowMs;
+            if (readMountSignature() == mountSignature) return;
+            rebuildPending = true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    rebuild(disks.get());
+                } finally {
+                    synchronized (this) {
+                        rebuildPending = false;
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                rebuildPending = false;
+            }
+        }
+    }
+
+    /**
+     * Sums the mapped volumes of one disk into out[0]=total bytes, out[1]=used bytes.
+     * Returns false when no volume is mapped to that disk.
+     */
+    public boolean usageFor(int diskIndex, long[] out) {
+        File[][] map = rootsByDisk;
+        if (diskIndex < 0 || diskIndex >= map.length) return false;
+
+        File[] roots = map[diskIndex];
+        if (roots.length == 0) return false;
+
+        long total = 0;
+        long used = 0;
+        for (File r : roots) {
+            long t = r.getTotalSpace();
+            if (t <= 0) continue; // unmounted since last rebuild
+            total += t;
+            used += Math.max(0, t - r.getUsableSpace());
+        }
+
+        if (total <= 0) return false;
+        out[0] = total;
+        out[1] = used;
+        return true;
+    }
+
+    /** Mount points mapped to a disk (for tooltips / diagnostics). */
+    public String[] mountsFor(int diskIndex) {
+        File[][] map = rootsByDisk;
+        if (diskIndex < 0 || diskIndex >= map.length) return new String[0];
+        return Arrays.stream(map[diskIndex]).map(File::getPath).toArray(String[]::new);
+    }
+
+    // =========================================================================
+    // Matching
+    // =========================================================================
+
+    private int findDisk(HWDiskStore[] disks, OSFileStore st) {
+        String uuid = safe(st.getUUID()).toLowerCase(Locale.ROOT);
+        String volume = safe(st.getVolume());
+        String mount = normMount(safe(st.getMount()));
+
+        int byMount = -1;
+        int byVolume = -1;
+
+        for (int i = 0; i < disks.length; i++) {
+            // filesystem directly on the whole disk (no partition table), e.g. /dev/vdb
+            if (byVolume < 0 && !volume.isEmpty() && volume.equals(safe(disks[i].getName()))) byVolume = i;
+
+            List<HWPartition> parts;
+            try {
+                parts = disks[i].getPartitions();
+            } catch (Throwable t) {
+                continue;
+            }
+            if (parts == null) continue;
+
+            for (HWPartition p : parts) {
+                String pu = safe(p.getUuid()).toLowerCase(Locale.ROOT);
+                if (!uuid.isEmpty() && uuid.equals(pu)) return i;
+
+                if (byVolume < 0 && !volume.isEmpty() && volume.equals(safe(p.getIdentification()))) byVolume = i;
+
+                String pm = safe(p.getMountPoint());
+                if (byMount < 0 && !pm.isEmpty() && mount.equals(normMount(pm))) byMount = i;
+            }
+        }
+
+        return (byVolume >= 0) ? byVolume : byMount;
+    }
+
+    /** Same filesystem, same key, whatever the mount point: UUID, else volume (device), else mount. */
+    private String filesystemKey(OSFileStore st, String mount) {
+        String uuid = safe(st.getUUID()).toLowerCase(Locale.ROOT);
+        if (!uuid.isEmpty()) return "uuid:" + uuid;
+        String volume = safe(st.getVolume());
+        if (!volume.isEmpty()) return "volume:" + (isWindows ? volume.toLowerCase(Locale.ROOT) : volume);
+        return "mount:" + normMount(mount);
+    }
+
+    private String normMount(String m) {
+        String s = m.trim();
+        while (s.length() > 1 && (s.endsWith("\\") || s.endsWith("/"))) s = s.substring(0, s.length() - 1);
+        return isWindows ? s.toLowerCase(Locale.ROOT) : s;
+    }
+
+    private long readMountSignature() {
+        try {
+            if (isWindows) {
+                return Arrays.hashCode(File.listRoots());
+            }
+            if (Files.isReadable(LINUX_MOUNTS)) {
+                return Arrays.hashCode(Files.readAllBytes(LINUX_MOUNTS));
+            }
+        } catch (Throwable ignored) {
+        }
+        return 0;
+    }
+
+    private static String safe(String s) {
+        return (s == null) ? "" : s.trim();
+    }
+}
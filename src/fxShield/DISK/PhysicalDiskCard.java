@@ -8,25 +8,16 @@ import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
+import javafx.scene.control.Tooltip;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 
 import java.text.DecimalFormat;
 import java.util.Locale;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Pattern;
 
 public final class PhysicalDiskCard extends BaseCard {
 
-    private static final Map<String, String> DISK_TYPE_CACHE = new ConcurrentHashMap<>();
-
-    private static final Pattern NVME_PATTERN = Pattern.compile("\\b(nvme|nvm|pci-?e|pci express|pcie)\\b", Pattern.CASE_INSENSITIVE);
-    private static final Pattern M2_PATTERN   = Pattern.compile("\\b(m\\.2|m2)\\b", Pattern.CASE_INSENSITIVE);
-    private static final Pattern SSD_PATTERN  = Pattern.compile("\\b(ssd|solid state|flash)\\b", Pattern.CASE_INSENSITIVE);
-    private static final Pattern HDD_PATTERN  = Pattern.compile("\\b(hdd|rotational|rpm)\\b", Pattern.CASE_INSENSITIVE);
-
     private static final String CARD_STYLE =
             "-fx-background-color: rgba(17,13,34,0.55);" +
                     "-fx-background-radius: 28;" +
@@ -36,6 +27,11 @@ public final class PhysicalDiskCard extends BaseCard {
                     "-fx-effect: dropshadow(gaussian, rgba(157,110,255,0.28), 25, 0.25, 0, 0);";
 
     private static final DecimalFormat SIZE_FORMAT = new DecimalFormat("0.0");
+    private static final DecimalFormat IO_FORMAT = new DecimalFormat("0.#");
+
+    // queue depth at/above this is shown as a bottleneck
+    private static final double QUEUE_WARN = 2.0;
+
     private static final String FONT_UI = "Segoe UI";
 
     // cached fonts (no CSS font-weight)
@@ -56,6 +52,10 @@ public final class PhysicalDiskCard extends BaseCard {
     private final Label usedValueLabel;
     private final Label spaceLabel;
     private final Label activeValueLabel;
+    private final Label ioLabel;
+    private final Label healthLabel;
+    private final Tooltip healthTip = new Tooltip();
+    private final Label topIoLabel;
 
     private final ProgressBar usedBar;
     private final ProgressBar activeBar;
@@ -126,6 +126,26 @@ public final class PhysicalDiskCard extends BaseCard {
         makeBarFullWidth(activeBar);
         setBarAccentColor(activeBar, COLOR_INFO);
 
+        ioLabel = new Label("Queue: – • IOPS: – • Latency: –");
+        ioLabel.setAlignment(Pos.CENTER);
+        ioLabel.setMaxWidth(Double.MAX_VALUE);
+        ioLabel.setTextFill(colorFromHex(COLOR_TEXT_DIM));
+        ioLabel.setFont(SPACE_REG);
+
+        healthLabel = new Label("Health: –");
+        healthLabel.setAlignment(Pos.CENTER);
+        healthLabel.setMaxWidth(Double.MAX_VALUE);
+        healthLabel.setTextFill(colorFromHex(COLOR_TEXT_DIM));
+        healthLabel.setFont(SPACE_REG);
+
+        topIoLabel = new Label();
+        topIoLabel.setAlignment(Pos.CENTER);
+        topIoLabel.setMaxWidth(Double.MAX_VALUE);
+        topIoLabel.setTextFill(colorFromHex(COLOR_TEXT_MUTED));
+        topIoLabel.setFont(SPACE_REG);
+        topIoLabel.setManaged(false);
+        topIoLabel.setVisible(false);
+
         content = new VBox(14);
         content.setPadding(new Insets(22));
         content.setAlignment(Pos.TOP_CENTER);
@@ -138,7 +158,10 @@ public final class PhysicalDiskCard extends BaseCard {
                 usedBar,
                 spaceLabel,
                 activeValueLabel,
-                activeBar
+                activeBar,
+                ioLabel,
+                healthLabel,
+                topIoLabel
         );
 
         root = new StackPane(content);
@@ -170,6 +193,13 @@ public final class PhysicalDiskCard extends BaseCard {
         spaceLabel.setText("Size: " + SIZE_FORMAT.format(sizeGb) + " GB");
     }
 
+    /** Renumbers the card (a disk before it was unplugged); keeps the type part of the title. */
+    public void setIndex(int indexZeroBased) {
+        String t = titleLabel.getText();
+        int sep = (t != null) ? t.indexOf(" • ") : -1;
+        titleLabel.setText(diskTitle(indexZeroBased) + (sep >= 0 ? t.substring(sep) : ""));
+    }
+
     public void updateDisk(SystemMonitorService.PhysicalDiskSnapshot snap,
                            DecimalFormat percentFormat,
                            DecimalFormat gbFormat) {
@@ -180,15 +210,12 @@ public final class PhysicalDiskCard extends BaseCard {
             usedBar.setProgress(0);
             activeValueLabel.setText("Active: N/A");
             activeBar.setProgress(0);
+            ioLabel.setText("Queue: – • IOPS: – • Latency: –");
+            updateHealth(null);
             return;
         }
 
-        // keep snapshot override ONLY for this snapshot (no sticky old type)
-        if (snap.typeLabel != null && !snap.typeLabel.isBlank()) snapTypeOverride = snap.typeLabel;
-        else snapTypeOverride = null;
-
-        String diskType = resolveDiskType(snap.model);
-        titleLabel.setText(diskTitle(snap.index) + " • " + diskType);
+        updateType(snap);
 
         DecimalFormat pf = (percentFormat != null) ? percentFormat : new DecimalFormat("0");
         DecimalFormat gf = (gbFormat != null) ? gbFormat : new DecimalFormat("0.0");
@@ -205,6 +232,113 @@ public final class PhysicalDiskCard extends BaseCard {
 
         activeValueLabel.setText("Active: " + pf.format(snap.activePercent) + " %");
         activeBar.setProgress(clamp01(snap.activePercent / 100.0));
+
+        updateIo(snap);
+        updateHealth(snap);
+    }
+
+    /**
+     * Applies the detected media type from a snapshot ("Disk" = not detected yet -> model heuristic).
+     */
+    public void updateType(SystemMonitorService.PhysicalDiskSnapshot snap) {
+        if (snap == null) return;
+
+        // keep snapshot override ONLY for this snapshot (no sticky old type)
+        String t = snap.typeLabel;
+        if (t != null && !t.isBlank() && !t.equalsIgnoreCase("Disk")) snapTypeOverride = t;
+        else snapTypeOverride = null;
+
+        String title = diskTitle(snap.index) + " • " + resolveDiskType(snap.model);
+        if (!title.equals(titleLabel.getText())) titleLabel.setText(title);
+    }
+
+    public void updateIo(SystemMonitorService.PhysicalDiskSnapshot snap) {
+        if (snap == null || !snap.hasIoStats) {
+            ioLabel.setText("Queue: – • IOPS: – • Latency: –");
+            ioLabel.setTextFill(colorFromHex(COLOR_TEXT_DIM));
+            return;
+        }
+
+        double iops = Math.max(0, snap.readIops) + Math.max(0, snap.writeIops);
+        String lat = (snap.avgLatencyMs < 0) ? "–" : IO_FORMAT.format(snap.avgLatencyMs) + " ms";
+
+        ioLabel.setText("Queue: " + snap.queueLength
+                + " • IOPS: " + IO_FORMAT.format(iops)
+                + " (R " + IO_FORMAT.format(Math.max(0, snap.readIops))
+                + " / W " + IO_FORMAT.format(Math.max(0, snap.writeIops)) + ")"
+                + " • Latency: " + lat);
+
+        // queue depth is the bottleneck signal
+        ioLabel.setTextFill(colorFromHex(snap.queueLength >= QUEUE_WARN ? COLOR_WARN : COLOR_TEXT_DIM));
+    }
+
+    /**
+     * SMART line: health state, temperature, wear and power-on hours; details in the tooltip.
+     */
+    public void updateHealth(SystemMonitorService.PhysicalDiskSnapshot snap) {
+        DiskSmartSampler.SmartInfo sm = (snap == null) ? null : snap.smart;
+        if (sm == null) {
+            if (!"Health: –".equals(healthLabel.getText())) {
+                healthLabel.setText("Health: –");
+                healthLabel.setTextFill(colorFromHex(COLOR_TEXT_DIM));
+                healthLabel.setTooltip(null);
+            }
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder("Health: ").append(sm.health);
+        if (sm.temperatureC >= 0) sb.append(" • ").append(sm.temperatureC).append(" °C");
+        if (sm.wearPercent >= 0) sb.append(" • Wear ").append(sm.wearPercent).append(" %");
+        if (sm.powerOnHours >= 0) sb.append(" • ").append(sm.powerOnHours).append(" h");
+
+        String text = sb.toString();
+        if (text.equals(healthLabel.getText())) return;
+        healthLabel.setText(text);
+
+        String color = switch (sm.health) {
+            case DiskSmartSampler.HEALTH_FAILING -> COLOR_DANGER;
+            case DiskSmartSampler.HEALTH_WARNING -> COLOR_WARN;
+            case DiskSmartSampler.HEALTH_OK -> COLOR_TEXT_DIM;
+            default -> COLOR_TEXT_MUTED;
+        };
+        healthLabel.setTextFill(colorFromHex(color));
+
+        healthTip.setText((sm.reason != null ? sm.reason + "\n" : "")
+                + "Reallocated sectors: " + (sm.reallocatedSectors >= 0 ? sm.reallocatedSectors : "n/a"));
+        healthLabel.setTooltip(healthTip);
+    }
+
+    /**
+     * Top I/O processes (shown on the selected card only). The process counters are not per disk,
+     * so the line says "all disks". Null/empty hides the line.
+     */
+    public void updateTopIo(ProcessIoSampler.ProcessIo[] top) {
+        if (top == null || top.length == 0) {
+            if (topIoLabel.isVisible()) {
+                topIoLabel.setVisible(false);
+                topIoLabel.setManaged(false);
+                topIoLabel.setText("");
+            }
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder("Top I/O (all disks): ");
+        for (int i = 0; i < top.length; i++) {
+            if (i > 0) sb.append(" • ");
+            sb.append(top[i].name).append(' ').append(formatRate(top[i].totalBytesPerSec()));
+        }
+
+        String text = sb.toString();
+        if (!text.equals(topIoLabel.getText())) topIoLabel.setText(text);
+        if (!topIoLabel.isVisible()) {
+            topIoLabel.setVisible(true);
+            topIoLabel.setManaged(true);
+        }
+    }
+
+    private static String formatRate(double bytesPerSec) {
+        if (bytesPerSec >= 1024 * 1024) return IO_FORMAT.format(bytesPerSec / (1024 * 1024)) + " MB/s";
+        return IO_FORMAT.format(bytesPerSec / 1024) + " KB/s";
     }
 
     @Override
@@ -221,6 +355,8 @@ public final class PhysicalDiskCard extends BaseCard {
     public Label getUsedValueLabel() { return usedValueLabel; }
     public Label getSpaceLabel() { return spaceLabel; }
     public Label getActiveValueLabel() { return activeValueLabel; }
+    public Label getIoLabel() { return ioLabel; }
+    public Label getHealthLabel() { return healthLabel; }
     public ProgressBar getUsedBar() { return usedBar; }
     public ProgressBar getActiveBar() { return activeBar; }
 
@@ -229,6 +365,9 @@ public final class PhysicalDiskCard extends BaseCard {
         usedValueLabel.setFont(USED_COMP);
         activeValueLabel.setFont(ACTIVE_COMP);
         spaceLabel.setFont(SPACE_COMP);
+        ioLabel.setFont(SPACE_COMP);
+        healthLabel.setFont(SPACE_COMP);
+        topIoLabel.setFont(SPACE_COMP);
 
         content.setPadding(new Insets(12));
         content.setSpacing(8);
@@ -246,6 +385,9 @@ public final class PhysicalDiskCard extends BaseCard {
         usedValueLabel.setFont(USED_REG);
         activeValueLabel.setFont(ACTIVE_REG);
         spaceLabel.setFont(SPACE_REG);
+        ioLabel.setFont(SPACE_REG);
+        healthLabel.setFont(SPACE_REG);
+        topIoLabel.setFont(SPACE_REG);
 
         content.setPadding(new Insets(22));
         content.setSpacing(14);
@@ -295,6 +437,8 @@ public final class PhysicalDiskCard extends BaseCard {
         if (v.isEmpty()) return "Disk";
 
         if (v.equalsIgnoreCase("nvme")) return "NVMe";
+        if (v.equalsIgnoreCase("sata ssd")) return "SATA SSD";
+        if (v.equalsIgnoreCase("usb")) return "USB";
         if (v.equalsIgnoreCase("solid state drive") || v.equalsIgnoreCase("solidstate")) return "SSD";
         if (v.equalsIgnoreCase("hard disk drive") || v.equalsIgnoreCase("harddisk")) return "HDD";
         if (v.equalsIgnoreCase("hdd")) return "HDD";
@@ -306,40 +450,9 @@ public final class PhysicalDiskCard extends BaseCard {
         return v.toUpperCase(Locale.ROOT);
     }
 
+    // model-only fallback until the snapshot carries a detected type (cached lookup, no regex)
     private static String detectDiskType(String model) {
-        if (model == null) return "Disk";
-        String key = model.trim().toLowerCase(Locale.ROOT);
-        if (key.isEmpty()) return "Disk";
-
-        return DISK_TYPE_CACHE.computeIfAbsent(key, PhysicalDiskCard::computeDiskType);
-    }
-
-    private static String computeDiskType(String m) {
-        if (m == null || m.isBlank()) return "Disk";
-
-        if (NVME_PATTERN.matcher(m).find() || (M2_PATTERN.matcher(m).find() && m.contains("nvme"))) return "NVMe";
-        if (SSD_PATTERN.matcher(m).find() || M2_PATTERN.matcher(m).find()) return "SSD";
-
-        if (m.contains("samsung") && (m.contains("evo") || m.contains("pro") || m.contains("pm") || m.contains("qvo"))) return "SSD";
-        if (m.contains("kingston") || m.contains("crucial") || m.contains("sandisk") || m.contains("intel") || m.contains("micron")) return "SSD";
-
-        if (HDD_PATTERN.matcher(m).find()) return "HDD";
-
-        if (m.contains("seagate") || m.contains("western digital") || m.contains("wd")) {
-            if (SSD_PATTERN.matcher(m).find() || m.contains("ssd") || m.contains("nvme") || m.contains("m.2") || m.contains("m2")) return "SSD";
-            return "HDD";
-        }
-
-        if (m.contains("sata")) {
-            if (m.contains("ssd") || m.contains("nvme") || M2_PATTERN.matcher(m).find()
-                    || m.contains("evo") || m.contains("pro") || m.contains("mx") || m.contains("qvo")
-                    || m.contains("ext") || m.contains("plus")) {
-                return "SSD";
-            }
-            return "Disk";
-        }
-
-        return "Disk";
+        return DiskClassifier.shared().classifyModel(model).type;
     }
 
     private static String diskTitle(int indexZeroBased) {
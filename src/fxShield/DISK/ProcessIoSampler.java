@@ -0,0 +1,184 @@
+package fxShield.DISK;
+
+import oshi.software.os.OSProcess;
+import oshi.software.os.OperatingSystem;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-N disk I/O consumers (read/write bytes per second per process).
+ *
+ * - One process enumeration per period on its own daemon thread (slower than the UI loop).
+ * - Rates come from getBytesRead/getBytesWritten deltas against a per-PID cache; entries are
+ *   updated in place, reset when a PID is reused (start time changed) and pruned when the
+ *   process exits.
+ * - OS counters are per process, not per disk: the list is system-wide.
+ */
+public final class ProcessIoSampler {
+
+    public static final long PERIOD_MS = 2000;
+
+    /** One consumer. Immutable. */
+    public static final class ProcessIo {
+        public final int pid;
+        public final String name;
+        public final double readBytesPerSec;
+        public final double writeBytesPerSec;
+
+        ProcessIo(int pid, String name, double readBytesPerSec, double writeBytesPerSec) {
+            this.pid = pid;
+            this.name = name;
+            this.readBytesPerSec = readBytesPerSec;
+            this.writeBytesPerSec = writeBytesPerSec;
+        }
+
+        public double totalBytesPerSec() {
+            return readBytesPerSec + writeBytesPerSec;
+        }
+    }
+
+    private static final ProcessIo[] NONE = new ProcessIo[0];
+
+    // previous counters of one PID (sampler thread only)
+    private static final class Prev {
+        long startTime;
+        long read;
+        long written;
+        long ts;
+        int round;
+    }
+
+    private final OperatingSystem os;
+    private final int topN;
+    private final Map<Integer, Prev> byPid = new HashMap<>(512);
+
+    // top-N scratch (reused every round)
+    private final OSProcess[] topProc;
+    private final double[] topRead;
+    private final double[] topWrite;
+
+    private ScheduledExecutorService exec;
+    private volatile ProcessIo[] latest = NONE;
+    private int round = 0;
+
+    public ProcessIoSampler(OperatingSystem os, int topN) {
+        this.os = os;
+        this.topN = Math.max(1, topN);
+        this.topProc = new OSProcess[this.topN];
+        this.topRead = new double[this.topN];
+        this.topWrite = new double[this.topN];
+    }
+
+    public synchronized void start() {
+        if (exec != null) return;
+        exec = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fxShield-proc-io");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        exec.scheduleWithFixedDelay(() -> {
+            try {
+                sampleOnce(System.currentTimeMillis());
+            } catch (Throwable ignored) {
+            }
+        }, 0, PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (exec != null) {
+            exec.shutdownNow();
+            exec = null;
+        }
+        latest = NONE;
+    }
+
+    /** Latest top-N, highest total first; empty until two samples exist. Never blocks. */
+    public ProcessIo[] top() {
+        return latest;
+    }
+
+    // =========================================================================
+    // Sampling
+    // =========================================================================
+
+    void sampleOnce(long now) {
+        List<OSProcess> procs = os.getProcesses();
+        if (procs == null) return;
+
+        int r = ++round;
+        int count = 0;
+
+        for (OSProcess p : procs) {
+            int pid = p.getProcessID();
+            long read = p.getBytesRead();
+            long written = p.getBytesWritten();
+            long start = p.getStartTime();
+
+            Prev prev = byPid.get(pid);
+            if (prev == null) {
+                prev = new Prev();
+                byPid.put(pid, prev);
+                reset(prev, start, read, written, now);
+            } else if (prev.startTime != start || read < prev.read || written < prev.written) {
+                reset(prev, start, read, written, now); // PID reused / counters reset
+            } else {
+                long dt = now - prev.ts;
+                if (dt > 0) {
+                    double rBps = (read - prev.read) * 1000.0 / dt;
+                    double wBps = (written - prev.written) * 1000.0 / dt;
+                    if (rBps + wBps > 0) count = offer(p, rBps, wBps, count);
+                }
+                prev.read = read;
+                prev.written = written;
+                prev.ts = now;
+            }
+            prev.round = r;
+        }
+
+        // drop exited processes
+        for (Iterator<Prev> it = byPid.values().iterator(); it.hasNext(); ) {
+            if (it.next().round != r) it.remove();
+        }
+
+        ProcessIo[] out = new ProcessIo[count];
+        for (int i = 0; i < count; i++) {
+            OSProcess p = topProc[i];
+            out[i] = new ProcessIo(p.getProcessID(), p.getName(), topRead[i], topWrite[i]);
+            topProc[i] = null;
+        }
+        latest = out;
+    }
+
+    private static void reset(Prev prev, long start, long read, long written, long now) {
+        prev.startTime = start;
+        prev.read = read;
+        prev.written = written;
+        prev.ts = now;
+    }
+
+    /** Insertion into the sorted top-N arrays; returns the new count. */
+    private int offer(OSProcess p, double rBps, double wBps, int count) {
+        double total = rBps + wBps;
+        int pos = count;
+        while (pos > 0 && topRead[pos - 1] + topWrite[pos - 1] < total) pos--;
+        if (pos >= topN) return count;
+
+        int last = Math.min(count, topN - 1);
+        for (int i = last; i > pos; i--) {
+            topProc[i] = topProc[i - 1];
+            topRead[i] = topRead[i - 1];
+            topWrite[i] = topWrite[i - 1];
+        }
+        topProc[pos] = p;
+        topRead[pos] = rBps;
+        topWrite[pos] = wBps;
+        return Math.min(count + 1, topN);
+    }
+}
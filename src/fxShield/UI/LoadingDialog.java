@@ -1,5 +1,6 @@
 package fxShield.UI;
 
+import fxShield.WIN.BackgroundTasks;
 import javafx.animation.Animation;
 import javafx.animation.FadeTransition;
 import javafx.animation.Interpolator;
@@ -7,18 +8,23 @@ import javafx.animation.KeyFrame;
 import javafx.animation.PauseTransition;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.effect.Effect;
 import javafx.scene.effect.GaussianBlur;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
@@ -29,9 +35,14 @@ import javafx.stage.StageStyle;
 import javafx.stage.WindowEvent;
 import javafx.util.Duration;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Unified loading dialog with animated dots, completion states, and base dialog logic.
- * Merged from BaseDialog and LoadingDialog.
+ * Merged from BaseDialog and LoadingDialog. Can stream script output into a log view.
  */
 public final class LoadingDialog {
 
@@ -43,11 +54,23 @@ public final class LoadingDialog {
     private static final Duration DONE_DELAY = Duration.millis(900);
     private static final Duration FAIL_DELAY = Duration.millis(1200);
 
+    // script output log: bounded ingress queue, drained in batches once per pulse
+    private static final int LOG_QUEUE_CAPACITY = 1000;
+    private static final int LOG_MAX_LINES = 1000;
+    private static final int LOG_BATCH = 200;
+    private static final double LOG_HEIGHT = 150;
+    private static final Duration LOG_PULSE = Duration.millis(100);
+    private static final Duration LOG_CLOSE_DELAY = Duration.millis(2500);
+
     // Cache fonts
     private static final Font FONT_TITLE = StyleConstants.FONT_DIALOG_TITLE;
     private static final Font FONT_MESSAGE = StyleConstants.FONT_DIALOG_SUBTITLE;
     private static final Font FONT_BUTTON = StyleConstants.FONT_DIALOG_BUTTON;
     private static final Font FONT_DOTS = Font.font(StyleConstants.FONT_FAMILY, 20);
+    private static final Font FONT_LOG = Font.font("Consolas", 11);
+
+    private static final Color LOG_OUT_COLOR = Color.web(StyleConstants.COLOR_TEXT_SECONDARY);
+    private static final Color LOG_ERR_COLOR = Color.web(StyleConstants.COLOR_DANGER);
 
     // Reference counter for stacked dialogs blur.
     private static int blurReferenceCount = 0;
@@ -74,10 +97,18 @@ public final class LoadingDialog {
     private final HBox buttonsRow;
     private final Button rebootNowBtn;
     private final Button rebootLaterBtn;
+    private final Button cancelBtn;
+    private Runnable onCancel;
 
     private final Timeline dotsTimeline;
     private int dotState;
 
+    private final ArrayBlockingQueue<LogLine> logQueue = new ArrayBlockingQueue<>(LOG_QUEUE_CAPACITY);
+    private final AtomicLong logDropped = new AtomicLong();
+    private final ListView<LogLine> logView;
+    private final Timeline logPulse;
+    private boolean logShown;
+
     private final boolean supportsReboot;
 
     public static LoadingDialog show(Stage owner, String title, String message) {
@@ -88,6 +119,7 @@ public final class LoadingDialog {
         LoadingDialog dialog = new LoadingDialog(owner, title, message, supportsReboot);
         dialog.show();
         dialog.startDotsAnimation();
+        dialog.logPulse.play();
         return dialog;
     }
 
@@ -113,11 +145,17 @@ public final class LoadingDialog {
 
         stage.setOnCloseRequest(e -> {
             e.consume();
-            close();
+            closeOrCancel();
         });
 
+        // created before the hidden handler, which stops the pulse
+        logView = createLogView();
+        logPulse = new Timeline(new KeyFrame(LOG_PULSE, e -> drainLog()));
+        logPulse.setCycleCount(Animation.INDEFINITE);
+
         stage.setOnHidden(e -> {
             stopDotsAnimation();
+            stopSafely(logPulse);
             restoreOwnerBlur();
         });
 
@@ -148,6 +186,11 @@ public final class LoadingDialog {
         rebootNowBtn = createButton("Reboot now", StyleConstants.BUTTON_PRIMARY, StyleConstants.BUTTON_PRIMARY_HOVER);
         rebootNowBtn.setOnAction(e -> performReboot());
 
+        cancelBtn = createButton("Cancel", StyleConstants.BUTTON_SECONDARY, StyleConstants.BUTTON_SECONDARY_HOVER);
+        cancelBtn.setOnAction(e -> cancel());
+        cancelBtn.setVisible(false);
+        cancelBtn.setManaged(false);
+
         buttonsRow = new HBox(10, rebootLaterBtn, rebootNowBtn);
         buttonsRow.setAlignment(Pos.CENTER);
         buttonsRow.setVisible(false);
@@ -173,12 +216,16 @@ public final class LoadingDialog {
 
         VBox contentBox;
         if (supportsReboot) {
-            contentBox = new VBox(14, titleLabel, messageLabel, dotsLabel, rebootNoteLabel, buttonsRow);
+            contentBox = new VBox(14, titleLabel, messageLabel, dotsLabel, logView, rebootNoteLabel, buttonsRow);
             contentBox.setAlignment(Pos.CENTER);
         } else {
             VBox textBox = new VBox(6, titleLabel, messageLabel);
             textBox.setAlignment(Pos.CENTER_LEFT);
-            contentBox = new VBox(12, textBox, dotsLabel);
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+            HBox dotsRow = new HBox(10, dotsLabel, spacer, cancelBtn);
+            dotsRow.setAlignment(Pos.CENTER_LEFT);
+            contentBox = new VBox(12, textBox, dotsRow, logView);
             contentBox.setAlignment(Pos.CENTER_LEFT);
         }
 
@@ -193,7 +240,7 @@ public final class LoadingDialog {
         scene.setFill(Color.TRANSPARENT);
 
         scene.setOnKeyPressed(e -> {
-            if (e.getCode() == KeyCode.ESCAPE) close();
+            if (e.getCode() == KeyCode.ESCAPE) closeOrCancel();
         });
 
         stage.setScene(scene);
@@ -269,26 +316,60 @@ public final class LoadingDialog {
         runOnFxThread(() -> messageLabel.setText(safe(message)));
     }
 
+    /**
+     * Shows a Cancel button (also bound to Esc / window close) that runs {@code action} once.
+     * Null removes it. Finished states (done / failed) remove it too.
+     */
+    public void setOnCancel(Runnable action) {
+        runOnFxThread(() -> {
+            onCancel = action;
+            cancelBtn.setVisible(action != null);
+            cancelBtn.setManaged(action != null);
+        });
+    }
+
+    private void cancel() {
+        Runnable action = onCancel;
+        setOnCancel(null);
+        if (action == null) return;
+        messageLabel.setText("Cancelling...");
+        try {
+            action.run();
+        } catch (Exception ignored) {
+        }
+    }
+
+    private void closeOrCancel() {
+        if (onCancel != null) cancel();
+        else close();
+    }
+
     public void setDone(String doneMessage) {
         runOnFxThread(() -> {
+            onCancel = null;
+            cancelBtn.setVisible(false);
+            cancelBtn.setManaged(false);
             stopDotsAnimation();
             messageLabel.setText(safe(doneMessage));
             dotsLabel.setText("✓");
             dotsLabel.setTextFill(Color.web(StyleConstants.COLOR_SUCCESS));
 
-            PauseTransition wait = pauseThen(DONE_DELAY, this::close);
+            PauseTransition wait = pauseThen(hasLog() ? LOG_CLOSE_DELAY : DONE_DELAY, this::close);
             wait.playFromStart();
         });
     }
 
     public void setFailed(String failMessage) {
         runOnFxThread(() -> {
+            onCancel = null;
+            cancelBtn.setVisible(false);
+            cancelBtn.setManaged(false);
             stopDotsAnimation();
             messageLabel.setText(safe(failMessage));
             dotsLabel.setText("✕");
             dotsLabel.setTextFill(Color.web(StyleConstants.COLOR_DANGER));
 
-            PauseTransition wait = pauseThen(FAIL_DELAY, this::close);
+            PauseTransition wait = pauseThen(hasLog() ? LOG_CLOSE_DELAY : FAIL_DELAY, this::close);
             wait.playFromStart();
         });
     }
@@ -312,6 +393,90 @@ public final class LoadingDialog {
         });
     }
 
+    // =========================================================================
+    // Script output log
+    // =========================================================================
+
+    private static final class LogLine {
+        final String text;
+        final boolean stderr;
+
+        LogLine(String text, boolean stderr) {
+            this.text = text;
+            this.stderr = stderr;
+        }
+    }
+
+    /**
+     * Queues one line of script output. Any thread, never blocks: lines reach the (virtualized)
+     * log view in batches once per pulse; when the queue is full the line is dropped and counted.
+     * The log appears with the first line.
+     */
+    public void appendLog(String line, boolean stderr) {
+        if (line == null) return;
+        if (!logQueue.offer(new LogLine(line, stderr))) logDropped.incrementAndGet();
+    }
+
+    private ListView<LogLine> createLogView() {
+        ListView<LogLine> view = new ListView<>();
+        view.setStyle(StyleConstants.DIALOG_LOG);
+        view.setFocusTraversable(false);
+        view.setFixedCellSize(16);
+        view.setPrefHeight(LOG_HEIGHT - 14);
+        view.setVisible(false);
+        view.setManaged(false);
+        view.setCellFactory(v -> new ListCell<>() {
+            {
+                setFont(FONT_LOG);
+                setStyle("-fx-background-color: transparent; -fx-padding: 0 4;");
+            }
+
+            @Override
+            protected void updateItem(LogLine item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                    return;
+                }
+                setText(item.text);
+                setTextFill(item.stderr ? LOG_ERR_COLOR : LOG_OUT_COLOR);
+            }
+        });
+        return view;
+    }
+
+    /** FX thread, once per pulse. */
+    private void drainLog() {
+        if (logQueue.isEmpty() && logDropped.get() == 0) return;
+
+        List<LogLine> batch = new ArrayList<>(Math.min(LOG_BATCH, logQueue.size() + 1));
+        logQueue.drainTo(batch, LOG_BATCH);
+        if (logQueue.isEmpty()) { // dropped lines came after everything that was queued
+            long dropped = logDropped.getAndSet(0);
+            if (dropped > 0) batch.add(new LogLine("... " + dropped + " lines skipped", true));
+        }
+        if (batch.isEmpty()) return;
+
+        if (!logShown) showLog();
+        ObservableList<LogLine> items = logView.getItems();
+        items.addAll(batch);
+        int over = items.size() - LOG_MAX_LINES;
+        if (over > 0) items.remove(0, over);
+        logView.scrollTo(items.size() - 1);
+    }
+
+    private void showLog() {
+        logShown = true;
+        logView.setVisible(true);
+        logView.setManaged(true);
+        stage.setHeight(stage.getHeight() + LOG_HEIGHT);
+        stage.setY(stage.getY() - LOG_HEIGHT / 2.0);
+    }
+
+    private boolean hasLog() {
+        return logShown || !logQueue.isEmpty();
+    }
+
     private Button createButton(String text, String normalStyle, String hoverStyle) {
         Button btn = new Button(text);
         btn.setFont(FONT_BUTTON);
@@ -333,15 +498,13 @@ public final class LoadingDialog {
         rebootLaterBtn.setDisable(true);
         messageLabel.setText("Rebooting now...");
 
-        Thread rebootThread = new Thread(() -> {
+        BackgroundTasks.start("reboot-now", () -> {
             try {
                 new ProcessBuilder("cmd", "/c", "shutdown", "/r", "/t", "0").start();
             } catch (Exception ex) {
                 setFailed("Failed to reboot. Run as Administrator.");
             }
-        }, "RebootNow");
-        rebootThread.setDaemon(true);
-        rebootThread.start();
+        });
     }
 
     private void runOnFxThread(Runnable action) {
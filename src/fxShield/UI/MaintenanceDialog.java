@@ -1,6 +1,7 @@
 package fxShield.UI;
 
 import fxShield.DB.RemoteConfig;
+import fxShield.WIN.BackgroundTasks;
 import javafx.animation.FadeTransition;
 import javafx.animation.ParallelTransition;
 import javafx.animation.ScaleTransition;
@@ -158,7 +159,7 @@ public final class MaintenanceDialog {
             retryButton.setText("Checking...");
             showProcessing(spinner);
 
-            Thread t = new Thread(() -> {
+            BackgroundTasks.start("maintenance-retry", () -> {
                 RemoteConfig latest = null;
                 try {
                     if (retryFetch != null) latest = retryFetch.get();
@@ -189,10 +190,7 @@ public final class MaintenanceDialog {
                         if (onOnline != null) onOnline.accept(finalLatest);
                     }
                 });
-            }, "fxShield-maintenance-retry");
-
-            t.setDaemon(true);
-            t.start();
+            });
         });
 
         final HBox buttons = new HBox(10, closeButton, retryContainer);
@@ -1,6 +1,7 @@
 package fxShield.UI;
 
 import fxShield.WIN.AutomationService;
+import fxShield.WIN.BackgroundTasks;
 import fxShield.WIN.FxSettings;
 import javafx.animation.*;
 import javafx.geometry.Insets;
@@ -168,22 +169,21 @@ public final class SettingsDialog {
             ns.autoOptimizeHardDisk = vDisk[0];
             ns.autoStartWithWindows = vStart[0];
 
-            Thread t = new Thread(() -> {
+            BackgroundTasks.start("settings-apply", () -> {
                 try {
                     FxSettings.save(ns);
                 } catch (Throwable ignored) {}
 
                 try {
                     AutomationService.get().apply(ns);
+                    // also picks up hand edits to automation-policies.properties
+                    AutomationService.get().reloadPolicies();
                 } catch (Throwable ignored) {}
 
                 javafx.application.Platform.runLater(() -> {
                     try { dialog.close(); } catch (Throwable ignored) {}
                 });
-            }, "fxShield-settings-apply");
-
-            t.setDaemon(true);
-            t.start();
+            });
         });
 
         HBox bottom = new HBox(10, cancelBtn, applyBtn);
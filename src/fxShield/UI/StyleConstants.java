@@ -225,6 +225,14 @@ public final class StyleConstants {
                     "-fx-border-width: 1.2;" +
                     "-fx-border-radius: 22;";
 
+    public static final String DIALOG_LOG =
+            "-fx-background-color: rgba(255,255,255,0.04);" +
+                    "-fx-control-inner-background: transparent;" +
+                    "-fx-background-radius: 10;" +
+                    "-fx-border-color: rgba(255,255,255,0.08);" +
+                    "-fx-border-radius: 10;" +
+                    "-fx-padding: 4;";
+
     public static final String DIALOG_MAINTENANCE =
             "-fx-background-color: #14161c;" +
                     "-fx-background-radius: 18;" +
@@ -3,12 +3,21 @@ package fxShield.UX;
 import fxShield.DB.RemoteConfig;
 import fxShield.DB.RemoteConfigService;
 import fxShield.UI.*;
+import fxShield.WIN.AlertEngine;
 import fxShield.WIN.AutomationService;
+import fxShield.WIN.BackgroundTasks;
+import fxShield.WIN.PsResult;
+import fxShield.WIN.Remediator;
+import fxShield.WIN.ScriptEngine;
+import fxShield.WIN.ScriptLedger;
+import fxShield.WIN.TaskGraph;
 import fxShield.WIN.SettingsStore;
 import fxShield.WIN.WindowsSnapFrameless;
 import fxShield.WIN.WindowsUtils;
+import fxShield.DISK.DirectorySizeScanner;
 import fxShield.DISK.PhysicalDiskCard;
 import fxShield.DISK.PhysicalDiskSwitcher;
+import fxShield.GPU.GpuTelemetry;
 
 import javafx.animation.FadeTransition;
 import javafx.animation.PauseTransition;
@@ -26,19 +35,26 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.Locale;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
 public final class DashBoardPage extends Application {
 
+    private static final Logger logger = LoggerFactory.getLogger(DashBoardPage.class);
+
     private static final Pattern EAP_BAD =
             Pattern.compile("(?im)^\\s*\\$ErrorActionPreference\\s*=\\s*(SilentlyContinue|Continue|Stop|Inquire)\\s*;?\\s*$");
 
@@ -66,6 +82,7 @@ public final class DashBoardPage extends Application {
 
     private final DecimalFormat percentFormat = new DecimalFormat("0.0");
     private final DecimalFormat gbFormat = new DecimalFormat("0.0");
+    private final GpuTelemetry gpuTelemetry = new GpuTelemetry(); // FX thread, filled in place
 
     private SystemMonitorService monitor;
     private HBox disksRow;
@@ -161,7 +178,7 @@ public final class DashBoardPage extends Application {
         });
         failsafe.playFromStart();
 
-        Thread t = new Thread(() -> {
+        BackgroundTasks.start("startup-config", () -> {
             RemoteConfig cfg = null;
             try {
                 setSplashStatus("Connecting to server...");
@@ -192,10 +209,7 @@ public final class DashBoardPage extends Application {
 
                 showDashboardAndCloseSplash(finalCfg, startMinimized);
             });
-        }, "fxShield-startup-config");
-
-        t.setDaemon(true);
-        t.start();
+        });
     }
 
     private void setSplashStatus(String text) {
@@ -452,7 +466,7 @@ public final class DashBoardPage extends Application {
         };
 
         actionCards[0].getButton().setOnAction(e -> runFreeRamFromDb());
-        actionCards[1].getButton().setOnAction(e -> runDbScript(ScriptKey.OPTIMIZE_DISK, "Optimizing Disk", "Fetching latest script from server...", "[DiskOpt]", false));
+        actionCards[1].getButton().setOnAction(e -> runOptimizeDisk());
         actionCards[2].getButton().setOnAction(e -> runDbScript(ScriptKey.OPTIMIZE_NETWORK, "Optimizing Network", "Fetching latest script from server...", "[NetOpt]", true));
         actionCards[3].getButton().setOnAction(e -> runDbScript(ScriptKey.SCAN_AND_FIX, "System File Scan", "Fetching latest script from server... (may take a few minutes)", "[SFC]", false));
         actionCards[4].getButton().setOnAction(e -> PowerModeDialog.show(primaryStage));
@@ -531,17 +545,22 @@ public final class DashBoardPage extends Application {
         installResponsive(stage, scene);
 
         stage.iconifiedProperty().addListener((obs, minimized, restored) -> {
+            if (monitor == null) return;
             if (Boolean.TRUE.equals(minimized)) {
-                if (monitor != null) monitor.stop();
+                // alert rules and load-gated automation keep a slow sampler running; without any, sampling stops
+                if (AlertEngine.shared().rules().isEmpty() && !AutomationService.get().needsLoad()) monitor.stop();
+                else monitor.setBackground(true);
             } else {
-                if (monitor != null) monitor.start();
+                monitor.setBackground(false);
+                monitor.start();
             }
         });
 
         // init monitor (background)
-        new Thread(() -> {
+        BackgroundTasks.start("ui-init", () -> {
             try {
                 AutomationService.get().apply(SettingsStore.load());
+                installRemediationScripts();
 
                 SystemMonitorService m = new SystemMonitorService();
                 SystemMonitorService.PhysicalDiskSnapshot[] initialDisks = m.sampleDisksOnce();
@@ -558,6 +577,19 @@ public final class DashBoardPage extends Application {
                     });
                 });
 
+                // hot-plug: apply add/remove incrementally (same FX queue order as updates)
+                m.setDiskChangeListener(new SystemMonitorService.DiskChangeListener() {
+                    @Override
+                    public void onDiskRemoved(int index) {
+                        Platform.runLater(() -> removeDiskCard(index));
+                    }
+
+                    @Override
+                    public void onDiskAdded(SystemMonitorService.PhysicalDiskSnapshot disk) {
+                        Platform.runLater(() -> addDiskCard(disk));
+                    }
+                });
+
                 Platform.runLater(() -> {
                     this.monitor = m;
 
@@ -607,7 +639,7 @@ public final class DashBoardPage extends Application {
                     disksRow.getChildren().add(err);
                 });
             }
-        }, "fxShield-ui-init").start();
+        });
 
         stage.setOnCloseRequest(e -> hardExit());
     }
@@ -645,6 +677,13 @@ public final class DashBoardPage extends Application {
 
         try { tray.add(trayIcon); } catch (Exception e) { e.printStackTrace(); }
 
+        // threshold alerts pop up from the tray (raises only; clears go to the log / file / webhook)
+        AlertEngine.shared().addTraySink(ev -> {
+            if (!ev.raised) return;
+            java.awt.EventQueue.invokeLater(() ->
+                    trayIcon.displayMessage("FxShield alert", ev.message(), java.awt.TrayIcon.MessageType.WARNING));
+        });
+
         Platform.setImplicitExit(false);
     }
 
@@ -658,6 +697,69 @@ public final class DashBoardPage extends Application {
         HBox.setHgrow(topDiskContainer, Priority.ALWAYS);
     }
 
+    private void addDiskCard(SystemMonitorService.PhysicalDiskSnapshot snap) {
+        if (snap == null || physicalCards == null) return;
+
+        int n = physicalCards.length;
+        int selected = diskSwitcher.getSelectedIndex();
+
+        PhysicalDiskCard card = new PhysicalDiskCard(n, snap.model, snap.sizeGb);
+        card.setCompact(compactState);
+        card.updateDisk(snap, percentFormat, gbFormat);
+
+        physicalCards = Arrays.copyOf(physicalCards, n + 1);
+        physicalCards[n] = card;
+
+        if (n == 0) {
+            disksRow.getChildren().clear(); // "No physical disks detected."
+            card.setSwitcherNode(diskSwitcher.getRoot());
+            topDiskContainer.getChildren().setAll(card.getRoot());
+            HBox.setHgrow(topDiskContainer, Priority.ALWAYS);
+        } else {
+            disksRow.getChildren().add(card.getRoot());
+            HBox.setHgrow(card.getRoot(), Priority.ALWAYS);
+        }
+
+        diskSwitcher.setCount(physicalCards.length);
+        diskSwitcher.setSelectedIndex(Math.max(0, selected));
+        swapTopDisk(diskSwitcher.getSelectedIndex());
+    }
+
+    private void removeDiskCard(int index) {
+        if (physicalCards == null || index < 0 || index >= physicalCards.length) return;
+
+        int selected = diskSwitcher.getSelectedIndex();
+        PhysicalDiskCard gone = physicalCards[index];
+
+        PhysicalDiskCard[] next = new PhysicalDiskCard[physicalCards.length - 1];
+        System.arraycopy(physicalCards, 0, next, 0, index);
+        System.arraycopy(physicalCards, index + 1, next, index, next.length - index);
+        physicalCards = next;
+
+        // the monitor renumbers its disks the same way; no "Disk 2" without a "Disk 1"
+        for (int i = index; i < next.length; i++) {
+            if (next[i] != null) next[i].setIndex(i);
+        }
+
+        if (gone != null) {
+            disksRow.getChildren().remove(gone.getRoot());
+            topDiskContainer.getChildren().remove(gone.getRoot());
+        }
+
+        diskSwitcher.setCount(next.length);
+        if (next.length == 0) {
+            Label noDisk = new Label("No physical disks detected.");
+            noDisk.setTextFill(Color.web("#9ca3af"));
+            disksRow.getChildren().setAll(noDisk);
+            return;
+        }
+
+        // keep the same disk on top when possible
+        int keep = (selected == index) ? 0 : (selected > index ? selected - 1 : selected);
+        diskSwitcher.setSelectedIndex(Math.max(0, keep));
+        swapTopDisk(diskSwitcher.getSelectedIndex());
+    }
+
     // ---------------- Monitor UI updates ----------------
 
     private void updateCpuUI(double percent) {
@@ -675,12 +777,24 @@ public final class DashBoardPage extends Application {
 
     private void updateGpuUI(int usage) {
         double percent = Math.max(0, usage);
-        String extra = (monitor == null || !monitor.isGpuUsageSupported())
-                ? "GPU usage not supported on this system"
-                : "GPU utilization";
+        String extra;
+        if (monitor == null || !monitor.isGpuUsageSupported()) extra = "GPU usage not supported on this system";
+        else if (monitor.getGpuTelemetry(gpuTelemetry)) extra = gpuDetails(gpuTelemetry);
+        else extra = "GPU utilization";
         gpuCard.setValuePercent(percent, extra);
     }
 
+    /** Temperature, core clock, power and throttling, each only when the provider reports it. */
+    private static String gpuDetails(GpuTelemetry t) {
+        StringBuilder sb = new StringBuilder("GPU utilization");
+        if (t.temperatureC >= 0) sb.append(" • ").append(t.temperatureC).append(" °C");
+        if (t.smClockMhz >= 0) sb.append(" • ").append(t.smClockMhz).append(" MHz");
+        if (t.powerMilliwatts >= 0) sb.append(" • ").append(Math.round(t.powerWatts())).append(" W");
+        if (t.isThermalThrottled()) sb.append("\nThrottling: thermal");
+        else if (t.isPowerThrottled()) sb.append("\nThrottling: power limit");
+        return sb.toString();
+    }
+
     private void updatePhysicalDisksUI(SystemMonitorService.PhysicalDiskSnapshot[] snaps) {
         if (snaps == null || physicalCards == null) return;
         int len = Math.min(snaps.length, physicalCards.length);
@@ -702,6 +816,16 @@ public final class DashBoardPage extends Application {
 
             card.getActiveValueLabel().setText("Active: " + percentFormat.format(snap.activePercent) + " %");
             card.getActiveBar().setProgress(clamp01(snap.activePercent / 100.0));
+            card.updateType(snap);
+            card.updateIo(snap);
+            card.updateHealth(snap);
+        }
+
+        // who is behind the selected disk's activity
+        int sel = (diskSwitcher != null) ? diskSwitcher.getSelectedIndex() : 0;
+        for (int i = 0; i < physicalCards.length; i++) {
+            if (physicalCards[i] == null) continue;
+            physicalCards[i].updateTopIo(i == sel && monitor != null ? monitor.getTopProcessIo() : null);
         }
     }
 
@@ -723,6 +847,25 @@ public final class DashBoardPage extends Application {
         SCAN_AND_FIX
     }
 
+    /** Alert remedies run the same DB scripts as the buttons (fetched when a remedy fires). */
+    private void installRemediationScripts() {
+        Remediator remediator = AlertEngine.shared().remediator();
+        if (remediator == null) return;
+
+        remediator.setScriptSource(action -> {
+            RemoteConfig cfg = fetchLatestConfigSafe();
+            if (cfg == null || cfg.isMaintenance()) return null;
+            ScriptKey key = switch (action) {
+                case FREE_RAM -> ScriptKey.FREE_RAM;
+                case OPTIMIZE_DISK -> ScriptKey.OPTIMIZE_DISK;
+                case PERFORMANCE_MODE -> ScriptKey.PERFORMANCE_MODE;
+                case BALANCED_MODE -> ScriptKey.BALANCED_MODE;
+                case QUIET_MODE -> ScriptKey.QUIT_MODE;
+            };
+            return getScriptFromConfig(cfg, key);
+        });
+    }
+
     private RemoteConfig fetchLatestConfigSafe() {
         try { return configService.fetchConfig(); } catch (Exception ignored) {}
         return null;
@@ -762,42 +905,186 @@ public final class DashBoardPage extends Application {
     private void runDbScript(ScriptKey key, String title, String loadingMsg, String logTag, boolean supportsReboot) {
         LoadingDialog dialog = LoadingDialog.show(primaryStage, title, loadingMsg, supportsReboot);
 
-        new Thread(() -> {
-            RemoteConfig cfg = fetchLatestConfigSafe();
+        BackgroundTasks.start("db-" + key.name(),
+                () -> runDbScriptWith(dialog, key, logTag, supportsReboot, "Completed successfully."));
+    }
 
-            if (cfg != null && cfg.isMaintenance()) {
-                Platform.runLater(() -> {
-                    dialog.setFailed("Service is under maintenance.");
-                    MaintenanceDialog.show(primaryStage, cfg, configService::fetchConfig, okCfg -> {});
-                });
-                return;
+    /** Fetch + run a DB script, reporting into an open dialog. Blocking; call off the FX thread. */
+    private void runDbScriptWith(LoadingDialog dialog, ScriptKey key, String logTag, boolean supportsReboot, String doneMsg) {
+        String script = beginDbScript(dialog, key, logTag);
+        if (script != null) runBegunScript(dialog, key, script, logTag, supportsReboot, doneMsg);
+    }
+
+    /**
+     * Maintenance, script fetch and ledger checks. Returns the script with its ledger slot taken
+     * (hand it to {@link #runBegunScript}), or null when it must not run (dialog already updated).
+     */
+    private String beginDbScript(LoadingDialog dialog, ScriptKey key, String logTag) {
+        RemoteConfig cfg = fetchLatestConfigSafe();
+
+        if (cfg != null && cfg.isMaintenance()) {
+            Platform.runLater(() -> {
+                dialog.setFailed("Service is under maintenance.");
+                MaintenanceDialog.show(primaryStage, cfg, configService::fetchConfig, okCfg -> {});
+            });
+            return null;
+        }
+
+        String script = getScriptFromConfig(cfg, key);
+        if (script == null) {
+            Platform.runLater(() -> dialog.setFailed("No script found in database."));
+            return null;
+        }
+
+        ScriptLedger ledger = ScriptLedger.shared();
+        ScriptLedger.Entry recent = ledger.recentRun(key.name(), script, System.currentTimeMillis());
+        if (recent != null) {
+            logger.info("{} skipped: same script succeeded {} ago", logTag, formatAgo(recent));
+            Platform.runLater(() -> dialog.setDone(skippedText(recent)));
+            return null;
+        }
+        if (!ledger.tryBegin(script)) {
+            logger.info("{} skipped: same script is already running", logTag);
+            Platform.runLater(() -> dialog.setDone(RUNNING_TEXT));
+            return null;
+        }
+        return script;
+    }
+
+    /** Runs a script returned by {@link #beginDbScript}, records it and releases its ledger slot. */
+    private void runBegunScript(LoadingDialog dialog, ScriptKey key, String script, String logTag,
+                                boolean supportsReboot, String doneMsg) {
+        ScriptLedger ledger = ScriptLedger.shared();
+        PsResult r;
+        try {
+            // disk scripts: the effect is the free space they give back on the system volume
+            long freeBefore = (key == ScriptKey.OPTIMIZE_DISK) ? systemVolumeFree() : -1;
+            r = runScript(dialog, script, logTag);
+            long effect = (freeBefore >= 0 && r.success) ? Math.max(0, systemVolumeFree() - freeBefore) : -1;
+            ledger.record(key.name(), script, r, effect, System.currentTimeMillis());
+        } finally {
+            ledger.finish(script);
+        }
+
+        Platform.runLater(() -> {
+            if (r.success) {
+                if (supportsReboot) dialog.setDoneRequiresReboot(doneMsg);
+                else dialog.setDone(doneMsg);
+            } else {
+                dialog.setFailed(failureText(r, "Command failed."));
             }
+        });
+    }
 
-            String script = getScriptFromConfig(cfg, key);
-            if (script == null) {
-                Platform.runLater(() -> dialog.setFailed("No script found in database."));
-                return;
+    /**
+     * Optimize Disk: maintenance / script / ledger checks first, then an optional analysis of the
+     * system volume (largest folders, temp/cache candidates, streamed into the dialog), then the
+     * DB script. Cancel skips the analysis, not the script.
+     *
+     * Only the system volume is analyzed: it is the one the disk script cleans (temp, caches,
+     * update leftovers), and a walk of large data volumes would dominate the run.
+     */
+    private void runOptimizeDisk() {
+        LoadingDialog dialog = LoadingDialog.show(primaryStage, "Optimizing Disk", "Fetching latest script from server...", false);
+
+        BackgroundTasks.start("disk-optimize", () -> {
+            String script = beginDbScript(dialog, ScriptKey.OPTIMIZE_DISK, "[DiskOpt]");
+            if (script == null) return;
+
+            String summary = "Completed successfully.";
+            try {
+                DirectorySizeScanner.Report report = analyzeSystemVolume(dialog);
+                if (report != null && !report.cancelled && !report.largestFolders.isEmpty()) {
+                    DirectorySizeScanner.Entry top = report.largestFolders.get(0);
+                    summary += "\nLargest: " + top.path.getFileName() + " (" + formatBytes(top.bytes) + ")"
+                            + " • temp/cache: " + formatBytes(report.cacheBytes());
+                }
+            } catch (Exception e) {
+                // the analysis is informational; the script still runs
+                logger.warn("[DiskOpt] analysis failed: {}", e.toString());
+            } finally {
+                dialog.setOnCancel(null);
             }
 
-            boolean ok = runPowerShellSync(script, logTag);
+            dialog.setMessageText("Running disk optimization...");
+            runBegunScript(dialog, ScriptKey.OPTIMIZE_DISK, script, "[DiskOpt]", false, summary);
+        });
+    }
 
-            Platform.runLater(() -> {
-                if (ok) {
-                    if (supportsReboot) dialog.setDoneRequiresReboot("Completed successfully.");
-                    else dialog.setDone("Completed successfully.");
-                } else {
-                    dialog.setFailed("Command failed.");
+    /** Blocking walk of the system volume with progress in the dialog; Cancel ends it early. */
+    private static DirectorySizeScanner.Report analyzeSystemVolume(LoadingDialog dialog) {
+        Path root = systemVolumeRoot();
+
+        String[] largest = { null };
+        long[] largestBytes = { 0 };
+        DirectorySizeScanner scanner = new DirectorySizeScanner(root, new DirectorySizeScanner.Listener() {
+            @Override
+            public void onProgress(long files, long dirs, long bytes) {
+                String big;
+                synchronized (largest) {
+                    big = (largest[0] == null) ? "" : "\nLargest so far: " + largest[0] + " (" + formatBytes(largestBytes[0]) + ")";
                 }
-            });
+                dialog.setMessageText("Analyzing " + root + " — " + files + " files, " + formatBytes(bytes) + big
+                        + "\nCancel skips the analysis.");
+            }
+
+            @Override
+            public void onFolderScanned(Path dir, long bytes) {
+                synchronized (largest) {
+                    if (bytes > largestBytes[0]) {
+                        largestBytes[0] = bytes;
+                        largest[0] = String.valueOf(dir.getFileName());
+                    }
+                }
+            }
+        });
+        dialog.setMessageText("Analyzing disk usage...");
+        dialog.setOnCancel(scanner::cancel);
+
+        DirectorySizeScanner.Report report = scanner.run();
+        logDiskReport(report, "[DiskOpt]");
+        if (report.cancelled) logger.info("[DiskOpt] analysis skipped by user; running the script");
+        return report;
+    }
+
+    private static long systemVolumeFree() {
+        try {
+            return Files.getFileStore(systemVolumeRoot()).getUsableSpace();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
 
-        }, "fxShield-db-" + key.name()).start();
+    private static Path systemVolumeRoot() {
+        String drive = System.getenv("SystemDrive");
+        if (drive != null && !drive.isBlank()) return Paths.get(drive + "\\");
+        return Paths.get(System.getProperty("user.home"));
+    }
+
+    private static void logDiskReport(DirectorySizeScanner.Report r, String tag) {
+        logger.info("{} {}: {} files, {} dirs, {} in {} ms{}{}", tag, r.root, r.files, r.dirs,
+                formatBytes(r.bytes), r.elapsedMs,
+                r.skipped > 0 ? " (" + r.skipped + " unreadable)" : "",
+                r.cancelled ? " [cancelled]" : "");
+        for (DirectorySizeScanner.Entry e : r.largestFolders) {
+            logger.info("{}   {}  {}", tag, formatBytes(e.bytes), e.path);
+        }
+        for (DirectorySizeScanner.Entry e : r.cacheCandidates) {
+            logger.info("{}   cache {}  {}", tag, formatBytes(e.bytes), e.path);
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        double gb = bytes / (1024.0 * 1024 * 1024);
+        if (gb >= 1) return String.format(Locale.ROOT, "%.1f GB", gb);
+        return String.format(Locale.ROOT, "%.0f MB", bytes / (1024.0 * 1024));
     }
 
     private void runFreeRamFromDb() {
         SystemMonitorService.RamSnapshot before = (monitor != null ? monitor.readRamOnce() : null);
         LoadingDialog dialog = LoadingDialog.show(primaryStage, "Cleaning RAM", "Fetching latest script from server...", false);
 
-        new Thread(() -> {
+        BackgroundTasks.start("db-FreeRAM", () -> {
             RemoteConfig cfg = fetchLatestConfigSafe();
 
             if (cfg != null && cfg.isMaintenance()) {
@@ -814,15 +1101,37 @@ public final class DashBoardPage extends Application {
                 return;
             }
 
-            boolean ok = runPowerShellSync(script, "[FreeRAM]");
+            ScriptLedger ledger = ScriptLedger.shared();
+            ScriptLedger.Entry recent = ledger.recentRun(ScriptKey.FREE_RAM.name(), script, System.currentTimeMillis());
+            if (recent != null) {
+                logger.info("[FreeRAM] skipped: same script succeeded {} ago", formatAgo(recent));
+                Platform.runLater(() -> dialog.setDone(skippedText(recent)));
+                return;
+            }
+            if (!ledger.tryBegin(script)) {
+                logger.info("[FreeRAM] skipped: same script is already running");
+                Platform.runLater(() -> dialog.setDone(RUNNING_TEXT));
+                return;
+            }
+
+            PsResult r;
+            SystemMonitorService.RamSnapshot after;
+            try {
+                r = runScript(dialog, script, "[FreeRAM]");
 
-            try { Thread.sleep(900); } catch (Exception ignored) {}
+                if (r.success) try { Thread.sleep(900); } catch (Exception ignored) {}
 
-            SystemMonitorService.RamSnapshot after = (monitor != null ? monitor.readRamOnce() : null);
+                after = (monitor != null ? monitor.readRamOnce() : null);
+                long freed = (before != null && after != null && r.success)
+                        ? Math.max(0, (long) ((before.usedGb - after.usedGb) * 1024 * 1024 * 1024)) : -1;
+                ledger.record(ScriptKey.FREE_RAM.name(), script, r, freed, System.currentTimeMillis());
+            } finally {
+                ledger.finish(script);
+            }
 
             Platform.runLater(() -> {
-                if (!ok) {
-                    dialog.setFailed("Cleanup failed.");
+                if (!r.success) {
+                    dialog.setFailed(failureText(r, "Cleanup failed."));
                     return;
                 }
                 if (before == null || after == null) {
@@ -839,13 +1148,13 @@ public final class DashBoardPage extends Application {
                 dialog.setDone(done);
             });
 
-        }, "fxShield-db-FreeRAM").start();
+        });
     }
 
     private void runAllInOneFromDb() {
         LoadingDialog dialog = LoadingDialog.show(primaryStage, "Full Optimization", "Fetching latest scripts from server...", false);
 
-        new Thread(() -> {
+        BackgroundTasks.start("db-allInOne", () -> {
             RemoteConfig cfg = fetchLatestConfigSafe();
 
             if (cfg != null && cfg.isMaintenance()) {
@@ -865,53 +1174,129 @@ public final class DashBoardPage extends Application {
                 return;
             }
 
-            try {
-                Platform.runLater(() -> dialog.setMessageText("Step 1/3: Cleaning memory and junk files..."));
-                runPowerShellSync(s1, "[All-RAM]");
-
-                Platform.runLater(() -> dialog.setMessageText("Step 2/3: Optimizing disk drives..."));
-                runPowerShellSync(s2, "[All-Disk]");
+            // RAM cleanup also deletes junk files, so it shares DISK with the disk pass and goes
+            // first; the network pass has nothing in common with either and runs alongside
+            TaskGraph graph = new TaskGraph()
+                    .add("Free RAM", EnumSet.of(TaskGraph.Resource.MEMORY, TaskGraph.Resource.DISK),
+                            () -> runStepScript(dialog, ScriptKey.FREE_RAM, s1, "[All-RAM]"))
+                    .add("Optimize Disk", EnumSet.of(TaskGraph.Resource.DISK),
+                            () -> runStepScript(dialog, ScriptKey.OPTIMIZE_DISK, s2, "[All-Disk]"), "Free RAM")
+                    .add("Optimize Network", EnumSet.of(TaskGraph.Resource.NETWORK),
+                            () -> runStepScript(dialog, ScriptKey.OPTIMIZE_NETWORK, s3, "[All-Net]"));
+
+            Set<String> running = new LinkedHashSet<>();
+            dialog.setOnCancel(graph::cancel);
+            TaskGraph.Report report = graph.run(new TaskGraph.Listener() {
+                @Override
+                public void onStepStarted(String name) {
+                    synchronized (running) {
+                        running.add(name);
+                        dialog.setMessageText("Running: " + String.join(", ", running) + "...");
+                    }
+                }
 
-                Platform.runLater(() -> dialog.setMessageText("Step 3/3: Optimizing network stack..."));
-                runPowerShellSync(s3, "[All-Net]");
+                @Override
+                public void onStepFinished(TaskGraph.StepResult r) {
+                    synchronized (running) {
+                        running.remove(r.name);
+                        if (!running.isEmpty()) dialog.setMessageText("Running: " + String.join(", ", running) + "...");
+                    }
+                    dialog.appendLog(r.name + ": " + r.status + " in " + formatSeconds(r.durationMs), r.status != TaskGraph.Status.OK);
+                }
+            });
+            dialog.setOnCancel(null);
 
-                Platform.runLater(() -> dialog.setDone("All optimizations completed successfully."));
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                Platform.runLater(() -> dialog.setFailed("Optimization package failed."));
+            StringBuilder summary = new StringBuilder();
+            for (TaskGraph.StepResult r : report.steps) {
+                summary.append(r.status == TaskGraph.Status.OK ? "✓ " : "✕ ").append(r.name);
+                if (r.status == TaskGraph.Status.OK || r.status == TaskGraph.Status.FAILED) {
+                    summary.append("  ").append(formatSeconds(r.durationMs));
+                } else {
+                    summary.append("  ").append(r.status.name().toLowerCase(Locale.ROOT));
+                }
+                summary.append('\n');
             }
+            summary.append("Total ").append(formatSeconds(report.elapsedMs))
+                    .append(" (sequential ").append(formatSeconds(report.sumOfStepsMs())).append(")");
+            logger.info("[All] {}", summary.toString().replace('\n', ';'));
 
-        }, "fxShield-db-allInOne").start();
+            String text = summary.toString();
+            Platform.runLater(() -> {
+                if (report.cancelled) dialog.setFailed("Cancelled.\n" + text);
+                else if (report.allOk()) dialog.setDone(text);
+                else dialog.setFailed(text);
+            });
+
+        });
     }
 
-    private boolean runPowerShellSync(String psScript, String tag) {
-        Process p = null;
+    /**
+     * One Click step: output goes to the shared dialog log prefixed with the tag (steps may run
+     * side by side). Cancelled by interrupting the step thread ({@link TaskGraph#cancel()}).
+     * A script that already succeeded within its ledger interval counts as done without running.
+     */
+    private boolean runStepScript(LoadingDialog dialog, ScriptKey key, String psScript, String tag) {
+        ScriptLedger ledger = ScriptLedger.shared();
+        ScriptLedger.Entry recent = ledger.recentRun(key.name(), psScript, System.currentTimeMillis());
+        if (recent != null) {
+            dialog.appendLog(tag + " skipped: same script succeeded " + formatAgo(recent) + " ago", false);
+            return true;
+        }
+        if (!ledger.tryBegin(psScript)) {
+            dialog.appendLog(tag + " skipped: same script is already running", false);
+            return true;
+        }
+
         try {
-            ProcessBuilder pb = new ProcessBuilder(
-                    "powershell", "-NoProfile", "-ExecutionPolicy", "Bypass", "-Command", psScript
-            );
-            pb.redirectErrorStream(true);
-            p = pb.start();
-
-            try (BufferedReader r = new BufferedReader(
-                    new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-                while (r.readLine() != null) { }
-            }
+            PsResult r = ScriptEngine.shared()
+                    .submit(psScript, PS_TIMEOUT, tag, (line, isErr) -> dialog.appendLog(tag + " " + line, isErr))
+                    .await();
+            ledger.record(key.name(), psScript, r, -1, System.currentTimeMillis());
+            return r.success;
+        } finally {
+            ledger.finish(psScript);
+        }
+    }
 
-            boolean finished = p.waitFor(PS_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
-            if (!finished) {
-                p.destroyForcibly();
-                return false;
-            }
-            return p.exitValue() == 0;
+    private static String formatAgo(ScriptLedger.Entry e) {
+        long sec = Math.max(0, (System.currentTimeMillis() - e.lastRunMs) / 1000);
+        if (sec < 90) return sec + " s";
+        if (sec < 90 * 60) return (sec / 60) + " min";
+        return String.format(Locale.ROOT, "%.1f h", sec / 3600.0);
+    }
 
-        } catch (Exception ex) {
-            if (p != null) try { p.destroyForcibly(); } catch (Exception ignored) {}
-            ex.printStackTrace();
-            return false;
+    private static final String RUNNING_TEXT = "Already running.\nSkipped to avoid starting a second copy.";
+
+    private static String skippedText(ScriptLedger.Entry e) {
+        String effect = (e.effectBytes > 0) ? " and freed " + formatBytes(e.effectBytes) : "";
+        return "Already done " + formatAgo(e) + " ago" + effect + ".\nSkipped to avoid repeating heavy work.";
+    }
+
+    private static String formatSeconds(long ms) {
+        return String.format(Locale.ROOT, "%.1f s", ms / 1000.0);
+    }
+
+    /**
+     * Runs a script on the shared {@link ScriptEngine} (bounded, logged under the tag); output
+     * streams into the dialog's log and its Cancel button kills the script while it runs.
+     * Blocking; call off the FX thread.
+     */
+    private PsResult runScript(LoadingDialog dialog, String psScript, String tag) {
+        ScriptEngine.Handle h = ScriptEngine.shared().submit(psScript, PS_TIMEOUT, tag, dialog::appendLog);
+        dialog.setOnCancel(h::cancel);
+        try {
+            return h.await();
+        } finally {
+            dialog.setOnCancel(null);
         }
     }
 
+    private static String failureText(PsResult r, String fallback) {
+        if (r.cancelled) return "Cancelled.";
+        if (r.timedOut) return "Timed out after " + PS_TIMEOUT.toSeconds() + " s.";
+        return fallback;
+    }
+
     private void reconfigureToolsGrid(int cols) {
         if (toolsGrid == null || actionCards == null) return;
         if (cols == currentCols) return;
@@ -992,6 +1377,8 @@ public final class DashBoardPage extends Application {
     private void hardExit() {
         try { if (monitor != null) monitor.stop(); } catch (Exception ignored) {}
         try { AutomationService.get().stop(); } catch (Exception ignored) {}
+        // interrupt fetches / script runs (their PowerShell hosts are killed) before exiting
+        try { BackgroundTasks.shutdown(Duration.ofSeconds(2)); } catch (Exception ignored) {}
         try { Platform.exit(); } catch (Exception ignored) {}
         System.exit(0);
     }
@@ -1,22 +1,32 @@
 // FILE: src/fxShield/UX/SystemMonitorService.java
 package fxShield.UX;
 
-import fxShield.GPU.GPUStabilizer;
+import fxShield.DISK.DiskClassifier;
+import fxShield.DISK.DiskMediaTypeDetector;
+import fxShield.DISK.DiskSmartSampler;
+import fxShield.DISK.DiskVolumeMap;
+import fxShield.DISK.ProcessIoSampler;
+import fxShield.GPU.GpuProviderHealth;
+import fxShield.GPU.GpuSmoothingChain;
+import fxShield.GPU.GpuTelemetry;
 import fxShield.GPU.GpuUsageProvider;
 import fxShield.GPU.HybridGpuUsageProvider;
+import fxShield.WIN.AlertEngine;
+import fxShield.WIN.BackgroundTasks;
+import fxShield.WIN.PsResult;
+import fxShield.WIN.ScriptEngine;
+import fxShield.WIN.SystemLoad;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import oshi.SystemInfo;
 import oshi.hardware.*;
 import oshi.software.os.FileSystem;
-import oshi.software.os.OSFileStore;
 import oshi.software.os.OperatingSystem;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -31,6 +41,8 @@ import java.util.concurrent.TimeUnit;
  */
 public final class SystemMonitorService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SystemMonitorService.class);
+
     // =========================================================================
     // Constants and Configuration
     // =========================================================================
@@ -39,6 +51,18 @@ public final class SystemMonitorService {
     private static final long CPU_MS = 500;
     private static final long GPU_MS = 200;
     private static final Duration POWERSHELL_TIMEOUT = Duration.ofSeconds(5);
+    // Disk counters EMA (active %, IOPS, latency)
+    private static final double DISK_ALPHA = 0.35;
+    // Hot-plug rediscovery period (USB / external disks)
+    private static final long DISK_DISCOVERY_MS = 5000;
+    // Per-process I/O consumers shown on the selected disk card
+    private static final int TOP_IO_PROCESSES = 3;
+    // AC / battery poll for SystemLoad (background work waits while on battery)
+    private static final long POWER_POLL_MS = 30_000;
+    // Minimized with alert rules: alert-only sampling period (monitor loop and GPU thread)
+    private static final long BACKGROUND_MS = 2000;
+    // GPU provider health (success rate, latency histogram, staleness, backoff) goes to the log this often
+    private static final long GPU_STATS_LOG_MS = 10 * 60_000;
 
     // =========================================================================
     // Data Structures
@@ -53,7 +77,6 @@ public final class SystemMonitorService {
     // =========================================================================
     private final OperatingSystem os;
     private final FileSystem fs;
-    private final HWDiskStore[] diskStores;
     private final GraphicsCard[] gpus;
     // CPU smoothing (dual EMA + median + deadband)
     private final double cpuAlphaFast = 0.45;
@@ -66,21 +89,29 @@ public final class SystemMonitorService {
     // Monitoring State
     // =========================================================================
     private final double[] cpuSortBuf = new double[5];
-    // Disk busy sampling
-    private final long[] prevTransferTime;
-    private final long[] prevDiskTs;
-    private final double[] diskBusyEma;
-    // Disk type cache (must be thread-safe; filled in background thread)
-    private final Map<Integer, String> diskTypeByIndex = new ConcurrentHashMap<>();
+    // Per-disk sampling state; the array is swapped as a whole on hot-plug (guarded by diskLock)
+    private final Object diskLock = new Object();
+    private DiskState[] diskStates;
+    // Logical volumes -> physical disk (built once, rebuilt on mount changes)
+    private final DiskVolumeMap volumeMap;
+    // Persistent serial -> media type + native queries (no PowerShell on the fast path)
+    private final DiskMediaTypeDetector mediaTypes;
+    // SMART health (smartctl) on its own slow thread; the loop only reads its cache
+    private final DiskSmartSampler smart;
+    // Top disk I/O processes, sampled slower than the UI loop
+    private final ProcessIoSampler procIo;
     // GPU monitoring
     private final boolean isWindows;
     private final GpuUsageProvider gpuProvider;
-    private final GPUStabilizer gpuStabilizer = new GPUStabilizer(2000, 0.30, 4, -1);
-    // GPU smoothing (median-of-3 + EMA) with fixed buffers
-    private final int[] gpuWindow = new int[3];
-    private final double gpuAlpha = 0.30;
+    // GPU smoothing (stabilizer + median-of-3 + EMA) with fixed buffers
+    private final GpuSmoothingChain gpuChain = new GpuSmoothingChain();
+    // GPU extended telemetry: filled in place by the GPU thread, published under lock
+    private final GpuTelemetry gpuTelemetryBuf = new GpuTelemetry();
+    private final GpuTelemetry gpuTelemetryPublished = new GpuTelemetry();
     private volatile Listener listener;
+    private volatile DiskChangeListener diskChangeListener;
     private ScheduledExecutorService exec;
+    private volatile ScheduledExecutorService discoveryExec; // read by the monitor thread for volume map rebuilds
     // CPU sampling state
     private long[] prevCpuTicks;
     private long lastCpuSampleMs = 0L;
@@ -92,11 +123,13 @@ public final class SystemMonitorService {
     private int cpuWinPos = 0;
     private volatile boolean disksWarmedUp = false;
     private volatile boolean gpuThreadRunning = false;
+    private volatile boolean background = false;
+    private long lastBackgroundSampleMs = 0; // monitor thread
     private Thread gpuThread;
     private volatile int lastGpuStableForUi = -1;
-    private int gpuWinCount = 0;
-    private int gpuWinPos = 0;
-    private int gpuEma = -1;
+    // Alert rules, evaluated every frame; disk active % by index (reused, grown on hot-plug)
+    private final AlertEngine alerts = AlertEngine.shared();
+    private double[] alertDiskBuf = new double[8];
     public SystemMonitorService() {
         si = new SystemInfo();
         hal = si.getHardware();
@@ -108,29 +141,29 @@ public final class SystemMonitorService {
         String fam = Optional.ofNullable(os.getFamily()).orElse("").toLowerCase();
         isWindows = fam.contains("windows");
 
-        List<HWDiskStore> disks = safeList(hal.getDiskStores());
-        diskStores = disks.toArray(new HWDiskStore[0]);
 
         List<GraphicsCard> gpuList = safeList(hal.getGraphicsCards());
         gpus = gpuList.toArray(new GraphicsCard[0]);
 
         prevCpuTicks = cpu.getSystemCpuLoadTicks();
 
-        prevTransferTime = new long[diskStores.length];
-        prevDiskTs = new long[diskStores.length];
-        diskBusyEma = new double[diskStores.length];
-
         long now = System.currentTimeMillis();
-        for (int i = 0; i < diskStores.length; i++) {
-            try {
-                diskStores[i].updateAttributes();
-            } catch (Exception ignored) {
-            }
-            prevTransferTime[i] = safeLong(diskStores[i].getTransferTime());
-            prevDiskTs[i] = now;
-            diskBusyEma[i] = 0.0;
+        List<HWDiskStore> disks = safeList(hal.getDiskStores());
+        diskStates = new DiskState[disks.size()];
+        for (int i = 0; i < diskStates.length; i++) {
+            diskStates[i] = new DiskState(disks.get(i), now);
         }
 
+        volumeMap = new DiskVolumeMap(fs, isWindows);
+        volumeMap.rebuild(storesOf(diskStates));
+
+        // cached types are known before the first paint
+        mediaTypes = new DiskMediaTypeDetector(isWindows);
+        for (DiskState st : diskStates) st.setHint(mediaTypes.cached(st.store));
+
+        smart = new DiskSmartSampler(isWindows, this::currentDiskStores);
+        procIo = new ProcessIoSampler(os, TOP_IO_PROCESSES);
+
         gpuProvider = new HybridGpuUsageProvider(isWindows);
     }
 
@@ -166,15 +199,8 @@ public final class SystemMonitorService {
         return (ratio <= 0.10) ? best : null;
     }
 
-    private static String decideDiskLabel(DiskWinInfo info) {
-        String media = Optional.ofNullable(info.mediaType).orElse("").toLowerCase();
-        if (media.contains("ssd")) return "SSD";
-        if (media.contains("hdd")) return "HDD";
-        if (info.rotationRate != null) {
-            if (info.rotationRate == 0) return "SSD";
-            if (info.rotationRate > 0) return "HDD";
-        }
-        return "Disk";
+    private static String decideDiskHint(DiskWinInfo info) {
+        return DiskClassifier.hintFromMedia(info.mediaType, info.rotationRate);
     }
 
     // =========================================================================
@@ -205,12 +231,6 @@ public final class SystemMonitorService {
         return v;
     }
 
-    private static int clampInt(int v, int min, int max) {
-        if (v < min) return min;
-        if (v > max) return max;
-        return v;
-    }
-
     private static <T> List<T> safeList(List<T> x) {
         return (x == null) ? Collections.emptyList() : x;
     }
@@ -219,11 +239,19 @@ public final class SystemMonitorService {
         this.listener = l;
     }
 
+    /**
+     * Hot-plug events. Called on the monitor thread, ordered with {@link Listener#onUpdate}:
+     * removals first (highest index first), then additions appended at the end.
+     */
+    public void setDiskChangeListener(DiskChangeListener l) {
+        this.diskChangeListener = l;
+    }
+
     public void start() {
         if (exec != null) return;
 
-        if (isWindows) {
-            new Thread(this::loadDiskMediaTypesWindows, "fxShield-disk-detect").start();
+        if (hasUndetectedDisks()) {
+            BackgroundTasks.start("disk-detect", this::detectDiskMediaTypes);
         }
 
         exec = Executors.newSingleThreadScheduledExecutor(r -> {
@@ -234,6 +262,8 @@ public final class SystemMonitorService {
 
         exec.schedule(() -> disksWarmedUp = true, 900, TimeUnit.MILLISECONDS);
         startGpuThread();
+        smart.start();
+        procIo.start();
 
         exec.scheduleAtFixedRate(() -> {
             try {
@@ -241,6 +271,54 @@ public final class SystemMonitorService {
             } catch (Throwable ignored) {
             }
         }, 0, LOOP_MS, TimeUnit.MILLISECONDS);
+
+        // enumeration is slow (WMI on Windows): keep it off the monitor thread
+        discoveryExec = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fxShield-disk-discovery");
+            t.setDaemon(true);
+            return t;
+        });
+        discoveryExec.scheduleWithFixedDelay(() -> {
+            try {
+                if (!background) discoverDisks();
+            } catch (Throwable ignored) {
+            }
+        }, DISK_DISCOVERY_MS, DISK_DISCOVERY_MS, TimeUnit.MILLISECONDS);
+        discoveryExec.scheduleWithFixedDelay(() -> {
+            try {
+                SystemLoad.setOnBattery(readOnBattery());
+            } catch (Throwable ignored) {
+            }
+        }, 0, POWER_POLL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Minimized to the tray with alert rules or load-gated automation: sample for alerts and
+     * {@link SystemLoad} only, every {@link #BACKGROUND_MS}.
+     * The GPU thread slows to the same period; listener updates, hot-plug discovery and the
+     * per-process I/O sampler pause. Leaving background mode rescans the disks once.
+     */
+    public void setBackground(boolean on) {
+        if (background == on) return;
+        background = on;
+
+        if (on) {
+            procIo.stop();
+            return;
+        }
+        procIo.start();
+        ScheduledExecutorService d = discoveryExec;
+        if (d != null) {
+            try {
+                d.execute(() -> {
+                    try {
+                        discoverDisks();
+                    } catch (Throwable ignored) {
+                    }
+                });
+            } catch (RejectedExecutionException ignored) {
+            }
+        }
     }
 
     // =========================================================================
@@ -257,6 +335,14 @@ public final class SystemMonitorService {
         } catch (Exception ignored) {
         }
 
+        smart.stop();
+        procIo.stop();
+
+        if (discoveryExec != null) {
+            discoveryExec.shutdownNow();
+            discoveryExec = null;
+        }
+
         if (exec != null) {
             exec.shutdownNow();
             exec = null;
@@ -267,6 +353,41 @@ public final class SystemMonitorService {
         return lastGpuStableForUi >= 0;
     }
 
+    /**
+     * Copies the latest extended GPU metrics (memory, temperature, clocks, power, throttle reasons)
+     * into {@code out}; fields are -1 when the active provider does not expose them.
+     * @return false when no provider reports extended metrics
+     */
+    public boolean getGpuTelemetry(GpuTelemetry out) {
+        synchronized (gpuTelemetryPublished) {
+            out.copyFrom(gpuTelemetryPublished);
+        }
+        return out.hasData();
+    }
+
+    /**
+     * GPU provider health (success rate, latency histogram, staleness, backoff) for diagnostics;
+     * also logged every {@link #GPU_STATS_LOG_MS} by the GPU thread. Empty when the provider is
+     * not a hybrid.
+     */
+    public List<GpuProviderHealth.Stats> getGpuProviderStats() {
+        if (gpuProvider instanceof HybridGpuUsageProvider h) return h.getProviderStats();
+        return Collections.emptyList();
+    }
+
+    private void logGpuProviderStats() {
+        if (!(gpuProvider instanceof HybridGpuUsageProvider h)) return;
+        logger.info("[GPU] active={} {}", h.getActiveProviderName(), h.getProviderStats());
+    }
+
+    /**
+     * Current top disk I/O processes (system-wide; OS counters are not per disk).
+     * Refreshed every {@link ProcessIoSampler#PERIOD_MS}; never blocks.
+     */
+    public ProcessIoSampler.ProcessIo[] getTopProcessIo() {
+        return procIo.top();
+    }
+
     public String getGpuName() {
         if (gpus.length == 0) return "Unknown";
         GraphicsCard g = gpus[0];
@@ -289,8 +410,7 @@ public final class SystemMonitorService {
     // =========================================================================
 
     public PhysicalDiskSnapshot[] sampleDisksOnce() {
-        LogicalUsage lu = readLogicalUsage();
-        return readPhysicalSnapshots(lu, System.currentTimeMillis());
+        return readPhysicalSnapshots(System.currentTimeMillis());
     }
 
     private void startGpuThread() {
@@ -298,27 +418,44 @@ public final class SystemMonitorService {
         gpuThreadRunning = true;
 
         gpuThread = new Thread(() -> {
+            long nextStatsLogMs = System.currentTimeMillis() + 60_000; // first line once discovery settled
             while (gpuThreadRunning) {
                 long now = System.currentTimeMillis();
+                if (now >= nextStatsLogMs) {
+                    nextStatsLogMs = now + GPU_STATS_LOG_MS;
+                    try {
+                        logGpuProviderStats();
+                    } catch (Throwable ignored) {
+                    }
+                }
 
                 int raw = -1;
+                boolean rawIsAggregate = false;
                 try {
-                    raw = gpuProvider.readGpuUsagePercent();
+                    // one batched telemetry pass when supported; plain usage read otherwise
+                    if (gpuProvider.readTelemetry(gpuTelemetryBuf) && gpuTelemetryBuf.gpuPercent >= 0) {
+                        raw = gpuTelemetryBuf.gpuPercent;
+                        rawIsAggregate = gpuTelemetryBuf.isIntervalAggregate();
+                        synchronized (gpuTelemetryPublished) {
+                            gpuTelemetryPublished.copyFrom(gpuTelemetryBuf);
+                        }
+                    } else {
+                        if (gpuTelemetryBuf.hasData()) { // provider changed or stopped reporting: drop stale metrics
+                            gpuTelemetryBuf.reset();
+                            synchronized (gpuTelemetryPublished) {
+                                gpuTelemetryPublished.reset();
+                            }
+                        }
+                        raw = gpuProvider.readGpuUsagePercent();
+                    }
                 } catch (Throwable ignored) {
                 }
 
-                int stable = gpuStabilizer.update(raw, now);
-
-                // stable may still be >=0 during grace window even when raw fails
-                if (stable >= 0) {
-                    pushGpuSample(stable);
-                    int median = computeGpuMedian();
-                    gpuEma = (gpuEma < 0) ? median : clampInt((int) Math.round(gpuEma + gpuAlpha * (median - gpuEma)), 0, 100);
-                    lastGpuStableForUi = gpuEma;
-                }
+                int smoothed = gpuChain.update(raw, now, rawIsAggregate);
+                if (smoothed >= 0) lastGpuStableForUi = smoothed;
 
                 try {
-                    Thread.sleep(GPU_MS);
+                    Thread.sleep(background ? BACKGROUND_MS : GPU_MS);
                 } catch (InterruptedException ie) {
                     break; // ✅ do not keep interrupt-flag + busy-loop
                 }
@@ -333,54 +470,16 @@ public final class SystemMonitorService {
     // RAM Monitoring
     // =========================================================================
 
-    private void pushGpuSample(int v) {
-        gpuWindow[gpuWinPos] = clampInt(v, 0, 100);
-        gpuWinPos++;
-        if (gpuWinPos == gpuWindow.length) gpuWinPos = 0;
-        if (gpuWinCount < gpuWindow.length) gpuWinCount++;
-    }
-
-    // =========================================================================
-    // Disk Monitoring
-    // =========================================================================
-
-    private int computeGpuMedian() {
-        if (gpuWinCount <= 0) return -1;
-        if (gpuWinCount == 1) return gpuWindow[0];
-
-        if (gpuWinCount == 2) {
-            int a = gpuWindow[0];
-            int b = gpuWindow[1];
-            return (a + b) / 2;
-        }
-
-        // median of 3
-        int a = gpuWindow[0];
-        int b = gpuWindow[1];
-        int c = gpuWindow[2];
-        if (a > b) {
-            int t = a;
-            a = b;
-            b = t;
-        }
-        if (b > c) {
-            int t = b;
-            b = c;
-            c = t;
-        }
-        if (a > b) {
-            int t = a;
-            a = b;
-            b = t;
-        }
-        return b;
-    }
-
     private void sampleAndNotify() {
         Listener l = this.listener;
         if (l == null) return;
 
         long now = System.currentTimeMillis();
+        boolean bg = background;
+        if (bg) {
+            if (now - lastBackgroundSampleMs < BACKGROUND_MS) return;
+            lastBackgroundSampleMs = now;
+        }
 
         double cpuPct = lastCpuPercent;
         if (lastCpuSampleMs == 0 || now - lastCpuSampleMs >= CPU_MS) {
@@ -396,15 +495,29 @@ public final class SystemMonitorService {
 
         PhysicalDiskSnapshot[] disks;
         if (disksWarmedUp) {
-            LogicalUsage lu = readLogicalUsage();
-            disks = readPhysicalSnapshots(lu, now);
+            volumeMap.refreshIfMountsChanged(this::currentDiskStores, now, discoveryExec);
+            disks = readPhysicalSnapshots(now);
         } else {
             disks = sampleDisksOnce();
-            for (PhysicalDiskSnapshot d : disks) d.activePercent = 0;
+            for (PhysicalDiskSnapshot d : disks) {
+                d.activePercent = 0;
+                d.hasIoStats = false;
+            }
         }
 
         int gpuToUi = (lastGpuStableForUi < 0) ? 0 : lastGpuStableForUi;
-        l.onUpdate(cpuPct, ram, disks, gpuToUi);
+        if (alertDiskBuf.length < disks.length) alertDiskBuf = new double[disks.length];
+        double busiestDisk = 0;
+        for (int i = 0; i < disks.length; i++) {
+            double a = disks[i].hasIoStats ? disks[i].activePercent : -1;
+            alertDiskBuf[i] = a;
+            busiestDisk = Math.max(busiestDisk, a);
+        }
+        SystemLoad.publish(cpuPct, ram.percent, busiestDisk, lastGpuStableForUi, now);
+        alerts.evaluate(now, cpuPct, ram.percent, lastGpuStableForUi, disksWarmedUp ? busiestDisk : -1,
+                alertDiskBuf, disks.length);
+
+        if (!bg) l.onUpdate(cpuPct, ram, disks, gpuToUi);
     }
 
     // =========================================================================
@@ -482,85 +595,269 @@ public final class SystemMonitorService {
         return s;
     }
 
-    private LogicalUsage readLogicalUsage() {
-        LogicalUsage u = new LogicalUsage();
+    /** True when a battery is discharging with no AC; desktops have no power source. */
+    private boolean readOnBattery() {
+        for (PowerSource ps : safeList(hal.getPowerSources())) {
+            if (!ps.isPowerOnLine() && ps.isDischarging()) return true;
+        }
+        return false;
+    }
+
+    private PhysicalDiskSnapshot[] readPhysicalSnapshots(long now) {
+        synchronized (diskLock) {
+            DiskState[] states = diskStates;
+            PhysicalDiskSnapshot[] snaps = new PhysicalDiskSnapshot[states.length];
+            long[] usage = new long[2];
+
+            for (int i = 0; i < states.length; i++) {
+                snaps[i] = sampleDisk(states[i], i, now, usage);
+            }
+            return snaps;
+        }
+    }
+
+    private PhysicalDiskSnapshot sampleDisk(DiskState st, int i, long now, long[] usage) {
+        HWDiskStore d = st.store;
+        try {
+            d.updateAttributes();
+        } catch (Exception ignored) {
+        }
+
+        PhysicalDiskSnapshot s = new PhysicalDiskSnapshot();
+        s.index = i;
+        s.model = safe(d.getModel(), "Disk");
+        s.sizeGb = toGb(d.getSize());
+
+        DiskClassifier.Result type = st.type;
+        s.typeLabel = type.type;
+        s.typeConfidence = type.confidence;
+        s.smart = smart.cached(st.smartKey);
+
+        long transfer = safeLong(d.getTransferTime());
+        long deltaTransfer = transfer - st.prevTransfer;
+
+        long prevTs = st.prevTs;
+        long deltaMs = now - prevTs;
+
+        double busy = 0;
+        if (deltaMs > 0 && deltaTransfer >= 0) {
+            busy = clamp01_100((deltaTransfer * 100.0) / deltaMs);
+        }
+
+        // Smooth active% with EMA
+        st.busyEma = (prevTs == 0) ? busy : (st.busyEma + DISK_ALPHA * (busy - st.busyEma));
+        s.activePercent = clamp01_100(st.busyEma);
+
+        // IOPS + average service time per I/O (transfer time / ops) from the same deltas
+        long reads = safeLong(d.getReads());
+        long writes = safeLong(d.getWrites());
+        long dReads = reads - st.prevReads;
+        long dWrites = writes - st.prevWrites;
+
+        if (deltaMs > 0 && dReads >= 0 && dWrites >= 0) {
+            double rIops = dReads * 1000.0 / deltaMs;
+            double wIops = dWrites * 1000.0 / deltaMs;
+            st.readIopsEma += DISK_ALPHA * (rIops - st.readIopsEma);
+            st.writeIopsEma += DISK_ALPHA * (wIops - st.writeIopsEma);
+
+            long ops = dReads + dWrites;
+            if (ops > 0 && deltaTransfer >= 0) {
+                double lat = deltaTransfer / (double) ops;
+                st.latencyEma = (st.latencyEma < 0) ? lat : st.latencyEma + DISK_ALPHA * (lat - st.latencyEma);
+            }
+        }
+
+        s.readIops = st.readIopsEma;
+        s.writeIops = st.writeIopsEma;
+        s.avgLatencyMs = st.latencyEma;
+        s.queueLength = safeLong(d.getCurrentQueueLength());
+        s.hasIoStats = true;
+
+        st.prevTransfer = transfer;
+        st.prevReads = reads;
+        st.prevWrites = writes;
+        st.prevTs = now;
+
+        // used/total from the volumes mapped to this disk
+        if (volumeMap.usageFor(i, usage)) {
+            s.totalGb = toGb(usage[0]);
+            s.usedGb = toGb(usage[1]);
+            s.usedPercent = s.totalGb > 0 ? clamp01_100(s.usedGb * 100.0 / s.totalGb) : 0;
+            s.hasUsage = true;
+        } else {
+            s.totalGb = s.sizeGb;
+            s.usedGb = 0;
+            s.usedPercent = 0;
+            s.hasUsage = false;
+        }
+
+        return s;
+    }
+
+    // =========================================================================
+    // Disk Hot-Plug
+    // =========================================================================
+
+    /**
+     * Runs on the discovery thread: enumerates disks and, when the set of keys changed,
+     * hands the new list to the monitor thread (so events stay ordered with snapshots).
+     */
+    private void discoverDisks() {
+        List<HWDiskStore> fresh = safeList(hal.getDiskStores());
+
+        List<String> freshKeys = new ArrayList<>(fresh.size());
+        for (HWDiskStore d : fresh) freshKeys.add(DiskState.keyOf(d));
 
-        List<OSFileStore> stores = safeList(fs.getFileStores());
-        long total = 0;
-        long used = 0;
+        List<String> currentKeys = new ArrayList<>();
+        synchronized (diskLock) {
+            for (DiskState st : diskStates) currentKeys.add(st.key);
+        }
+
+        List<String> a = new ArrayList<>(freshKeys);
+        List<String> b = new ArrayList<>(currentKeys);
+        Collections.sort(a);
+        Collections.sort(b);
+        if (a.equals(b)) return;
 
-        for (OSFileStore st : stores) {
-            long t = st.getTotalSpace();
-            long us = t - st.getUsableSpace();
-            if (t <= 0) continue;
-            total += t;
-            used += Math.max(0, us);
+        // detect types for new disks here (native, fast) before they reach the UI
+        for (HWDiskStore d : fresh) {
+            if (!currentKeys.contains(DiskState.keyOf(d))) {
+                try {
+                    mediaTypes.detect(d);
+                } catch (Throwable ignored) {
+                }
+            }
         }
+        mediaTypes.save();
 
-        u.totalGb = toGb(total);
-        u.usedGb = toGb(used);
-        return u;
+        ScheduledExecutorService ex = exec;
+        if (ex != null) ex.execute(() -> applyDiskTopology(fresh));
     }
 
-    private PhysicalDiskSnapshot[] readPhysicalSnapshots(LogicalUsage lu, long now) {
-        PhysicalDiskSnapshot[] snaps = new PhysicalDiskSnapshot[diskStores.length];
+    /**
+     * Monitor thread: keeps the state (EMAs, previous counters) of disks that are still present,
+     * drops removed ones, appends new ones, then emits remove/add events.
+     */
+    private void applyDiskTopology(List<HWDiskStore> fresh) {
+        long now = System.currentTimeMillis();
 
-        boolean singlePhysical = diskStores.length == 1 && lu.totalGb > 0;
+        List<Integer> removed = new ArrayList<>();
+        List<DiskState> added = new ArrayList<>();
+        DiskState[] next;
 
-        for (int i = 0; i < diskStores.length; i++) {
-            HWDiskStore d = diskStores[i];
-            try {
-                d.updateAttributes();
-            } catch (Exception ignored) {
+        synchronized (diskLock) {
+            // multimap key -> fresh stores (duplicate serials are matched one by one)
+            Map<String, Deque<HWDiskStore>> byKey = new LinkedHashMap<>();
+            for (HWDiskStore d : fresh) {
+                byKey.computeIfAbsent(DiskState.keyOf(d), k -> new ArrayDeque<>()).add(d);
+            }
+
+            List<DiskState> kept = new ArrayList<>();
+            for (int i = 0; i < diskStates.length; i++) {
+                Deque<HWDiskStore> q = byKey.get(diskStates[i].key);
+                if (q != null && !q.isEmpty()) {
+                    q.poll();
+                    kept.add(diskStates[i]);
+                } else {
+                    removed.add(i);
+                }
+            }
+
+            for (Deque<HWDiskStore> q : byKey.values()) {
+                for (HWDiskStore d : q) {
+                    DiskState st = new DiskState(d, now);
+                    st.setHint(mediaTypes.cached(d));
+                    kept.add(st);
+                    added.add(st);
+                }
             }
 
-            PhysicalDiskSnapshot s = new PhysicalDiskSnapshot();
-            s.index = i;
-            s.model = safe(d.getModel(), "Disk");
-            s.sizeGb = toGb(d.getSize());
+            if (removed.isEmpty() && added.isEmpty()) return;
 
-            String type = diskTypeByIndex.get(i);
-            s.typeLabel = (type == null) ? "Disk" : type;
+            next = kept.toArray(new DiskState[0]);
+            diskStates = next;
+        }
 
-            long transfer = safeLong(d.getTransferTime());
-            long prevT = prevTransferTime[i];
-            long deltaTransfer = transfer - prevT;
+        volumeMap.rebuild(storesOf(next));
 
-            long prevTs = prevDiskTs[i];
-            long deltaMs = now - prevTs;
+        DiskChangeListener l = diskChangeListener;
+        if (l == null) return;
+
+        for (int k = removed.size() - 1; k >= 0; k--) {
+            try {
+                l.onDiskRemoved(removed.get(k));
+            } catch (Throwable ignored) {
+            }
+        }
 
-            double busy = 0;
-            if (deltaMs > 0 && deltaTransfer >= 0) {
-                busy = clamp01_100((deltaTransfer * 100.0) / deltaMs);
+        long[] usage = new long[2];
+        for (DiskState st : added) {
+            int idx = indexOf(next, st);
+            PhysicalDiskSnapshot snap;
+            synchronized (diskLock) {
+                snap = sampleDisk(st, idx, now, usage);
+            }
+            snap.activePercent = 0;
+            snap.hasIoStats = false;
+            try {
+                l.onDiskAdded(snap);
+            } catch (Throwable ignored) {
             }
+        }
+    }
+
+    private static int indexOf(DiskState[] arr, DiskState st) {
+        for (int i = 0; i < arr.length; i++) if (arr[i] == st) return i;
+        return -1;
+    }
+
+    private HWDiskStore[] currentDiskStores() {
+        synchronized (diskLock) {
+            return storesOf(diskStates);
+        }
+    }
+
+    private static HWDiskStore[] storesOf(DiskState[] states) {
+        HWDiskStore[] out = new HWDiskStore[states.length];
+        for (int i = 0; i < states.length; i++) out[i] = states[i].store;
+        return out;
+    }
 
-            // Smooth active% with EMA
-            final double alphaDisk = 0.35;
-            diskBusyEma[i] = (prevTs == 0) ? busy : (diskBusyEma[i] + alphaDisk * (busy - diskBusyEma[i]));
-            s.activePercent = clamp01_100(diskBusyEma[i]);
-
-            prevTransferTime[i] = transfer;
-            prevDiskTs[i] = now;
-
-            if (singlePhysical) {
-                s.totalGb = lu.totalGb;
-                s.usedGb = lu.usedGb;
-                s.usedPercent = s.totalGb > 0 ? clamp01_100(s.usedGb * 100.0 / s.totalGb) : 0;
-                s.hasUsage = true;
-            } else {
-                s.totalGb = s.sizeGb;
-                s.usedGb = 0;
-                s.usedPercent = 0;
-                s.hasUsage = false;
+    private boolean hasUndetectedDisks() {
+        synchronized (diskLock) {
+            for (DiskState st : diskStates) if (st.mediaHint == null) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Native detection for disks missing from the cache; PowerShell only for what is still unknown.
+     */
+    private void detectDiskMediaTypes() {
+        DiskState[] states;
+        synchronized (diskLock) {
+            states = diskStates;
+        }
+
+        boolean missing = false;
+        for (DiskState st : states) {
+            if (st.mediaHint != null) continue;
+
+            String t = null;
+            try {
+                t = mediaTypes.detect(st.store);
+            } catch (Throwable ignored) {
             }
 
-            snaps[i] = s;
+            if (t != null) st.setHint(t);
+            else missing = true;
         }
 
-        return snaps;
+        if (missing && isWindows) loadDiskMediaTypesWindows(states);
+        mediaTypes.save();
     }
 
-    private void loadDiskMediaTypesWindows() {
+    private void loadDiskMediaTypesWindows(DiskState[] states) {
         try {
             Map<String, DiskWinInfo> winByModel = new HashMap<>();
             Map<Long, DiskWinInfo> winBySize = new HashMap<>();
@@ -575,8 +872,10 @@ public final class SystemMonitorService {
                     "ForEach-Object { \"$($_.Model)|$($_.MediaType)|$($_.Size)|$($_.RotationRate)\" }";
             parsePsDiskLines(runPowerShellAll(ps2), winByModel, winBySize, false);
 
-            for (int i = 0; i < diskStores.length; i++) {
-                HWDiskStore d = diskStores[i];
+            for (DiskState st : states) {
+                if (st.mediaHint != null) continue; // resolved natively / cached
+
+                HWDiskStore d = st.store;
                 String model = safe(d.getModel(), "");
                 long size = d.getSize();
 
@@ -584,8 +883,11 @@ public final class SystemMonitorService {
                 if (!model.isBlank()) best = findBestByModel(winByModel, model);
                 if (best == null) best = matchByClosestSize(size, winBySize);
 
-                String label = (best != null) ? decideDiskLabel(best) : "Disk";
-                diskTypeByIndex.put(i, label);
+                String hint = (best != null) ? decideDiskHint(best) : null;
+                if (hint != null) {
+                    st.setHint(hint);
+                    mediaTypes.remember(d, hint);
+                }
             }
         } catch (Exception ignored) {
         }
@@ -652,47 +954,25 @@ public final class SystemMonitorService {
     private String runPowerShellAll(String psCommand) {
         if (!isWindows) return null;
 
-        Process p = null;
-        try {
-            ProcessBuilder pb = new ProcessBuilder(
-                    "powershell",
-                    "-NoProfile",
-                    "-ExecutionPolicy", "Bypass",
-                    "-Command", psCommand
-            );
-            pb.redirectErrorStream(true);
-            p = pb.start();
-
-            StringBuilder sb = new StringBuilder();
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-                String line;
-                while ((line = br.readLine()) != null) sb.append(line).append('\n');
-            }
-
-            boolean finished = p.waitFor(POWERSHELL_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
-            if (!finished) {
-                p.destroyForcibly();
-                return null;
-            }
-
-            String res = sb.toString();
-            return res.isBlank() ? null : res;
+        PsResult r = ScriptEngine.shared().run(psCommand, POWERSHELL_TIMEOUT, null, null);
+        if (r.timedOut || r.cancelled) return null;
 
-        } catch (Exception e) {
-            if (p != null) {
-                try {
-                    p.destroyForcibly();
-                } catch (Exception ignored) {
-                }
-            }
-            return null;
-        }
+        String res = r.stdout + r.stderr;
+        return res.isBlank() ? null : res;
     }
 
     public interface Listener {
         void onUpdate(double cpuPercent, RamSnapshot ram, PhysicalDiskSnapshot[] disks, int gpuUsage);
     }
 
+    public interface DiskChangeListener {
+        /** Disk at {@code index} is gone; later disks shift down by one. */
+        void onDiskRemoved(int index);
+
+        /** New disk appended at {@code disk.index}. */
+        void onDiskAdded(PhysicalDiskSnapshot disk);
+    }
+
     public static class RamSnapshot {
         public double totalGb;
         public double usedGb;
@@ -703,17 +983,70 @@ public final class SystemMonitorService {
         public int index;
         public String model;
         public String typeLabel;
+        public double typeConfidence; // 0..1 (DiskClassifier)
         public double sizeGb;
         public double usedGb;
         public double totalGb;
         public double usedPercent;
         public boolean hasUsage;
         public double activePercent;
+        // I/O stats (hasIoStats=false before the first counter pass)
+        public boolean hasIoStats;
+        public double readIops;
+        public double writeIops;
+        public double avgLatencyMs = -1; // -1 = no I/O completed yet
+        public long queueLength;
+        // SMART (null until the slow sampler has read this disk, or when smartctl is unavailable)
+        public DiskSmartSampler.SmartInfo smart;
     }
 
-    private static final class LogicalUsage {
-        double totalGb;
-        double usedGb;
+    /**
+     * Sampling state of one physical disk (previous counters + EMAs), keyed by serial so it
+     * survives rediscovery.
+     */
+    private static final class DiskState {
+        final HWDiskStore store;
+        final String key;
+        final String smartKey;
+
+        long prevTransfer;
+        long prevReads;
+        long prevWrites;
+        long prevTs;
+
+        double busyEma;
+        double readIopsEma;
+        double writeIopsEma;
+        double latencyEma = -1;
+
+        volatile String mediaHint; // hardware hint; null until detected
+        volatile DiskClassifier.Result type;
+
+        DiskState(HWDiskStore store, long now) {
+            this.store = store;
+            this.key = keyOf(store);
+            this.smartKey = DiskSmartSampler.keyOf(store);
+            try {
+                store.updateAttributes();
+            } catch (Exception ignored) {
+            }
+            prevTransfer = safeLong(store.getTransferTime());
+            prevReads = safeLong(store.getReads());
+            prevWrites = safeLong(store.getWrites());
+            prevTs = now;
+            type = DiskClassifier.shared().classify(store.getSerial(), store.getModel(), null);
+        }
+
+        void setHint(String hint) {
+            mediaHint = hint;
+            type = DiskClassifier.shared().classify(store.getSerial(), store.getModel(), hint);
+        }
+
+        static String keyOf(HWDiskStore d) {
+            String serial = safe(d.getSerial(), "");
+            if (!serial.isEmpty() && !serial.equalsIgnoreCase("unknown")) return "serial:" + serial;
+            return "dev:" + safe(d.getName(), "") + "|" + safe(d.getModel(), "") + "|" + d.getSize();
+        }
     }
 
     private static final class DiskWinInfo {
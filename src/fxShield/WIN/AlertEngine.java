@@ -0,0 +1,366 @@
+package fxShield.WIN;
+
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Threshold alerts over the live monitor frames.
+ *
+ * - {@link #evaluate} runs on the monitor thread once per frame: a loop over a fixed rule array,
+ *   primitives only, no allocation. Only a raise / clear transition builds an {@link Event},
+ *   and sinks are called on a background task, never on the monitor thread.
+ * - Rules come from %APPDATA%/FxShield/alerts.properties ({@code <name>.<field>}, see
+ *   {@link AlertRule}); without that file CPU, RAM, GPU and the busiest disk get default rules.
+ * - Sinks: the tray icon (registered by the dashboard, {@code sink.tray}), an append-only
+ *   alerts.log ({@code sink.file=true}) and a webhook POST to a loopback URL
+ *   ({@code sink.webhook=http://127.0.0.1:port/path}).
+ * - Rules with a remedy hand their transitions to the {@link Remediator} (bounded, rate
+ *   limited, dry run unless {@code remediation.dryRun=false}).
+ * - Evaluation time is tracked per frame ({@link #avgEvalNs}, {@link #maxEvalNs}); see
+ *   {@link AlertEngineBenchmark}.
+ */
+public final class AlertEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertEngine.class);
+
+    public static final String FILE_NAME = "alerts.properties";
+    public static final String LOG_NAME = "alerts.log";
+    private static final String SINK_PREFIX = "sink.";
+    private static final String REMEDIATION_PREFIX = "remediation.";
+    private static final Duration WEBHOOK_TIMEOUT = Duration.ofSeconds(3);
+
+    /** One raise or clear. Immutable. */
+    public static final class Event {
+        public final String rule;
+        public final String metric;
+        public final boolean raised;
+        public final double value;
+        public final double threshold;
+        public final long timeMs;
+        public final Remediator.Action action; // remedy on raise, revert on clear; null: none
+        public final long cooldownMs;
+        public final boolean notify;
+
+        Event(AlertRule r, boolean raised, double value, long timeMs) {
+            this.rule = r.name;
+            this.metric = r.metricLabel();
+            this.raised = raised;
+            this.value = value;
+            this.threshold = raised ? r.raise : r.clear;
+            this.timeMs = timeMs;
+            this.action = raised ? r.remediate : r.revert;
+            this.cooldownMs = r.cooldownMs;
+            this.notify = r.notify;
+        }
+
+        public String message() {
+            return String.format(Locale.ROOT, raised ? "%s at %.0f%% (limit %.0f%%)" : "%s back to %.0f%% (clears at %.0f%%)",
+                    metric.equals("ramfree") ? "Free RAM" : metric.toUpperCase(Locale.ROOT), value, threshold);
+        }
+
+        @Override
+        public String toString() {
+            return Instant.ofEpochMilli(timeMs) + " " + (raised ? "RAISED " : "CLEARED ") + rule + ": " + message();
+        }
+    }
+
+    /** Receives transitions on a background task; must not assume any particular thread. */
+    public interface Sink {
+        void onAlert(Event e);
+    }
+
+    private static volatile AlertEngine shared;
+
+    private final AlertRule[] rules;
+    private final List<Sink> sinks = new CopyOnWriteArrayList<>();
+    private final boolean trayEnabled;
+    private final Remediator remediator;
+    private Consumer<Event> dispatcher = this::publish; // replaced by the benchmark
+
+    // evaluation metrics (written by the monitor thread)
+    private volatile long evalCount = 0;
+    private volatile long evalNsTotal = 0;
+    private volatile long evalNsMax = 0;
+
+    public AlertEngine(List<AlertRule> rules, boolean trayEnabled) {
+        this(rules, trayEnabled, null);
+    }
+
+    public AlertEngine(List<AlertRule> rules, boolean trayEnabled, Remediator remediator) {
+        this.rules = rules.toArray(new AlertRule[0]);
+        this.trayEnabled = trayEnabled;
+        this.remediator = remediator;
+    }
+
+    public static AlertEngine shared() {
+        AlertEngine e = shared;
+        if (e != null) return e;
+        synchronized (AlertEngine.class) {
+            if (shared == null) shared = load(FxSettings.configDir());
+            return shared;
+        }
+    }
+
+    /**
+     * Built-in rules used when alerts.properties does not exist. The two remediation rules
+     * (Performance mode under sustained CPU load, back to the previous mode when it clears;
+     * Free RAM when little memory is left) only notify through the audit log and run in
+     * dry-run mode until configured otherwise.
+     */
+    public static List<AlertRule> defaultRules() {
+        List<AlertRule> out = new ArrayList<>();
+        out.add(new AlertRule("cpu-high", AlertRule.Metric.CPU, -1, true, 90, 80, 60_000, 10_000));
+        out.add(new AlertRule("ram-high", AlertRule.Metric.RAM, -1, true, 90, 85, 60_000, 10_000));
+        out.add(new AlertRule("gpu-high", AlertRule.Metric.GPU, -1, true, 95, 85, 120_000, 10_000));
+        out.add(new AlertRule("disk-busy", AlertRule.Metric.DISK, -1, true, 95, 80, 120_000, 10_000));
+        out.add(new AlertRule("cpu-boost", AlertRule.Metric.CPU, -1, true, 90, 50, 60_000, 300_000,
+                Remediator.Action.PERFORMANCE_MODE, Remediator.Action.BALANCED_MODE, 30 * 60_000L, false));
+        out.add(new AlertRule("low-memory", AlertRule.Metric.RAM_FREE, -1, false, 10, 20, 30_000, 30_000,
+                Remediator.Action.FREE_RAM, null, 10 * 60_000L, false));
+        return out;
+    }
+
+    public void addSink(Sink s) {
+        if (s != null) sinks.add(s);
+    }
+
+    /** The dashboard's tray notifications; ignored when {@code sink.tray=false}. */
+    public void addTraySink(Sink s) {
+        if (trayEnabled) addSink(s);
+    }
+
+    public List<AlertRule> rules() {
+        return List.of(rules);
+    }
+
+    /** Null when no rule has a remedy. */
+    public Remediator remediator() {
+        return remediator;
+    }
+
+    // =========================================================================
+    // Evaluation (monitor thread)
+    // =========================================================================
+
+    /**
+     * One frame. Percentages 0..100; pass -1 for an unknown reading. {@code disks} holds
+     * {@code diskCount} active % values by disk index (may be a reused, larger buffer).
+     */
+    public void evaluate(long nowMs, double cpu, double ram, int gpu, double busiestDisk, double[] disks, int diskCount) {
+        long t0 = System.nanoTime();
+
+        for (AlertRule r : rules) {
+            double v = switch (r.metric) {
+                case CPU -> cpu;
+                case RAM -> ram;
+                case RAM_FREE -> (ram < 0) ? -1 : 100 - ram;
+                case GPU -> gpu;
+                case DISK -> (r.diskIndex < 0) ? busiestDisk
+                        : (disks != null && r.diskIndex < diskCount) ? disks[r.diskIndex] : -1;
+            };
+            int t = r.step(v, nowMs);
+            if (t != 0) dispatcher.accept(new Event(r, t > 0, v, nowMs));
+        }
+
+        long dt = System.nanoTime() - t0;
+        evalCount++;
+        evalNsTotal += dt;
+        if (dt > evalNsMax) evalNsMax = dt;
+    }
+
+    public double avgEvalNs() {
+        long n = evalCount;
+        return (n == 0) ? 0 : (double) evalNsTotal / n;
+    }
+
+    public long maxEvalNs() {
+        return evalNsMax;
+    }
+
+    void setDispatcher(Consumer<Event> d) {
+        dispatcher = (d != null) ? d : this::publish;
+    }
+
+    private void publish(Event e) {
+        logger.info("[Alert] {}", e);
+        boolean toSinks = e.notify && !sinks.isEmpty();
+        boolean toRemedy = e.action != null && remediator != null;
+        if (!toSinks && !toRemedy) return;
+
+        BackgroundTasks.start("alert-notify", () -> {
+            if (toRemedy) remediator.onTransition(e);
+            if (!toSinks) return;
+            for (Sink s : sinks) {
+                try {
+                    s.onAlert(e);
+                } catch (Throwable t) {
+                    logger.warn("Alert sink failed", t);
+                }
+            }
+        });
+    }
+
+    // =========================================================================
+    // Loading
+    // =========================================================================
+
+    static AlertEngine load(Path dir) {
+        Path file = dir.resolve(FILE_NAME);
+        if (!Files.exists(file)) return withRemediator(defaultRules(), true, new Properties(), dir);
+
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(file);
+             Reader r = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            p.load(r);
+        } catch (Exception e) {
+            logger.warn("[Alert] {} unreadable, using default rules", file, e);
+            return withRemediator(defaultRules(), true, new Properties(), dir);
+        }
+
+        Map<String, Map<String, String>> byName = new TreeMap<>();
+        for (String key : p.stringPropertyNames()) {
+            if (key.startsWith(SINK_PREFIX) || key.startsWith(REMEDIATION_PREFIX)) continue;
+            int dot = key.lastIndexOf('.');
+            if (dot <= 0) continue;
+            byName.computeIfAbsent(key.substring(0, dot), k -> new TreeMap<>())
+                    .put(key.substring(dot + 1).toLowerCase(Locale.ROOT), p.getProperty(key).trim());
+        }
+
+        List<AlertRule> rules = new ArrayList<>();
+        for (Map.Entry<String, Map<String, String>> e : byName.entrySet()) {
+            try {
+                AlertRule rule = AlertRule.parse(e.getKey(), e.getValue());
+                if (rule != null) rules.add(rule);
+            } catch (IllegalArgumentException ex) {
+                logger.warn("[Alert] Rule skipped: {}", ex.getMessage());
+            }
+        }
+
+        AlertEngine engine = withRemediator(rules,
+                Boolean.parseBoolean(p.getProperty(SINK_PREFIX + "tray", "true").trim()), p, dir);
+        if (Boolean.parseBoolean(p.getProperty(SINK_PREFIX + "file", "false").trim())) {
+            engine.addSink(fileSink(dir.resolve(LOG_NAME)));
+        }
+        String hook = p.getProperty(SINK_PREFIX + "webhook", "").trim();
+        if (!hook.isEmpty()) {
+            Sink s = webhookSink(hook);
+            if (s != null) engine.addSink(s);
+        }
+        return engine;
+    }
+
+    /** Remediation settings: remediation.dryRun (default true), remediation.maxPerHour. */
+    private static AlertEngine withRemediator(List<AlertRule> rules, boolean tray, Properties p, Path dir) {
+        boolean any = false;
+        for (AlertRule r : rules) any |= (r.remediate != null);
+        if (!any) return new AlertEngine(rules, tray);
+
+        boolean dryRun = Boolean.parseBoolean(p.getProperty(REMEDIATION_PREFIX + "dryRun", "true").trim());
+        int perHour = Remediator.DEFAULT_MAX_PER_HOUR;
+        try {
+            perHour = Integer.parseInt(p.getProperty(REMEDIATION_PREFIX + "maxPerHour", "" + perHour).trim());
+        } catch (NumberFormatException e) {
+            logger.warn("[Alert] Bad remediation.maxPerHour, using {}", perHour);
+        }
+        logger.info("[Alert] Remediation {} ({} per hour max)", dryRun ? "in dry-run mode" : "enabled", perHour);
+        return new AlertEngine(rules, tray, new Remediator(dryRun, perHour, dir.resolve(Remediator.AUDIT_NAME)));
+    }
+
+    // =========================================================================
+    // Sinks
+    // =========================================================================
+
+    /** One line per transition, appended. */
+    public static Sink fileSink(Path file) {
+        Object lock = new Object();
+        return e -> {
+            synchronized (lock) {
+                try {
+                    Files.createDirectories(file.getParent());
+                    Files.writeString(file, e + System.lineSeparator(), StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                } catch (IOException ex) {
+                    logger.warn("[Alert] Cannot write {}", file, ex);
+                }
+            }
+        };
+    }
+
+    /** "localhost" or a loopback IP literal; names are not resolved (no DNS on load). */
+    private static boolean isLoopbackHost(String host) {
+        if (host == null) return false;
+        if (host.equalsIgnoreCase("localhost")) return true;
+        String h = (host.startsWith("[") && host.endsWith("]")) ? host.substring(1, host.length() - 1) : host;
+        if (!h.matches("[0-9.]+") && !h.contains(":")) return false;
+        try {
+            return InetAddress.getByName(h).isLoopbackAddress();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /** JSON POST per transition; null (logged) unless the URL is http(s) on a loopback host. */
+    public static Sink webhookSink(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+            String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+            if (!scheme.equals("http") && !scheme.equals("https")) throw new IllegalArgumentException("not http");
+            if (!isLoopbackHost(uri.getHost())) throw new IllegalArgumentException("not a local address");
+        } catch (Exception ex) {
+            logger.warn("[Alert] Webhook '{}' ignored: {}", url, ex.getMessage());
+            return null;
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(WEBHOOK_TIMEOUT).build();
+        return e -> {
+            JsonObject json = new JsonObject();
+            json.addProperty("rule", e.rule);
+            json.addProperty("metric", e.metric);
+            json.addProperty("state", e.raised ? "raised" : "cleared");
+            json.addProperty("value", e.value);
+            json.addProperty("threshold", e.threshold);
+            json.addProperty("time", Instant.ofEpochMilli(e.timeMs).toString());
+            json.addProperty("message", e.message());
+
+            HttpRequest req = HttpRequest.newBuilder(uri)
+                    .timeout(WEBHOOK_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json.toString(), StandardCharsets.UTF_8))
+                    .build();
+            try {
+                HttpResponse<Void> res = client.send(req, HttpResponse.BodyHandlers.discarding());
+                if (res.statusCode() >= 300) logger.warn("[Alert] Webhook answered {}", res.statusCode());
+            } catch (IOException ex) {
+                logger.warn("[Alert] Webhook failed: {}", ex.toString());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+}
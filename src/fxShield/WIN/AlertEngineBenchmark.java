@@ -0,0 +1,104 @@
+package fxShield.WIN;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Per-frame cost of {@link AlertEngine#evaluate} with 100 rules over a synthetic metric trace
+ * (slow waves plus noise, so rules keep crossing their thresholds). Prints avg / p99 / max µs
+ * per frame against the 50 µs budget, and the bytes allocated by the evaluation loop when the
+ * JVM can report it (only the raise / clear events allocate). Transitions are counted instead of
+ * logged, so the numbers are the evaluation alone.
+ *
+ * Run: java fxShield.WIN.AlertEngineBenchmark [frames]
+ */
+public final class AlertEngineBenchmark {
+
+    private static final int RULES = 100;
+    private static final int DISKS = 4;
+    private static final double BUDGET_US = 50;
+
+    private AlertEngineBenchmark() {}
+
+    public static void main(String[] args) {
+        int frames = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+
+        AlertRule.Metric[] metrics = AlertRule.Metric.values();
+        List<AlertRule> rules = new ArrayList<>(RULES);
+        Random rnd = new Random(42);
+        for (int i = 0; i < RULES; i++) {
+            AlertRule.Metric m = metrics[i % metrics.length];
+            int disk = (m == AlertRule.Metric.DISK) ? (i / metrics.length) % (DISKS + 1) - 1 : -1;
+            boolean above = (i % 7) != 0;
+            double raise = above ? 60 + rnd.nextInt(35) : 5 + rnd.nextInt(20);
+            double clear = above ? raise - 5 : raise + 5;
+            rules.add(new AlertRule("r" + i, m, disk, above, raise, clear, rnd.nextInt(4) * 1000L, 1000));
+        }
+        AlertEngine engine = new AlertEngine(rules, false);
+        long[] transitions = new long[1];
+        engine.setDispatcher(e -> transitions[0]++); // count instead of logging / notifying
+
+        // pre-computed trace: the measured loop only reads arrays
+        double[] cpu = new double[frames];
+        double[] ram = new double[frames];
+        int[] gpu = new int[frames];
+        double[][] disk = new double[frames][DISKS];
+        double[] busiest = new double[frames];
+        for (int f = 0; f < frames; f++) {
+            cpu[f] = wave(f, 400, rnd);
+            ram[f] = wave(f + 1000, 2000, rnd);
+            gpu[f] = (int) wave(f + 300, 900, rnd);
+            for (int d = 0; d < DISKS; d++) {
+                disk[f][d] = wave(f + d * 77, 150 + d * 50, rnd);
+                busiest[f] = Math.max(busiest[f], disk[f][d]);
+            }
+        }
+
+        // warm-up (JIT) on the same trace
+        for (int f = 0; f < Math.min(frames, 50_000); f++) {
+            engine.evaluate(f * 250L, cpu[f], ram[f], gpu[f], busiest[f], disk[f], DISKS);
+        }
+
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        long alloc0 = allocatedBytes(mx);
+        long[] ns = new long[frames];
+        long base = 1_000_000_000L;
+        for (int f = 0; f < frames; f++) {
+            long t0 = System.nanoTime();
+            engine.evaluate(base + f * 250L, cpu[f], ram[f], gpu[f], busiest[f], disk[f], DISKS);
+            ns[f] = System.nanoTime() - t0;
+        }
+        long alloc1 = allocatedBytes(mx);
+
+        Arrays.sort(ns);
+        double avgUs = Arrays.stream(ns).average().orElse(0) / 1000.0;
+        double p99Us = ns[(int) (frames * 0.99)] / 1000.0;
+        double maxUs = ns[frames - 1] / 1000.0;
+
+        System.out.println(RULES + " rules, " + frames + " frames, " + transitions[0] + " transitions");
+        System.out.println(String.format(Locale.ROOT, "per frame: avg %.2f us, p99 %.2f us, max %.1f us (budget %.0f us)",
+                avgUs, p99Us, maxUs, BUDGET_US));
+        if (alloc0 >= 0 && alloc1 >= 0) {
+            System.out.println(String.format(Locale.ROOT, "allocated: %d bytes (%.3f per frame, transitions included)",
+                    alloc1 - alloc0, (alloc1 - alloc0) / (double) frames));
+        }
+        System.out.println(p99Us <= BUDGET_US ? "PASS" : "FAIL");
+    }
+
+    private static double wave(int f, int period, Random rnd) {
+        double v = 50 + 45 * Math.sin(2 * Math.PI * f / period) + rnd.nextGaussian() * 3;
+        return Math.max(0, Math.min(100, v));
+    }
+
+    private static long allocatedBytes(ThreadMXBean mx) {
+        if (mx instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemorySupported()) {
+            return sun.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,183 @@
+package fxShield.WIN;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One threshold alert with hysteresis: raised once the metric has stayed past {@link #raise} for
+ * {@link #forMs}, cleared once it has stayed back past {@link #clear} for {@link #clearForMs}.
+ * Between the two thresholds nothing changes, so a value hovering at the limit does not flap.
+ *
+ * A rule may carry a remedy ({@link Remediator.Action}) run when it is raised, and a revert
+ * action run when it clears. A power-mode revert restores the mode the remedy replaced; the
+ * configured one is the fallback when that mode is unknown.
+ *
+ * Configuration is immutable; the evaluation state is a few primitives touched only by the
+ * monitor thread ({@link AlertEngine#evaluate}), so a rule costs the same memory forever.
+ */
+public final class AlertRule {
+
+    public enum Metric { CPU, RAM, RAM_FREE, GPU, DISK }
+
+    private static final double DEFAULT_HYSTERESIS = 5;
+    private static final long DEFAULT_COOLDOWN_MS = 10 * 60_000L;
+
+    public final String name;
+    public final Metric metric;
+    public final int diskIndex;     // DISK only; -1 = busiest disk
+    public final boolean above;     // false: alert when the value drops below
+    public final double raise;
+    public final double clear;
+    public final long forMs;
+    public final long clearForMs;
+    // remediation (null: alert only)
+    public final Remediator.Action remediate;
+    public final Remediator.Action revert;
+    public final long cooldownMs;
+    public final boolean notify;    // false: audit / log only, no tray / file / webhook
+
+    // evaluation state (monitor thread)
+    boolean firing = false;
+    long pastSinceMs = -1;
+    long backSinceMs = -1;
+    double lastValue = -1;
+
+    public AlertRule(String name, Metric metric, int diskIndex, boolean above, double raise, double clear,
+                     long forMs, long clearForMs) {
+        this(name, metric, diskIndex, above, raise, clear, forMs, clearForMs, null, null, 0, true);
+    }
+
+    public AlertRule(String name, Metric metric, int diskIndex, boolean above, double raise, double clear,
+                     long forMs, long clearForMs, Remediator.Action remediate, Remediator.Action revert,
+                     long cooldownMs, boolean notify) {
+        if (metric == null) throw new IllegalArgumentException(name + ": metric required");
+        if (above ? clear > raise : clear < raise) {
+            throw new IllegalArgumentException(name + ": clear must be on the safe side of the threshold");
+        }
+        this.name = name;
+        this.metric = metric;
+        this.diskIndex = (metric == Metric.DISK) ? Math.max(-1, diskIndex) : -1;
+        this.above = above;
+        this.raise = raise;
+        this.clear = clear;
+        this.forMs = Math.max(0, forMs);
+        this.clearForMs = Math.max(0, clearForMs);
+        this.remediate = remediate;
+        this.revert = (remediate != null) ? revert : null;
+        this.cooldownMs = Math.max(0, cooldownMs);
+        this.notify = notify;
+    }
+
+    public boolean isFiring() {
+        return firing;
+    }
+
+    /** +1 raised, -1 cleared, 0 no change. A negative value (no reading) only resets the timers. */
+    int step(double value, long nowMs) {
+        if (!(value >= 0)) { // also NaN
+            pastSinceMs = -1;
+            backSinceMs = -1;
+            return 0;
+        }
+        lastValue = value;
+
+        if (!firing) {
+            backSinceMs = -1;
+            if (above ? value <= raise : value >= raise) {
+                pastSinceMs = -1;
+                return 0;
+            }
+            if (pastSinceMs < 0) pastSinceMs = nowMs;
+            if (nowMs - pastSinceMs < forMs) return 0;
+            firing = true;
+            pastSinceMs = -1;
+            return 1;
+        }
+
+        pastSinceMs = -1;
+        if (above ? value >= clear : value <= clear) {
+            backSinceMs = -1;
+            return 0;
+        }
+        if (backSinceMs < 0) backSinceMs = nowMs;
+        if (nowMs - backSinceMs < clearForMs) return 0;
+        firing = false;
+        backSinceMs = -1;
+        return -1;
+    }
+
+    /** "cpu", "ram", "ramfree" (available %), "gpu", "disk" (busiest) or "disk0", "disk1"... */
+    public String metricLabel() {
+        if (metric == Metric.DISK && diskIndex >= 0) return "disk" + diskIndex;
+        return metric.name().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        String s = String.format(Locale.ROOT, "%s: %s %s %.0f for %ds (clear %.0f for %ds)", name, metricLabel(),
+                above ? ">" : "<", raise, forMs / 1000, clear, clearForMs / 1000);
+        if (remediate != null) s += " -> " + remediate + (revert != null ? " / " + revert : "");
+        return s;
+    }
+
+    // =========================================================================
+    // Parsing (alerts.properties, <name>.<field>)
+    // =========================================================================
+
+    /**
+     * Fields: metric, above or below, clear, for, clearFor, enabled; remediation: remediate,
+     * revert, cooldown (default 10 min), notify (default true). Null when disabled.
+     *
+     * @throws IllegalArgumentException on a malformed rule
+     */
+    static AlertRule parse(String name, Map<String, String> f) {
+        if (f.containsKey("enabled") && !Boolean.parseBoolean(f.get("enabled"))) return null;
+
+        String m = f.getOrDefault("metric", "").trim().toLowerCase(Locale.ROOT);
+        Metric metric;
+        int disk = -1;
+        if (m.equals("ramfree")) {
+            metric = Metric.RAM_FREE;
+        } else if (m.startsWith("disk")) {
+            metric = Metric.DISK;
+            if (m.length() > 4) disk = (int) number(name, m.substring(4));
+        } else {
+            try {
+                metric = Metric.valueOf(m.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(name + ": unknown metric '" + m + "'");
+            }
+        }
+
+        boolean above = f.containsKey("above");
+        if (above == f.containsKey("below")) throw new IllegalArgumentException(name + ": needs one of above / below");
+        double raise = number(name, f.get(above ? "above" : "below"));
+        double clear = f.containsKey("clear") ? number(name, f.get("clear"))
+                : (above ? raise - DEFAULT_HYSTERESIS : raise + DEFAULT_HYSTERESIS);
+
+        return new AlertRule(name, metric, disk, above, raise, clear,
+                f.containsKey("for") ? AutomationPolicy.duration(name, f.get("for")) : 0,
+                f.containsKey("clearfor") ? AutomationPolicy.duration(name, f.get("clearfor")) : 0,
+                action(name, f.get("remediate")),
+                action(name, f.get("revert")),
+                f.containsKey("cooldown") ? AutomationPolicy.duration(name, f.get("cooldown")) : DEFAULT_COOLDOWN_MS,
+                Boolean.parseBoolean(f.getOrDefault("notify", "true")));
+    }
+
+    private static Remediator.Action action(String name, String s) {
+        if (s == null || s.isBlank()) return null;
+        try {
+            return Remediator.Action.valueOf(s.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(name + ": unknown action '" + s + "'");
+        }
+    }
+
+    private static double number(String name, String s) {
+        try {
+            return Double.parseDouble(s.trim().replace("%", ""));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(name + ": bad number '" + s + "'");
+        }
+    }
+}
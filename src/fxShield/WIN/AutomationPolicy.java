@@ -0,0 +1,293 @@
+package fxShield.WIN;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One automation rule: what to run, when, and under which conditions. Immutable.
+ *
+ * Rules live in %APPDATA%/FxShield/automation-policies.properties as {@code <name>.<field>}:
+ * <pre>
+ * nightly-disk.action   = OPTIMIZE_DISK
+ * nightly-disk.cron     = 30 2 * * *
+ * nightly-disk.window   = 01:00-06:00
+ * nightly-disk.jitter   = 15m
+ * nightly-disk.idle     = true
+ *
+ * ram-pressure.action   = FREE_RAM
+ * ram-pressure.when     = ram > 85 for 2m
+ * ram-pressure.cooldown = 15m
+ * </pre>
+ * - Trigger: {@code cron} or {@code every} (duration); with neither, the rule fires whenever
+ *   {@code when} has held for its duration.
+ * - {@code window} (local time, may wrap midnight) limits when it may run; {@code jitter} adds a
+ *   random delay to each time trigger; {@code cooldown} is the minimum gap between runs.
+ * - {@code idle=true} defers until the machine is quiet ({@link SystemLoad}), at most
+ *   {@code maxDefer}.
+ * - Durations: plain seconds or with s / m / h / d.
+ */
+public final class AutomationPolicy {
+
+    public static final String FILE_NAME = "automation-policies.properties";
+
+    public enum Action { FREE_RAM, OPTIMIZE_DISK }
+
+    public enum Metric { CPU, RAM, DISK, GPU }
+
+    private static final long DEFAULT_MAX_DEFER_MS = 60 * 60_000L;
+    private static final long DEFAULT_CONDITION_COOLDOWN_MS = 10 * 60_000L;
+    private static final Pattern CONDITION = Pattern.compile(
+            "(cpu|ram|disk|gpu)\\s*([<>])\\s*(\\d+(?:\\.\\d+)?)\\s*%?(?:\\s+for\\s+(\\S+))?",
+            Pattern.CASE_INSENSITIVE);
+
+    /** "metric > threshold for duration". Immutable. */
+    public static final class Condition {
+        public final Metric metric;
+        public final boolean above;
+        public final double threshold;
+        public final long forMs;
+
+        Condition(Metric metric, boolean above, double threshold, long forMs) {
+            this.metric = metric;
+            this.above = above;
+            this.threshold = threshold;
+            this.forMs = forMs;
+        }
+
+        /** False for an unknown reading (GPU not supported). */
+        public boolean test(SystemLoad.Sample s) {
+            double v = switch (metric) {
+                case CPU -> s.cpuPercent;
+                case RAM -> s.ramPercent;
+                case DISK -> s.diskActivePercent;
+                case GPU -> s.gpuPercent;
+            };
+            if (v < 0) return false;
+            return above ? v > threshold : v < threshold;
+        }
+
+        @Override
+        public String toString() {
+            return metric.name().toLowerCase(Locale.ROOT) + (above ? " > " : " < ")
+                    + String.format(Locale.ROOT, "%.0f", threshold) + " for " + (forMs / 1000) + "s";
+        }
+    }
+
+    public final String name;
+    public final Action action;
+    public final CronExpression cron;    // null: no cron trigger
+    public final long everyMs;           // -1: no interval trigger
+    public final LocalTime windowStart;  // null: any time
+    public final LocalTime windowEnd;
+    public final long jitterMs;
+    public final Condition condition;    // null: unconditional
+    public final long cooldownMs;
+    public final boolean idleOnly;
+    public final long maxDeferMs;
+
+    public AutomationPolicy(String name, Action action, CronExpression cron, long everyMs,
+                            LocalTime windowStart, LocalTime windowEnd, long jitterMs, Condition condition,
+                            long cooldownMs, boolean idleOnly, long maxDeferMs) {
+        if (action == null) throw new IllegalArgumentException(name + ": action required");
+        if (cron == null && everyMs <= 0 && condition == null) {
+            throw new IllegalArgumentException(name + ": needs cron, every or when");
+        }
+        if ((windowStart == null) != (windowEnd == null)) throw new IllegalArgumentException(name + ": bad window");
+        this.name = name;
+        this.action = action;
+        this.cron = cron;
+        this.everyMs = (cron == null && everyMs > 0) ? everyMs : -1;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.jitterMs = Math.max(0, jitterMs);
+        this.condition = condition;
+        this.cooldownMs = Math.max(0, cooldownMs);
+        this.idleOnly = idleOnly;
+        this.maxDeferMs = Math.max(0, maxDeferMs);
+    }
+
+    /** Interval rule (the settings toggles). */
+    public static AutomationPolicy every(String name, Action action, long everyMs, boolean idleOnly, long maxDeferMs) {
+        return new AutomationPolicy(name, action, null, everyMs, null, null, 0, null, 0, idleOnly, maxDeferMs);
+    }
+
+    /** True when only {@link #condition} triggers the rule. */
+    public boolean isConditionTriggered() {
+        return cron == null && everyMs <= 0;
+    }
+
+    public boolean inWindow(long ms, ZoneId zone) {
+        if (windowStart == null) return true;
+        LocalTime t = ZonedDateTime.ofInstant(Instant.ofEpochMilli(ms), zone).toLocalTime();
+        if (!windowStart.isAfter(windowEnd)) return !t.isBefore(windowStart) && t.isBefore(windowEnd);
+        return !t.isBefore(windowStart) || t.isBefore(windowEnd); // wraps midnight
+    }
+
+    /**
+     * Next time trigger after {@code afterMs}, inside the window, before jitter; -1 for
+     * condition-triggered rules or a cron that never matches.
+     */
+    public long nextTrigger(long afterMs, ZoneId zone) {
+        if (isConditionTriggered()) return -1;
+
+        long t = afterMs;
+        for (int i = 0; i < 10_000; i++) { // a window can exclude many cron matches in a row
+            t = (cron != null) ? cron.next(t, zone) : t + everyMs;
+            if (t < 0) return -1;
+            if (inWindow(t, zone)) return t;
+            if (cron == null) return windowOpensAfter(t, zone); // interval: wait for the window
+        }
+        return -1;
+    }
+
+    private long windowOpensAfter(long ms, ZoneId zone) {
+        ZonedDateTime z = ZonedDateTime.ofInstant(Instant.ofEpochMilli(ms), zone);
+        ZonedDateTime open = z.with(windowStart).withSecond(0).withNano(0);
+        if (!open.isAfter(z)) open = open.plusDays(1);
+        return open.toInstant().toEpochMilli();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(name).append(": ").append(action);
+        if (cron != null) sb.append(" cron '").append(cron).append('\'');
+        if (everyMs > 0) sb.append(" every ").append(everyMs / 1000).append('s');
+        if (windowStart != null) sb.append(" in ").append(windowStart).append('-').append(windowEnd);
+        if (condition != null) sb.append(" when ").append(condition);
+        if (idleOnly) sb.append(" when idle");
+        return sb.toString();
+    }
+
+    // =========================================================================
+    // Loading
+    // =========================================================================
+
+    /** Rules from the policy file; invalid rules are reported to {@code onError} and skipped. */
+    public static List<AutomationPolicy> load(Path file, Consumer<String> onError) {
+        List<AutomationPolicy> out = new ArrayList<>();
+        if (file == null || !Files.exists(file)) return out;
+
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(file);
+             Reader r = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            p.load(r);
+        } catch (Exception e) {
+            onError.accept(file + ": " + e.getMessage());
+            return out;
+        }
+
+        Map<String, Map<String, String>> byName = new TreeMap<>();
+        for (String key : p.stringPropertyNames()) {
+            int dot = key.lastIndexOf('.');
+            if (dot <= 0) continue;
+            byName.computeIfAbsent(key.substring(0, dot), k -> new TreeMap<>())
+                    .put(key.substring(dot + 1).toLowerCase(Locale.ROOT), p.getProperty(key).trim());
+        }
+
+        for (Map.Entry<String, Map<String, String>> e : byName.entrySet()) {
+            try {
+                AutomationPolicy policy = parse(e.getKey(), e.getValue());
+                if (policy != null) out.add(policy);
+            } catch (IllegalArgumentException ex) {
+                onError.accept(ex.getMessage());
+            }
+        }
+        return out;
+    }
+
+    /** Null when the rule is disabled. */
+    static AutomationPolicy parse(String name, Map<String, String> f) {
+        if (f.containsKey("enabled") && !Boolean.parseBoolean(f.get("enabled"))) return null;
+
+        Action action;
+        try {
+            action = Action.valueOf(f.getOrDefault("action", "").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(name + ": unknown action '" + f.get("action") + "'");
+        }
+
+        CronExpression cron = null;
+        if (f.containsKey("cron")) {
+            try {
+                cron = CronExpression.parse(f.get("cron"));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(name + ": " + e.getMessage());
+            }
+        }
+
+        LocalTime ws = null, we = null;
+        String window = f.get("window");
+        if (window != null) {
+            String[] parts = window.split("-");
+            try {
+                if (parts.length != 2) throw new DateTimeParseException("expected HH:mm-HH:mm", window, 0);
+                ws = LocalTime.parse(parts[0].trim());
+                we = LocalTime.parse(parts[1].trim());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(name + ": bad window '" + window + "'");
+            }
+        }
+
+        Condition condition = null;
+        String when = f.get("when");
+        if (when != null) {
+            Matcher m = CONDITION.matcher(when.trim());
+            if (!m.matches()) throw new IllegalArgumentException(name + ": bad condition '" + when + "'");
+            condition = new Condition(Metric.valueOf(m.group(1).toUpperCase(Locale.ROOT)), m.group(2).equals(">"),
+                    Double.parseDouble(m.group(3)), m.group(4) == null ? 0 : duration(name, m.group(4)));
+        }
+
+        boolean conditionOnly = cron == null && !f.containsKey("every");
+        long cooldown = f.containsKey("cooldown") ? duration(name, f.get("cooldown"))
+                : (conditionOnly ? DEFAULT_CONDITION_COOLDOWN_MS : 0);
+
+        return new AutomationPolicy(name, action, cron,
+                f.containsKey("every") ? duration(name, f.get("every")) : -1,
+                ws, we,
+                f.containsKey("jitter") ? duration(name, f.get("jitter")) : 0,
+                condition,
+                cooldown,
+                Boolean.parseBoolean(f.getOrDefault("idle", "false")),
+                f.containsKey("maxdefer") ? duration(name, f.get("maxdefer")) : DEFAULT_MAX_DEFER_MS);
+    }
+
+    /** "90", "90s", "2m", "1h", "1d" in ms. */
+    static long duration(String name, String s) {
+        String t = s.trim().toLowerCase(Locale.ROOT);
+        long unit = 1000;
+        if (!t.isEmpty()) {
+            switch (t.charAt(t.length() - 1)) {
+                case 's' -> t = t.substring(0, t.length() - 1);
+                case 'm' -> { unit = 60_000; t = t.substring(0, t.length() - 1); }
+                case 'h' -> { unit = 3_600_000; t = t.substring(0, t.length() - 1); }
+                case 'd' -> { unit = 86_400_000; t = t.substring(0, t.length() - 1); }
+                default -> { }
+            }
+        }
+        try {
+            long v = Long.parseLong(t.trim());
+            if (v < 0) throw new NumberFormatException();
+            return v * unit;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + ": bad duration '" + s + "'");
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package fxShield.WIN;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the automation schedule pieces (no Windows needed):
+ * - {@link CronExpression#next}: DST gap (skipped local time runs at the shifted instant),
+ *   DST overlap (a repeated local time runs once), the day-of-month / day-of-week OR rule,
+ *   Sunday as 0 and 7, an expression that never matches
+ * - {@link AutomationPolicy}: time windows that wrap midnight, interval and cron triggers
+ *   waiting for the window to open
+ * - {@link TimerWheel}: timers further away than one turn of the wheel, ordering, cancel,
+ *   scheduling from a callback
+ *
+ * Cron and window checks use America/New_York (2026: gap on 8 March, overlap on 1 November).
+ *
+ * Run: java fxShield.WIN.AutomationScheduleHarness
+ * Exit code 1 when a check fails.
+ */
+public final class AutomationScheduleHarness {
+
+    private static final ZoneId NY = ZoneId.of("America/New_York");
+
+    private static int failures = 0;
+
+    private AutomationScheduleHarness() {}
+
+    public static void main(String[] args) throws Exception {
+        cron();
+        windows();
+        wheel();
+
+        System.out.println(failures == 0 ? "all checks passed" : failures + " check(s) failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    // =========================================================================
+    // CronExpression
+    // =========================================================================
+
+    private static void cron() {
+        CronExpression at0230 = CronExpression.parse("30 2 * * *");
+        expect("DST gap: 02:30 runs at 03:30 EDT", at0230.next(local("2026-03-08T01:00"), NY), "2026-03-08T07:30:00Z");
+        expect("DST gap: next day back at 02:30", at0230.next(utc("2026-03-08T07:30:00Z"), NY), "2026-03-09T06:30:00Z");
+
+        CronExpression every15 = CronExpression.parse("*/15 * * * *");
+        expect("DST gap: 01:45 EST -> 03:00 EDT", every15.next(local("2026-03-08T01:45"), NY), "2026-03-08T07:00:00Z");
+
+        CronExpression at0130 = CronExpression.parse("30 1 * * *");
+        long first = at0130.next(local("2026-11-01T00:00"), NY);
+        expect("DST overlap: 01:30 runs at the EDT instant", first, "2026-11-01T05:30:00Z");
+        expect("DST overlap: repeated 01:30 EST does not run again", at0130.next(first, NY), "2026-11-02T06:30:00Z");
+
+        CronExpression hourly = CronExpression.parse("@hourly");
+        expect("DST overlap: hourly after 01:00 EDT skips the repeated hour",
+                hourly.next(utc("2026-11-01T05:00:00Z"), NY), "2026-11-01T07:00:00Z");
+
+        // 2026-02-01 is a Sunday; Fridays are the 6th, 13th, 20th
+        CronExpression domOrDow = CronExpression.parse("0 9 13 * 5");
+        expect("dom|dow: first Friday", domOrDow.next(local("2026-02-01T00:00"), NY), local("2026-02-06T09:00"));
+        expect("dom|dow: 13th (also a Friday)", domOrDow.next(local("2026-02-06T09:00"), NY), local("2026-02-13T09:00"));
+        expect("dom|dow: 13th on a Monday", domOrDow.next(local("2026-04-10T09:00"), NY), local("2026-04-13T09:00"));
+
+        CronExpression firstWeekOrMonday = CronExpression.parse("0 0 1-7 * 1");
+        expect("dom|dow: a Monday outside 1-7 matches", firstWeekOrMonday.next(local("2026-02-07T00:00"), NY),
+                local("2026-02-09T00:00"));
+
+        expect("dom only: dow '*' does not widen it", CronExpression.parse("0 9 13 * *").next(local("2026-02-13T09:00"), NY),
+                local("2026-03-13T09:00"));
+        expect("dow only: dom '*' does not widen it", CronExpression.parse("0 9 * * 5").next(local("2026-02-06T09:00"), NY),
+                local("2026-02-13T09:00"));
+
+        expect("Sunday is 7 as well as 0", CronExpression.parse("0 8 * * 7").next(local("2026-02-02T00:00"), NY),
+                local("2026-02-08T08:00"));
+        expect("never matches -> -1", CronExpression.parse("0 0 31 2 *").next(local("2026-01-01T00:00"), NY), -1);
+        expect("strictly after", at0230.next(local("2026-02-10T02:30"), NY), local("2026-02-11T02:30"));
+    }
+
+    // =========================================================================
+    // AutomationPolicy windows
+    // =========================================================================
+
+    private static void windows() {
+        AutomationPolicy night = new AutomationPolicy("night", AutomationPolicy.Action.OPTIMIZE_DISK, null, 3_600_000L,
+                LocalTime.of(22, 0), LocalTime.of(6, 0), 0, null, 0, false, 0);
+
+        check("wrap: 22:00 inside (start inclusive)", night.inWindow(local("2026-05-04T22:00"), NY), "");
+        check("wrap: 23:30 inside", night.inWindow(local("2026-05-04T23:30"), NY), "");
+        check("wrap: 03:00 inside", night.inWindow(local("2026-05-05T03:00"), NY), "");
+        check("wrap: 06:00 outside (end exclusive)", !night.inWindow(local("2026-05-05T06:00"), NY), "");
+        check("wrap: 12:00 outside", !night.inWindow(local("2026-05-05T12:00"), NY), "");
+
+        AutomationPolicy early = new AutomationPolicy("early", AutomationPolicy.Action.FREE_RAM, null, 3_600_000L,
+                LocalTime.of(1, 0), LocalTime.of(6, 0), 0, null, 0, false, 0);
+        check("plain: 00:30 outside", !early.inWindow(local("2026-05-05T00:30"), NY), "");
+        check("plain: 05:59 inside", early.inWindow(local("2026-05-05T05:59"), NY), "");
+
+        expect("interval: out of window waits for 22:00", night.nextTrigger(local("2026-05-05T12:00"), NY),
+                local("2026-05-05T22:00"));
+        expect("interval: 05:30 + 1h leaves the window -> 22:00", night.nextTrigger(local("2026-05-05T05:30"), NY),
+                local("2026-05-05T22:00"));
+        expect("interval: inside the wrapped window", night.nextTrigger(local("2026-05-04T23:30"), NY),
+                local("2026-05-05T00:30"));
+
+        AutomationPolicy cronNight = new AutomationPolicy("cron-night", AutomationPolicy.Action.OPTIMIZE_DISK,
+                CronExpression.parse("0 * * * *"), -1, LocalTime.of(22, 0), LocalTime.of(2, 0), 0, null, 0, false, 0);
+        expect("cron: hourly limited to 22:00-02:00, after 01:00", cronNight.nextTrigger(local("2026-05-05T01:00"), NY),
+                local("2026-05-05T22:00"));
+        expect("cron: across midnight", cronNight.nextTrigger(local("2026-05-05T23:00"), NY), local("2026-05-06T00:00"));
+    }
+
+    // =========================================================================
+    // TimerWheel
+    // =========================================================================
+
+    private static void wheel() throws InterruptedException {
+        // 10 ms ticks, 8 buckets: one turn is 80 ms
+        TimerWheel w = new TimerWheel("harness-wheel", 10, 8);
+        try {
+            long t0 = System.nanoTime();
+            long[] delays = { 30, 95, 170, 250 };
+            long[] firedMs = new long[delays.length];
+            List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch done = new CountDownLatch(delays.length + 1);
+
+            for (int i = delays.length - 1; i >= 0; i--) {
+                int n = i;
+                w.schedule(delays[i], () -> {
+                    firedMs[n] = (System.nanoTime() - t0) / 1_000_000;
+                    order.add(n);
+                    done.countDown();
+                });
+            }
+            TimerWheel.Timeout cancelled = w.schedule(120, () -> order.add(-1));
+            cancelled.cancel();
+
+            boolean[] chained = { false };
+            w.schedule(40, () -> w.schedule(0, () -> {
+                chained[0] = w.isWheelThread();
+                done.countDown();
+            }));
+
+            boolean finished = done.await(2, TimeUnit.SECONDS);
+            Thread.sleep(50);
+            check("all timers fired", finished, order.toString());
+
+            boolean onTime = true;
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < delays.length; i++) {
+                sb.append(delays[i]).append("->").append(firedMs[i]).append("ms ");
+                // never early; late by at most a tick plus scheduler slack
+                onTime &= firedMs[i] >= delays[i] && firedMs[i] <= delays[i] + 60;
+            }
+            check("beyond one turn: not early, not a turn late", onTime, sb.toString().trim());
+            check("fire in deadline order", order.equals(List.of(0, 1, 2, 3)), order.toString());
+            check("cancelled timer dropped", !order.contains(-1), order.toString());
+            check("schedule from a callback runs on the wheel thread", chained[0], "");
+        } finally {
+            w.close();
+        }
+    }
+
+    // =========================================================================
+    // Helpers
+    // =========================================================================
+
+    private static long local(String localDateTime) {
+        return LocalDateTime.parse(localDateTime).atZone(NY).toInstant().toEpochMilli();
+    }
+
+    private static long utc(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+
+    private static void expect(String name, long actual, String expectedUtc) {
+        expect(name, actual, utc(expectedUtc));
+    }
+
+    private static void expect(String name, long actual, long expected) {
+        check(name, actual == expected, "expected " + show(expected) + ", got " + show(actual));
+    }
+
+    private static String show(long ms) {
+        return ms < 0 ? String.valueOf(ms) : Instant.ofEpochMilli(ms) + " (" + Instant.ofEpochMilli(ms).atZone(NY) + ")";
+    }
+
+    private static void check(String name, boolean ok, String detail) {
+        System.out.println((ok ? "ok   " : "FAIL ") + name);
+        if (!ok) {
+            failures++;
+            if (!detail.isEmpty()) System.out.println("     " + detail);
+        }
+    }
+}
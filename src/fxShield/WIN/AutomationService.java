@@ -1,30 +1,68 @@
 package fxShield.WIN;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Schedules background automations (free RAM / optimize disk).
- * - Daemon single-thread scheduler
+ * Schedules background automations (free RAM / optimize disk) as {@link AutomationPolicy} rules.
+ * - The settings toggles become built-in interval rules; more rules (cron, time window, jitter,
+ *   "ram > 85 for 2m" conditions) come from automation-policies.properties
+ * - One {@link TimerWheel} thread drives every rule, one daemon thread runs the actions one at
+ *   a time; conditions are sampled from {@link SystemLoad} once per second for all rules
+ * - Load-aware: an idle-only rule waits until {@link SystemLoad} reports a quiet machine on AC
+ *   power (re-checked every {@link #RECHECK_SEC} s), but never longer than its maximum deferral;
+ *   no fresh load sample counts as busy. {@link #needsLoad} tells the UI to keep the monitor
+ *   sampling while minimized. Every run logs the decisions that led to it
  * - Idempotent apply (no restart if unchanged)
- * - PowerShell execution with timeout (delegated to WindowsUtils)
+ * - Temp cleanup in Java (TempCleaner); PowerShell only for cleanmgr, with timeout
+ * - Runs are recorded in the ScriptLedger; work that succeeded recently is skipped
  * - Tasks are exception-safe (won't stop silently)
  */
 public final class AutomationService implements AutoCloseable {
 
+    private static final Logger logger = LoggerFactory.getLogger(AutomationService.class);
+
     // Singleton
     private static final AutomationService INSTANCE = new AutomationService();
     // Scheduling
     private static final long FREE_RAM_INITIAL_DELAY_SEC = 30;
     private static final long FREE_RAM_PERIOD_SEC = 10 * 60;
+    private static final long FREE_RAM_MAX_DEFER_SEC = 20 * 60;
     private static final long DISK_INITIAL_DELAY_SEC = 60;
     private static final long DISK_PERIOD_SEC = 30 * 60;
+    private static final long DISK_MAX_DEFER_SEC = 2 * 60 * 60;
+    // Policy engine
+    private static final long TICK_MS = 1000;
+    private static final int WHEEL_SIZE = 512;
+    private static final long CONDITION_SAMPLE_MS = 1000;
+    // Load gate
+    private static final long RECHECK_SEC = 30;
+    private static final long QUIET_HOLD_MS = 30_000;
+    private static final int TRAIL_MAX = 8;
     // PowerShell
     private static final Duration POWERSHELL_TIMEOUT = Duration.ofSeconds(30);
-    private volatile ScheduledExecutorService exec;
+    // ScriptLedger labels / key of the native cleanup
+    private static final String TEMP_CLEAN_LABEL = "auto-temp-clean";
+    private static final String TEMP_CLEAN_KEY = "TempCleaner.windowsDefaults";
+    private static final String CLEANMGR_LABEL = "auto-cleanmgr";
+    private volatile TimerWheel wheel;
+    private volatile ExecutorService runner;
     private volatile FxSettings lastApplied;
+    private volatile TempCleaner.Result lastCleanup;
+    private volatile boolean needsLoad;
+    private volatile long policyStamp = -1; // policy file mtime at the last apply, -1: missing
     private AutomationService() {
         Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "fxShield-automation-shutdown"));
     }
@@ -45,32 +83,26 @@ public final class AutomationService implements AutoCloseable {
             return;
         }
 
-        boolean needScheduler = s.autoFreeRam || s.autoOptimizeHardDisk;
-        if (needScheduler) {
-            exec = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "fxShield-automation");
-                t.setDaemon(true);
-                return t;
-            });
-
-            if (s.autoFreeRam) {
-                exec.scheduleWithFixedDelay(
-                        this::safeRunFreeRam,
-                        FREE_RAM_INITIAL_DELAY_SEC,
-                        FREE_RAM_PERIOD_SEC,
-                        TimeUnit.SECONDS
-                );
-            }
+        Path policyFile = FxSettings.configDir().resolve(AutomationPolicy.FILE_NAME);
+        policyStamp = stampOf(policyFile);
 
-            if (s.autoOptimizeHardDisk) {
-                exec.scheduleWithFixedDelay(
-                        this::safeRunOptimizeDisk,
-                        DISK_INITIAL_DELAY_SEC,
-                        DISK_PERIOD_SEC,
-                        TimeUnit.SECONDS
-                );
-            }
+        List<Rule> rules = new ArrayList<>();
+        if (s.autoFreeRam) {
+            rules.add(new Rule(AutomationPolicy.every("auto-free-ram", AutomationPolicy.Action.FREE_RAM,
+                    FREE_RAM_PERIOD_SEC * 1000, true, FREE_RAM_MAX_DEFER_SEC * 1000), FREE_RAM_INITIAL_DELAY_SEC * 1000));
         }
+        if (s.autoOptimizeHardDisk) {
+            rules.add(new Rule(AutomationPolicy.every("auto-optimize-disk", AutomationPolicy.Action.OPTIMIZE_DISK,
+                    DISK_PERIOD_SEC * 1000, true, DISK_MAX_DEFER_SEC * 1000), DISK_INITIAL_DELAY_SEC * 1000));
+        }
+        for (AutomationPolicy p : AutomationPolicy.load(policyFile,
+                err -> logger.warn("[Automation] Policy skipped: {}", err))) {
+            rules.add(new Rule(p, -1));
+        }
+        if (!rules.isEmpty()) startEngine(rules);
+        boolean load = false;
+        for (Rule r : rules) load |= r.policy.idleOnly || r.policy.condition != null;
+        needsLoad = load;
 
         // Optional OS integration
         try {
@@ -81,9 +113,41 @@ public final class AutomationService implements AutoCloseable {
         lastApplied = new FxSettings(s);
     }
 
+    /**
+     * Re-reads automation-policies.properties and restarts the rules when the file changed since
+     * the last apply (the settings dialog calls this on Apply).
+     */
+    public synchronized void reloadPolicies() {
+        FxSettings s = lastApplied;
+        if (s == null) return;
+        if (stampOf(FxSettings.configDir().resolve(AutomationPolicy.FILE_NAME)) == policyStamp) return;
+
+        logger.info("[Automation] {} changed, reloading rules", AutomationPolicy.FILE_NAME);
+        lastApplied = null;
+        apply(s);
+    }
+
+    private static long stampOf(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /** True while a running rule reads {@link SystemLoad} (idle-only or condition). */
+    public boolean needsLoad() {
+        return needsLoad;
+    }
+
     public synchronized void stop() {
-        ScheduledExecutorService e = exec;
-        exec = null;
+        needsLoad = false;
+        TimerWheel w = wheel;
+        wheel = null;
+        if (w != null) w.close();
+
+        ExecutorService e = runner;
+        runner = null;
 
         if (e != null) {
             e.shutdownNow();
@@ -95,11 +159,211 @@ public final class AutomationService implements AutoCloseable {
         }
     }
 
+    /** Result of the last automatic temp cleanup, or null if none ran yet. */
+    public TempCleaner.Result getLastCleanup() {
+        return lastCleanup;
+    }
+
     @Override
     public void close() {
         stop();
     }
 
+    // ===== Policy engine (wheel thread) =====
+
+    /** Run state of one policy; only touched on the wheel thread. */
+    private static final class Rule {
+        final AutomationPolicy policy;
+        final long initialDelayMs; // -1: first run at the first trigger
+        boolean armed = false;
+        long conditionSinceMs = -1;
+        long lastRunMs = -1;
+        long dueMs = -1;           // pending occurrence
+        boolean running = false;
+        String trigger = "";
+        int deferrals = 0;
+        final List<String> trail = new ArrayList<>();
+
+        Rule(AutomationPolicy policy, long initialDelayMs) {
+            this.policy = policy;
+            this.initialDelayMs = initialDelayMs;
+        }
+    }
+
+    private void startEngine(List<Rule> rules) {
+        TimerWheel w = new TimerWheel("automation-wheel", TICK_MS, WHEEL_SIZE);
+        runner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "fxShield-automation");
+            t.setDaemon(true);
+            return t;
+        });
+        wheel = w;
+
+        List<Rule> conditional = new ArrayList<>();
+        for (Rule r : rules) if (r.policy.condition != null) conditional.add(r);
+
+        w.schedule(0, () -> {
+            long now = System.currentTimeMillis();
+            for (Rule r : rules) {
+                logger.info("[Automation] Rule {}", r.policy);
+                armNext(w, r, now);
+            }
+            if (!conditional.isEmpty()) sampleConditions(w, conditional);
+        });
+    }
+
+    private void armNext(TimerWheel w, Rule r, long now) {
+        AutomationPolicy p = r.policy;
+        if (p.isConditionTriggered()) return;
+
+        long at;
+        if (!r.armed && r.initialDelayMs >= 0) {
+            at = now + r.initialDelayMs;
+        } else {
+            at = p.nextTrigger(now, ZoneId.systemDefault());
+            if (at < 0) {
+                logger.warn("[Automation] {}: trigger never fires again", p.name);
+                return;
+            }
+            if (p.jitterMs > 0) at += ThreadLocalRandom.current().nextLong(p.jitterMs);
+        }
+        r.armed = true;
+        long target = at;
+        w.schedule(target - now, () -> onTrigger(w, r, target));
+    }
+
+    private void onTrigger(TimerWheel w, Rule r, long target) {
+        long now = System.currentTimeMillis();
+        if (now < target - TICK_MS) { // wall clock moved back: wait out the rest
+            w.schedule(target - now, () -> onTrigger(w, r, target));
+            return;
+        }
+        r.trigger = (r.policy.cron != null) ? "cron '" + r.policy.cron + "'" : "interval";
+        due(w, r, now);
+    }
+
+    /** One pass over every conditional rule, then re-arms itself. */
+    private void sampleConditions(TimerWheel w, List<Rule> rules) {
+        long now = System.currentTimeMillis();
+        ZoneId zone = ZoneId.systemDefault();
+        SystemLoad.Sample load = SystemLoad.latest();
+        boolean fresh = load != null && !load.isStale(now);
+
+        for (Rule r : rules) {
+            AutomationPolicy p = r.policy;
+            if (fresh && p.condition.test(load)) {
+                if (r.conditionSinceMs < 0) r.conditionSinceMs = now;
+            } else {
+                r.conditionSinceMs = -1;
+            }
+
+            if (p.isConditionTriggered() && r.dueMs < 0 && !r.running && conditionHeld(r, now)
+                    && !inCooldown(r, now) && p.inWindow(now, zone)) {
+                r.trigger = "condition " + p.condition;
+                due(w, r, now);
+            }
+        }
+        w.schedule(CONDITION_SAMPLE_MS, () -> sampleConditions(w, rules));
+    }
+
+    private void due(TimerWheel w, Rule r, long now) {
+        if (r.dueMs >= 0 || r.running) { // the pending run re-arms when it finishes
+            logger.info("[Automation] {}: {} ignored, previous run not finished", r.policy.name, r.trigger);
+            return;
+        }
+        r.dueMs = now;
+        tryRun(w, r);
+    }
+
+    private void tryRun(TimerWheel w, Rule r) {
+        AutomationPolicy p = r.policy;
+        long now = System.currentTimeMillis();
+        long waited = now - r.dueMs;
+
+        String skip = null;
+        if (!p.inWindow(now, ZoneId.systemDefault())) skip = "outside window";
+        else if (inCooldown(r, now)) skip = "cooldown";
+        else if (p.condition != null && !conditionHeld(r, now)) skip = "condition not met: " + p.condition;
+        if (skip != null) {
+            logger.info("[Automation] {}: {} skipped ({})", p.name, r.trigger, skip);
+            finish(w, r);
+            return;
+        }
+
+        SystemLoad.Sample load = SystemLoad.latest();
+        String busy = p.idleOnly ? busyReason(load, now) : null;
+        if (busy != null && waited < p.maxDeferMs) {
+            r.deferrals++;
+            if (r.trail.size() < TRAIL_MAX) r.trail.add("+" + (waited / 1000) + "s " + busy);
+            logger.debug("[Automation] {}: deferred ({})", p.name, busy);
+            w.schedule(Math.min(RECHECK_SEC * 1000, p.maxDeferMs - waited), () -> tryRun(w, r));
+            return;
+        }
+
+        String why;
+        if (busy != null) why = "max deferral reached, still " + busy;
+        else if (!p.idleOnly) why = "not load-gated";
+        else why = "quiet " + (load.quietForMs(now) / 1000) + " s, " + load;
+        logger.info("[Automation] {}: {} ran after {} s ({}); deferred {}x{}", p.name, r.trigger, waited / 1000, why,
+                r.deferrals, r.trail.isEmpty() ? "" : ": " + String.join("; ", r.trail)
+                        + (r.deferrals > r.trail.size() ? "; ..." : ""));
+
+        ExecutorService e = runner;
+        if (e == null) return;
+        r.running = true;
+        r.lastRunMs = now;
+        try {
+            e.execute(() -> {
+                try {
+                    runAction(p.action);
+                } finally {
+                    w.schedule(0, () -> {
+                        r.running = false;
+                        finish(w, r);
+                    });
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            r.running = false; // stopped
+        }
+    }
+
+    private void finish(TimerWheel w, Rule r) {
+        r.dueMs = -1;
+        r.deferrals = 0;
+        r.trail.clear();
+        armNext(w, r, System.currentTimeMillis());
+    }
+
+    private static boolean conditionHeld(Rule r, long now) {
+        return r.conditionSinceMs >= 0 && now - r.conditionSinceMs >= r.policy.condition.forMs;
+    }
+
+    private static boolean inCooldown(Rule r, long now) {
+        return r.policy.cooldownMs > 0 && r.lastRunMs >= 0 && now - r.lastRunMs < r.policy.cooldownMs;
+    }
+
+    private void runAction(AutomationPolicy.Action action) {
+        switch (action) {
+            case FREE_RAM -> safeRunFreeRam();
+            case OPTIMIZE_DISK -> safeRunOptimizeDisk();
+        }
+    }
+
+    /** Why the machine is not idle right now, or null when it is. */
+    private static String busyReason(SystemLoad.Sample load, long nowMs) {
+        // monitor stopped: the user may be working, so wait (up to the rule's maximum deferral)
+        if (load == null || load.isStale(nowMs)) return "no load signal";
+        if (load.onBattery) return "on battery";
+        if (load.cpuPercent >= SystemLoad.CPU_IDLE_PERCENT) return "cpu " + Math.round(load.cpuPercent) + "%";
+        if (load.diskActivePercent >= SystemLoad.DISK_IDLE_PERCENT) {
+            return "disk " + Math.round(load.diskActivePercent) + "%";
+        }
+        long quiet = load.quietForMs(nowMs);
+        if (quiet < QUIET_HOLD_MS) return "quiet only " + (quiet / 1000) + " s";
+        return null;
+    }
+
     // ===== Exception-safe wrappers =====
 
     private void safeRunFreeRam() {
@@ -119,13 +383,20 @@ public final class AutomationService implements AutoCloseable {
     // ===== Tasks =====
 
     private void runFreeRam() {
-        String ps =
-                "$ErrorActionPreference='SilentlyContinue'\n" +
-                        "Remove-Item -Path \"$env:TEMP\\*\" -Recurse -Force -ErrorAction SilentlyContinue\n" +
-                        "Remove-Item -Path \"$env:WINDIR\\Temp\\*\" -Recurse -Force -ErrorAction SilentlyContinue\n" +
-                        "Remove-Item -Path \"$env:WINDIR\\Prefetch\\*\" -Recurse -Force -ErrorAction SilentlyContinue\n" +
-                        "Remove-Item -Path \"$env:APPDATA\\Microsoft\\Windows\\Recent\\*\" -Recurse -Force -ErrorAction SilentlyContinue\n";
-        runPowerShell(ps);
+        // the ledger also survives restarts, so a relaunch does not clean again right away
+        ScriptLedger ledger = ScriptLedger.shared();
+        if (ledger.recentRun(TEMP_CLEAN_LABEL, TEMP_CLEAN_KEY, System.currentTimeMillis()) != null) return;
+        if (!ledger.tryBegin(TEMP_CLEAN_KEY)) return;
+
+        try {
+            // %TEMP%, Windows\Temp, Prefetch, Recent: native walk, no PowerShell start-up
+            TempCleaner.Result r = TempCleaner.windowsDefaults().clean(false);
+            lastCleanup = r;
+            logger.info("[Automation] Temp cleanup: {}", r);
+            ledger.record(TEMP_CLEAN_LABEL, TEMP_CLEAN_KEY, r.elapsedMs, 0, true, r.bytesReclaimed, System.currentTimeMillis());
+        } finally {
+            ledger.finish(TEMP_CLEAN_KEY);
+        }
     }
 
     private void runOptimizeDisk() {
@@ -133,14 +404,21 @@ public final class AutomationService implements AutoCloseable {
         String ps =
                 "$ErrorActionPreference='SilentlyContinue'\n" +
                         "Start-Process -FilePath 'cleanmgr.exe' -ArgumentList '/VERYLOWDISK' -WindowStyle Hidden -Wait | Out-Null\n";
-        runPowerShell(ps);
+
+        ScriptLedger ledger = ScriptLedger.shared();
+        if (ledger.recentRun(CLEANMGR_LABEL, ps, System.currentTimeMillis()) != null) return;
+        if (!ledger.tryBegin(ps)) return;
+        try {
+            ledger.record(CLEANMGR_LABEL, ps, runPowerShell(ps), -1, System.currentTimeMillis());
+        } finally {
+            ledger.finish(ps);
+        }
     }
 
     // ===== PowerShell helper =====
 
-    private void runPowerShell(String script) {
-        long sec = Math.max(1, POWERSHELL_TIMEOUT.toSeconds());
-        WindowsUtils.runPowerShellSilent(script, sec);
+    private PsResult runPowerShell(String script) {
+        return ScriptEngine.shared().run(script, POWERSHELL_TIMEOUT, null, null);
     }
 
     private boolean equalsLast(FxSettings s) {
@@ -0,0 +1,227 @@
+package fxShield.WIN;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Central runner for blocking background work (network fetches, scripts, file I/O) started
+ * from the UI layer. Replaces ad-hoc {@code new Thread(...)}.
+ *
+ * - One virtual thread per task, named "fxShield-<name>"; at most {@link #MAX_CONCURRENT} run
+ *   at once, the rest wait for a permit (that wait is the task's queue time).
+ * - Per-name metrics: submitted / completed / failed / cancelled, running, queue and run time.
+ * - {@link #shutdown(Duration)} rejects new tasks, interrupts the running ones and waits for
+ *   them (structured cancellation on app exit). Script steps interrupted this way kill their
+ *   PowerShell host, so nothing is left behind.
+ *
+ * Periodic samplers keep their own scheduled platform threads.
+ */
+public final class BackgroundTasks {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundTasks.class);
+
+    public static final int MAX_CONCURRENT = 32;
+
+    private static final Semaphore permits = new Semaphore(MAX_CONCURRENT, true);
+    private static final Set<Task> live = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private static volatile boolean closed = false;
+
+    private BackgroundTasks() {}
+
+    /** Handle of one started task. */
+    public static final class Task {
+        private final String name;
+        private final Thread thread;
+        private volatile boolean done;
+
+        private Task(String name, Thread thread) {
+            this.name = name;
+            this.thread = thread;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /** Interrupts the task; blocking calls inside it should end early. */
+        public void cancel() {
+            thread.interrupt();
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        /** Returns false when the task is still running after {@code timeout}. */
+        public boolean join(Duration timeout) throws InterruptedException {
+            if (done) return true;
+            return thread.join(timeout);
+        }
+    }
+
+    /** Aggregated metrics of one task name. Immutable. */
+    public static final class Stats {
+        public final String name;
+        public final long submitted;
+        public final long completed;
+        public final long failed;
+        public final long cancelled;
+        public final long running;
+        public final double avgQueueMs;
+        public final double maxQueueMs;
+        public final double avgRunMs;
+        public final double maxRunMs;
+
+        Stats(String name, Counters c) {
+            long started = Math.max(1, c.started.sum());
+            long finished = Math.max(1, c.completed.sum() + c.failed.sum() + c.cancelledWhileRunning.sum());
+            this.name = name;
+            this.submitted = c.submitted.sum();
+            this.completed = c.completed.sum();
+            this.failed = c.failed.sum();
+            this.cancelled = c.cancelled.sum() + c.cancelledWhileRunning.sum();
+            this.running = c.running.get();
+            this.avgQueueMs = c.queueNs.sum() / 1e6 / started;
+            this.maxQueueMs = c.maxQueueNs.get() / 1e6;
+            this.avgRunMs = c.runNs.sum() / 1e6 / finished;
+            this.maxRunMs = c.maxRunNs.get() / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%s: %d submitted, %d ok, %d failed, %d cancelled, %d running; queue avg %.1f / max %.1f ms, run avg %.0f / max %.0f ms",
+                    name, submitted, completed, failed, cancelled, running, avgQueueMs, maxQueueMs, avgRunMs, maxRunMs);
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder submitted = new LongAdder();
+        final LongAdder started = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder cancelled = new LongAdder();            // before it ran
+        final LongAdder cancelledWhileRunning = new LongAdder();
+        final AtomicLong running = new AtomicLong();
+        final LongAdder queueNs = new LongAdder();
+        final LongAdder runNs = new LongAdder();
+        final AtomicLong maxQueueNs = new AtomicLong();
+        final AtomicLong maxRunNs = new AtomicLong();
+    }
+
+    /**
+     * Starts {@code body} on a virtual thread. After {@link #shutdown} the task is not run and
+     * the returned handle is already done.
+     */
+    public static Task start(String name, Runnable body) {
+        String n = (name == null || name.isBlank()) ? "task" : name;
+        Counters c = counters.computeIfAbsent(n, k -> new Counters());
+        c.submitted.increment();
+        long submittedNs = System.nanoTime();
+
+        Task[] self = new Task[1];
+        Thread thread = Thread.ofVirtual().name("fxShield-" + n).unstarted(() -> run(self[0], body, c, submittedNs));
+        Task task = new Task(n, thread);
+        self[0] = task;
+
+        if (closed) {
+            c.cancelled.increment();
+            task.done = true;
+            return task;
+        }
+        live.add(task);
+        thread.start();
+        return task;
+    }
+
+    private static void run(Task task, Runnable body, Counters c, long submittedNs) {
+        try {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                c.cancelled.increment();
+                return;
+            }
+
+            long startNs = System.nanoTime();
+            long waited = startNs - submittedNs;
+            c.started.increment();
+            c.queueNs.add(waited);
+            c.maxQueueNs.accumulateAndGet(waited, Math::max);
+            c.running.incrementAndGet();
+            try {
+                body.run();
+                if (Thread.currentThread().isInterrupted()) c.cancelledWhileRunning.increment();
+                else c.completed.increment();
+            } catch (Throwable t) {
+                if (Thread.currentThread().isInterrupted() || closed) {
+                    c.cancelledWhileRunning.increment();
+                } else {
+                    c.failed.increment();
+                    logger.warn("Background task {} failed", task.name, t);
+                }
+            } finally {
+                long ran = System.nanoTime() - startNs;
+                c.runNs.add(ran);
+                c.maxRunNs.accumulateAndGet(ran, Math::max);
+                c.running.decrementAndGet();
+                permits.release();
+            }
+        } finally {
+            task.done = true;
+            live.remove(task);
+        }
+    }
+
+    /** Per-name metrics, sorted by name. */
+    public static List<Stats> snapshot() {
+        List<Stats> out = new ArrayList<>();
+        for (Map.Entry<String, Counters> e : new TreeMap<>(counters).entrySet()) {
+            out.add(new Stats(e.getKey(), e.getValue()));
+        }
+        return out;
+    }
+
+    public static int runningCount() {
+        return live.size();
+    }
+
+    /**
+     * Rejects new tasks, interrupts running ones and waits up to {@code grace} for them.
+     * Returns how many were still alive afterwards.
+     */
+    public static int shutdown(Duration grace) {
+        closed = true;
+        List<Task> tasks = new ArrayList<>(live);
+        for (Task t : tasks) t.cancel();
+
+        long deadline = System.nanoTime() + Math.max(0, grace.toNanos());
+        int alive = 0;
+        for (Task t : tasks) {
+            long left = deadline - System.nanoTime();
+            try {
+                if (left <= 0 || !t.join(Duration.ofNanos(left))) alive++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                alive++;
+            }
+        }
+
+        for (Stats s : snapshot()) logger.info("[Tasks] {}", s);
+        if (alive > 0) logger.warn("[Tasks] {} task(s) still running at shutdown", alive);
+        return alive;
+    }
+}
@@ -0,0 +1,177 @@
+package fxShield.WIN;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Five-field cron expression: minute hour day-of-month month day-of-week.
+ *
+ * - Each field takes {@code *}, numbers, ranges {@code a-b}, steps {@code a-b/n} (or on
+ *   {@code *}) and comma lists. Day-of-week is 0-7 (0 and 7 are Sunday).
+ * - Shortcuts: {@code @hourly}, {@code @daily}, {@code @weekly}, {@code @monthly}.
+ * - As in cron, when both day fields are restricted a day matches either of them.
+ * - Fields are bit sets, so {@link #next} skips whole months / days / hours that cannot match.
+ *
+ * Immutable.
+ */
+public final class CronExpression {
+
+    private static final int MAX_SEARCH_YEARS = 5;
+
+    private final String text;
+    private final long minutes; // bits 0..59
+    private final long hours;   // bits 0..23
+    private final long days;    // bits 1..31
+    private final long months;  // bits 1..12
+    private final long weekdays; // bits 0..6, Sunday = 0
+    private final boolean dayRestricted;
+    private final boolean weekdayRestricted;
+
+    private CronExpression(String text, long minutes, long hours, long days, long months, long weekdays,
+                           boolean dayRestricted, boolean weekdayRestricted) {
+        this.text = text;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.days = days;
+        this.months = months;
+        this.weekdays = weekdays;
+        this.dayRestricted = dayRestricted;
+        this.weekdayRestricted = weekdayRestricted;
+    }
+
+    /** @throws IllegalArgumentException on a malformed expression */
+    public static CronExpression parse(String expression) {
+        if (expression == null || expression.isBlank()) throw new IllegalArgumentException("empty cron expression");
+        String text = expression.trim();
+        String expanded = switch (text.toLowerCase(Locale.ROOT)) {
+            case "@hourly" -> "0 * * * *";
+            case "@daily", "@midnight" -> "0 0 * * *";
+            case "@weekly" -> "0 0 * * 0";
+            case "@monthly" -> "0 0 1 * *";
+            default -> text;
+        };
+
+        String[] f = expanded.split("\\s+");
+        if (f.length != 5) throw new IllegalArgumentException("cron needs 5 fields: " + text);
+
+        long dow = parseField(f[4], 0, 7, "day-of-week");
+        if ((dow & (1L << 7)) != 0) dow = (dow | 1L) & ~(1L << 7); // 7 is Sunday too
+
+        return new CronExpression(text,
+                parseField(f[0], 0, 59, "minute"),
+                parseField(f[1], 0, 23, "hour"),
+                parseField(f[2], 1, 31, "day-of-month"),
+                parseField(f[3], 1, 12, "month"),
+                dow,
+                !f[2].equals("*"),
+                !f[4].equals("*"));
+    }
+
+    /**
+     * First matching minute strictly after {@code afterMs}, in {@code zone}; -1 when nothing
+     * matches within {@value #MAX_SEARCH_YEARS} years (e.g. "0 0 31 2 *").
+     */
+    public long next(long afterMs, ZoneId zone) {
+        ZonedDateTime after = ZonedDateTime.ofInstant(Instant.ofEpochMilli(afterMs), zone);
+        LocalDateTime t = after.toLocalDateTime().truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        int lastYear = t.getYear() + MAX_SEARCH_YEARS;
+
+        while (t.getYear() <= lastYear) {
+            if (!has(months, t.getMonthValue())) {
+                t = t.withDayOfMonth(1).withHour(0).withMinute(0).plusMonths(1);
+                continue;
+            }
+            if (!dayMatches(t)) {
+                t = t.withHour(0).withMinute(0).plusDays(1);
+                continue;
+            }
+            if (!has(hours, t.getHour())) {
+                t = t.withMinute(0).plusHours(1);
+                continue;
+            }
+            if (!has(minutes, t.getMinute())) {
+                t = t.plusMinutes(1);
+                continue;
+            }
+            // a local time skipped by a DST jump resolves to the shifted instant; one repeated
+            // by a fall-back jump resolves to the earlier instant, which may already be past
+            long ms = t.atZone(zone).toInstant().toEpochMilli();
+            if (ms > afterMs) return ms;
+            t = t.plusMinutes(1);
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    // =========================================================================
+    // Matching / parsing
+    // =========================================================================
+
+    private boolean dayMatches(LocalDateTime t) {
+        boolean dom = has(days, t.getDayOfMonth());
+        boolean dow = has(weekdays, sundayZero(t.getDayOfWeek()));
+        if (dayRestricted && weekdayRestricted) return dom || dow;
+        return dom && dow;
+    }
+
+    private static int sundayZero(DayOfWeek d) {
+        return d.getValue() % 7;
+    }
+
+    private static boolean has(long bits, int value) {
+        return (bits & (1L << value)) != 0;
+    }
+
+    private static long parseField(String field, int min, int max, String name) {
+        long bits = 0;
+        for (String part : field.split(",")) {
+            if (part.isEmpty()) throw new IllegalArgumentException("empty " + name + " entry in: " + field);
+
+            int step = 1;
+            String range = part;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseInt(part.substring(slash + 1), name);
+                range = part.substring(0, slash);
+                if (step <= 0) throw new IllegalArgumentException(name + " step must be positive: " + part);
+            }
+
+            int lo, hi;
+            if (range.equals("*")) {
+                lo = min;
+                hi = max;
+            } else {
+                int dash = range.indexOf('-');
+                if (dash > 0) {
+                    lo = parseInt(range.substring(0, dash), name);
+                    hi = parseInt(range.substring(dash + 1), name);
+                } else {
+                    lo = parseInt(range, name);
+                    hi = (slash >= 0) ? max : lo; // "5/15" means 5-max/15
+                }
+            }
+            if (lo < min || hi > max || lo > hi) {
+                throw new IllegalArgumentException(name + " out of range " + min + "-" + max + ": " + part);
+            }
+            for (int v = lo; v <= hi; v += step) bits |= 1L << v;
+        }
+        return bits;
+    }
+
+    private static int parseInt(String s, String name) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad " + name + " value: " + s);
+        }
+    }
+}
@@ -180,7 +180,8 @@ public final class FxSettings implements Serializable {
     private static final String DIR_NAME = "FxShield";
     private static final String FILE_NAME = "settings.properties";
 
-    private static Path configDir() {
+    /** %APPDATA%/FxShield (user.home/FxShield when APPDATA is not set). */
+    public static Path configDir() {
         String appData = System.getenv("APPDATA");
         if (appData == null || appData.isBlank()) {
             appData = System.getProperty("user.home", ".");
@@ -0,0 +1,345 @@
+package fxShield.WIN;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warm pool of long-lived PowerShell hosts (no 300-800 ms start-up per call).
+ *
+ * Protocol over stdin/stdout, one request at a time per host:
+ * - request:  {@code <id> <base64(UTF-8 script)>\n}
+ * - response: {@code <id>!O <line>} (output), {@code <id>!E <line>} (error record),
+ *   then {@code <id>!END <exitCode>}
+ * - exit code as with -EncodedCommand: $LASTEXITCODE when set, else 1 when the script's last
+ *   statement failed ($? false), else 0
+ * Lines without a frame prefix (e.g. written straight to the console) count as output of the
+ * running request. Each script runs in a child scope, so its variables do not leak into the next.
+ *
+ * Hosts are recycled when a call times out (killed), when the script ends the host ("exit N" is
+ * reported as that exit code) and after {@link #MAX_CALLS_PER_HOST} calls.
+ *
+ * The host command is injectable, so the protocol can be exercised with pwsh or a stand-in
+ * shell on Linux (see {@link PowerShellHostPoolHarness}).
+ */
+public final class PowerShellHostPool implements AutoCloseable {
+
+    public static final int DEFAULT_SIZE = 2;
+    private static final int MAX_CALLS_PER_HOST = 100;
+
+    /** Host-side loop: reads framed requests, runs each in a child scope, frames the output. */
+    static final String HOST_LOOP = ""
+            + "$ProgressPreference='SilentlyContinue'\n"
+            + "[Console]::OutputEncoding=[System.Text.Encoding]::UTF8\n"
+            + "$OutputEncoding=[Console]::OutputEncoding\n"
+            + "$__in=[Console]::In\n"
+            + "while($true){\n"
+            + "  $__l=$__in.ReadLine(); if($__l -eq $null){break}\n"
+            + "  $__sp=$__l.IndexOf(' '); if($__sp -lt 1){continue}\n"
+            + "  $__id=$__l.Substring(0,$__sp)\n"
+            + "  $__src=[System.Text.Encoding]::UTF8.GetString([Convert]::FromBase64String($__l.Substring($__sp+1)))\n"
+            + "  $__code=0\n"
+            + "  try{\n"
+            + "    $global:LASTEXITCODE=0; $global:__ok=$true\n"
+            + "    & ([scriptblock]::Create($__src+\"`n`$global:__ok=`$?\")) 2>&1 | ForEach-Object {\n"
+            + "      $__k= if($_ -is [System.Management.Automation.ErrorRecord]){'!E '}else{'!O '}\n"
+            + "      foreach($__s in (($_ | Out-String) -split \"`r?`n\")){ if($__s.Length -gt 0){[Console]::Out.WriteLine($__id+$__k+$__s)} }\n"
+            + "    }\n"
+            + "    if($global:LASTEXITCODE){$__code=$global:LASTEXITCODE}elseif(-not $global:__ok){$__code=1}\n"
+            + "  }catch{ [Console]::Out.WriteLine($__id+'!E '+$_.ToString()); $__code=1 }\n"
+            + "  [Console]::Out.WriteLine($__id+'!END '+$__code); [Console]::Out.Flush()\n"
+            + "}\n";
+
+    /** Line callback (called on the caller's thread, in order). */
+    public interface LineListener {
+        void onLine(String line, boolean stderr);
+    }
+
+    private static volatile PowerShellHostPool shared;
+
+    private final List<String> hostCommand;
+    private final Semaphore permits;
+    private final Deque<Host> idle = new ArrayDeque<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicInteger hostSeq = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    public PowerShellHostPool(List<String> hostCommand, int size) {
+        this.hostCommand = List.copyOf(hostCommand);
+        this.permits = new Semaphore(Math.max(1, size), true);
+    }
+
+    /** Process-wide pool of Windows PowerShell hosts; the first host starts in the background. */
+    public static PowerShellHostPool shared() {
+        PowerShellHostPool p = shared;
+        if (p != null) return p;
+        synchronized (PowerShellHostPool.class) {
+            if (shared == null) {
+                shared = new PowerShellHostPool(powerShellCommand(windowsPowerShellExe()), DEFAULT_SIZE);
+                Runtime.getRuntime().addShutdownHook(new Thread(shared::close, "fxShield-pshost-shutdown"));
+                shared.prewarm();
+            }
+            return shared;
+        }
+    }
+
+    /** Host command for a PowerShell executable (powershell.exe or pwsh). */
+    public static List<String> powerShellCommand(String exe) {
+        String encoded = Base64.getEncoder().encodeToString(HOST_LOOP.getBytes(StandardCharsets.UTF_16LE));
+        return List.of(exe, "-NoProfile", "-NonInteractive", "-ExecutionPolicy", "Bypass",
+                "-EncodedCommand", encoded);
+    }
+
+    static String windowsPowerShellExe() {
+        String sysRoot = System.getenv("SystemRoot");
+        if (sysRoot != null && !sysRoot.isBlank()) {
+            File f = new File(sysRoot, "System32\\WindowsPowerShell\\v1.0\\powershell.exe");
+            if (f.exists()) return f.getAbsolutePath();
+        }
+        return "powershell.exe";
+    }
+
+    /** Starts one host off-thread so the first real call does not pay the start-up. */
+    public void prewarm() {
+        Thread t = new Thread(() -> {
+            if (!permits.tryAcquire()) return;
+            try {
+                Host h = new Host();
+                release(h);
+            } catch (IOException e) {
+                permits.release();
+            }
+        }, "fxShield-pshost-warm");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Runs a script on a pooled host. Blocks up to {@code timeout} in total (waiting for a free
+     * host included). Never throws; returns null when no host could be started or written to,
+     * so the caller can fall back to a one-shot process.
+     */
+    public PsResult run(String script, Duration timeout, LineListener listener) {
+        long deadline = System.nanoTime() + Math.max(1, timeout.toNanos());
+        StringBuilder out = new StringBuilder();
+        StringBuilder err = new StringBuilder();
+
+        if (closed) return new PsResult(-1, "", "pool closed", false);
+
+        try {
+            if (!permits.tryAcquire(remainingNs(deadline), TimeUnit.NANOSECONDS)) {
+                return new PsResult(-1, "", "no PowerShell host available", true);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new PsResult(-1, "", "interrupted", false);
+        }
+
+        Host h = null;
+        try {
+            h = takeIdleOrStart();
+            return h.call(script, deadline, out, err, listener);
+        } catch (IOException e) {
+            if (h != null) h.kill();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (h != null) h.kill();
+            return new PsResult(-1, out.toString(), err.toString(), false);
+        } finally {
+            if (h != null) release(h);
+            else permits.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (idle) {
+            for (Host h : idle) h.kill();
+            idle.clear();
+        }
+    }
+
+    private Host takeIdleOrStart() throws IOException {
+        synchronized (idle) {
+            while (!idle.isEmpty()) {
+                Host h = idle.pollFirst();
+                if (h.isUsable()) return h;
+                h.kill();
+            }
+        }
+        return new Host();
+    }
+
+    private void release(Host h) {
+        try {
+            if (!closed && h.isUsable() && h.calls < MAX_CALLS_PER_HOST) {
+                synchronized (idle) {
+                    idle.addFirst(h); // LIFO: keep the warmest host busy
+                }
+            } else {
+                h.kill();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static long remainingNs(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    // =========================================================================
+    // Host
+    // =========================================================================
+
+    private static final class Line {
+        static final Line EOF = new Line(null, false);
+
+        final String text;
+        final boolean stderr;
+
+        Line(String text, boolean stderr) {
+            this.text = text;
+            this.stderr = stderr;
+        }
+    }
+
+    private final class Host {
+        final Process proc;
+        final BufferedWriter stdin;
+        final BlockingQueue<Line> lines = new LinkedBlockingQueue<>();
+        int calls = 0;
+        volatile boolean dead = false;
+
+        Host() throws IOException {
+            ProcessBuilder pb = new ProcessBuilder(hostCommand);
+            pb.redirectErrorStream(false);
+            proc = pb.start();
+            stdin = new BufferedWriter(new OutputStreamWriter(proc.getOutputStream(), StandardCharsets.UTF_8));
+
+            int n = hostSeq.incrementAndGet();
+            startReader(proc.getInputStream(), false, "fxShield-pshost-" + n + "-out");
+            startReader(proc.getErrorStream(), true, "fxShield-pshost-" + n + "-err");
+        }
+
+        private void startReader(InputStream is, boolean stderr, String name) {
+            Thread t = new Thread(() -> {
+                try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+                    String l;
+                    while ((l = br.readLine()) != null) lines.add(new Line(l, stderr));
+                } catch (IOException ignored) {
+                }
+                if (!stderr) {
+                    dead = true;
+                    lines.add(Line.EOF);
+                }
+            }, name);
+            t.setDaemon(true);
+            t.start();
+        }
+
+        boolean isUsable() {
+            return !dead && proc.isAlive();
+        }
+
+        PsResult call(String script, long deadline, StringBuilder out, StringBuilder err, LineListener listener)
+                throws IOException, InterruptedException {
+            calls++;
+            lines.clear(); // stray output from a previous call
+            String id = Long.toString(ids.incrementAndGet());
+            String okPrefix = id + "!O ";
+            String errPrefix = id + "!E ";
+            String endPrefix = id + "!END ";
+
+            String src = (script == null) ? "" : script;
+            stdin.write(id + " " + Base64.getEncoder().encodeToString(src.getBytes(StandardCharsets.UTF_8)));
+            stdin.write('\n');
+            stdin.flush();
+
+            while (true) {
+                long left = remainingNs(deadline);
+                Line l = (left > 0) ? lines.poll(left, TimeUnit.NANOSECONDS) : null;
+
+                if (l == null) { // timed out: the host may be stuck in the script, recycle it
+                    kill();
+                    return new PsResult(-1, out.toString(), err.toString(), true);
+                }
+
+                if (l == Line.EOF) { // script ended the host ("exit N")
+                    int code = -1;
+                    try {
+                        if (proc.waitFor(Math.max(1, remainingNs(deadline)), TimeUnit.NANOSECONDS)) code = proc.exitValue();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    kill();
+                    return new PsResult(code, out.toString(), err.toString(), false);
+                }
+
+                String t = l.text;
+                if (!l.stderr && t.startsWith(endPrefix)) {
+                    int code;
+                    try {
+                        code = Integer.parseInt(t.substring(endPrefix.length()).trim());
+                    } catch (NumberFormatException e) {
+                        code = -1;
+                    }
+                    return new PsResult(code, out.toString(), err.toString(), false);
+                }
+
+                boolean isErr = l.stderr;
+                if (!isErr && t.startsWith(okPrefix)) t = t.substring(okPrefix.length());
+                else if (!isErr && t.startsWith(errPrefix)) {
+                    t = t.substring(errPrefix.length());
+                    isErr = true;
+                }
+
+                (isErr ? err : out).append(t).append('\n');
+                if (listener != null) {
+                    try {
+                        listener.onLine(t, isErr);
+                    } catch (Throwable ignored) {
+                    }
+                }
+            }
+        }
+
+        void kill() {
+            dead = true;
+            try {
+                stdin.close();
+            } catch (IOException ignored) {
+            }
+            // whatever the script started (native tools) goes with the host
+            try {
+                proc.descendants().forEach(ProcessHandle::destroyForcibly);
+            } catch (Exception ignored) {
+            }
+            proc.destroy();
+            try {
+                if (!proc.waitFor(300, TimeUnit.MILLISECONDS)) proc.destroyForcibly();
+            } catch (InterruptedException e) {
+                proc.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
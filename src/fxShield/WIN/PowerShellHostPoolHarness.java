@@ -0,0 +1,137 @@
+package fxShield.WIN;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Protocol checks for {@link PowerShellHostPool} that run anywhere:
+ * against pwsh when it is on PATH, otherwise against a POSIX sh stand-in host that speaks the
+ * same framing (scripts are then sh, not PowerShell). Also checks that a {@link ScriptEngine}
+ * probe does not wait behind long scripts.
+ *
+ * Run: java fxShield.WIN.PowerShellHostPoolHarness [pwsh|sh]
+ * Exit code 1 when a check fails.
+ */
+public final class PowerShellHostPoolHarness {
+
+    private PowerShellHostPoolHarness() {}
+
+    /** sh host loop with the same request / response framing as {@link PowerShellHostPool#HOST_LOOP}. */
+    static final String SH_HOST_LOOP = ""
+            + "rc=$(mktemp); trap 'rm -f \"$rc\"' EXIT\n"
+            + "while IFS=' ' read -r id b64; do\n"
+            + "  src=$(printf '%s' \"$b64\" | base64 -d)\n"
+            + "  { sh -c \"$src\"; echo $? > \"$rc\"; } 2>&1 | while IFS= read -r l; do printf '%s!O %s\\n' \"$id\" \"$l\"; done\n"
+            + "  code=$(cat \"$rc\")\n"
+            + "  case \"$src\" in exit*) exit \"$code\";; esac\n"
+            + "  printf '%s!END %s\\n' \"$id\" \"$code\"\n"
+            + "done\n";
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws Exception {
+        boolean pwsh = (args.length > 0) ? args[0].equals("pwsh") : onPath("pwsh");
+        List<String> cmd = pwsh
+                ? PowerShellHostPool.powerShellCommand("pwsh")
+                : List.of("sh", "-c", SH_HOST_LOOP);
+        System.out.println("host: " + (pwsh ? "pwsh" : "sh stand-in"));
+
+        try (PowerShellHostPool pool = new PowerShellHostPool(cmd, 2)) {
+            long t0 = System.nanoTime();
+            PsResult r = pool.run(pwsh ? "'héllo'" : "echo héllo", Duration.ofSeconds(20), null);
+            long coldMs = (System.nanoTime() - t0) / 1_000_000;
+            check("echo round-trip", r.success && r.stdout.trim().equals("héllo"), r);
+
+            t0 = System.nanoTime();
+            int warm = 20;
+            for (int i = 0; i < warm; i++) pool.run(pwsh ? "1" : "true", Duration.ofSeconds(5), null);
+            long warmUs = (System.nanoTime() - t0) / 1000 / warm;
+            System.out.println("cold call " + coldMs + " ms, warm call " + warmUs + " us");
+
+            r = pool.run(pwsh ? "'a'; 'b'; 'c'" : "printf 'a\\nb\\nc\\n'", Duration.ofSeconds(5), null);
+            check("multi-line", r.stdout.equals("a\nb\nc\n"), r);
+
+            r = pool.run(pwsh ? "cmd /c exit 4; $global:LASTEXITCODE=4" : "false", Duration.ofSeconds(5), null);
+            check("non-zero exit", !r.success && !r.timedOut, r);
+
+            r = pool.run(pwsh ? "Get-Item '/fxshield-missing' -ErrorAction SilentlyContinue" : "ls /fxshield-missing 2>/dev/null",
+                    Duration.ofSeconds(5), null);
+            check("failed last statement is a failure", !r.success && r.exitCode != 0, r);
+
+            r = pool.run(pwsh ? "Get-Item '/fxshield-missing' -ErrorAction SilentlyContinue; 'ok'" : "ls /fxshield-missing 2>/dev/null; echo ok",
+                    Duration.ofSeconds(5), null);
+            check("earlier failure, last statement ok", r.success && r.stdout.trim().equals("ok"), r);
+
+            r = pool.run(pwsh ? "Start-Sleep -Seconds 10" : "sleep 10", Duration.ofMillis(500), null);
+            check("timeout reported", r.timedOut, r);
+
+            r = pool.run(pwsh ? "'after'" : "echo after", Duration.ofSeconds(20), null);
+            check("recovers after hung host", r.success && r.stdout.trim().equals("after"), r);
+
+            r = pool.run("exit 3", Duration.ofSeconds(20), null);
+            check("exit N ends host with code N", r.exitCode == 3, r);
+
+            r = pool.run(pwsh ? "'again'" : "echo again", Duration.ofSeconds(20), null);
+            check("recovers after exit", r.success && r.stdout.trim().equals("again"), r);
+
+            ExecutorService ex = Executors.newFixedThreadPool(6);
+            List<Future<PsResult>> fs = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                int n = i;
+                fs.add(ex.submit(() -> pool.run(pwsh ? "'" + n + "'" : "echo " + n, Duration.ofSeconds(30), null)));
+            }
+            boolean allOk = true;
+            for (int i = 0; i < fs.size(); i++) {
+                PsResult x = fs.get(i).get();
+                allOk &= x != null && x.success && x.stdout.trim().equals(Integer.toString(i));
+            }
+            ex.shutdown();
+            check("12 concurrent calls on 2 hosts, no cross-talk", allOk, null);
+        }
+
+        // engine lanes: a short probe does not queue behind two long scripts
+        try (PowerShellHostPool pool = new PowerShellHostPool(cmd, 3)) {
+            ScriptEngine engine = new ScriptEngine(pool, null, 2, 1, 4);
+            String slow = pwsh ? "Start-Sleep -Seconds 4; 'slow'" : "sleep 4; echo slow";
+            ScriptEngine.Handle a = engine.submit(slow, Duration.ofSeconds(30), null, null);
+            ScriptEngine.Handle b = engine.submit(slow, Duration.ofSeconds(30), null, null);
+            Thread.sleep(300);
+
+            long t0 = System.nanoTime();
+            PsResult probe = engine.run(pwsh ? "'probe'" : "echo probe", Duration.ofSeconds(3), null, null);
+            long probeMs = (System.nanoTime() - t0) / 1_000_000;
+            System.out.println("probe behind 2 long scripts: " + probeMs + " ms");
+            check("probe runs while both script slots are busy", probe.success && probe.stdout.trim().equals("probe")
+                    && !a.isDone() && !b.isDone(), probe);
+            check("long scripts unaffected", a.await().success && b.await().success, null);
+        }
+
+        System.out.println(failures == 0 ? "all checks passed" : failures + " check(s) failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static void check(String name, boolean ok, PsResult r) {
+        System.out.println((ok ? "ok   " : "FAIL ") + name);
+        if (!ok) {
+            failures++;
+            if (r != null) {
+                System.out.println("     exit=" + r.exitCode + " timedOut=" + r.timedOut
+                        + " out=" + r.stdout.replace("\n", "\\n") + " err=" + r.stderr.replace("\n", "\\n"));
+            }
+        }
+    }
+
+    private static boolean onPath(String exe) {
+        String path = System.getenv("PATH");
+        if (path == null) return false;
+        for (String dir : path.split(File.pathSeparator)) {
+            if (new File(dir, exe).canExecute()) return true;
+        }
+        return false;
+    }
+}
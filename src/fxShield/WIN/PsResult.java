@@ -0,0 +1,38 @@
+package fxShield.WIN;
+
+/**
+ * Outcome of one PowerShell script run (spawned process or pooled host).
+ */
+public final class PsResult {
+    public final int exitCode;
+    public final String stdout;
+    public final String stderr;
+    public final boolean timedOut;
+    public final boolean cancelled;
+    public final long durationMs; // time spent running, queue wait excluded
+    public final boolean success;
+
+    public PsResult(int exitCode, String stdout, String stderr, boolean timedOut) {
+        this(exitCode, stdout, stderr, timedOut, false, 0);
+    }
+
+    public PsResult(int exitCode, String stdout, String stderr, boolean timedOut, boolean cancelled, long durationMs) {
+        this.exitCode = exitCode;
+        this.stdout = stdout != null ? stdout : "";
+        this.stderr = stderr != null ? stderr : "";
+        this.timedOut = timedOut;
+        this.cancelled = cancelled;
+        this.durationMs = Math.max(0, durationMs);
+        this.success = !timedOut && !cancelled && exitCode == 0;
+    }
+
+    PsResult withRun(boolean cancelled, long durationMs) {
+        return new PsResult(exitCode, stdout, stderr, timedOut, this.cancelled || cancelled, durationMs);
+    }
+
+    @Override
+    public String toString() {
+        String state = timedOut ? "timed out" : cancelled ? "cancelled" : "exit " + exitCode;
+        return state + " (" + durationMs + " ms)";
+    }
+}
@@ -0,0 +1,249 @@
+package fxShield.WIN;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.prefs.Preferences;
+
+/**
+ * Runs the existing optimization scripts when an alert rule with a remedy is raised (and its
+ * revert action when it clears), e.g. Performance mode while the CPU stays pegged.
+ *
+ * - Bounded: one remediation runs at a time, at most {@link #MAX_QUEUED} wait; anything more is
+ *   dropped, as is an action that is already queued or running.
+ * - Limited: per-rule cooldown, at most {@code maxPerHour} remediations overall, and the
+ *   {@link ScriptLedger} minimum intervals still apply. Cooldown and rate slot are only used
+ *   once the action is actually queued (a dropped action costs nothing).
+ * - The current power mode is read from the power mode dialog's preference each time, so a
+ *   mode picked by hand is never overridden by what a remediation set earlier.
+ * - Dry run (the default) decides everything but runs nothing.
+ * - Every decision goes to %APPDATA%/FxShield/remediation-audit.log.
+ *
+ * Scripts come from a {@link ScriptSource} set by the dashboard (remote config); without one,
+ * remediations are audited as unavailable.
+ */
+public final class Remediator {
+
+    private static final Logger logger = LoggerFactory.getLogger(Remediator.class);
+
+    public static final String AUDIT_NAME = "remediation-audit.log";
+    public static final int MAX_QUEUED = 2;
+    public static final int DEFAULT_MAX_PER_HOUR = 4;
+    private static final long HOUR_MS = 3_600_000L;
+    private static final Duration SCRIPT_TIMEOUT = Duration.ofMinutes(5);
+    // same node / key as the power mode dialog, so it shows the mode a remediation switched to
+    private static final String POWER_MODE_NODE = "/fxShield/UI";
+    private static final String POWER_MODE_KEY = "powerMode";
+
+    public enum Action {
+        FREE_RAM, OPTIMIZE_DISK, PERFORMANCE_MODE, BALANCED_MODE, QUIET_MODE;
+
+        boolean isPowerMode() {
+            return this == PERFORMANCE_MODE || this == BALANCED_MODE || this == QUIET_MODE;
+        }
+
+        String powerModeName() {
+            return name().substring(0, name().length() - "_MODE".length());
+        }
+    }
+
+    /** Current script of an action, or null when unavailable (offline, maintenance). Blocking. */
+    public interface ScriptSource {
+        String script(Action action);
+    }
+
+    private final boolean dryRun;
+    private final int maxPerHour;
+    private final Path auditFile;
+    private final ThreadPoolExecutor exec;
+    private final Map<String, Long> lastByRule = new ConcurrentHashMap<>();
+    private final Map<Action, Boolean> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> remediated = ConcurrentHashMap.newKeySet(); // rules whose remedy ran: something to revert
+    private final Map<String, Action> modeBefore = new ConcurrentHashMap<>(); // power mode a rule's remedy replaced
+    private final long[] recentRuns; // ring of start times, guarded by this
+    private int recentPos = 0;
+    private volatile ScriptSource source;
+    private volatile Action dryRunPowerMode; // dry run only: the mode it would have switched to
+
+    public Remediator(boolean dryRun, int maxPerHour, Path auditFile) {
+        this.dryRun = dryRun;
+        this.maxPerHour = Math.max(1, maxPerHour);
+        this.auditFile = auditFile;
+        this.recentRuns = new long[this.maxPerHour];
+        this.exec = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_QUEUED), r -> {
+            Thread t = new Thread(r, "fxShield-remediation");
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.exec.allowCoreThreadTimeOut(true);
+    }
+
+    public void setScriptSource(ScriptSource s) {
+        this.source = s;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    /** Called for every transition of a rule with a remedy; never blocks on the action. */
+    void onTransition(AlertEngine.Event e) {
+        Action planned = e.action;
+        if (planned == null) return;
+        if (!e.raised) {
+            if (!remediated.remove(e.rule)) return; // the remedy did not run: nothing to undo
+            Action before = modeBefore.remove(e.rule);
+            if (before != null && planned.isPowerMode()) planned = before; // restore, not a fixed mode
+        }
+        Action action = planned;
+        long now = System.currentTimeMillis();
+        String what = e.rule + " " + action + " (" + e.message() + ")";
+
+        if (action.isPowerMode() && action == currentPowerMode()) {
+            audit(now, "SKIPPED", what + ": already in that mode");
+            return;
+        }
+        if (e.raised) { // reverts are not limited: they undo a remediation
+            Long last = lastByRule.get(e.rule);
+            if (last != null && now - last < e.cooldownMs) {
+                audit(now, "SKIPPED", what + ": cooldown, " + ((e.cooldownMs - (now - last)) / 1000) + " s left");
+                return;
+            }
+            if (!rateSlotFree(now)) {
+                audit(now, "RATE-LIMITED", what + ": " + maxPerHour + " per hour reached");
+                return;
+            }
+        }
+
+        if (dryRun) {
+            if (e.raised) {
+                useLimits(e.rule, now);
+                markRemediated(e.rule, action, currentPowerMode());
+            }
+            if (action.isPowerMode()) dryRunPowerMode = action;
+            audit(now, "DRY-RUN", what);
+            return;
+        }
+
+        if (inFlight.putIfAbsent(action, Boolean.TRUE) != null) {
+            audit(now, "DROPPED", what + ": same action already queued");
+            return;
+        }
+        try {
+            exec.execute(() -> {
+                try {
+                    Action before = e.raised ? currentPowerMode() : null;
+                    if (run(action, what) && e.raised) markRemediated(e.rule, action, before);
+                } finally {
+                    inFlight.remove(action);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(action);
+            audit(now, "DROPPED", what + ": remediation queue full");
+            return;
+        }
+        if (e.raised) useLimits(e.rule, now);
+    }
+
+    private void markRemediated(String rule, Action action, Action before) {
+        if (action.isPowerMode() && before != null) modeBefore.put(rule, before);
+        else modeBefore.remove(rule);
+        remediated.add(rule);
+    }
+
+    /** Mode last switched to here or in the power mode dialog; null when never set. */
+    private Action currentPowerMode() {
+        if (dryRun && dryRunPowerMode != null) return dryRunPowerMode;
+        try {
+            String name = Preferences.userRoot().node(POWER_MODE_NODE).get(POWER_MODE_KEY, null);
+            return (name != null) ? Action.valueOf(name + "_MODE") : null;
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    private synchronized boolean rateSlotFree(long now) {
+        long oldest = recentRuns[recentPos];
+        return oldest == 0 || now - oldest >= HOUR_MS;
+    }
+
+    /** Starts the rule's cooldown and uses a rate slot; only once the action is queued. */
+    private void useLimits(String rule, long now) {
+        lastByRule.put(rule, now);
+        synchronized (this) {
+            recentRuns[recentPos] = now;
+            recentPos = (recentPos + 1) % recentRuns.length;
+        }
+    }
+
+    // =========================================================================
+    // Execution (remediation thread)
+    // =========================================================================
+
+    /** True when the script ran and succeeded. */
+    private boolean run(Action action, String what) {
+        ScriptSource src = source;
+        String script = (src != null) ? src.script(action) : null;
+        if (script == null) {
+            audit(System.currentTimeMillis(), "FAILED", what + ": no script available");
+            return false;
+        }
+
+        ScriptLedger ledger = ScriptLedger.shared();
+        ScriptLedger.Entry recent = ledger.recentRun(action.name(), script, System.currentTimeMillis());
+        if (recent != null) {
+            audit(System.currentTimeMillis(), "SKIPPED", what + ": ran "
+                    + ((System.currentTimeMillis() - recent.lastRunMs) / 1000) + " s ago");
+            return false;
+        }
+
+        if (!ledger.tryBegin(script)) {
+            audit(System.currentTimeMillis(), "SKIPPED", what + ": same script is already running");
+            return false;
+        }
+        PsResult r;
+        try {
+            r = ScriptEngine.shared().run(script, SCRIPT_TIMEOUT, "[Remedy]", null);
+            ledger.record(action.name(), script, r, -1, System.currentTimeMillis());
+        } finally {
+            ledger.finish(script);
+        }
+
+        if (r.success && action.isPowerMode()) {
+            try {
+                Preferences.userRoot().node(POWER_MODE_NODE).put(POWER_MODE_KEY, action.powerModeName());
+            } catch (Exception ignored) {
+            }
+        }
+        audit(System.currentTimeMillis(), r.success ? "RAN" : "FAILED", what + ": " + r);
+        return r.success;
+    }
+
+    private synchronized void audit(long now, String verdict, String detail) {
+        String line = Instant.ofEpochMilli(now) + " " + verdict + " " + detail;
+        logger.info("[Remedy] {}", line);
+        if (auditFile == null) return;
+        try {
+            Files.createDirectories(auditFile.getParent());
+            Files.writeString(auditFile, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            logger.warn("[Remedy] Cannot write {}", auditFile, ex);
+        }
+    }
+}
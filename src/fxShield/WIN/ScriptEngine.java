@@ -0,0 +1,312 @@
+package fxShield.WIN;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The single way fxShield runs PowerShell.
+ *
+ * - Bounded: at most {@link #MAX_RUNNING} scripts run at once, at most {@link #MAX_QUEUED} wait;
+ *   further submissions are rejected with a failed {@link PsResult} instead of spawning more.
+ * - Probes (timeout up to {@link #PROBE_MAX_TIMEOUT}: admin check, elevation, start-up queries)
+ *   have their own lane of {@link #PROBE_RUNNING}, so they never wait behind long scripts.
+ * - Runs on the warm {@link PowerShellHostPool}; a one-shot -EncodedCommand process is used only
+ *   when no host can be started.
+ * - Output lines are streamed to an optional {@link PowerShellHostPool.LineListener} (engine
+ *   thread, one line at a time) and logged under the caller's tag.
+ * - The timeout counts from submission, so time spent queued is not added on top.
+ * - {@link Handle#cancel()} drops a queued script or kills the running host / process.
+ */
+public final class ScriptEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScriptEngine.class);
+
+    public static final int MAX_RUNNING = PowerShellHostPool.DEFAULT_SIZE;
+    public static final int MAX_QUEUED = 16;
+    public static final int PROBE_RUNNING = 1;
+    public static final Duration PROBE_MAX_TIMEOUT = Duration.ofSeconds(10);
+
+    private static volatile ScriptEngine shared;
+
+    private final PowerShellHostPool pool;
+    private final List<String> oneShotPrefix; // null: no fallback
+    private final ThreadPoolExecutor exec;
+    private final ThreadPoolExecutor probeExec;
+    private final AtomicInteger threadSeq = new AtomicInteger();
+
+    /** One submitted script. */
+    public static final class Handle {
+        private final Future<PsResult> future;
+
+        private Handle(Future<PsResult> future) {
+            this.future = future;
+        }
+
+        /** Blocks until the script ends; never throws. Interrupting the waiter cancels the script. */
+        public PsResult await() {
+            try {
+                return future.get();
+            } catch (CancellationException e) {
+                return cancelledResult();
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                return cancelledResult();
+            } catch (ExecutionException e) {
+                logger.error("Script execution failed", e.getCause());
+                return new PsResult(-1, "", String.valueOf(e.getCause()), false);
+            }
+        }
+
+        /** Drops the script if still queued, otherwise kills it. Returns false when already done. */
+        public boolean cancel() {
+            return future.cancel(true);
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        private static PsResult cancelledResult() {
+            return new PsResult(-1, "", "cancelled", false, true, 0);
+        }
+    }
+
+    /**
+     * @param pool needs {@code maxRunning + probeRunning} hosts, or probes wait for a host after all
+     */
+    public ScriptEngine(PowerShellHostPool pool, List<String> oneShotPrefix, int maxRunning, int probeRunning,
+                        int maxQueued) {
+        this.pool = pool;
+        this.oneShotPrefix = (oneShotPrefix != null) ? List.copyOf(oneShotPrefix) : null;
+        this.exec = lane("fxShield-script-", maxRunning, maxQueued);
+        this.probeExec = lane("fxShield-probe-", probeRunning, maxQueued);
+    }
+
+    private ThreadPoolExecutor lane(String name, int running, int queued) {
+        int n = Math.max(1, running);
+        ThreadPoolExecutor e = new ThreadPoolExecutor(n, n, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queued)), r -> {
+            Thread t = new Thread(r, name + threadSeq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        e.allowCoreThreadTimeOut(true);
+        return e;
+    }
+
+    /** Process-wide engine on the shared PowerShell host pool. */
+    public static ScriptEngine shared() {
+        ScriptEngine e = shared;
+        if (e != null) return e;
+        synchronized (ScriptEngine.class) {
+            if (shared == null) {
+                List<String> oneShot = List.of(PowerShellHostPool.windowsPowerShellExe(),
+                        "-NoProfile", "-NonInteractive", "-ExecutionPolicy", "Bypass", "-EncodedCommand");
+                shared = new ScriptEngine(PowerShellHostPool.shared(), oneShot, MAX_RUNNING, PROBE_RUNNING, MAX_QUEUED);
+            }
+            return shared;
+        }
+    }
+
+    /**
+     * Queues a script on the probe lane when its timeout is at most {@link #PROBE_MAX_TIMEOUT},
+     * else on the script lane. Never throws; a full queue yields an already-completed failed handle.
+     *
+     * @param tag      log prefix for each output line, or null for no logging
+     * @param listener streamed output, or null
+     */
+    public Handle submit(String script, Duration timeout, String tag, PowerShellHostPool.LineListener listener) {
+        long deadline = System.nanoTime() + Math.max(1, timeout.toNanos());
+        ThreadPoolExecutor lane = (timeout.compareTo(PROBE_MAX_TIMEOUT) <= 0) ? probeExec : exec;
+        try {
+            return new Handle(lane.submit(() -> execute(script, deadline, tag, listener)));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Script rejected{}: {} running, {} queued", tag == null ? "" : " " + tag,
+                    lane.getActiveCount(), lane.getQueue().size());
+            return new Handle(CompletableFuture.completedFuture(
+                    new PsResult(-1, "", "too many scripts queued", false)));
+        }
+    }
+
+    /** Blocking convenience for {@code submit(...).await()}; do not call on the FX thread. */
+    public PsResult run(String script, Duration timeout, String tag, PowerShellHostPool.LineListener listener) {
+        return submit(script, timeout, tag, listener).await();
+    }
+
+    // =========================================================================
+    // Execution (engine threads)
+    // =========================================================================
+
+    private PsResult execute(String script, long deadline, String tag, PowerShellHostPool.LineListener listener) {
+        long t0 = System.nanoTime();
+        long left = deadline - t0;
+        if (left <= 0) return new PsResult(-1, "", "timed out in queue", true);
+
+        PowerShellHostPool.LineListener sink = lineSink(tag, listener);
+
+        PsResult r = (pool != null) ? pool.run(script, Duration.ofNanos(left), sink) : null;
+        if (r == null && !Thread.currentThread().isInterrupted()) {
+            r = runOneShot(script, Math.max(1, deadline - System.nanoTime()), sink);
+        }
+        if (r == null) r = new PsResult(-1, "", "no PowerShell available", false);
+
+        boolean cancelled = Thread.interrupted();
+        r = r.withRun(cancelled, (System.nanoTime() - t0) / 1_000_000);
+        if (tag != null) logger.info("{} {}", tag, r);
+        return r;
+    }
+
+    private static PowerShellHostPool.LineListener lineSink(String tag, PowerShellHostPool.LineListener listener) {
+        if (tag == null) return listener;
+        String outPrefix = tag + " ";
+        String errPrefix = tag + " [ERR] ";
+        return (line, isErr) -> {
+            logger.info("{}{}", isErr ? errPrefix : outPrefix, line);
+            if (listener != null) listener.onLine(line, isErr);
+        };
+    }
+
+    // =========================================================================
+    // One-shot fallback
+    // =========================================================================
+
+    private PsResult runOneShot(String script, long timeoutNs, PowerShellHostPool.LineListener sink) {
+        if (oneShotPrefix == null) return null;
+
+        List<String> cmd = new ArrayList<>(oneShotPrefix);
+        cmd.add(toEncodedCommand(script));
+
+        Process p = null;
+        StringBuilder out = new StringBuilder();
+        StringBuilder err = new StringBuilder();
+        Object lock = new Object(); // one listener call at a time across both streams
+        Thread tOut = null;
+        Thread tErr = null;
+
+        try {
+            ProcessBuilder pb = new ProcessBuilder(cmd);
+            pb.redirectErrorStream(false);
+            p = pb.start();
+
+            tOut = new Thread(new Gobbler(p.getInputStream(), out, false, sink, lock), "fxShield-ps-out");
+            tErr = new Thread(new Gobbler(p.getErrorStream(), err, true, sink, lock), "fxShield-ps-err");
+            tOut.setDaemon(true);
+            tErr.setDaemon(true);
+            tOut.start();
+            tErr.start();
+
+            if (!p.waitFor(timeoutNs, TimeUnit.NANOSECONDS)) {
+                destroyTree(p);
+                joinQuiet(tOut, 1200);
+                joinQuiet(tErr, 1200);
+                return new PsResult(-1, text(out), text(err), true);
+            }
+
+            joinQuiet(tOut, 1200);
+            joinQuiet(tErr, 1200);
+            return new PsResult(p.exitValue(), text(out), text(err), false);
+
+        } catch (InterruptedException e) {
+            destroyTree(p);
+            Thread.currentThread().interrupt();
+            return new PsResult(-1, text(out), text(err), false, true, 0);
+        } catch (Exception ex) {
+            logger.error("PowerShell execution failed", ex);
+            if (p != null) destroyTree(p);
+            joinQuiet(tOut, 800);
+            joinQuiet(tErr, 800);
+            return new PsResult(-1, text(out), text(err), false);
+        }
+    }
+
+    private static String toEncodedCommand(String script) {
+        String s = ""
+                + "$ProgressPreference='SilentlyContinue'\n"
+                + "[Console]::OutputEncoding=[System.Text.Encoding]::UTF8\n"
+                + "$OutputEncoding=[Console]::OutputEncoding\n"
+                + (script == null ? "" : script);
+        return Base64.getEncoder().encodeToString(s.getBytes(StandardCharsets.UTF_16LE));
+    }
+
+    private static String text(StringBuilder sb) {
+        synchronized (sb) {
+            return sb.toString();
+        }
+    }
+
+    private static void destroyTree(Process p) {
+        try {
+            p.descendants().forEach(ProcessHandle::destroyForcibly);
+        } catch (Exception ignored) {
+        }
+        try { p.destroy(); } catch (Exception ignored) {}
+        try {
+            if (!p.waitFor(400, TimeUnit.MILLISECONDS)) {
+                p.destroyForcibly();
+                p.waitFor(400, TimeUnit.MILLISECONDS);
+            }
+        } catch (Exception ignored) {
+            try { p.destroyForcibly(); } catch (Exception ignored2) {}
+        }
+    }
+
+    private static void joinQuiet(Thread t, long ms) {
+        if (t == null) return;
+        try { t.join(ms); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
+    }
+
+    private static final class Gobbler implements Runnable {
+        private final InputStream is;
+        private final StringBuilder sink;
+        private final boolean stderr;
+        private final PowerShellHostPool.LineListener listener;
+        private final Object lock;
+
+        Gobbler(InputStream is, StringBuilder sink, boolean stderr, PowerShellHostPool.LineListener listener, Object lock) {
+            this.is = is;
+            this.sink = sink;
+            this.stderr = stderr;
+            this.listener = listener;
+            this.lock = lock;
+        }
+
+        @Override
+        public void run() {
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    synchronized (sink) {
+                        sink.append(line).append('\n');
+                    }
+                    if (listener != null) {
+                        synchronized (lock) {
+                            try {
+                                listener.onLine(line, stderr);
+                            } catch (Throwable ignored) {
+                            }
+                        }
+                    }
+                }
+            } catch (Exception ignored) {}
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package fxShield.WIN;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Execution ledger for optimization scripts, keyed by a hash of the script content.
+ *
+ * - Records the last run of each script: time, duration, exit code and measured effect (bytes
+ *   freed, -1 when not measured).
+ * - {@link #recentRun} tells callers to skip a script that already succeeded within its label's
+ *   minimum interval (SFC/DISM, disk cleanup...). A changed script has a new hash and runs.
+ * - {@link #tryBegin} / {@link #finish} mark a script as running (in memory only), so a second
+ *   click or an overlapping automation run skips instead of starting another copy.
+ * - Persisted to %APPDATA%/FxShield/script-ledger.properties (atomic replace). Minimum
+ *   intervals can be overridden there with {@code minInterval.<LABEL>=<seconds>}.
+ */
+public final class ScriptLedger {
+
+    private static final String FILE_NAME = "script-ledger.properties";
+    private static final String MIN_INTERVAL_PREFIX = "minInterval.";
+    private static final int MAX_ENTRIES = 64;
+
+    // defaults per label; labels without one are never skipped (mode switches must always apply)
+    private static final Map<String, Duration> DEFAULT_MIN_INTERVALS = Map.of(
+            "FREE_RAM", Duration.ofMinutes(2),
+            "OPTIMIZE_NETWORK", Duration.ofMinutes(10),
+            "OPTIMIZE_DISK", Duration.ofMinutes(30),
+            "SCAN_AND_FIX", Duration.ofHours(12),
+            "auto-temp-clean", Duration.ofMinutes(5),
+            "auto-cleanmgr", Duration.ofMinutes(30)
+    );
+
+    /** Last run of one script. Immutable. */
+    public static final class Entry {
+        public final String hash;
+        public final String label;
+        public final long lastRunMs;
+        public final long durationMs;
+        public final int exitCode;
+        public final boolean success;
+        public final long effectBytes;
+        public final long runs;
+
+        Entry(String hash, String label, long lastRunMs, long durationMs, int exitCode, boolean success,
+              long effectBytes, long runs) {
+            this.hash = hash;
+            this.label = label;
+            this.lastRunMs = lastRunMs;
+            this.durationMs = durationMs;
+            this.exitCode = exitCode;
+            this.success = success;
+            this.effectBytes = effectBytes;
+            this.runs = runs;
+        }
+    }
+
+    private static volatile ScriptLedger shared;
+
+    private final Path file;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Duration> minIntervals = new HashMap<>(DEFAULT_MIN_INTERVALS);
+    private final Set<String> running = new HashSet<>(); // hashes; not persisted
+
+    public ScriptLedger(Path file) {
+        this.file = file;
+        load();
+    }
+
+    public static ScriptLedger shared() {
+        ScriptLedger l = shared;
+        if (l != null) return l;
+        synchronized (ScriptLedger.class) {
+            if (shared == null) shared = new ScriptLedger(FxSettings.configDir().resolve(FILE_NAME));
+            return shared;
+        }
+    }
+
+    /** SHA-256 of the script, trimmed and with line endings normalized. */
+    public static String hash(String script) {
+        String s = (script == null) ? "" : script.replace("\r\n", "\n").trim();
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(d);
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(s.hashCode());
+        }
+    }
+
+    public synchronized Duration minInterval(String label) {
+        Duration d = minIntervals.get(label);
+        return (d != null) ? d : Duration.ZERO;
+    }
+
+    public synchronized void setMinInterval(String label, Duration interval) {
+        minIntervals.put(label, (interval != null && !interval.isNegative()) ? interval : Duration.ZERO);
+        save();
+    }
+
+    public synchronized Entry last(String script) {
+        return entries.get(hash(script));
+    }
+
+    /**
+     * The previous successful run when it is younger than the label's minimum interval (the
+     * caller should skip), otherwise null.
+     */
+    public synchronized Entry recentRun(String label, String script, long nowMs) {
+        long minMs = minInterval(label).toMillis();
+        if (minMs <= 0) return null;
+        Entry e = entries.get(hash(script));
+        if (e == null || !e.success) return null;
+        long age = nowMs - e.lastRunMs;
+        return (age >= 0 && age < minMs) ? e : null;
+    }
+
+    /**
+     * Claims {@code script} for a run; false while the same script is already running (the
+     * caller should skip). Every successful claim must be released with {@link #finish}.
+     */
+    public synchronized boolean tryBegin(String script) {
+        return running.add(hash(script));
+    }
+
+    public synchronized void finish(String script) {
+        running.remove(hash(script));
+    }
+
+    public void record(String label, String script, PsResult r, long effectBytes, long nowMs) {
+        if (r == null || r.cancelled) return; // a cancelled run says nothing about the script
+        record(label, script, r.durationMs, r.exitCode, r.success, effectBytes, nowMs);
+    }
+
+    public synchronized void record(String label, String script, long durationMs, int exitCode, boolean success,
+                                    long effectBytes, long nowMs) {
+        String h = hash(script);
+        Entry prev = entries.get(h);
+        long runs = (prev != null) ? prev.runs + 1 : 1;
+        entries.put(h, new Entry(h, label, nowMs, durationMs, exitCode, success, effectBytes, runs));
+        prune();
+        save();
+    }
+
+    // =========================================================================
+    // Persistence
+    // =========================================================================
+
+    private void prune() {
+        if (entries.size() <= MAX_ENTRIES) return;
+        List<Entry> all = new ArrayList<>(entries.values());
+        all.sort((a, b) -> Long.compare(b.lastRunMs, a.lastRunMs));
+        for (int i = MAX_ENTRIES; i < all.size(); i++) entries.remove(all.get(i).hash);
+    }
+
+    private void load() {
+        if (!Files.exists(file)) return;
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(file);
+             Reader r = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            p.load(r);
+        } catch (Exception ignored) {
+            return;
+        }
+
+        for (String key : p.stringPropertyNames()) {
+            if (key.startsWith(MIN_INTERVAL_PREFIX)) {
+                long sec = parseLong(p.getProperty(key), -1);
+                if (sec >= 0) minIntervals.put(key.substring(MIN_INTERVAL_PREFIX.length()), Duration.ofSeconds(sec));
+            } else if (key.endsWith(".lastRun")) {
+                String h = key.substring(0, key.length() - ".lastRun".length());
+                entries.put(h, new Entry(h,
+                        p.getProperty(h + ".label", ""),
+                        parseLong(p.getProperty(key), 0),
+                        parseLong(p.getProperty(h + ".duration"), 0),
+                        (int) parseLong(p.getProperty(h + ".exit"), -1),
+                        Boolean.parseBoolean(p.getProperty(h + ".success")),
+                        parseLong(p.getProperty(h + ".effect"), -1),
+                        parseLong(p.getProperty(h + ".runs"), 1)));
+            }
+        }
+    }
+
+    private void save() {
+        Properties p = new Properties();
+        for (Map.Entry<String, Duration> m : minIntervals.entrySet()) {
+            if (!m.getValue().equals(DEFAULT_MIN_INTERVALS.get(m.getKey()))) {
+                p.setProperty(MIN_INTERVAL_PREFIX + m.getKey(), Long.toString(m.getValue().toSeconds()));
+            }
+        }
+        for (Entry e : entries.values()) {
+            p.setProperty(e.hash + ".label", e.label == null ? "" : e.label);
+            p.setProperty(e.hash + ".lastRun", Long.toString(e.lastRunMs));
+            p.setProperty(e.hash + ".duration", Long.toString(e.durationMs));
+            p.setProperty(e.hash + ".exit", Integer.toString(e.exitCode));
+            p.setProperty(e.hash + ".success", Boolean.toString(e.success));
+            p.setProperty(e.hash + ".effect", Long.toString(e.effectBytes));
+            p.setProperty(e.hash + ".runs", Long.toString(e.runs));
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                p.store(w, "FxShield script ledger");
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ignored) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    private static long parseLong(String s, long def) {
+        if (s == null) return def;
+        try {
+            return Long.parseLong(s.trim());
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+}
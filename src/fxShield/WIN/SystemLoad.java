@@ -0,0 +1,82 @@
+package fxShield.WIN;
+
+import java.util.Locale;
+
+/**
+ * Latest machine load as seen by the monitoring engine, for background work that should not
+ * compete with the user (automation, maintenance).
+ *
+ * - Published by the monitor loop (CPU, RAM, busiest disk, GPU) and by a slow power poll
+ *   (on battery). Readers get an immutable {@link Sample}; nothing here blocks.
+ * - "Quiet" means CPU and every disk below the idle thresholds; {@link Sample#quietForMs}
+ *   tells how long that has held without a break.
+ * - A sample older than {@link #STALE_MS} means the monitor is not running: callers should
+ *   not read it as idle.
+ */
+public final class SystemLoad {
+
+    public static final double CPU_IDLE_PERCENT = 20;
+    public static final double DISK_IDLE_PERCENT = 15;
+    public static final long STALE_MS = 5000;
+
+    /** One published frame. Immutable. */
+    public static final class Sample {
+        public final double cpuPercent;
+        public final double ramPercent;
+        public final double diskActivePercent; // busiest disk
+        public final int gpuPercent;           // -1 = unknown
+        public final boolean onBattery;
+        public final long sampleMs;
+        public final long quietSinceMs;        // -1 = busy in this frame
+
+        Sample(double cpuPercent, double ramPercent, double diskActivePercent, int gpuPercent,
+               boolean onBattery, long sampleMs, long quietSinceMs) {
+            this.cpuPercent = cpuPercent;
+            this.ramPercent = ramPercent;
+            this.diskActivePercent = diskActivePercent;
+            this.gpuPercent = gpuPercent;
+            this.onBattery = onBattery;
+            this.sampleMs = sampleMs;
+            this.quietSinceMs = quietSinceMs;
+        }
+
+        public boolean isStale(long nowMs) {
+            return nowMs - sampleMs > STALE_MS;
+        }
+
+        public long quietForMs(long nowMs) {
+            return (quietSinceMs < 0) ? 0 : Math.max(0, nowMs - quietSinceMs);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "cpu %.0f%%, disk %.0f%%, ram %.0f%%, %s",
+                    cpuPercent, diskActivePercent, ramPercent, onBattery ? "battery" : "AC");
+        }
+    }
+
+    private static volatile Sample latest;
+    private static volatile boolean onBattery = false;
+
+    private SystemLoad() {}
+
+    /** Monitor thread, once per frame. */
+    public static void publish(double cpuPercent, double ramPercent, double diskActivePercent, int gpuPercent,
+                               long nowMs) {
+        Sample prev = latest;
+        boolean quiet = cpuPercent < CPU_IDLE_PERCENT && diskActivePercent < DISK_IDLE_PERCENT;
+        long quietSince = !quiet ? -1
+                : (prev != null && prev.quietSinceMs >= 0 && !prev.isStale(nowMs)) ? prev.quietSinceMs : nowMs;
+        latest = new Sample(cpuPercent, ramPercent, diskActivePercent, gpuPercent, onBattery, nowMs, quietSince);
+    }
+
+    /** Slow power poll; picked up by the next frame. */
+    public static void setOnBattery(boolean value) {
+        onBattery = value;
+    }
+
+    /** Latest frame, or null before the monitor published anything. */
+    public static Sample latest() {
+        return latest;
+    }
+}
@@ -0,0 +1,237 @@
+package fxShield.WIN;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Small dependency- and resource-aware step runner (One Click optimization).
+ *
+ * - A step starts once every step it depends on has finished (whatever the outcome: dependencies
+ *   order the work, they do not gate it) and none of its resource classes is held by a running
+ *   step. Independent steps run concurrently; conflicting ones serialize.
+ * - Among ready steps, insertion order wins.
+ * - Dependencies must be added first, so the graph cannot contain a cycle.
+ * - Wall time is the slowest chain, not the sum of the steps.
+ * - {@link #cancel()} interrupts running steps and skips the rest.
+ *
+ * Single use.
+ */
+public final class TaskGraph {
+
+    /** What a step competes for; steps sharing a class never overlap. */
+    public enum Resource { MEMORY, DISK, NETWORK, CPU }
+
+    public enum Status { OK, FAILED, CANCELLED, SKIPPED }
+
+    /** Blocking step body; false or an exception means failed. Should stop when interrupted. */
+    public interface Step {
+        boolean run() throws Exception;
+    }
+
+    /** Called from step threads; onStepFinished happens-before {@link #run} returns. */
+    public interface Listener {
+        default void onStepStarted(String name) {}
+
+        default void onStepFinished(StepResult result) {}
+    }
+
+    public static final class StepResult {
+        public final String name;
+        public final Status status;
+        public final long startOffsetMs; // from the start of the run; -1 when skipped
+        public final long durationMs;
+
+        StepResult(String name, Status status, long startOffsetMs, long durationMs) {
+            this.name = name;
+            this.status = status;
+            this.startOffsetMs = startOffsetMs;
+            this.durationMs = durationMs;
+        }
+    }
+
+    public static final class Report {
+        public final List<StepResult> steps; // insertion order
+        public final long elapsedMs;
+        public final boolean cancelled;
+
+        Report(List<StepResult> steps, long elapsedMs, boolean cancelled) {
+            this.steps = steps;
+            this.elapsedMs = elapsedMs;
+            this.cancelled = cancelled;
+        }
+
+        public boolean allOk() {
+            for (StepResult r : steps) if (r.status != Status.OK) return false;
+            return true;
+        }
+
+        /** What a strictly sequential run would have taken. */
+        public long sumOfStepsMs() {
+            long sum = 0;
+            for (StepResult r : steps) sum += r.durationMs;
+            return sum;
+        }
+    }
+
+    private static final int PENDING = 0, RUNNING = 1, DONE = 2;
+
+    private static final class Node {
+        final String name;
+        final EnumSet<Resource> resources;
+        final List<Node> deps;
+        final Step body;
+        int state = PENDING;
+        Thread thread;
+        StepResult result;
+
+        Node(String name, EnumSet<Resource> resources, List<Node> deps, Step body) {
+            this.name = name;
+            this.resources = resources;
+            this.deps = deps;
+            this.body = body;
+        }
+    }
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final EnumSet<Resource> held = EnumSet.noneOf(Resource.class);
+    private final Object lock = new Object();
+    private volatile boolean cancelled = false;
+    private boolean started = false;
+
+    public TaskGraph add(String name, Set<Resource> resources, Step body, String... dependsOn) {
+        synchronized (lock) {
+            if (started) throw new IllegalStateException("graph already running");
+            if (name == null || body == null) throw new IllegalArgumentException("name and body required");
+            if (nodes.containsKey(name)) throw new IllegalArgumentException("duplicate step: " + name);
+
+            List<Node> deps = new ArrayList<>();
+            for (String d : dependsOn) {
+                Node dep = nodes.get(d);
+                if (dep == null) throw new IllegalArgumentException(name + " depends on unknown step: " + d);
+                deps.add(dep);
+            }
+            EnumSet<Resource> res = (resources == null || resources.isEmpty())
+                    ? EnumSet.noneOf(Resource.class) : EnumSet.copyOf(resources);
+            nodes.put(name, new Node(name, res, deps, body));
+            return this;
+        }
+    }
+
+    /** Interrupts running steps; pending ones are skipped. Safe from any thread. */
+    public void cancel() {
+        synchronized (lock) {
+            cancelled = true;
+            for (Node n : nodes.values()) {
+                if (n.state == RUNNING && n.thread != null) n.thread.interrupt();
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /** Blocks until every step has finished or been skipped. Interrupting the caller cancels. */
+    public Report run(Listener listener) {
+        Listener l = (listener != null) ? listener : new Listener() {};
+        long t0 = System.currentTimeMillis();
+        boolean interrupted = false;
+
+        synchronized (lock) {
+            if (started) throw new IllegalStateException("graph already ran");
+            started = true;
+
+            while (true) {
+                if (!cancelled) startReady(t0, l);
+
+                boolean anyRunning = false;
+                for (Node n : nodes.values()) anyRunning |= (n.state == RUNNING);
+                if (!anyRunning) break; // everything done, or cancelled with nothing in flight
+
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    cancel();
+                }
+            }
+
+            for (Node n : nodes.values()) {
+                if (n.state == PENDING) {
+                    n.state = DONE;
+                    n.result = new StepResult(n.name, Status.SKIPPED, -1, 0);
+                }
+            }
+        }
+
+        if (interrupted) Thread.currentThread().interrupt();
+
+        List<StepResult> results = new ArrayList<>(nodes.size());
+        for (Node n : nodes.values()) results.add(n.result);
+        return new Report(Collections.unmodifiableList(results), System.currentTimeMillis() - t0, cancelled);
+    }
+
+    // =========================================================================
+    // Scheduling (under lock)
+    // =========================================================================
+
+    private void startReady(long t0, Listener listener) {
+        for (Node n : nodes.values()) {
+            if (n.state != PENDING || !depsDone(n) || overlapsHeld(n.resources)) continue;
+
+            n.state = RUNNING;
+            held.addAll(n.resources);
+            // virtual: steps block on scripts; cancelling the run interrupts them
+            n.thread = Thread.ofVirtual().name("fxShield-step-" + n.name).start(() -> runStep(n, t0, listener));
+        }
+    }
+
+    private static boolean depsDone(Node n) {
+        for (Node d : n.deps) if (d.state != DONE) return false;
+        return true;
+    }
+
+    private boolean overlapsHeld(EnumSet<Resource> res) {
+        for (Resource r : res) if (held.contains(r)) return true;
+        return false;
+    }
+
+    // =========================================================================
+    // Step thread
+    // =========================================================================
+
+    private void runStep(Node n, long t0, Listener listener) {
+        long start = System.currentTimeMillis();
+        try {
+            listener.onStepStarted(n.name);
+        } catch (Throwable ignored) {
+        }
+
+        Status status;
+        try {
+            status = n.body.run() ? Status.OK : Status.FAILED;
+        } catch (InterruptedException e) {
+            status = Status.CANCELLED;
+        } catch (Throwable e) {
+            status = Status.FAILED;
+        }
+        if (status != Status.OK && (cancelled || Thread.interrupted())) status = Status.CANCELLED;
+
+        long end = System.currentTimeMillis();
+        StepResult result = new StepResult(n.name, status, start - t0, end - start);
+        try {
+            listener.onStepFinished(result);
+        } catch (Throwable ignored) {
+        }
+
+        synchronized (lock) {
+            n.result = result;
+            n.state = DONE;
+            n.thread = null;
+            held.removeAll(n.resources);
+            lock.notifyAll();
+        }
+    }
+}
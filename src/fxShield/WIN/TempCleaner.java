@@ -0,0 +1,280 @@
+package fxShield.WIN;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Native temp-file cleanup (replaces PowerShell Remove-Item -Recurse).
+ *
+ * - Each target's top-level entries are walked in parallel (Files.walkFileTree per entry).
+ * - Only the contents of a target are removed, never the target itself.
+ * - Age-aware: files modified within the target's minimum age are kept; a directory is removed
+ *   only when it ends up empty and was itself old enough before the walk.
+ * - Lock-aware: files in use (sharing violation / access denied) are counted and skipped, never
+ *   retried. Dry-run probes for locks instead of deleting.
+ * - Symlinks / junctions are never followed or removed.
+ */
+public final class TempCleaner {
+
+    /** One directory whose contents are cleaned. */
+    public static final class Target {
+        public final Path dir;
+        public final Duration minAge;
+
+        public Target(Path dir, Duration minAge) {
+            this.dir = dir;
+            this.minAge = (minAge != null) ? minAge : Duration.ZERO;
+        }
+    }
+
+    public static final class Result {
+        public final boolean dryRun;
+        public final long bytesReclaimed;
+        public final long filesRemoved;
+        public final long dirsRemoved;
+        public final long skippedRecent;
+        public final long skippedLocked;
+        public final long elapsedMs;
+
+        Result(boolean dryRun, long bytesReclaimed, long filesRemoved, long dirsRemoved,
+               long skippedRecent, long skippedLocked, long elapsedMs) {
+            this.dryRun = dryRun;
+            this.bytesReclaimed = bytesReclaimed;
+            this.filesRemoved = filesRemoved;
+            this.dirsRemoved = dirsRemoved;
+            this.skippedRecent = skippedRecent;
+            this.skippedLocked = skippedLocked;
+            this.elapsedMs = elapsedMs;
+        }
+
+        @Override
+        public String toString() {
+            return (dryRun ? "[dry-run] " : "") + filesRemoved + " files, " + dirsRemoved + " dirs, "
+                    + bytesReclaimed + " bytes; skipped " + skippedRecent + " recent, "
+                    + skippedLocked + " locked (" + elapsedMs + " ms)";
+        }
+    }
+
+    private static final Duration TEMP_MIN_AGE = Duration.ofHours(24);
+    private static final Duration SYSTEM_MIN_AGE = Duration.ofDays(7);
+
+    private final List<Target> targets;
+    private final int parallelism;
+
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder filesRemoved = new LongAdder();
+    private final LongAdder dirsRemoved = new LongAdder();
+    private final LongAdder skippedRecent = new LongAdder();
+    private final LongAdder skippedLocked = new LongAdder();
+
+    public TempCleaner(List<Target> targets) {
+        this(targets, Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public TempCleaner(List<Target> targets, int parallelism) {
+        this.targets = List.copyOf(targets);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * The folders the old Remove-Item script cleaned: %TEMP%, %WINDIR%\Temp (24 h),
+     * %WINDIR%\Prefetch and Recent items (7 days). Missing variables are skipped.
+     */
+    public static TempCleaner windowsDefaults() {
+        List<Target> t = new ArrayList<>();
+        addEnv(t, "TEMP", null, TEMP_MIN_AGE);
+        addEnv(t, "WINDIR", "Temp", TEMP_MIN_AGE);
+        addEnv(t, "WINDIR", "Prefetch", SYSTEM_MIN_AGE);
+        addEnv(t, "APPDATA", "Microsoft\\Windows\\Recent", SYSTEM_MIN_AGE);
+        return new TempCleaner(t);
+    }
+
+    private static void addEnv(List<Target> out, String env, String sub, Duration minAge) {
+        String base = System.getenv(env);
+        if (base == null || base.isBlank()) return;
+        Path p = (sub == null) ? Paths.get(base) : Paths.get(base, sub);
+        out.add(new Target(p, minAge));
+    }
+
+    /** Blocking. One run per instance is expected, but counters are reset each call. */
+    public synchronized Result clean(boolean dryRun) {
+        long t0 = System.currentTimeMillis();
+        bytes.reset();
+        filesRemoved.reset();
+        dirsRemoved.reset();
+        skippedRecent.reset();
+        skippedLocked.reset();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism, p -> {
+            var t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("fxShield-clean-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+
+        try {
+            List<Future<?>> jobs = new ArrayList<>();
+            for (Target target : targets) {
+                if (!Files.isDirectory(target.dir, LinkOption.NOFOLLOW_LINKS)) continue;
+                long cutoff = t0 - target.minAge.toMillis();
+
+                try (DirectoryStream<Path> ds = Files.newDirectoryStream(target.dir)) {
+                    for (Path entry : ds) {
+                        jobs.add(pool.submit(() -> cleanEntry(entry, cutoff, dryRun)));
+                    }
+                } catch (IOException | SecurityException ignored) {
+                }
+            }
+
+            for (Future<?> f : jobs) {
+                try {
+                    f.get();
+                } catch (Exception ignored) {
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            try {
+                pool.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        return new Result(dryRun, bytes.sum(), filesRemoved.sum(), dirsRemoved.sum(),
+                skippedRecent.sum(), skippedLocked.sum(), System.currentTimeMillis() - t0);
+    }
+
+    // =========================================================================
+    // Walk
+    // =========================================================================
+
+    private void cleanEntry(Path entry, long cutoffMs, boolean dryRun) {
+        try {
+            Files.walkFileTree(entry, new SimpleFileVisitor<>() {
+                // did each open directory predate the cutoff (before we touched its children)?
+                private final Deque<Boolean> oldDirs = new ArrayDeque<>();
+                // did each open directory keep any child?
+                private final Deque<boolean[]> keptChild = new ArrayDeque<>();
+
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes a) {
+                    if (a.isOther() || a.isSymbolicLink()) {
+                        markKept();
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    oldDirs.push(a.lastModifiedTime().toMillis() < cutoffMs);
+                    keptChild.push(new boolean[1]);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes a) {
+                    if (!a.isRegularFile()) { // symlink / reparse point / device
+                        markKept();
+                        return FileVisitResult.CONTINUE;
+                    }
+                    if (a.lastModifiedTime().toMillis() >= cutoffMs) {
+                        skippedRecent.increment();
+                        markKept();
+                        return FileVisitResult.CONTINUE;
+                    }
+                    if (removeFile(file, dryRun)) {
+                        bytes.add(a.size());
+                        filesRemoved.increment();
+                    } else {
+                        skippedLocked.increment();
+                        markKept();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    if (!(e instanceof NoSuchFileException)) {
+                        skippedLocked.increment();
+                        markKept();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                    boolean old = oldDirs.pop();
+                    boolean kept = keptChild.pop()[0] || e != null;
+
+                    if (!kept && old && removeDir(dir, dryRun)) {
+                        dirsRemoved.increment();
+                    } else {
+                        markKept();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                private void markKept() {
+                    boolean[] top = keptChild.peek();
+                    if (top != null) top[0] = true;
+                }
+            });
+        } catch (IOException | SecurityException ignored) {
+        }
+    }
+
+    private static boolean removeFile(Path file, boolean dryRun) {
+        if (dryRun) return !isLocked(file);
+        try {
+            Files.delete(file);
+            return true;
+        } catch (NoSuchFileException gone) {
+            return false;
+        } catch (IOException | SecurityException inUse) {
+            // FileSystemException: sharing violation / access denied -> leave it
+            return false;
+        }
+    }
+
+    private static boolean removeDir(Path dir, boolean dryRun) {
+        if (dryRun) return true;
+        try {
+            Files.delete(dir);
+            return true;
+        } catch (IOException | SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Dry-run lock probe: opening for write fails on Windows while another process holds the
+     * file without delete/write sharing. Nothing is modified.
+     */
+    private static boolean isLocked(Path file) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            FileLock lock = ch.tryLock();
+            if (lock == null) return true;
+            lock.release();
+            return false;
+        } catch (IOException | SecurityException | UnsupportedOperationException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package fxShield.WIN;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Checks {@link TempCleaner} against a temp directory tree (runs on Linux, no Windows needed):
+ * - age cutoff: recent files are kept, old ones removed; a directory goes only when it is old
+ *   and ends up empty
+ * - locked files are counted and left alone (an immutable file stands in for a sharing
+ *   violation; skipped when chattr is not available)
+ * - symlinks inside a target are neither followed nor removed
+ * - dry-run reports exactly what the real run then does, and changes nothing
+ * - a second pass is idempotent
+ *
+ * Run: java fxShield.WIN.TempCleanerHarness
+ * Exit code 1 when a check fails.
+ */
+public final class TempCleanerHarness {
+
+    private static final Duration MIN_AGE = Duration.ofHours(24);
+    private static final long OLD_MS = System.currentTimeMillis() - Duration.ofDays(3).toMillis();
+
+    private static int failures = 0;
+
+    private TempCleanerHarness() {}
+
+    public static void main(String[] args) throws Exception {
+        Path root = Files.createTempDirectory("fxShield-clean-");
+        Path locked = null;
+        try {
+            Path target = Files.createDirectories(root.resolve("target"));
+            Path outside = Files.createDirectories(root.resolve("outside"));
+
+            Path oldFile = file(target.resolve("old.tmp"), 1000, true);
+            Path newFile = file(target.resolve("new.tmp"), 300, false);
+            Path oldDirFile = file(target.resolve("olddir/nested/old2.tmp"), 2000, true);
+            Path mixedOld = file(target.resolve("mixed/old3.tmp"), 500, true);
+            Path mixedNew = file(target.resolve("mixed/fresh.tmp"), 10, false);
+            locked = file(target.resolve("held/locked.tmp"), 700, true);
+
+            Path outsideFile = file(outside.resolve("keep.txt"), 50, true);
+            Path fileLink = Files.createSymbolicLink(target.resolve("link.txt"), outsideFile);
+            Path dirLink = Files.createSymbolicLink(target.resolve("linkdir"), outside);
+
+            boolean canLock = makeUndeletable(locked);
+            if (!canLock) System.out.println("skip locked-file checks (chattr +i not available)");
+
+            // children first: creating them touched the directories' mtimes
+            age(target.resolve("olddir/nested"));
+            age(target.resolve("olddir"));
+            age(target.resolve("mixed"));
+            age(target.resolve("held"));
+
+            long files = 3;
+            long bytes = 1000 + 2000 + 500;
+            long dirs = 2; // olddir/nested, olddir
+            long lockedCount = canLock ? 1 : 0;
+            if (!canLock) { files++; bytes += 700; dirs++; }
+
+            TempCleaner cleaner = new TempCleaner(List.of(new TempCleaner.Target(target, MIN_AGE)), 2);
+
+            TempCleaner.Result dry = cleaner.clean(true);
+            System.out.println("dry-run: " + dry);
+            check("dry-run counts", dry.filesRemoved == files && dry.dirsRemoved == dirs
+                    && dry.bytesReclaimed == bytes && dry.skippedRecent == 2 && dry.skippedLocked == lockedCount, dry);
+            check("dry-run changes nothing", Files.exists(oldFile) && Files.exists(oldDirFile)
+                    && Files.exists(mixedOld) && Files.exists(locked), dry);
+
+            TempCleaner.Result real = cleaner.clean(false);
+            System.out.println("real:    " + real);
+            check("real run matches dry-run", real.filesRemoved == dry.filesRemoved
+                    && real.dirsRemoved == dry.dirsRemoved && real.bytesReclaimed == dry.bytesReclaimed
+                    && real.skippedRecent == dry.skippedRecent && real.skippedLocked == dry.skippedLocked, real);
+            check("old files and emptied old dirs removed", !Files.exists(oldFile) && !Files.exists(mixedOld)
+                    && !Files.exists(target.resolve("olddir")), real);
+            check("recent files and their dir kept", Files.exists(newFile) && Files.exists(mixedNew), real);
+            if (canLock) check("locked file and its dir kept", Files.exists(locked), real);
+            check("symlinks kept, not followed", Files.exists(fileLink, LinkOption.NOFOLLOW_LINKS)
+                    && Files.exists(dirLink, LinkOption.NOFOLLOW_LINKS) && Files.exists(outsideFile), real);
+            check("target itself kept", Files.isDirectory(target), real);
+
+            TempCleaner.Result again = cleaner.clean(false);
+            System.out.println("again:   " + again);
+            check("second pass is idempotent", again.filesRemoved == 0 && again.dirsRemoved == 0
+                    && again.bytesReclaimed == 0 && again.skippedRecent == 2 && again.skippedLocked == lockedCount, again);
+        } finally {
+            if (locked != null) chattr("-i", locked);
+            deleteTree(root);
+        }
+
+        System.out.println(failures == 0 ? "all checks passed" : failures + " check(s) failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static void check(String name, boolean ok, TempCleaner.Result r) {
+        System.out.println((ok ? "ok   " : "FAIL ") + name);
+        if (!ok) {
+            failures++;
+            System.out.println("     " + r);
+        }
+    }
+
+    private static Path file(Path p, int size, boolean old) throws IOException {
+        Files.createDirectories(p.getParent());
+        Files.write(p, new byte[size]);
+        if (old) age(p);
+        return p;
+    }
+
+    private static void age(Path p) throws IOException {
+        Files.setLastModifiedTime(p, FileTime.fromMillis(OLD_MS));
+    }
+
+    /** Immutable file: delete and open-for-write fail even for root, like a file held open on Windows. */
+    private static boolean makeUndeletable(Path file) throws IOException {
+        Path probe = file.resolveSibling("probe.tmp");
+        Files.write(probe, new byte[0]);
+        boolean blocked = chattr("+i", probe);
+        if (blocked) {
+            try {
+                Files.delete(probe);
+                blocked = false;
+            } catch (IOException expected) {
+            }
+            chattr("-i", probe);
+        }
+        Files.deleteIfExists(probe);
+        return blocked && chattr("+i", file);
+    }
+
+    private static boolean chattr(String op, Path file) {
+        try {
+            Process p = new ProcessBuilder("chattr", op, file.toString()).redirectErrorStream(true).start();
+            p.getInputStream().readAllBytes();
+            return p.waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void deleteTree(Path root) {
+        try (Stream<Path> s = Files.walk(root)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try { Files.deleteIfExists(p); } catch (IOException ignored) {}
+            });
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package fxShield.WIN;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timer wheel: one daemon thread serves any number of timers.
+ *
+ * - {@link #schedule} is O(1) from any thread (lock-free hand-off, bucketed on the next tick).
+ * - Each tick only visits one bucket; timers further away than one turn wait out their rounds.
+ * - Resolution is one tick; callbacks run on the wheel thread and must not block.
+ * - A cancelled timer is dropped the next time its bucket comes round.
+ */
+public final class TimerWheel implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+
+    /** Handle of one scheduled callback. */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private long rounds;
+        private volatile boolean cancelled;
+        private Timeout next; // bucket list, wheel thread only
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickNs;
+    private final Timeout[] buckets;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private final long startNs;
+    private volatile boolean running = true;
+    private long tick = 0; // wheel thread only
+
+    /**
+     * @param tickMs    resolution
+     * @param wheelSize buckets, rounded up to a power of two
+     */
+    public TimerWheel(String name, long tickMs, int wheelSize) {
+        this.tickNs = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMs));
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.buckets = new Timeout[size];
+        this.mask = size - 1;
+        this.startNs = System.nanoTime();
+        this.thread = new Thread(this::loop, "fxShield-" + name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /** Runs {@code task} on the wheel thread after {@code delayMs} (rounded up to a tick). */
+    public Timeout schedule(long delayMs, Runnable task) {
+        long delayNs = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+        long deadline = (System.nanoTime() - startNs + delayNs + tickNs - 1) / tickNs;
+        Timeout t = new Timeout(task, deadline);
+        if (running) incoming.add(t);
+        else t.cancelled = true;
+        return t;
+    }
+
+    public boolean isWheelThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+    }
+
+    // =========================================================================
+    // Wheel thread
+    // =========================================================================
+
+    private void loop() {
+        while (running) {
+            long wakeNs = startNs + (tick + 1) * tickNs;
+            long sleep;
+            while (running && (sleep = wakeNs - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            if (!running) break;
+
+            tick++;
+            transferIncoming();
+            expire(buckets[(int) (tick & mask)], (int) (tick & mask));
+        }
+        incoming.clear();
+    }
+
+    private void transferIncoming() {
+        Timeout t;
+        while ((t = incoming.poll()) != null) {
+            if (t.cancelled) continue;
+            long target = Math.max(t.deadlineTick, tick); // already due: this tick's bucket
+            t.rounds = (target - tick) / buckets.length;
+            int idx = (int) (target & mask);
+            t.next = buckets[idx];
+            buckets[idx] = t;
+        }
+    }
+
+    private void expire(Timeout head, int idx) {
+        Timeout keep = null;
+        Timeout t = head;
+        while (t != null) {
+            Timeout next = t.next;
+            t.next = null;
+            if (t.cancelled) {
+                // dropped
+            } else if (t.rounds > 0) {
+                t.rounds--;
+                t.next = keep;
+                keep = t;
+            } else {
+                try {
+                    t.task.run();
+                } catch (Throwable e) {
+                    logger.warn("Timer callback failed", e);
+                }
+            }
+            t = next;
+        }
+        buckets[idx] = keep;
+    }
+}
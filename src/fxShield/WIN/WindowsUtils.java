@@ -17,16 +17,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.JOptionPane;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.Base64;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -72,22 +66,6 @@ public final class WindowsUtils {
     // Public Inner Classes
     // =========================================================================
 
-    public static final class PsResult {
-        public final int exitCode;
-        public final String stdout;
-        public final String stderr;
-        public final boolean timedOut;
-        public final boolean success;
-
-        public PsResult(int exitCode, String stdout, String stderr, boolean timedOut) {
-            this.exitCode = exitCode;
-            this.stdout = stdout != null ? stdout : "";
-            this.stderr = stderr != null ? stderr : "";
-            this.timedOut = timedOut;
-            this.success = !timedOut && exitCode == 0;
-        }
-    }
-
     public static final class BlurGuard implements AutoCloseable {
         private final Stage owner;
         private final Effect previous;
@@ -285,7 +263,7 @@ public final class WindowsUtils {
     // =========================================================================
 
     /**
-     * Logged runner: reads stdout/stderr concurrently (no deadlock).
+     * Logged runner: every output line is logged under the tag (see {@link ScriptEngine}).
      * NOTE: Avoid calling from FX thread.
      */
     public static PsResult runPowerShellLogged(String script, String logTag) {
@@ -319,106 +297,12 @@ public final class WindowsUtils {
         return "'" + escapeForPowerShell(s) + "'";
     }
 
-    private static String getPowerShellExe() {
-        String sysRoot = System.getenv("SystemRoot");
-        if (sysRoot != null && !sysRoot.isBlank()) {
-            File f = new File(sysRoot, "System32\\WindowsPowerShell\\v1.0\\powershell.exe");
-            if (f.exists()) return f.getAbsolutePath();
-        }
-        return "powershell.exe";
-    }
-
-    private static String wrapUtf8(String script) {
-        String s = script == null ? "" : script;
-        return ""
-                + "$ProgressPreference='SilentlyContinue'\n"
-                + "[Console]::OutputEncoding=[System.Text.Encoding]::UTF8\n"
-                + "$OutputEncoding=[Console]::OutputEncoding\n"
-                + s;
-    }
-
-    private static String toEncodedCommand(String script) {
-        byte[] utf16 = wrapUtf8(script).getBytes(StandardCharsets.UTF_16LE);
-        return Base64.getEncoder().encodeToString(utf16);
-    }
-
-    private static ProcessBuilder psEncoded(String script) {
-        String exe = getPowerShellExe();
-        String encoded = toEncodedCommand(script);
-
-        ProcessBuilder pb = new ProcessBuilder(
-                exe,
-                "-NoProfile",
-                "-NonInteractive",
-                "-ExecutionPolicy", "Bypass",
-                "-EncodedCommand", encoded
-        );
-        pb.redirectErrorStream(false);
-        return pb;
-    }
-
     private static PsResult runPowerShellInternal(String script, Duration timeout, boolean logLines) {
         return runPowerShellInternal(script, timeout, logLines, "");
     }
 
     private static PsResult runPowerShellInternal(String script, Duration timeout, boolean logLines, String tag) {
-        Process p = null;
-        StringBuilder out = new StringBuilder();
-        StringBuilder err = new StringBuilder();
-        Thread tOut = null;
-        Thread tErr = null;
-
-        try {
-            ProcessBuilder pb = psEncoded(script);
-            p = pb.start();
-            final Process proc = p;
-
-            tOut = new Thread(new Gobbler(proc.getInputStream(), out, logLines ? (tag + " ") : null), "fxShield-ps-out");
-            tErr = new Thread(new Gobbler(proc.getErrorStream(), err, logLines ? (tag + " [ERR] ") : null), "fxShield-ps-err");
-
-            tOut.setDaemon(true);
-            tErr.setDaemon(true);
-            tOut.start();
-            tErr.start();
-
-            boolean finished = proc.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS);
-            if (!finished) {
-                safeDestroy(proc);
-                joinQuiet(tOut, 1200);
-                joinQuiet(tErr, 1200);
-                return new PsResult(-1, out.toString(), err.toString(), true);
-            }
-
-            joinQuiet(tOut, 1200);
-            joinQuiet(tErr, 1200);
-
-            int code = proc.exitValue();
-            return new PsResult(code, out.toString(), err.toString(), false);
-
-        } catch (Exception ex) {
-            logger.error("PowerShell execution failed", ex);
-            if (p != null) safeDestroy(p);
-            joinQuiet(tOut, 800);
-            joinQuiet(tErr, 800);
-            return new PsResult(-1, out.toString(), err.toString(), false);
-        }
-    }
-
-    private static void safeDestroy(Process p) {
-        try { p.destroy(); } catch (Exception ignored) {}
-        try {
-            if (!p.waitFor(400, TimeUnit.MILLISECONDS)) {
-                p.destroyForcibly();
-                p.waitFor(400, TimeUnit.MILLISECONDS);
-            }
-        } catch (Exception ignored) {
-            try { p.destroyForcibly(); } catch (Exception ignored2) {}
-        }
-    }
-
-    private static void joinQuiet(Thread t, long ms) {
-        if (t == null) return;
-        try { t.join(ms); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
+        return ScriptEngine.shared().run(script, timeout, logLines ? tag : null, null);
     }
 
     // =========================================================================
@@ -632,33 +516,6 @@ public final class WindowsUtils {
     // Private Helpers
     // =========================================================================
 
-    private static final class Gobbler implements Runnable {
-        private final InputStream is;
-        private final StringBuilder sink;
-        private final String prefix;
-
-        Gobbler(InputStream is, StringBuilder sink, String prefix) {
-            this.is = is;
-            this.sink = sink;
-            this.prefix = prefix;
-        }
-
-        @Override
-        public void run() {
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    synchronized (sink) {
-                        sink.append(line).append('\n');
-                    }
-                    if (prefix != null) {
-                        logger.info("{}{}", prefix, line);
-                    }
-                }
-            } catch (Exception ignored) {}
-        }
-    }
-
     private static final class CommandParts {
         String executable;
         String[] arguments;
@@ -24,8 +24,14 @@ public final class GPUStabilizer {
         return update(raw, System.currentTimeMillis());
     }
 
+    public int update(int raw, long nowMs) {
+        return update(raw, nowMs, false);
+    }
+
     // Core update
-    public synchronized int update(int raw, long nowMs) {
+    // zeroTrusted: raw is an interval aggregate (e.g. NVML sample buffer), so a 0 is real idle
+    // and does not need the consecutive-zero confirmation.
+    public synchronized int update(int raw, long nowMs, boolean zeroTrusted) {
 
         // ----- Failed sample -----
         if (raw < 0) {
@@ -55,7 +61,7 @@ public final class GPUStabilizer {
             }
 
             // Require consecutive zeros before accepting 0
-            if (zeroStreak < zeroConfirm) {
+            if (!zeroTrusted && zeroStreak < zeroConfirm) {
                 // do NOT refresh lastGoodMs here (so repeated fake zeros won't extend grace)
                 return stable;
             }
@@ -0,0 +1,82 @@
+package fxShield.GPU;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared executor + helpers for asynchronous GPU reads.
+ * - Small bounded daemon pool (blocking providers like typeperf must not pile up threads)
+ * - Timeouts complete with the -1 sentinel instead of an exception, matching the sync contract
+ */
+public final class GpuAsync {
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(6);
+
+    private static final int MAX_THREADS = 4;
+    private static final int QUEUE_CAPACITY = 16;
+
+    private static final ExecutorService EXEC = createExecutor();
+
+    private GpuAsync() {}
+
+    public static Executor executor() {
+        return EXEC;
+    }
+
+    /**
+     * Runs a blocking read on {@code executor}; a rejected submission or timeout yields -1.
+     * Cancelling the returned future does not interrupt the blocking call; providers that own
+     * killable resources (processes) override the async path instead.
+     */
+    public static CompletableFuture<Integer> supply(GpuUsageProvider p, Executor executor, Duration timeout) {
+        Executor ex = (executor != null) ? executor : EXEC;
+        CompletableFuture<Integer> f;
+        try {
+            f = CompletableFuture.supplyAsync(() -> {
+                try {
+                    int v = p.readGpuUsagePercent();
+                    return (v >= 0 && v <= 100) ? v : -1;
+                } catch (Throwable t) {
+                    return -1;
+                }
+            }, ex);
+        } catch (RejectedExecutionException rex) {
+            return CompletableFuture.completedFuture(-1);
+        }
+        return withTimeout(f, timeout);
+    }
+
+    public static CompletableFuture<Integer> withTimeout(CompletableFuture<Integer> f, Duration timeout) {
+        long ms = timeoutMs(timeout);
+        return f.completeOnTimeout(-1, ms, TimeUnit.MILLISECONDS);
+    }
+
+    static long timeoutMs(Duration timeout) {
+        Duration t = (timeout == null || timeout.isNegative() || timeout.isZero()) ? DEFAULT_TIMEOUT : timeout;
+        return Math.max(1, t.toMillis());
+    }
+
+    private static ExecutorService createExecutor() {
+        AtomicInteger seq = new AtomicInteger();
+        ThreadPoolExecutor ex = new ThreadPoolExecutor(
+                MAX_THREADS, MAX_THREADS,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "fxShield-gpu-async-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        ex.allowCoreThreadTimeOut(true);
+        return ex;
+    }
+}
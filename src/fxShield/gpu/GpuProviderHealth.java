@@ -0,0 +1,175 @@
+package fxShield.GPU;
+
+/**
+ * Per-provider health tracker used by {@link HybridGpuUsageProvider}.
+ * Tracks:
+ * - success rate (EWMA, starts optimistic at 1.0)
+ * - read latency (EWMA + fixed-bucket histogram, no allocation per read)
+ * - staleness (time since last good value)
+ * - exponential backoff after consecutive failures
+ *
+ * Thread-safety: all mutators/readers are synchronized (reads happen on one sampler thread,
+ * diagnostics may snapshot from any thread).
+ */
+public final class GpuProviderHealth {
+
+    // Histogram upper bounds (ms); last bucket is "slower than the last bound"
+    private static final long[] LATENCY_BOUNDS_MS = {1, 5, 20, 100, 500, 2000};
+
+    private static final double SUCCESS_ALPHA = 0.20;
+    private static final double LATENCY_ALPHA = 0.25;
+
+    private final String name;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    private long successes = 0;
+    private long failures = 0;
+    private int consecutiveFailures = 0;
+
+    private double successRate = 1.0;
+    private double latencyEmaMs = -1;
+    private final long[] latencyBuckets = new long[LATENCY_BOUNDS_MS.length + 1];
+
+    private long lastSuccessMs = 0;
+    private long nextTryMs = 0;
+
+    public GpuProviderHealth(String name, long baseBackoffMs, long maxBackoffMs) {
+        this.name = (name == null) ? "?" : name;
+        this.baseBackoffMs = Math.max(1, baseBackoffMs);
+        this.maxBackoffMs = Math.max(this.baseBackoffMs, maxBackoffMs);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized void onSuccess(long nowMs, long latencyNanos) {
+        successes++;
+        consecutiveFailures = 0;
+        successRate += SUCCESS_ALPHA * (1.0 - successRate);
+        recordLatency(latencyNanos);
+        lastSuccessMs = nowMs;
+        nextTryMs = 0;
+    }
+
+    public synchronized void onFailure(long nowMs, long latencyNanos) {
+        failures++;
+        consecutiveFailures++;
+        successRate += SUCCESS_ALPHA * (0.0 - successRate);
+        if (latencyNanos > 0) recordLatency(latencyNanos);
+        nextTryMs = nowMs + backoffMs(consecutiveFailures);
+    }
+
+    /** Provider could not even be created / library absent: back off without touching latency. */
+    public synchronized void onUnavailable(long nowMs) {
+        onFailure(nowMs, 0);
+    }
+
+    public synchronized boolean isEligible(long nowMs) {
+        return nowMs >= nextTryMs;
+    }
+
+    public synchronized double getSuccessRate() {
+        return successRate;
+    }
+
+    public synchronized double getLatencyEmaMs() {
+        return latencyEmaMs;
+    }
+
+    public synchronized long getStalenessMs(long nowMs) {
+        return (lastSuccessMs <= 0) ? -1 : Math.max(0, nowMs - lastSuccessMs);
+    }
+
+    public synchronized Stats snapshot(long nowMs) {
+        return new Stats(
+                name,
+                successes,
+                failures,
+                consecutiveFailures,
+                successRate,
+                latencyEmaMs,
+                latencyBuckets.clone(),
+                (lastSuccessMs <= 0) ? -1 : Math.max(0, nowMs - lastSuccessMs),
+                Math.max(0, nextTryMs - nowMs)
+        );
+    }
+
+    public synchronized void reset() {
+        successes = 0;
+        failures = 0;
+        consecutiveFailures = 0;
+        successRate = 1.0;
+        latencyEmaMs = -1;
+        for (int i = 0; i < latencyBuckets.length; i++) latencyBuckets[i] = 0;
+        lastSuccessMs = 0;
+        nextTryMs = 0;
+    }
+
+    private long backoffMs(int failuresInRow) {
+        int shift = Math.min(20, Math.max(0, failuresInRow - 1));
+        long d = baseBackoffMs << shift;
+        if (d <= 0 || d > maxBackoffMs) d = maxBackoffMs;
+        return d;
+    }
+
+    private void recordLatency(long latencyNanos) {
+        double ms = Math.max(0, latencyNanos) / 1_000_000.0;
+        latencyEmaMs = (latencyEmaMs < 0) ? ms : (latencyEmaMs + LATENCY_ALPHA * (ms - latencyEmaMs));
+
+        int b = LATENCY_BOUNDS_MS.length;
+        for (int i = 0; i < LATENCY_BOUNDS_MS.length; i++) {
+            if (ms <= LATENCY_BOUNDS_MS[i]) { b = i; break; }
+        }
+        latencyBuckets[b]++;
+    }
+
+    /** Histogram bucket labels matching {@link Stats#latencyHistogram}. */
+    public static String[] latencyBucketLabels() {
+        String[] out = new String[LATENCY_BOUNDS_MS.length + 1];
+        for (int i = 0; i < LATENCY_BOUNDS_MS.length; i++) out[i] = "<=" + LATENCY_BOUNDS_MS[i] + "ms";
+        out[LATENCY_BOUNDS_MS.length] = ">" + LATENCY_BOUNDS_MS[LATENCY_BOUNDS_MS.length - 1] + "ms";
+        return out;
+    }
+
+    /**
+     * Immutable diagnostics snapshot.
+     */
+    public static final class Stats {
+        public final String name;
+        public final long successes;
+        public final long failures;
+        public final int consecutiveFailures;
+        public final double successRate;      // EWMA 0..1
+        public final double latencyEmaMs;     // -1 before first read
+        public final long[] latencyHistogram; // see latencyBucketLabels()
+        public final long stalenessMs;        // -1 if never succeeded
+        public final long backoffRemainingMs;
+
+        Stats(String name, long successes, long failures, int consecutiveFailures,
+              double successRate, double latencyEmaMs, long[] latencyHistogram,
+              long stalenessMs, long backoffRemainingMs) {
+            this.name = name;
+            this.successes = successes;
+            this.failures = failures;
+            this.consecutiveFailures = consecutiveFailures;
+            this.successRate = successRate;
+            this.latencyEmaMs = latencyEmaMs;
+            this.latencyHistogram = latencyHistogram;
+            this.stalenessMs = stalenessMs;
+            this.backoffRemainingMs = backoffRemainingMs;
+        }
+
+        @Override
+        public String toString() {
+            return name + "{ok=" + successes +
+                    ", fail=" + failures +
+                    ", rate=" + String.format(java.util.Locale.ROOT, "%.2f", successRate) +
+                    ", latMs=" + String.format(java.util.Locale.ROOT, "%.1f", latencyEmaMs) +
+                    ", staleMs=" + stalenessMs +
+                    ", backoffMs=" + backoffRemainingMs +
+                    ", latHist=" + java.util.Arrays.toString(latencyHistogram) + '}';
+        }
+    }
+}
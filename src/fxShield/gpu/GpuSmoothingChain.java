@@ -0,0 +1,87 @@
+package fxShield.GPU;
+
+/**
+ * Full GPU post-processing chain used by the monitor:
+ * raw -> {@link GPUStabilizer} (fail grace, zero-confirm, EMA) -> median-of-3 -> EMA.
+ * Fixed buffers; no allocation per update.
+ *
+ * Output is -1 until the first valid sample; afterwards it keeps the last smoothed value
+ * while the stabilizer reports unsupported.
+ */
+public final class GpuSmoothingChain {
+
+    private final GPUStabilizer stabilizer;
+    private final double alpha;
+
+    // median-of-3 window
+    private final int[] window = new int[3];
+    private int winCount = 0;
+    private int winPos = 0;
+
+    private int ema = -1;
+
+    public GpuSmoothingChain() {
+        this(new GPUStabilizer(2000, 0.30, 4, -1), 0.30);
+    }
+
+    public GpuSmoothingChain(GPUStabilizer stabilizer, double alpha) {
+        this.stabilizer = (stabilizer != null) ? stabilizer : new GPUStabilizer(2000, 0.30, 4, -1);
+        this.alpha = alpha;
+    }
+
+    public synchronized int update(int raw, long nowMs, boolean zeroTrusted) {
+        int stable = stabilizer.update(raw, nowMs, zeroTrusted);
+
+        // stable may still be >=0 during grace window even when raw fails
+        if (stable >= 0) {
+            push(stable);
+            int median = median();
+            ema = (ema < 0) ? median : clampInt((int) Math.round(ema + alpha * (median - ema)), 0, 100);
+        }
+        return ema;
+    }
+
+    public synchronized int getLast() {
+        return ema;
+    }
+
+    public synchronized void reset() {
+        stabilizer.reset();
+        winCount = 0;
+        winPos = 0;
+        ema = -1;
+    }
+
+    private void push(int v) {
+        window[winPos] = clampInt(v, 0, 100);
+        winPos++;
+        if (winPos == window.length) winPos = 0;
+        if (winCount < window.length) winCount++;
+    }
+
+    private int median() {
+        if (winCount <= 0) return -1;
+        if (winCount == 1) return window[0];
+
+        if (winCount == 2) {
+            int a = window[0];
+            int b = window[1];
+            return (a + b) / 2;
+        }
+
+        // median of 3
+        int a = window[0];
+        int b = window[1];
+        int c = window[2];
+        if (a > b) { int t = a; a = b; b = t; }
+        if (b > c) { int t = b; b = c; c = t; }
+        if (a > b) { int t = a; a = b; b = t; }
+        return b;
+    }
+
+    private static int clampInt(int v, int min, int max) {
+        if (v < min) return min;
+        if (v > max) return max;
+        return v;
+    }
+}
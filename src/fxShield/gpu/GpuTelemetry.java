@@ -0,0 +1,132 @@
+package fxShield.GPU;
+
+/**
+ * Extended GPU metrics beyond the plain utilization percent.
+ * Contract:
+ * - Instances are mutable and meant to be reused (filled in place every tick).
+ * - Any metric that is unavailable/unsupported is -1.
+ * - Not thread-safe; callers publish a {@link #copy()} when sharing across threads.
+ */
+public final class GpuTelemetry {
+
+    // NVML clocks-throttle reason bits (nvmlClocksThrottleReason*)
+    public static final long THROTTLE_GPU_IDLE            = 0x0000000000000001L;
+    public static final long THROTTLE_APP_CLOCKS_SETTING  = 0x0000000000000002L;
+    public static final long THROTTLE_SW_POWER_CAP        = 0x0000000000000004L;
+    public static final long THROTTLE_HW_SLOWDOWN         = 0x0000000000000008L;
+    public static final long THROTTLE_SYNC_BOOST          = 0x0000000000000010L;
+    public static final long THROTTLE_SW_THERMAL          = 0x0000000000000020L;
+    public static final long THROTTLE_HW_THERMAL          = 0x0000000000000040L;
+    public static final long THROTTLE_HW_POWER_BRAKE      = 0x0000000000000080L;
+    public static final long THROTTLE_DISPLAY_CLOCKS      = 0x0000000000000100L;
+
+    private static final long THERMAL_MASK = THROTTLE_SW_THERMAL | THROTTLE_HW_THERMAL;
+    private static final long POWER_MASK = THROTTLE_SW_POWER_CAP | THROTTLE_HW_POWER_BRAKE;
+
+    public int gpuPercent = -1;        // core utilization 0..100
+    public int memoryPercent = -1;     // memory controller utilization 0..100
+
+    // Interval stats when the provider aggregates a driver sample buffer (gpuPercent is then the average)
+    public int gpuPercentMin = -1;
+    public int gpuPercentMax = -1;
+    public int gpuSampleCount = 0;
+
+    public long memoryTotalBytes = -1;
+    public long memoryUsedBytes = -1;
+
+    public int temperatureC = -1;
+    public int smClockMhz = -1;
+    public int memoryClockMhz = -1;
+    public int powerMilliwatts = -1;
+
+    public long throttleReasons = -1;  // bitmask of THROTTLE_*, -1 when unknown
+
+    public long sampledAtMs = 0;
+
+    public void reset() {
+        gpuPercent = -1;
+        memoryPercent = -1;
+        gpuPercentMin = -1;
+        gpuPercentMax = -1;
+        gpuSampleCount = 0;
+        memoryTotalBytes = -1;
+        memoryUsedBytes = -1;
+        temperatureC = -1;
+        smClockMhz = -1;
+        memoryClockMhz = -1;
+        powerMilliwatts = -1;
+        throttleReasons = -1;
+        sampledAtMs = 0;
+    }
+
+    public void copyFrom(GpuTelemetry o) {
+        if (o == null) { reset(); return; }
+        gpuPercent = o.gpuPercent;
+        memoryPercent = o.memoryPercent;
+        gpuPercentMin = o.gpuPercentMin;
+        gpuPercentMax = o.gpuPercentMax;
+        gpuSampleCount = o.gpuSampleCount;
+        memoryTotalBytes = o.memoryTotalBytes;
+        memoryUsedBytes = o.memoryUsedBytes;
+        temperatureC = o.temperatureC;
+        smClockMhz = o.smClockMhz;
+        memoryClockMhz = o.memoryClockMhz;
+        powerMilliwatts = o.powerMilliwatts;
+        throttleReasons = o.throttleReasons;
+        sampledAtMs = o.sampledAtMs;
+    }
+
+    public GpuTelemetry copy() {
+        GpuTelemetry t = new GpuTelemetry();
+        t.copyFrom(this);
+        return t;
+    }
+
+    public boolean hasData() {
+        return sampledAtMs > 0;
+    }
+
+    /**
+     * True when gpuPercent is an average over several driver samples rather than an instant reading,
+     * so a 0 is a real idle interval and not a sampling artifact.
+     */
+    public boolean isIntervalAggregate() {
+        return gpuSampleCount >= 2;
+    }
+
+    public double memoryUsedPercent() {
+        if (memoryTotalBytes <= 0 || memoryUsedBytes < 0) return -1;
+        double v = memoryUsedBytes * 100.0 / memoryTotalBytes;
+        return Math.max(0, Math.min(100, v));
+    }
+
+    public double powerWatts() {
+        return (powerMilliwatts < 0) ? -1 : powerMilliwatts / 1000.0;
+    }
+
+    public boolean isThermalThrottled() {
+        return throttleReasons > 0 && (throttleReasons & THERMAL_MASK) != 0;
+    }
+
+    public boolean isPowerThrottled() {
+        return throttleReasons > 0 && (throttleReasons & POWER_MASK) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return "GpuTelemetry{" +
+                "gpu=" + gpuPercent +
+                ", gpuMin=" + gpuPercentMin +
+                ", gpuMax=" + gpuPercentMax +
+                ", samples=" + gpuSampleCount +
+                ", mem=" + memoryPercent +
+                ", memUsed=" + memoryUsedBytes +
+                ", memTotal=" + memoryTotalBytes +
+                ", tempC=" + temperatureC +
+                ", smMhz=" + smClockMhz +
+                ", memMhz=" + memoryClockMhz +
+                ", powerMw=" + powerMilliwatts +
+                ", throttle=0x" + Long.toHexString(Math.max(0, throttleReasons)) +
+                '}';
+    }
+}
@@ -0,0 +1,389 @@
+package fxShield.GPU;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Deterministic golden-trace harness for the GPU pipeline.
+ * Drives a provider (usually {@link ReplayGpuUsageProvider}, optionally behind a
+ * {@link HybridGpuUsageProvider}) through the same loop as the monitor's GPU thread
+ * (telemetry read, else plain read -> {@link GpuSmoothingChain} with interval aggregates
+ * trusted for zeros -> sleep tick) on a virtual clock, then measures:
+ * - step lag: time for the output to settle within tolerance of a new truth level
+ * - jitter: mean |delta| of the output on ticks with steady truth
+ * - mean absolute error against the truth trace
+ *
+ * Run {@link #main} (no JavaFX / no hardware needed) to check every golden trace against its
+ * recorded bounds; exit code 1 means a regression.
+ */
+public final class GpuTraceHarness {
+
+    /** Mirrors SystemMonitorService.GPU_MS. */
+    public static final long TICK_MS = 200;
+
+    private static final int STEP_THRESHOLD = 20;
+    // Lag bound for the aggregate traces: trusted zeros settle at 2200 ms, while the same trace
+    // read as instant values waits for zero-confirm and settles at 2800 ms (fails the bound)
+    private static final long LAG_AGGREGATE_IDLE_MS = 2500;
+    private static final long STEADY_AFTER_STEP_MS = 3000;
+
+    private GpuTraceHarness() {}
+
+    // =========================================================================
+    // Virtual clock
+    // =========================================================================
+
+    public static final class VirtualClock implements LongSupplier {
+        private long nowMs;
+
+        public VirtualClock(long startMs) {
+            this.nowMs = startMs;
+        }
+
+        @Override
+        public synchronized long getAsLong() {
+            return nowMs;
+        }
+
+        public synchronized void advance(long ms) {
+            if (ms > 0) nowMs += ms;
+        }
+    }
+
+    // =========================================================================
+    // Run + metrics
+    // =========================================================================
+
+    public static final class Result {
+        public final String name;
+        public final long[] tMs;       // offset of each tick
+        public final int[] raw;        // provider output (-1 failure)
+        public final int[] truth;      // expected real load
+        public final int[] out;        // chain output (-1 before first value)
+
+        public final double meanLagMs;
+        public final long maxLagMs;
+        public final double jitter;
+        public final double meanAbsError;
+        public final int unsupportedTicks;
+
+        Result(String name, long[] tMs, int[] raw, int[] truth, int[] out) {
+            this.name = name;
+            this.tMs = tMs;
+            this.raw = raw;
+            this.truth = truth;
+            this.out = out;
+
+            long lagSum = 0;
+            long lagMax = 0;
+            int steps = 0;
+            for (int i = 1; i < truth.length; i++) {
+                if (truth[i] < 0 || truth[i - 1] < 0) continue;
+                int step = truth[i] - truth[i - 1];
+                if (Math.abs(step) < STEP_THRESHOLD) continue;
+
+                int tol = Math.max(3, Math.abs(step) / 10);
+                long lag = -1;
+                for (int j = i; j < truth.length && truth[j] == truth[i]; j++) {
+                    if (out[j] >= 0 && Math.abs(out[j] - truth[i]) <= tol) { lag = tMs[j] - tMs[i]; break; }
+                    lag = tMs[j] - tMs[i] + TICK_MS; // not settled before the next change / end
+                }
+                lagSum += Math.max(0, lag);
+                lagMax = Math.max(lagMax, lag);
+                steps++;
+            }
+            this.meanLagMs = steps == 0 ? 0 : lagSum / (double) steps;
+            this.maxLagMs = lagMax;
+
+            double jSum = 0;
+            int jN = 0;
+            long lastStepAt = Long.MIN_VALUE / 2;
+            for (int i = 1; i < out.length; i++) {
+                if (truth[i] >= 0 && truth[i - 1] >= 0 && Math.abs(truth[i] - truth[i - 1]) >= STEP_THRESHOLD) {
+                    lastStepAt = tMs[i];
+                }
+                if (tMs[i] - lastStepAt < STEADY_AFTER_STEP_MS) continue;
+                if (out[i] < 0 || out[i - 1] < 0) continue;
+                jSum += Math.abs(out[i] - out[i - 1]);
+                jN++;
+            }
+            this.jitter = jN == 0 ? 0 : jSum / jN;
+
+            double eSum = 0;
+            int eN = 0;
+            int unsupported = 0;
+            for (int i = 0; i < out.length; i++) {
+                if (out[i] < 0) { unsupported++; continue; }
+                if (truth[i] < 0) continue;
+                eSum += Math.abs(out[i] - truth[i]);
+                eN++;
+            }
+            this.meanAbsError = eN == 0 ? 0 : eSum / eN;
+            this.unsupportedTicks = unsupported;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%-16s ticks=%4d lagMean=%6.0fms lagMax=%5dms jitter=%5.2f mae=%5.2f unsupported=%d",
+                    name, out.length, meanLagMs, maxLagMs, jitter, meanAbsError, unsupportedTicks);
+        }
+    }
+
+    /**
+     * Runs the monitor GPU loop for {@code durationMs} of virtual time.
+     * Provider read latency (injected by replay providers through the clock) delays the tick,
+     * exactly like a blocking read delays the real GPU thread. A hybrid's discovery race runs
+     * on real threads; the loop waits for it to settle before the next tick so the number of
+     * ticks it costs is deterministic.
+     */
+    public static Result run(String name, GpuUsageProvider provider, ReplayGpuUsageProvider truth,
+                             VirtualClock clock, long durationMs) {
+        GpuSmoothingChain chain = new GpuSmoothingChain();
+        GpuTelemetry telemetry = new GpuTelemetry();
+
+        long start = clock.getAsLong();
+        List<long[]> rows = new ArrayList<>();
+
+        while (clock.getAsLong() - start < durationMs) {
+            long tickStart = clock.getAsLong();
+
+            int raw;
+            boolean aggregate = false;
+            try {
+                if (provider.readTelemetry(telemetry) && telemetry.gpuPercent >= 0) {
+                    raw = telemetry.gpuPercent;
+                    aggregate = telemetry.isIntervalAggregate();
+                } else {
+                    raw = provider.readGpuUsagePercent();
+                }
+            } catch (Throwable t) {
+                raw = -1;
+            }
+            awaitDiscovery(provider);
+
+            long now = clock.getAsLong();
+            int out = chain.update(raw, now, aggregate);
+            rows.add(new long[]{tickStart - start, raw, truth.valueAt(tickStart - start), out});
+
+            clock.advance(TICK_MS);
+        }
+
+        int n = rows.size();
+        long[] t = new long[n];
+        int[] r = new int[n];
+        int[] tr = new int[n];
+        int[] o = new int[n];
+        for (int i = 0; i < n; i++) {
+            long[] row = rows.get(i);
+            t[i] = row[0];
+            r[i] = (int) row[1];
+            tr[i] = (int) row[2];
+            o[i] = (int) row[3];
+        }
+        return new Result(name, t, r, tr, o);
+    }
+
+    private static void awaitDiscovery(GpuUsageProvider provider) {
+        if (!(provider instanceof HybridGpuUsageProvider h)) return;
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (h.isDiscovering() && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // =========================================================================
+    // Golden traces
+    // =========================================================================
+
+    /**
+     * A golden trace with its recorded bounds. Bounds were taken from the current pipeline with
+     * ~25% headroom; tighten them when the pipeline improves, never loosen them silently.
+     */
+    public static final class Golden {
+        public final String name;
+        public final long durationMs;
+        public final String truthTrace;
+        public final Function<VirtualClock, GpuUsageProvider> providerFactory;
+
+        public final long maxLagMs;
+        public final double maxJitter;
+        public final double maxMeanAbsError;
+        public final int maxUnsupportedTicks;
+
+        public Golden(String name, long durationMs, String truthTrace,
+                      Function<VirtualClock, GpuUsageProvider> providerFactory,
+                      long maxLagMs, double maxJitter, double maxMeanAbsError) {
+            this(name, durationMs, truthTrace, providerFactory, maxLagMs, maxJitter, maxMeanAbsError,
+                    Integer.MAX_VALUE);
+        }
+
+        public Golden(String name, long durationMs, String truthTrace,
+                      Function<VirtualClock, GpuUsageProvider> providerFactory,
+                      long maxLagMs, double maxJitter, double maxMeanAbsError, int maxUnsupportedTicks) {
+            this.maxUnsupportedTicks = maxUnsupportedTicks;
+            this.name = name;
+            this.durationMs = durationMs;
+            this.truthTrace = truthTrace;
+            this.providerFactory = providerFactory;
+            this.maxLagMs = maxLagMs;
+            this.maxJitter = maxJitter;
+            this.maxMeanAbsError = maxMeanAbsError;
+        }
+
+        public Result run() {
+            VirtualClock clock = new VirtualClock(1_000_000L);
+            ReplayGpuUsageProvider truth = ReplayGpuUsageProvider.parse(truthTrace, false, () -> 0L, ms -> {});
+            GpuUsageProvider p = providerFactory.apply(clock);
+            try {
+                return GpuTraceHarness.run(name, p, truth, clock, durationMs);
+            } finally {
+                try { p.close(); } catch (Throwable ignored) {}
+            }
+        }
+
+        public List<String> check(Result r) {
+            List<String> violations = new ArrayList<>();
+            if (r.maxLagMs > maxLagMs) violations.add(name + ": maxLag " + r.maxLagMs + "ms > " + maxLagMs + "ms");
+            if (r.jitter > maxJitter) violations.add(name + String.format(Locale.ROOT, ": jitter %.2f > %.2f", r.jitter, maxJitter));
+            if (r.meanAbsError > maxMeanAbsError) {
+                violations.add(name + String.format(Locale.ROOT, ": mae %.2f > %.2f", r.meanAbsError, maxMeanAbsError));
+            }
+            if (r.unsupportedTicks > maxUnsupportedTicks) {
+                violations.add(name + ": unsupported ticks " + r.unsupportedTicks + " > " + maxUnsupportedTicks);
+            }
+            return violations;
+        }
+    }
+
+    private static ReplayGpuUsageProvider replay(String trace, VirtualClock clock) {
+        return ReplayGpuUsageProvider.parse(trace, false, clock, clock::advance).anchorAt(clock.getAsLong());
+    }
+
+    public static List<Golden> goldenTraces() {
+        List<Golden> out = new ArrayList<>();
+
+        // 1) clean steps up and down
+        String steps = """
+                0     10
+                3000  80
+                8000  20
+                12000 55
+                """;
+        out.add(new Golden("step-up-down", 16_000, steps,
+                c -> replay(steps, c), 2800, 0.50, 15.0));
+
+        // 2) steady load with spurious single/double zero readings (zero-confirm must hide them)
+        StringBuilder zeros = new StringBuilder();
+        for (int t = 0; t < 12_000; t += 200) {
+            boolean fakeZero = (t % 1400 == 600) || t == 7000 || t == 7200;
+            zeros.append(t).append(' ').append(fakeZero ? 0 : 60).append('\n');
+        }
+        String zerosTrace = zeros.toString();
+        out.add(new Golden("fake-zeros", 12_000, "0 60\n",
+                c -> replay(zerosTrace, c), 1000, 0.50, 1.0));
+
+        // 3) short failure burst inside the grace window, then a long outage past it
+        String failures = """
+                0     70
+                2000  fail
+                3400  70
+                6000  fail
+                11000 70
+                """;
+        out.add(new Golden("failure-burst", 14_000, "0 70\n",
+                c -> replay(failures, c), 1000, 0.50, 2.0));
+
+        // 4) noisy steady load: smoothing must keep output jitter well below raw jitter (16)
+        StringBuilder noisy = new StringBuilder();
+        for (int t = 0; t < 12_000; t += 200) {
+            int v = ((t / 200) % 2 == 0) ? 58 : 42;
+            noisy.append(t).append(' ').append(v).append('\n');
+        }
+        String noisyTrace = noisy.toString();
+        out.add(new Golden("noisy", 12_000, "0 50\n",
+                c -> replay(noisyTrace, c), 1000, 1.50, 2.0));
+
+        // 5) hybrid fallback: primary dies at 4s, secondary (slower) takes over; load steps at 6s
+        String truthFallback = """
+                0    45
+                6000 75
+                """;
+        String primary = """
+                0    45 1
+                4000 throw
+                """;
+        String secondary = """
+                0    45 40
+                6000 75 40
+                """;
+        out.add(new Golden("hybrid-fallback", 12_000, truthFallback,
+                c -> new HybridGpuUsageProvider(c,
+                        new HybridGpuUsageProvider.Candidate("primary", 1.0, 1, 1500, 60_000, 0, replay(primary, c)),
+                        new HybridGpuUsageProvider.Candidate("secondary", 0.9, 2, 1500, 60_000, 0, replay(secondary, c))),
+                3000, 0.50, 4.5));
+
+        // 6) slow blocking provider (typeperf-like 2s reads): fewer samples, larger lag allowed
+        String slow = """
+                0     30 2000
+                8000  90 2000
+                """;
+        out.add(new Golden("slow-provider", 20_000, "0 30\n8000 90\n",
+                c -> replay(slow, c), 14_000, 5.50, 32.0));
+
+        // 7) NVML-style interval aggregates: real idle drops to 0 without the zero-confirm delay
+        String idle = """
+                0     60
+                2000  0
+                5000  60
+                7000  0
+                10000 40
+                """;
+        out.add(new Golden("aggregate-idle", 12_000, idle,
+                c -> replay(idle, c).asIntervalAggregate(5), LAG_AGGREGATE_IDLE_MS, 0.50, 21.0));
+
+        // 8) hybrid with the startup discovery race: the preferred provider fails, the
+        //    aggregate-capable one wins; one tick is unsupported while the race runs
+        String notReady = """
+                0 fail 1
+                """;
+        String winner = """
+                0    45 5
+                6000 0  5
+                9000 75 5
+                """;
+        out.add(new Golden("hybrid-discovery", 12_000, "0 45\n6000 0\n9000 75\n",
+                c -> new HybridGpuUsageProvider(c, true,
+                        new HybridGpuUsageProvider.Candidate("nvml", 1.0, 1, 1500, 60_000, 0, replay(notReady, c)),
+                        new HybridGpuUsageProvider.Candidate("sysfs", 0.9, 1, 1500, 60_000, 0,
+                                replay(winner, c).asIntervalAggregate(5))),
+                LAG_AGGREGATE_IDLE_MS, 0.50, 13.0, 1));
+
+        return out;
+    }
+
+    public static void main(String[] args) {
+        List<String> violations = new ArrayList<>();
+        for (Golden g : goldenTraces()) {
+            Result r = g.run();
+            System.out.println(r);
+            violations.addAll(g.check(r));
+        }
+
+        if (!violations.isEmpty()) {
+            System.out.println();
+            System.out.println("GPU golden-trace regressions:");
+            for (String v : violations) System.out.println("  - " + v);
+            System.exit(1);
+        }
+        System.out.println("All GPU golden traces within bounds.");
+    }
+}
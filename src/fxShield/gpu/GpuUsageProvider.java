@@ -1,6 +1,9 @@
 package fxShield.GPU;
 
+import java.time.Duration;
 import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Provides a snapshot of overall GPU utilization.
@@ -8,6 +11,7 @@ import java.util.OptionalInt;
  * - Returns 0..100 inclusive on success.
  * - Returns -1 when unavailable/transiently failing.
  * - Implementations should be non-blocking or clearly document latency.
+ * - Blocking providers are read off-thread through {@link #readGpuUsagePercentAsync}.
  * - Thread-safety is implementation-defined; callers should assume thread-safe reads if shared.
  *
  * Lifecycle:
@@ -29,6 +33,24 @@ public interface GpuUsageProvider extends AutoCloseable {
         return (v >= 0 && v <= 100) ? OptionalInt.of(v) : OptionalInt.empty();
     }
 
+    /**
+     * Asynchronous read on the shared GPU executor with {@link GpuAsync#DEFAULT_TIMEOUT}.
+     */
+    default CompletableFuture<Integer> readGpuUsagePercentAsync() {
+        return readGpuUsagePercentAsync(GpuAsync.executor(), GpuAsync.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Asynchronous read. The future always completes with 0..100 or -1 (timeout, rejection, error);
+     * it never completes exceptionally unless the caller cancels it.
+     * Default runs the blocking read on {@code executor}; cancellation then only abandons the result.
+     * Providers owning killable resources (e.g. a child process) override this to release them on
+     * cancel/timeout.
+     */
+    default CompletableFuture<Integer> readGpuUsagePercentAsync(Executor executor, Duration timeout) {
+        return GpuAsync.supply(this, executor, timeout);
+    }
+
     /**
      * Indicates whether this provider is expected to work on the current platform/runtime.
      * Default returns true; implementations can override (e.g., library presence checks).
@@ -37,6 +59,15 @@ public interface GpuUsageProvider extends AutoCloseable {
         return true;
     }
 
+    /**
+     * Fills {@code out} in place with extended metrics (memory, temperature, clocks, power, throttling).
+     * Default returns false (provider only knows the utilization percent).
+     * Implementations must not allocate per call; unsupported fields stay -1.
+     */
+    default boolean readTelemetry(GpuTelemetry out) {
+        return false;
+    }
+
     @Override
     default void close() {}
 }
\ No newline at end of file
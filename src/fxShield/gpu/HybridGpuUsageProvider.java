@@ -1,70 +1,303 @@
 package fxShield.GPU;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
 public final class HybridGpuUsageProvider implements GpuUsageProvider {
 
-    // small cooldown to avoid thrashing when a provider transiently fails
-    private static final long COOLDOWN_MS = 1500;
+    // backoff per provider: base doubles on each consecutive failure up to max
+    private static final long NATIVE_BACKOFF_BASE_MS = 1500;
+    private static final long NATIVE_BACKOFF_MAX_MS = 60_000;
 
-    private final boolean isWindows;
+    // typeperf spawns a process and blocks ~2s; never hammer it
+    private static final long TYPEPERF_BACKOFF_BASE_MS = 10_000;
+    private static final long TYPEPERF_BACKOFF_MAX_MS = 5 * 60_000;
+    private static final long TYPEPERF_MIN_READ_INTERVAL_MS = 3000;
 
-    // cached winner (fast path)
-    private volatile GpuUsageProvider active;
+    // while a lower-ranked provider is active, re-probe better ones at most this often
+    private static final long PROBE_BETTER_INTERVAL_MS = 30_000;
+
+    // startup discovery races all eligible providers in parallel; a racer silent this long has failed
+    private static final Duration DISCOVERY_TIMEOUT = Duration.ofSeconds(5);
+
+    private final boolean isLinux;
+    private final boolean injected;
+    private final LongSupplier clock;
 
-    // lazy providers
-    private GpuUsageProvider nvml;
-    private GpuUsageProvider pdh;
-    private GpuUsageProvider typeperf;
+    // ranked candidates (order here is irrelevant; score decides)
+    private final Slot[] slots;
 
-    // backoff per provider
-    private volatile long nvmlNextTryMs = 0;
-    private volatile long pdhNextTryMs = 0;
-    private volatile long typeperfNextTryMs = 0;
+    // cached winner (fast path)
+    private volatile Slot active;
+    private long lastProbeBetterMs = 0;
+
+    // false until any provider produced a value (parallel race instead of sequential fallback)
+    private volatile boolean discovered = false;
+    private volatile List<CompletableFuture<Integer>> race; // discovery reads in flight, or null
 
     private volatile boolean closed = false;
 
     public HybridGpuUsageProvider(boolean isWindows) {
-        this.isWindows = isWindows;
+        this.isLinux = !isWindows && isLinuxOs();
+        this.injected = false;
+        this.clock = System::currentTimeMillis;
+
+        // name, accuracy (0..1), relative cost, backoff base/max, min read interval, presence check, factory
+        Slot nvml = new Slot("nvml", 1.00, 1, NATIVE_BACKOFF_BASE_MS, NATIVE_BACKOFF_MAX_MS, 0,
+                NvmlGpuUsageProvider::isNvmlLibraryPresent, NvmlGpuUsageProvider::new);
+
+        if (isWindows) {
+            this.slots = new Slot[] {
+                    nvml,
+                    new Slot("pdh", 0.95, 2, NATIVE_BACKOFF_BASE_MS, NATIVE_BACKOFF_MAX_MS, 0,
+                            PdhGpuUsageProvider::isAvailableStatic, PdhGpuUsageProvider::new),
+                    // no presence check: availability (spawns a process) is probed once on creation
+                    new Slot("typeperf", 0.80, 20, TYPEPERF_BACKOFF_BASE_MS, TYPEPERF_BACKOFF_MAX_MS,
+                            TYPEPERF_MIN_READ_INTERVAL_MS, null, TypeperfGpuUsageProvider::new)
+            };
+        } else if (isLinux) {
+            this.slots = new Slot[] {
+                    nvml, // libnvidia-ml.so
+                    new Slot("sysfs", 0.90, 1, NATIVE_BACKOFF_BASE_MS, NATIVE_BACKOFF_MAX_MS, 0,
+                            SysfsGpuUsageProvider::isAvailableStatic, SysfsGpuUsageProvider::new)
+            };
+        } else {
+            this.slots = new Slot[0];
+        }
+    }
+
+    /**
+     * Explicit candidates + clock (replay/simulation). Selection is sequential (no parallel
+     * discovery race) so runs against a virtual clock are deterministic.
+     */
+    public HybridGpuUsageProvider(LongSupplier clock, Candidate... candidates) {
+        this(clock, false, candidates);
+    }
+
+    /**
+     * Explicit candidates + clock; with {@code discoveryRace} the first reads race every candidate
+     * like the production constructor does (see {@link #isDiscovering}).
+     */
+    public HybridGpuUsageProvider(LongSupplier clock, boolean discoveryRace, Candidate... candidates) {
+        this.isLinux = false;
+        this.injected = true;
+        this.clock = (clock != null) ? clock : System::currentTimeMillis;
+        this.discovered = !discoveryRace;
+
+        Candidate[] cs = (candidates != null) ? candidates : new Candidate[0];
+        this.slots = new Slot[cs.length];
+        for (int i = 0; i < cs.length; i++) {
+            Candidate c = cs[i];
+            slots[i] = new Slot(c.name, c.accuracy, c.cost, c.backoffBaseMs, c.backoffMaxMs,
+                    c.minReadIntervalMs, null, () -> c.provider);
+        }
+    }
+
+    private static boolean isLinuxOs() {
+        String os = System.getProperty("os.name", "");
+        return os.toLowerCase().contains("linux");
     }
 
     @Override
     public int readGpuUsagePercent() {
-        if (closed || !isWindows) return -1;
+        if (closed || slots.length == 0) return -1;
 
-        long now = System.currentTimeMillis();
+        long now = clock.getAsLong();
 
-        // 1) try cached winner first
-        GpuUsageProvider a = active;
-        if (a != null) {
-            int v = safeRead(a);
+        // 0) startup: race every eligible provider in the background so the fastest good one wins
+        if (!discovered) {
+            launchDiscovery(now);
+            return -1;
+        }
+
+        int tried = 0;
+
+        // 1) cached winner first, unless a better-scored provider is due for a probe
+        Slot a = active;
+        if (a != null && !shouldProbeBetter(a, now)) {
+            int v = readSlot(a, now);
             if (v >= 0) return v;
-            active = null; // demote on failure
+            active = null; // demote on failure (health/backoff already recorded)
+            tried |= (1 << indexOf(a));
         }
 
-        // 2) NVML (NVIDIA) first
-        if (now >= nvmlNextTryMs) {
-            GpuUsageProvider p = ensureNvml();
-            int v = (p != null) ? safeRead(p) : -1;
-            if (v >= 0) { active = p; return v; }
-            nvmlNextTryMs = now + COOLDOWN_MS;
+        // 2) try eligible providers from best to worst score
+        for (int round = 0; round < slots.length; round++) {
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+
+            for (int i = 0; i < slots.length; i++) {
+                if ((tried & (1 << i)) != 0) continue;
+                Slot s = slots[i];
+                if (!s.health.isEligible(now)) continue;
+
+                double sc = score(s);
+                if (sc > bestScore) { bestScore = sc; best = i; }
+            }
+
+            if (best < 0) break;
+            tried |= (1 << best);
+
+            Slot s = slots[best];
+            int v = readSlot(s, now);
+            if (v >= 0) {
+                active = s;
+                return v;
+            }
         }
 
-        // 3) PDH (Windows counter) second
-        if (now >= pdhNextTryMs) {
-            GpuUsageProvider p = ensurePdh();
-            int v = (p != null) ? safeRead(p) : -1;
-            if (v >= 0) { active = p; return v; }
-            pdhNextTryMs = now + COOLDOWN_MS;
+        return -1;
+    }
+
+    /**
+     * Starts one read per eligible provider through its own async path (typeperf completes from
+     * its process exit, no parked thread) and returns at once; the caller never waits on discovery.
+     * The first valid value becomes the cached winner and the other reads are cancelled, which
+     * kills a pending typeperf process. Until then reads return -1.
+     */
+    private void launchDiscovery(long now) {
+        if (race != null) return; // previous race still running
+
+        List<CompletableFuture<Integer>> reads = new ArrayList<>(slots.length);
+        List<Slot> racers = new ArrayList<>(slots.length);
+        for (Slot s : slots) {
+            if (!s.health.isEligible(now) || !s.inFlight.compareAndSet(false, true)) continue;
+            racers.add(s);
+            reads.add(readSlotAsync(s));
+        }
+        if (reads.isEmpty()) return;
+
+        race = reads;
+        AtomicBoolean won = new AtomicBoolean(false);
+        for (int i = 0; i < reads.size(); i++) {
+            Slot s = racers.get(i);
+            reads.get(i).whenComplete((v, err) -> {
+                if (v == null || v < 0 || closed || !won.compareAndSet(false, true)) return;
+                active = s;
+                discovered = true;
+                for (CompletableFuture<Integer> f : reads) f.cancel(true); // losers; no-op for the winner
+            });
         }
+        CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((x, err) -> race = null);
+    }
 
-        // 4) typeperf (process fallback) last
-        if (now >= typeperfNextTryMs) {
-            GpuUsageProvider p = ensureTypeperf();
-            int v = (p != null) ? safeRead(p) : -1;
-            if (v >= 0) { active = p; return v; }
-            typeperfNextTryMs = now + COOLDOWN_MS;
+    /**
+     * Creates the provider (may block: native library, availability process) on the GPU pool, then
+     * reads through {@link GpuUsageProvider#readGpuUsagePercentAsync}. Cancelling the returned
+     * future cancels the provider read; a cancelled read is not counted against its health.
+     * Releases the slot's in-flight guard when the provider read ends (a blocking read abandoned
+     * by cancel finishes under the provider's own lock).
+     */
+    private CompletableFuture<Integer> readSlotAsync(Slot s) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        Executor ex = GpuAsync.executor();
+        try {
+            ex.execute(() -> {
+                GpuUsageProvider p = result.isDone() ? null : ensure(s); // skip if lost before it started
+                if (p == null || result.isDone()) {
+                    if (p == null && !result.isDone()) s.health.onUnavailable(clock.getAsLong());
+                    s.inFlight.set(false);
+                    result.complete(-1);
+                    return;
+                }
+
+                long t0 = System.nanoTime();
+                CompletableFuture<Integer> read = p.readGpuUsagePercentAsync(ex, DISCOVERY_TIMEOUT);
+                result.whenComplete((v, err) -> {
+                    if (result.isCancelled()) read.cancel(true);
+                });
+                read.whenComplete((v, err) -> {
+                    s.inFlight.set(false);
+                    if (result.isCancelled()) return;
+                    int val = (err == null && v != null && v >= 0 && v <= 100) ? v : -1;
+                    long dt = System.nanoTime() - t0;
+                    long at = clock.getAsLong();
+
+                    s.lastReadMs = at;
+                    s.lastValue = val;
+                    if (val >= 0) s.health.onSuccess(at, dt);
+                    else { s.health.onFailure(at, dt); s.recheckPresence = true; }
+                    result.complete(val);
+                });
+            });
+        } catch (RejectedExecutionException rex) {
+            s.inFlight.set(false);
+            result.complete(-1);
         }
+        return result;
+    }
 
-        return -1;
+    /**
+     * Higher is better: accuracy weighted by observed success rate, minus static cost and observed latency.
+     */
+    private static double score(Slot s) {
+        double lat = s.health.getLatencyEmaMs();
+        double latencyPenalty = (lat < 0) ? 0 : Math.min(0.5, lat / 4000.0);
+        return s.accuracy * s.health.getSuccessRate() - s.cost * 0.01 - latencyPenalty;
+    }
+
+    private int indexOf(Slot s) {
+        for (int i = 0; i < slots.length; i++) if (slots[i] == s) return i;
+        return 0;
+    }
+
+    private boolean shouldProbeBetter(Slot a, long now) {
+        if (!probeBetterDue(a, now)) return false;
+        lastProbeBetterMs = now;
+        return true;
+    }
+
+    /** Same test as {@link #shouldProbeBetter} without starting the probe interval. */
+    private boolean probeBetterDue(Slot a, long now) {
+        if (now - lastProbeBetterMs < PROBE_BETTER_INTERVAL_MS) return false;
+
+        double aScore = score(a);
+        for (Slot s : slots) {
+            if (s == a) continue;
+            if (s.accuracy > a.accuracy && s.cost < a.cost && s.health.isEligible(now) && score(s) > aScore) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int readSlot(Slot s, long now) {
+        // rate-limited providers serve their last value between reads
+        if (s.minReadIntervalMs > 0 && s.lastValue >= 0 && (now - s.lastReadMs) < s.minReadIntervalMs) {
+            return s.lastValue;
+        }
+
+        // one read per provider at a time (a discovery loser may still be running)
+        if (!s.inFlight.compareAndSet(false, true)) return -1;
+        try {
+            GpuUsageProvider p = ensure(s);
+            if (p == null) {
+                s.health.onUnavailable(now);
+                return -1;
+            }
+
+            long t0 = System.nanoTime();
+            int v = safeRead(p);
+            long dt = System.nanoTime() - t0;
+
+            s.lastReadMs = now;
+            s.lastValue = v;
+
+            if (v >= 0) s.health.onSuccess(now, dt);
+            else { s.health.onFailure(now, dt); s.recheckPresence = true; }
+            return v;
+        } finally {
+            s.inFlight.set(false);
+        }
     }
 
     private static int safeRead(GpuUsageProvider p) {
@@ -76,61 +309,119 @@ public final class HybridGpuUsageProvider implements GpuUsageProvider {
         }
     }
 
-    // ---- lazy init with safe “presence” checks قبل الإنشاء ----
+    /**
+     * Delegates extended telemetry to the cached winner (only NVML provides it today) and records
+     * the read in the winner's health, like {@link #readGpuUsagePercent()}: a telemetry pass
+     * without a utilization value counts as a failed read and demotes the winner.
+     * Returns false when no provider is active yet, a better provider is due for a probe, or the
+     * winner has no telemetry; callers then fall back to readGpuUsagePercent(), which probes and
+     * fails over.
+     */
+    @Override
+    public boolean readTelemetry(GpuTelemetry out) {
+        if (closed || slots.length == 0 || out == null) return false;
 
-    private synchronized GpuUsageProvider ensureNvml() {
-        if (closed) return null;
+        Slot a = active;
+        GpuUsageProvider p = (a != null) ? a.instance : null;
+        if (p == null) return false;
 
-        // don’t even instantiate if NVML library isn’t present
-        if (!NvmlGpuUsageProvider.isNvmlLibraryPresent()) {
-            if (nvml != null) { safeClose(nvml); nvml = null; }
-            return null;
-        }
-
-        if (nvml == null) {
-            try { nvml = new NvmlGpuUsageProvider(); }
-            catch (Throwable t) { nvml = null; }
+        long now = clock.getAsLong();
+        if (probeBetterDue(a, now)) return false;
+        if (!a.inFlight.compareAndSet(false, true)) return false;
+        try {
+            long t0 = System.nanoTime();
+            boolean ok;
+            try {
+                ok = p.readTelemetry(out);
+            } catch (Throwable t) {
+                ok = false;
+            }
+            if (!ok) return false; // no telemetry: the plain read records this provider's health
+            long dt = System.nanoTime() - t0;
+
+            int v = (out.gpuPercent >= 0 && out.gpuPercent <= 100) ? out.gpuPercent : -1;
+            a.lastReadMs = now;
+            a.lastValue = v;
+            if (v >= 0) {
+                a.health.onSuccess(now, dt);
+            } else {
+                a.health.onFailure(now, dt);
+                a.recheckPresence = true;
+                if (active == a) active = null;
+            }
+            return true;
+        } finally {
+            a.inFlight.set(false);
         }
-
-        if (nvml != null && nvml.isAvailable()) return nvml;
-        return null;
     }
 
-    private synchronized GpuUsageProvider ensurePdh() {
-        if (closed) return null;
+    // ---- diagnostics ----
 
-        // avoid instantiating if PDH library isn’t present
-        if (!PdhGpuUsageProvider.isAvailableStatic()) {
-            if (pdh != null) { safeClose(pdh); pdh = null; }
-            return null;
-        }
+    /** True while a startup discovery race is in flight (reads return -1 until it has a winner). */
+    boolean isDiscovering() {
+        return !discovered && race != null;
+    }
 
-        if (pdh == null) {
-            try { pdh = new PdhGpuUsageProvider(); }
-            catch (Throwable t) { pdh = null; }
-        }
+    /** Name of the provider currently serving reads, or null. */
+    public String getActiveProviderName() {
+        Slot a = active;
+        return (a != null) ? a.health.getName() : null;
+    }
 
-        if (pdh != null && pdh.isAvailable()) return pdh;
-        return null;
+    /** Health snapshot for every candidate provider (success rate, latency histogram, staleness, backoff). */
+    public List<GpuProviderHealth.Stats> getProviderStats() {
+        long now = clock.getAsLong();
+        List<GpuProviderHealth.Stats> out = new ArrayList<>(slots.length);
+        for (Slot s : slots) out.add(s.health.snapshot(now));
+        return out;
     }
 
-    private synchronized GpuUsageProvider ensureTypeperf() {
-        if (closed) return null;
+    // ---- lazy init with safe “presence” checks قبل الإنشاء ----
 
-        if (typeperf == null) {
-            try { typeperf = new TypeperfGpuUsageProvider(); }
-            catch (Throwable t) { typeperf = null; }
+    private GpuUsageProvider ensure(Slot s) {
+        synchronized (s) {
+            if (closed) return null;
+
+            // don’t even instantiate if the backing library/driver isn’t present. The check may scan
+            // (sysfs directory listing), so it runs on creation and after a failed read only.
+            if (s.instance == null || s.recheckPresence) {
+                if (s.present != null && !s.present.getAsBoolean()) {
+                    if (s.instance != null) { safeClose(s.instance); s.instance = null; }
+                    return null;
+                }
+                s.recheckPresence = false;
+            }
+
+            if (s.instance == null) {
+                GpuUsageProvider p = null;
+                try {
+                    p = s.creator.get();
+                    if (p != null && p.isAvailable()) s.instance = p;
+                    else safeClose(p);
+                } catch (Throwable t) {
+                    safeClose(p);
+                    s.instance = null;
+                }
+            }
+
+            return s.instance;
         }
-
-        if (typeperf != null && typeperf.isAvailable()) return typeperf;
-        return null;
     }
 
     @Override
     public boolean isAvailable() {
-        if (closed || !isWindows) return false;
+        if (closed || slots.length == 0) return false;
+
+        if (injected) {
+            for (Slot s : slots) {
+                GpuUsageProvider p = s.creator.get();
+                if (p != null && p.isAvailable()) return true;
+            }
+            return false;
+        }
 
         if (NvmlGpuUsageProvider.isNvmlLibraryPresent()) return true;
+        if (isLinux) return SysfsGpuUsageProvider.isAvailableStatic();
         if (PdhGpuUsageProvider.isAvailableStatic()) return true;
 
         // typeperf check is heavier (process). keep it last.
@@ -145,13 +436,71 @@ public final class HybridGpuUsageProvider implements GpuUsageProvider {
 
         active = null;
 
-        safeClose(nvml); nvml = null;
-        safeClose(pdh); pdh = null;
-        safeClose(typeperf); typeperf = null;
+        List<CompletableFuture<Integer>> r = race;
+        if (r != null) for (CompletableFuture<Integer> f : r) f.cancel(true);
+
+        for (Slot s : slots) {
+            synchronized (s) {
+                safeClose(s.instance);
+                s.instance = null;
+            }
+        }
     }
 
     private static void safeClose(GpuUsageProvider p) {
         if (p == null) return;
         try { p.close(); } catch (Throwable ignored) {}
     }
+
+    /**
+     * Provider description for the injected constructor.
+     */
+    public static final class Candidate {
+        final String name;
+        final double accuracy;
+        final int cost;
+        final long backoffBaseMs;
+        final long backoffMaxMs;
+        final long minReadIntervalMs;
+        final GpuUsageProvider provider;
+
+        public Candidate(String name, double accuracy, int cost,
+                         long backoffBaseMs, long backoffMaxMs, long minReadIntervalMs,
+                         GpuUsageProvider provider) {
+            this.name = name;
+            this.accuracy = accuracy;
+            this.cost = cost;
+            this.backoffBaseMs = backoffBaseMs;
+            this.backoffMaxMs = backoffMaxMs;
+            this.minReadIntervalMs = minReadIntervalMs;
+            this.provider = provider;
+        }
+    }
+
+    private static final class Slot {
+        final double accuracy;
+        final int cost;
+        final long minReadIntervalMs;
+        final BooleanSupplier present;              // cheap presence check, null = none
+        final Supplier<GpuUsageProvider> creator;
+        final GpuProviderHealth health;
+
+        volatile GpuUsageProvider instance; // written under the slot lock (ensure*/close)
+        volatile boolean recheckPresence = true; // set by a failed read: driver may have gone away
+        final AtomicBoolean inFlight = new AtomicBoolean(false);
+
+        // read state (sampler thread or a discovery task; one at a time via inFlight)
+        volatile long lastReadMs = 0;
+        volatile int lastValue = -1;
+
+        Slot(String name, double accuracy, int cost, long backoffBaseMs, long backoffMaxMs,
+             long minReadIntervalMs, BooleanSupplier present, Supplier<GpuUsageProvider> creator) {
+            this.accuracy = accuracy;
+            this.cost = cost;
+            this.minReadIntervalMs = minReadIntervalMs;
+            this.present = present;
+            this.creator = creator;
+            this.health = new GpuProviderHealth(name, backoffBaseMs, backoffMaxMs);
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package fxShield.GPU;
 
 import com.sun.jna.*;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.LongByReference;
 import com.sun.jna.ptr.PointerByReference;
 
 public final class NvmlGpuUsageProvider implements GpuUsageProvider {
@@ -10,6 +12,17 @@ public final class NvmlGpuUsageProvider implements GpuUsageProvider {
         int nvmlShutdown();
         int nvmlDeviceGetHandleByIndex_v2(int index, PointerByReference device);
         int nvmlDeviceGetUtilizationRates(Pointer device, NvmlUtilization utilization);
+
+        // Extended telemetry (resolved lazily by JNA; older drivers may miss some entry points)
+        int nvmlDeviceGetMemoryInfo(Pointer device, NvmlMemory memory);
+        int nvmlDeviceGetTemperature(Pointer device, int sensorType, IntByReference temp);
+        int nvmlDeviceGetClockInfo(Pointer device, int clockType, IntByReference clockMhz);
+        int nvmlDeviceGetPowerUsage(Pointer device, IntByReference milliwatts);
+        int nvmlDeviceGetCurrentClocksThrottleReasons(Pointer device, LongByReference reasons);
+
+        // Sample buffer: every driver sample newer than lastSeenTimeStamp (us), at most *sampleCount of them.
+        int nvmlDeviceGetSamples(Pointer device, int type, long lastSeenTimeStamp,
+                                 IntByReference sampleValType, IntByReference sampleCount, Pointer samples);
     }
 
     @Structure.FieldOrder({"gpu", "memory"})
@@ -18,6 +31,61 @@ public final class NvmlGpuUsageProvider implements GpuUsageProvider {
         public int memory; // percent
     }
 
+    @Structure.FieldOrder({"total", "free", "used"})
+    public static final class NvmlMemory extends Structure {
+        public long total; // bytes (unsigned long long)
+        public long free;
+        public long used;
+    }
+
+    private static final int NVML_SUCCESS = 0;
+    private static final int NVML_ERROR_NOT_SUPPORTED = 3;
+    private static final int NVML_ERROR_NOT_FOUND = 6;         // no new samples since lastSeenTimeStamp
+    private static final int NVML_ERROR_INSUFFICIENT_SIZE = 7; // sampleCount too small; set to the needed count
+    private static final int NVML_ERROR_FUNCTION_NOT_FOUND = 13;
+
+    private static final int NVML_TEMPERATURE_GPU = 0;
+    private static final int NVML_CLOCK_SM = 1;
+    private static final int NVML_CLOCK_MEM = 2;
+
+    // nvmlSamplingType_t / nvmlValueType_t
+    private static final int NVML_GPU_UTILIZATION_SAMPLES = 1;
+    private static final int NVML_VALUE_TYPE_DOUBLE = 0;
+    private static final int NVML_VALUE_TYPE_UNSIGNED_INT = 1;
+    private static final int NVML_VALUE_TYPE_UNSIGNED_LONG = 2;
+    private static final int NVML_VALUE_TYPE_UNSIGNED_LONG_LONG = 3;
+    private static final int NVML_VALUE_TYPE_SIGNED_LONG_LONG = 4;
+
+    // nvmlSample_t = { unsigned long long timeStamp; nvmlValue_t sampleValue (8-byte union) }
+    private static final int SAMPLE_SIZE = 16;
+    private static final int SAMPLE_VALUE_OFFSET = 8;
+    // Above the driver's utilization history, so one fetch returns everything (grown once if not)
+    private static final int SAMPLE_CAPACITY = 1024;
+
+    // The driver buffer keeps the history between pulls, so pulling slower than the UI tick loses nothing
+    private static final long SAMPLE_PULL_MS = 1000;
+    // On the very first pull only the most recent second of the driver buffer is used
+    private static final long FIRST_WINDOW_US = 1_000_000L;
+    // A window older than this is considered stale (two pulls without samples); fall back to the instantaneous rate
+    private static final long WINDOW_MAX_AGE_MS = 2500;
+    // Temperature, clocks, power, memory and throttle reasons change slowly; re-read at most this often
+    private static final long EXT_PERIOD_MS = 1000;
+
+    // Optional override (absolute path or library name), e.g. a stub libnvml for tests
+    public static final String LIBRARY_PROPERTY = "fxshield.nvml.library";
+
+    // "nvml" on Windows (nvml.dll), "nvidia-ml" on Linux (libnvidia-ml.so)
+    private static final String[] LIBRARY_NAMES = {"nvml", "nvidia-ml"};
+
+    // Extended metric bits (cleared once NVML reports NOT_SUPPORTED so we stop asking)
+    private static final int EXT_MEMORY   = 1;
+    private static final int EXT_TEMP     = 1 << 1;
+    private static final int EXT_SM_CLOCK = 1 << 2;
+    private static final int EXT_MEM_CLOCK= 1 << 3;
+    private static final int EXT_POWER    = 1 << 4;
+    private static final int EXT_THROTTLE = 1 << 5;
+    private static final int EXT_ALL = EXT_MEMORY | EXT_TEMP | EXT_SM_CLOCK | EXT_MEM_CLOCK | EXT_POWER | EXT_THROTTLE;
+
     // ---------- Lazy NVML loading + global lifecycle ----------
     private static final Object NVML_LOCK = new Object();
     private static volatile Nvml NVML;                 // lazy-loaded instance
@@ -29,15 +97,26 @@ public final class NvmlGpuUsageProvider implements GpuUsageProvider {
         if (inst != null) return inst;
         synchronized (NVML_LOCK) {
             if (NVML != null) return NVML;
-            try {
-                NVML = Native.load("nvml", Nvml.class);
-                return NVML;
-            } catch (Throwable t) {
-                return null;
+            for (String name : libraryCandidates()) {
+                try {
+                    NVML = Native.load(name, Nvml.class);
+                    return NVML;
+                } catch (Throwable ignored) {}
             }
+            return null;
         }
     }
 
+    private static String[] libraryCandidates() {
+        String override = System.getProperty(LIBRARY_PROPERTY);
+        if (override == null || override.isBlank()) return LIBRARY_NAMES;
+
+        String[] out = new String[LIBRARY_NAMES.length + 1];
+        out[0] = override.trim();
+        System.arraycopy(LIBRARY_NAMES, 0, out, 1, LIBRARY_NAMES.length);
+        return out;
+    }
+
     private static boolean ensureNvmlInitialized() {
         synchronized (NVML_LOCK) {
             Nvml inst = nvml();
@@ -80,19 +159,56 @@ public final class NvmlGpuUsageProvider implements GpuUsageProvider {
 
     // ---------- Instance state ----------
     private final int deviceIndex;
-    private final Object ioLock = new Object(); // protects device + util
+    private final Object ioLock = new Object(); // protects device + native structs below
 
     private volatile boolean ready = false;
     private volatile Pointer device;
 
     private final NvmlUtilization util = new NvmlUtilization();
 
+    // Reusable native out-params for telemetry (no per-tick allocation)
+    private final NvmlMemory memInfo = new NvmlMemory();
+    private final IntByReference intOut = new IntByReference();
+    private final LongByReference longOut = new LongByReference();
+
+    private int extSupported = EXT_ALL;
+    // Last extended metrics read (only the extended fields are used) and when
+    private final GpuTelemetry ext = new GpuTelemetry();
+    private long extAtMs = 0;
+
+    // Sample-buffer mode state (all guarded by ioLock)
+    private final boolean sampleBufferMode;
+    private boolean samplesSupported = true;
+    private final IntByReference sampleTypeOut = new IntByReference();
+    private final IntByReference sampleCountOut = new IntByReference();
+    private Memory sampleBuf;
+    private int sampleCap = 0;
+    private long lastSampleTsUs = 0;
+    private long lastPullMs = 0;
+
+    // Last aggregated window (min/avg/max over all samples since the previous pull)
+    private int winMin = -1;
+    private int winAvg = -1;
+    private int winMax = -1;
+    private int winCount = 0;
+    private long winAtMs = 0;
+
     public NvmlGpuUsageProvider() {
         this(0);
     }
 
     public NvmlGpuUsageProvider(int deviceIndex) {
+        this(deviceIndex, true);
+    }
+
+    /**
+     * @param sampleBufferMode when true, reads use nvmlDeviceGetSamples (pulled once a second) and report
+     *                         the average of all driver samples since the previous pull (falls back to
+     *                         utilization rates when the driver does not support the sample buffer).
+     */
+    public NvmlGpuUsageProvider(int deviceIndex, boolean sampleBufferMode) {
         this.deviceIndex = deviceIndex;
+        this.sampleBufferMode = sampleBufferMode;
         init();
     }
 
@@ -142,6 +258,9 @@ public final class NvmlGpuUsageProvider implements GpuUsageProvider {
                 Nvml inst = nvml();
                 if (inst == null) return -1;
 
+                int windowed = readWindowedPercent(inst, System.currentTimeMillis());
+                if (windowed >= 0) return windowed;
+
                 int r = inst.nvmlDeviceGetUtilizationRates(device, util);
                 if (r != 0) {
                     // one retry (transient)
@@ -152,22 +271,267 @@ public final class NvmlGpuUsageProvider implements GpuUsageProvider {
                 // Make sure the native-filled fields are visible
                 try { util.read(); } catch (Throwable ignored) {}
 
-                int v = util.gpu;
-                if (v < 0) v = 0;
-                if (v > 100) v = 100;
-                return v;
+                return clampPercent(util.gpu);
             } catch (Throwable t) {
                 return -1;
             }
         }
     }
 
+    /**
+     * Samples utilization + extended telemetry in a single pass (one lock, reused native structs).
+     * While the sample-buffer window is valid it replaces the instantaneous rate, so the
+     * utilization call is skipped (memoryPercent is then -1). Extended metrics are re-read every
+     * {@link #EXT_PERIOD_MS}; metrics NVML reports as unsupported are skipped on later ticks.
+     */
+    @Override
+    public boolean readTelemetry(GpuTelemetry out) {
+        if (out == null) return false;
+        if (!ready || device == null) return false;
+
+        synchronized (ioLock) {
+            if (!ready || device == null) return false;
+
+            Nvml inst = nvml();
+            if (inst == null) return false;
+
+            out.reset();
+            long now = System.currentTimeMillis();
+
+            if (readWindowedPercent(inst, now) >= 0) {
+                out.gpuPercent = winAvg;
+                out.gpuPercentMin = winMin;
+                out.gpuPercentMax = winMax;
+                out.gpuSampleCount = winCount;
+            } else {
+                try {
+                    int r = inst.nvmlDeviceGetUtilizationRates(device, util);
+                    if (r == NVML_SUCCESS) {
+                        try { util.read(); } catch (Throwable ignored) {}
+                        out.gpuPercent = clampPercent(util.gpu);
+                        out.memoryPercent = clampPercent(util.memory);
+                    }
+                } catch (Throwable ignored) {}
+            }
+
+            if (extAtMs == 0 || now - extAtMs >= EXT_PERIOD_MS) {
+                readExtended(inst);
+                extAtMs = now;
+            }
+            out.memoryTotalBytes = ext.memoryTotalBytes;
+            out.memoryUsedBytes = ext.memoryUsedBytes;
+            out.temperatureC = ext.temperatureC;
+            out.smClockMhz = ext.smClockMhz;
+            out.memoryClockMhz = ext.memoryClockMhz;
+            out.powerMilliwatts = ext.powerMilliwatts;
+            out.throttleReasons = ext.throttleReasons;
+
+            boolean any = out.gpuPercent >= 0 || out.memoryTotalBytes >= 0 || out.temperatureC >= 0;
+            if (any) out.sampledAtMs = now;
+            return any;
+        }
+    }
+
+    /** Fills the extended fields of {@link #ext}. Caller holds ioLock. */
+    private void readExtended(Nvml inst) {
+        ext.reset();
+
+        if ((extSupported & EXT_MEMORY) != 0) {
+            try {
+                int r = inst.nvmlDeviceGetMemoryInfo(device, memInfo);
+                if (r == NVML_SUCCESS) {
+                    try { memInfo.read(); } catch (Throwable ignored) {}
+                    ext.memoryTotalBytes = Math.max(0, memInfo.total);
+                    ext.memoryUsedBytes = Math.max(0, memInfo.used);
+                } else {
+                    markUnsupported(r, EXT_MEMORY);
+                }
+            } catch (Throwable t) {
+                extSupported &= ~EXT_MEMORY;
+            }
+        }
+
+        if ((extSupported & EXT_TEMP) != 0) {
+            try {
+                int r = inst.nvmlDeviceGetTemperature(device, NVML_TEMPERATURE_GPU, intOut);
+                if (r == NVML_SUCCESS) ext.temperatureC = Math.max(0, intOut.getValue());
+                else markUnsupported(r, EXT_TEMP);
+            } catch (Throwable t) {
+                extSupported &= ~EXT_TEMP;
+            }
+        }
+
+        if ((extSupported & EXT_SM_CLOCK) != 0) {
+            try {
+                int r = inst.nvmlDeviceGetClockInfo(device, NVML_CLOCK_SM, intOut);
+                if (r == NVML_SUCCESS) ext.smClockMhz = Math.max(0, intOut.getValue());
+                else markUnsupported(r, EXT_SM_CLOCK);
+            } catch (Throwable t) {
+                extSupported &= ~EXT_SM_CLOCK;
+            }
+        }
+
+        if ((extSupported & EXT_MEM_CLOCK) != 0) {
+            try {
+                int r = inst.nvmlDeviceGetClockInfo(device, NVML_CLOCK_MEM, intOut);
+                if (r == NVML_SUCCESS) ext.memoryClockMhz = Math.max(0, intOut.getValue());
+                else markUnsupported(r, EXT_MEM_CLOCK);
+            } catch (Throwable t) {
+                extSupported &= ~EXT_MEM_CLOCK;
+            }
+        }
+
+        if ((extSupported & EXT_POWER) != 0) {
+            try {
+                int r = inst.nvmlDeviceGetPowerUsage(device, intOut);
+                if (r == NVML_SUCCESS) ext.powerMilliwatts = Math.max(0, intOut.getValue());
+                else markUnsupported(r, EXT_POWER);
+            } catch (Throwable t) {
+                extSupported &= ~EXT_POWER;
+            }
+        }
+
+        if ((extSupported & EXT_THROTTLE) != 0) {
+            try {
+                int r = inst.nvmlDeviceGetCurrentClocksThrottleReasons(device, longOut);
+                if (r == NVML_SUCCESS) ext.throttleReasons = Math.max(0, longOut.getValue());
+                else markUnsupported(r, EXT_THROTTLE);
+            } catch (Throwable t) {
+                extSupported &= ~EXT_THROTTLE;
+            }
+        }
+    }
+
+    /**
+     * Pulls new driver samples every {@link #SAMPLE_PULL_MS} and returns the current window average,
+     * or -1 when the sample buffer is disabled/unsupported or the last window is stale. Caller holds ioLock.
+     */
+    private int readWindowedPercent(Nvml inst, long now) {
+        if (!sampleBufferMode || !samplesSupported) return -1;
+
+        if (lastPullMs == 0 || now - lastPullMs >= SAMPLE_PULL_MS) {
+            lastPullMs = now;
+            pullSamples(inst, now);
+        }
+
+        // NOT_FOUND just means the driver has not sampled since; keep the last window briefly
+        if (winCount > 0 && (now - winAtMs) <= WINDOW_MAX_AGE_MS) return winAvg;
+        return -1;
+    }
+
+    /** One GetSamples call into a buffer allocated once (a second one only if the driver asks for more room). */
+    private void pullSamples(Nvml inst, long nowMs) {
+        try {
+            if (sampleBuf == null) {
+                sampleCap = SAMPLE_CAPACITY;
+                sampleBuf = new Memory((long) sampleCap * SAMPLE_SIZE);
+            }
+
+            sampleCountOut.setValue(sampleCap);
+            int r = inst.nvmlDeviceGetSamples(device, NVML_GPU_UTILIZATION_SAMPLES, lastSampleTsUs,
+                    sampleTypeOut, sampleCountOut, sampleBuf);
+            if (r == NVML_ERROR_INSUFFICIENT_SIZE && sampleCountOut.getValue() > sampleCap) {
+                sampleCap = sampleCountOut.getValue();
+                sampleBuf = new Memory((long) sampleCap * SAMPLE_SIZE);
+                sampleCountOut.setValue(sampleCap);
+                r = inst.nvmlDeviceGetSamples(device, NVML_GPU_UTILIZATION_SAMPLES, lastSampleTsUs,
+                        sampleTypeOut, sampleCountOut, sampleBuf);
+            }
+            if (r == NVML_ERROR_NOT_FOUND) return;
+            if (r != NVML_SUCCESS) {
+                if (r == NVML_ERROR_NOT_SUPPORTED || r == NVML_ERROR_FUNCTION_NOT_FOUND) samplesSupported = false;
+                return;
+            }
+
+            int n = Math.min(sampleCountOut.getValue(), sampleCap);
+            if (n <= 0) return;
+
+            int valueType = sampleTypeOut.getValue();
+
+            long newest = lastSampleTsUs;
+            for (int i = 0; i < n; i++) {
+                long ts = sampleBuf.getLong((long) i * SAMPLE_SIZE);
+                if (ts > newest) newest = ts;
+            }
+
+            long floor = (lastSampleTsUs == 0) ? (newest - FIRST_WINDOW_US) : lastSampleTsUs;
+
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            long sum = 0;
+            int count = 0;
+
+            for (int i = 0; i < n; i++) {
+                long off = (long) i * SAMPLE_SIZE;
+                long ts = sampleBuf.getLong(off);
+                if (ts <= floor) continue;
+
+                int v = readSampleValue(off + SAMPLE_VALUE_OFFSET, valueType);
+                if (v < 0) continue;
+
+                v = clampPercent(v);
+                if (v < min) min = v;
+                if (v > max) max = v;
+                sum += v;
+                count++;
+            }
+
+            lastSampleTsUs = newest;
+
+            if (count > 0) {
+                winMin = min;
+                winMax = max;
+                winAvg = (int) Math.round(sum / (double) count);
+                winCount = count;
+                winAtMs = nowMs;
+            }
+        } catch (UnsatisfiedLinkError e) {
+            samplesSupported = false;
+        } catch (Throwable ignored) {
+        }
+    }
+
+    private int readSampleValue(long off, int valueType) {
+        switch (valueType) {
+            case NVML_VALUE_TYPE_DOUBLE: {
+                double d = sampleBuf.getDouble(off);
+                return (Double.isNaN(d) || Double.isInfinite(d)) ? -1 : (int) Math.round(d);
+            }
+            case NVML_VALUE_TYPE_UNSIGNED_INT:
+                return sampleBuf.getInt(off);
+            case NVML_VALUE_TYPE_UNSIGNED_LONG:
+                return (int) Math.min(Integer.MAX_VALUE,
+                        Native.LONG_SIZE == 8 ? sampleBuf.getLong(off) : (sampleBuf.getInt(off) & 0xFFFFFFFFL));
+            case NVML_VALUE_TYPE_UNSIGNED_LONG_LONG:
+            case NVML_VALUE_TYPE_SIGNED_LONG_LONG:
+                return (int) Math.max(-1, Math.min(Integer.MAX_VALUE, sampleBuf.getLong(off)));
+            default:
+                return -1;
+        }
+    }
+
+    private void markUnsupported(int nvmlResult, int bit) {
+        if (nvmlResult == NVML_ERROR_NOT_SUPPORTED || nvmlResult == NVML_ERROR_FUNCTION_NOT_FOUND) {
+            extSupported &= ~bit;
+        }
+    }
+
+    private static int clampPercent(int v) {
+        if (v < 0) return 0;
+        if (v > 100) return 100;
+        return v;
+    }
+
     @Override
     public void close() {
         synchronized (ioLock) {
             if (!ready) return;
             ready = false;
             device = null;
+            lastSampleTsUs = 0;
+            lastPullMs = 0;
+            winCount = 0;
+            extAtMs = 0;
         }
         shutdownNvmlIfIdle();
     }
@@ -178,11 +542,13 @@ public final class NvmlGpuUsageProvider implements GpuUsageProvider {
     }
 
     public static boolean isNvmlLibraryPresent() {
-        try {
-            NativeLibrary.getInstance("nvml");
-            return true;
-        } catch (Throwable t) {
-            return false;
+        if (NVML != null) return true;
+        for (String name : libraryCandidates()) {
+            try {
+                NativeLibrary.getInstance(name);
+                return true;
+            } catch (Throwable ignored) {}
         }
+        return false;
     }
 }
@@ -0,0 +1,285 @@
+package fxShield.GPU;
+
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Drives {@link NvmlGpuUsageProvider} against a stub libnvml loaded through
+ * {@link NvmlGpuUsageProvider#LIBRARY_PROPERTY} (no NVIDIA GPU or driver needed):
+ * - the override is picked up; init, device handle and shutdown follow the refcount
+ * - plain utilization read, clamped to 0..100
+ * - telemetry: memory, temperature, clocks, power, throttle reasons (thermal / power)
+ * - a metric the driver reports as NOT_SUPPORTED stays -1 and is not asked for again
+ * - sample buffer: window average / min / max over the samples since the previous pull,
+ *   the first pull limited to the last second, double-typed samples
+ * - call budget: one GetSamples per pull (no size probe), pulls at most once a second, no
+ *   GetUtilizationRates while the window is valid, extended metrics once a second; the
+ *   buffer grows once when the driver holds more samples than it fits
+ *
+ * The stub is C source compiled with the system C compiler into a temp directory; the
+ * harness skips (exit 0) when no compiler is available.
+ *
+ * Run: java fxShield.GPU.NvmlGpuUsageProviderHarness
+ * Exit code 1 when a check fails.
+ */
+public final class NvmlGpuUsageProviderHarness {
+
+    // nvmlReturn_t values used by the stub
+    private static final int NOT_SUPPORTED = 3;
+
+    // call counters in the stub (index into calls[])
+    private static final int C_UTIL = 0;
+    private static final int C_SAMPLES = 1;
+    private static final int C_TEMP = 2;
+    private static final int C_SHUTDOWN = 3;
+
+    private static final String STUB_SOURCE = """
+            #include <string.h>
+            typedef struct { unsigned int gpu, memory; } util_t;
+            typedef struct { unsigned long long total, free, used; } mem_t;
+            typedef struct { unsigned long long ts; union { double d; unsigned int ui; unsigned long long ull; } v; } sample_t;
+
+            static unsigned int utilGpu = 0, utilMem = 0;
+            static unsigned int tempC = 0, smMhz = 0, memMhz = 0, powerMw = 0;
+            static unsigned long long throttle = 0, memTotal = 0, memUsed = 0;
+            static int tempResult = 0, samplesResult = 0, valueType = 1;
+            static sample_t samples[4096];
+            static int nSamples = 0;
+            static int calls[8];
+
+            int nvmlInit_v2(void) { return 0; }
+            int nvmlShutdown(void) { calls[3]++; return 0; }
+            int nvmlDeviceGetHandleByIndex_v2(int index, void **dev) {
+                if (index != 0) return 2;
+                *dev = (void *) 0x1000;
+                return 0;
+            }
+            int nvmlDeviceGetUtilizationRates(void *dev, util_t *u) {
+                calls[0]++;
+                u->gpu = utilGpu; u->memory = utilMem;
+                return 0;
+            }
+            int nvmlDeviceGetMemoryInfo(void *dev, mem_t *m) {
+                m->total = memTotal; m->used = memUsed; m->free = memTotal - memUsed;
+                return 0;
+            }
+            int nvmlDeviceGetTemperature(void *dev, int sensor, unsigned int *t) {
+                calls[2]++;
+                if (tempResult) return tempResult;
+                *t = tempC;
+                return 0;
+            }
+            int nvmlDeviceGetClockInfo(void *dev, int type, unsigned int *mhz) {
+                *mhz = (type == 1) ? smMhz : memMhz;
+                return 0;
+            }
+            int nvmlDeviceGetPowerUsage(void *dev, unsigned int *mw) { *mw = powerMw; return 0; }
+            int nvmlDeviceGetCurrentClocksThrottleReasons(void *dev, unsigned long long *r) { *r = throttle; return 0; }
+
+            /* like the driver: NOT_FOUND when nothing is newer, INSUFFICIENT_SIZE when the array is too small */
+            int nvmlDeviceGetSamples(void *dev, int type, unsigned long long last, int *vt, unsigned int *count, sample_t *out) {
+                calls[1]++;
+                if (samplesResult) return samplesResult;
+                unsigned int avail = 0;
+                for (int i = 0; i < nSamples; i++) if (samples[i].ts > last) avail++;
+                if (avail == 0) return 6;
+                *vt = valueType;
+                if (out == 0) { *count = avail; return 0; }
+                if (*count < avail) { *count = avail; return 7; }
+                unsigned int k = 0;
+                for (int i = 0; i < nSamples; i++) if (samples[i].ts > last) out[k++] = samples[i];
+                *count = k;
+                return 0;
+            }
+
+            void stub_set_util(unsigned int gpu, unsigned int mem) { utilGpu = gpu; utilMem = mem; }
+            void stub_set_ext(unsigned int t, unsigned int sm, unsigned int mm, unsigned int mw, unsigned long long thr,
+                              unsigned long long total, unsigned long long used) {
+                tempC = t; smMhz = sm; memMhz = mm; powerMw = mw; throttle = thr; memTotal = total; memUsed = used;
+            }
+            void stub_set_temp_result(int r) { tempResult = r; }
+            void stub_set_samples_result(int r) { samplesResult = r; }
+            void stub_set_value_type(int t) { valueType = t; }
+            void stub_clear_samples(void) { nSamples = 0; }
+            void stub_add_sample(unsigned long long ts, unsigned int v) {
+                if (nSamples >= 4096) return;
+                samples[nSamples].ts = ts;
+                if (valueType == 0) samples[nSamples].v.d = v; else samples[nSamples].v.ull = v;
+                nSamples++;
+            }
+            int stub_calls(int i) { return calls[i]; }
+            """;
+
+    /** Control entry points of the stub (same library handle as the provider's NVML binding). */
+    interface Stub extends Library {
+        void stub_set_util(int gpu, int mem);
+        void stub_set_ext(int tempC, int smMhz, int memMhz, int powerMw, long throttle, long total, long used);
+        void stub_set_temp_result(int r);
+        void stub_set_samples_result(int r);
+        void stub_set_value_type(int t);
+        void stub_clear_samples();
+        void stub_add_sample(long tsUs, int value);
+        int stub_calls(int counter);
+    }
+
+    private static int failures = 0;
+
+    private NvmlGpuUsageProviderHarness() {}
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("fxShield-nvml-");
+        try {
+            Path lib = compileStub(dir);
+            if (lib == null) {
+                System.out.println("skip: no C compiler (cc) to build the stub libnvml");
+                return;
+            }
+            System.setProperty(NvmlGpuUsageProvider.LIBRARY_PROPERTY, lib.toString());
+            run(Native.load(lib.toString(), Stub.class));
+        } finally {
+            deleteTree(dir);
+        }
+
+        System.out.println(failures == 0 ? "all checks passed" : failures + " check(s) failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static void run(Stub stub) throws Exception {
+        check("override library is present", NvmlGpuUsageProvider.isNvmlLibraryPresent(), "");
+
+        stub.stub_set_samples_result(NOT_SUPPORTED); // instant rates only for now
+        stub.stub_set_util(140, 30);
+        try (NvmlGpuUsageProvider p = new NvmlGpuUsageProvider()) {
+            int v = p.readGpuUsagePercent();
+            check("utilization read, clamped", v == 100, "got " + v);
+
+            stub.stub_set_util(42, 30);
+            stub.stub_set_ext(71, 1830, 7000, 182_500, GpuTelemetry.THROTTLE_SW_THERMAL, 8L << 30, 3L << 30);
+            GpuTelemetry t = new GpuTelemetry();
+            boolean ok = p.readTelemetry(t);
+            check("telemetry fields", ok && t.gpuPercent == 42 && t.temperatureC == 71 && t.smClockMhz == 1830
+                    && t.memoryClockMhz == 7000 && t.powerMilliwatts == 182_500
+                    && t.memoryTotalBytes == (8L << 30) && t.memoryUsedBytes == (3L << 30), t.toString());
+            check("thermal throttling", t.isThermalThrottled() && !t.isPowerThrottled(), t.toString());
+            check("instant rate is not an interval aggregate", !t.isIntervalAggregate(), t.toString());
+
+            stub.stub_set_ext(71, 1830, 7000, 182_500, GpuTelemetry.THROTTLE_SW_POWER_CAP, 8L << 30, 3L << 30);
+            Thread.sleep(1050); // extended metrics are re-read once a second
+            p.readTelemetry(t);
+            check("power throttling", t.isPowerThrottled() && !t.isThermalThrottled(), t.toString());
+
+            stub.stub_set_temp_result(NOT_SUPPORTED);
+            Thread.sleep(1050);
+            p.readTelemetry(t);
+            int tempCalls = stub.stub_calls(C_TEMP);
+            Thread.sleep(1050);
+            p.readTelemetry(t);
+            check("unsupported metric stays -1, not asked again",
+                    t.temperatureC == -1 && t.smClockMhz == 1830 && stub.stub_calls(C_TEMP) == tempCalls,
+                    t + ", temp calls " + tempCalls + " -> " + stub.stub_calls(C_TEMP));
+        }
+        check("close shuts NVML down", stub.stub_calls(C_SHUTDOWN) == 1, "shutdown calls " + stub.stub_calls(C_SHUTDOWN));
+
+        // sample buffer: driver timestamps in us, one sample every 200 ms
+        stub.stub_set_samples_result(0);
+        stub.stub_set_temp_result(0);
+        stub.stub_set_util(99, 0); // instant rate differs from every window below
+        long ts = 50_000_000L;
+        for (int i = 0; i < 10; i++) stub.stub_add_sample(ts += 200_000, 90); // older than the first second
+        for (int v : new int[] {20, 40, 20, 40, 30}) stub.stub_add_sample(ts += 200_000, v);
+        try (NvmlGpuUsageProvider p = new NvmlGpuUsageProvider(0, true)) {
+            GpuTelemetry t = new GpuTelemetry();
+            int util0 = stub.stub_calls(C_UTIL);
+            int samples0 = stub.stub_calls(C_SAMPLES);
+            int temp0 = stub.stub_calls(C_TEMP);
+            p.readTelemetry(t);
+            check("first pull: last second only", t.gpuPercent == 30 && t.gpuPercentMin == 20
+                    && t.gpuPercentMax == 40 && t.gpuSampleCount == 5 && t.isIntervalAggregate(), t.toString());
+
+            for (int i = 0; i < 4; i++) p.readTelemetry(t); // UI ticks within the same second
+            int utilCalls = stub.stub_calls(C_UTIL) - util0;
+            int sampleCalls = stub.stub_calls(C_SAMPLES) - samples0;
+            int tempCalls = stub.stub_calls(C_TEMP) - temp0;
+            check("5 ticks: 1 GetSamples, no utilization call, extended metrics once",
+                    utilCalls == 0 && sampleCalls == 1 && tempCalls == 1 && t.gpuPercent == 30 && t.temperatureC == 71,
+                    "util " + utilCalls + ", samples " + sampleCalls + ", temp " + tempCalls + ", " + t);
+
+            for (int i = 0; i < 3; i++) stub.stub_add_sample(ts += 200_000, 70);
+            Thread.sleep(1050);
+            p.readTelemetry(t);
+            check("next pull: only samples since the previous one", t.gpuPercent == 70 && t.gpuSampleCount == 3,
+                    t.toString());
+
+            p.readTelemetry(t);
+            check("nothing new: last window kept briefly", t.gpuPercent == 70, t.toString());
+
+            Thread.sleep(2700);
+            int v = p.readGpuUsagePercent();
+            check("stale window: instant rate", v == 99, "got " + v);
+
+            stub.stub_set_value_type(0); // NVML_VALUE_TYPE_DOUBLE
+            for (int i = 0; i < 4; i++) stub.stub_add_sample(ts += 200_000, 55);
+            Thread.sleep(1050);
+            v = p.readGpuUsagePercent();
+            check("double-typed samples", v == 55, "got " + v);
+
+            stub.stub_set_value_type(1);
+            for (int i = 0; i < 1500; i++) stub.stub_add_sample(ts += 1_000, 10);
+            int before = stub.stub_calls(C_SAMPLES);
+            Thread.sleep(1050);
+            v = p.readGpuUsagePercent();
+            int calls = stub.stub_calls(C_SAMPLES) - before;
+            check("more samples than the buffer: grown once, then read", v == 10 && calls == 2,
+                    "got " + v + " after " + calls + " GetSamples calls");
+            before = stub.stub_calls(C_SAMPLES);
+            stub.stub_add_sample(ts += 1_000, 10);
+            Thread.sleep(1050);
+            p.readGpuUsagePercent();
+            calls = stub.stub_calls(C_SAMPLES) - before;
+            check("grown buffer is kept", calls == 1, calls + " GetSamples calls");
+        }
+    }
+
+    private static Path compileStub(Path dir) throws IOException, InterruptedException {
+        Path src = dir.resolve("nvmlstub.c");
+        Path lib = dir.resolve(System.mapLibraryName("nvmlstub"));
+        Files.writeString(src, STUB_SOURCE, StandardCharsets.US_ASCII);
+        try {
+            Process p = new ProcessBuilder("cc", "-shared", "-fPIC", "-O1", "-o", lib.toString(), src.toString())
+                    .redirectErrorStream(true).start();
+            String out = new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            if (!p.waitFor(60, TimeUnit.SECONDS) || p.exitValue() != 0) {
+                System.out.println("cc failed: " + out.trim());
+                return null;
+            }
+            return lib;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void check(String name, boolean ok, String detail) {
+        System.out.println((ok ? "ok   " : "FAIL ") + name);
+        if (!ok) {
+            failures++;
+            System.out.println("     " + detail);
+        }
+    }
+
+    private static void deleteTree(Path root) {
+        try (Stream<Path> s = Files.walk(root)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try { Files.deleteIfExists(p); } catch (IOException ignored) {}
+            });
+        } catch (IOException ignored) {
+        }
+    }
+}
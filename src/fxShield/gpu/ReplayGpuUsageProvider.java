@@ -0,0 +1,208 @@
+package fxShield.GPU;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Replays a recorded GPU trace: timestamped raw values, failures and injected read latency.
+ *
+ * Trace format (one entry per line, '#' comments, whitespace or comma separated):
+ * <pre>
+ *   offsetMs  value|fail|throw  [latencyMs]
+ *   0     35
+ *   200   fail
+ *   400   0     15
+ *   600   throw
+ * </pre>
+ * A read returns the entry active at (clock - start). "fail" returns -1, "throw" raises an exception.
+ * Latency is handed to the sleeper: {@link Thread#sleep} in real time, or advancing a virtual clock
+ * so replays are deterministic (see {@link GpuTraceHarness}).
+ * {@link #asIntervalAggregate} makes {@link #readTelemetry} report each value as a driver
+ * sample-buffer average (NVML), where a 0 is real idle.
+ */
+public final class ReplayGpuUsageProvider implements GpuUsageProvider {
+
+    public static final int FAIL = -1;
+    public static final int THROW = Integer.MIN_VALUE;
+
+    private final long[] atMs;
+    private final int[] values;
+    private final long[] latencyMs;
+    private final boolean loop;
+
+    private final LongSupplier clock;
+    private final LongConsumer sleeper;
+
+    private long startMs = -1;
+    private int aggregateSamples = 0; // > 0: readTelemetry reports interval aggregates
+    private volatile boolean closed = false;
+
+    private ReplayGpuUsageProvider(long[] atMs, int[] values, long[] latencyMs, boolean loop,
+                                   LongSupplier clock, LongConsumer sleeper) {
+        this.atMs = atMs;
+        this.values = values;
+        this.latencyMs = latencyMs;
+        this.loop = loop;
+        this.clock = (clock != null) ? clock : System::currentTimeMillis;
+        this.sleeper = (sleeper != null) ? sleeper : ReplayGpuUsageProvider::sleepQuiet;
+    }
+
+    /** Real-time replay (wall clock, real sleeps for injected latency). */
+    public static ReplayGpuUsageProvider realtime(String trace, boolean loop) {
+        return parse(trace, loop, System::currentTimeMillis, ReplayGpuUsageProvider::sleepQuiet);
+    }
+
+    public static ReplayGpuUsageProvider parse(String trace, boolean loop, LongSupplier clock, LongConsumer sleeper) {
+        List<long[]> rows = new ArrayList<>();
+
+        String text = (trace == null) ? "" : trace;
+        int lineNo = 0;
+        for (String line : text.split("\\R")) {
+            lineNo++;
+            int hash = line.indexOf('#');
+            String s = (hash >= 0 ? line.substring(0, hash) : line).trim();
+            if (s.isEmpty()) continue;
+
+            String[] parts = s.split("[\\s,]+");
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("Trace line " + lineNo + ": expected 'offsetMs value [latencyMs]'");
+            }
+
+            try {
+                long at = Long.parseLong(parts[0]);
+                int v = parseValue(parts[1]);
+                long lat = (parts.length >= 3) ? Math.max(0, Long.parseLong(parts[2])) : 0;
+                rows.add(new long[]{at, v, lat});
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Trace line " + lineNo + ": " + e.getMessage(), e);
+            }
+        }
+
+        rows.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        long[] at = new long[rows.size()];
+        int[] vs = new int[rows.size()];
+        long[] lat = new long[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            long[] r = rows.get(i);
+            at[i] = r[0];
+            vs[i] = (int) r[1];
+            lat[i] = r[2];
+        }
+        return new ReplayGpuUsageProvider(at, vs, lat, loop, clock, sleeper);
+    }
+
+    private static int parseValue(String token) {
+        String t = token.toLowerCase(Locale.ROOT);
+        if (t.equals("fail") || t.equals("-1")) return FAIL;
+        if (t.equals("throw")) return THROW;
+
+        int v = Integer.parseInt(t);
+        if (v < 0 || v > 100) throw new NumberFormatException("value out of range: " + token);
+        return v;
+    }
+
+    @Override
+    public int readGpuUsagePercent() {
+        if (closed || atMs.length == 0) return -1;
+
+        long now = clock.getAsLong();
+        if (startMs < 0) startMs = now;
+
+        int idx = indexAt(now - startMs);
+        if (idx < 0) return -1;
+
+        long lat = latencyMs[idx];
+        if (lat > 0) sleeper.accept(lat);
+
+        int v = values[idx];
+        if (v == THROW) throw new IllegalStateException("replayed provider failure");
+        return v;
+    }
+
+    /**
+     * Same read as {@link #readGpuUsagePercent}, reported as an average over the configured number
+     * of driver samples. False unless {@link #asIntervalAggregate} was set.
+     */
+    @Override
+    public boolean readTelemetry(GpuTelemetry out) {
+        if (aggregateSamples <= 0 || out == null) return false;
+
+        out.reset();
+        int v = readGpuUsagePercent();
+        out.sampledAtMs = clock.getAsLong();
+        if (v < 0) return true; // like NVML: telemetry without a utilization value
+
+        out.gpuPercent = v;
+        out.gpuPercentMin = v;
+        out.gpuPercentMax = v;
+        out.gpuSampleCount = aggregateSamples;
+        return true;
+    }
+
+    /**
+     * Raw recorded value at a trace offset (no latency, no start alignment); -1 before the first entry.
+     * THROW entries report -1.
+     */
+    public int valueAt(long offsetMs) {
+        int idx = indexAt(offsetMs);
+        if (idx < 0) return -1;
+        int v = values[idx];
+        return (v == THROW) ? -1 : v;
+    }
+
+    public long durationMs() {
+        return (atMs.length == 0) ? 0 : atMs[atMs.length - 1];
+    }
+
+    /** Restarts the replay at the next read. */
+    public void rewind() {
+        startMs = -1;
+    }
+
+    /**
+     * Pins offset 0 to an absolute clock time instead of the first read, so several replays
+     * (e.g. hybrid candidates first read at different times) share one timeline.
+     */
+    public ReplayGpuUsageProvider anchorAt(long clockMs) {
+        startMs = clockMs;
+        return this;
+    }
+
+    /** Reports reads through {@link #readTelemetry} as averages over {@code samples} driver samples. */
+    public ReplayGpuUsageProvider asIntervalAggregate(int samples) {
+        aggregateSamples = Math.max(0, samples);
+        return this;
+    }
+
+    private int indexAt(long offsetMs) {
+        if (atMs.length == 0 || offsetMs < 0) return -1;
+
+        long t = offsetMs;
+        long span = atMs[atMs.length - 1] + 1;
+        if (loop && span > 0) t = t % span;
+
+        // last entry with atMs <= t
+        int lo = 0;
+        int hi = atMs.length - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (atMs[mid] <= t) { found = mid; lo = mid + 1; }
+            else hi = mid - 1;
+        }
+        return found;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    private static void sleepQuiet(long ms) {
+        try { Thread.sleep(ms); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
+    }
+}
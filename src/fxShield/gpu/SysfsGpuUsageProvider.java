@@ -0,0 +1,225 @@
+package fxShield.GPU;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Linux DRM sysfs GPU usage.
+ * Sources per card (/sys/class/drm/cardN):
+ * - amdgpu: device/gpu_busy_percent (direct 0..100)
+ * - i915:   gt/gt0/rc6_residency_ms or power/rc6_residency_ms (busy = 100 - idle share of the interval)
+ *
+ * Reads use cached FileChannels with positional reads at offset 0 (pread: sysfs regenerates the
+ * attribute) into one reusable buffer; no allocation per sample. Reports the MAX across cards.
+ * The root is injectable so a fake sysfs tree can be used off-hardware.
+ */
+public final class SysfsGpuUsageProvider implements GpuUsageProvider {
+
+    public static final Path DEFAULT_DRM_ROOT = Paths.get("/sys/class/drm");
+
+    private static final Pattern CARD_DIR = Pattern.compile("card\\d+");
+
+    private static final String AMD_BUSY = "device/gpu_busy_percent";
+    private static final String[] RC6_FILES = {"gt/gt0/rc6_residency_ms", "power/rc6_residency_ms"};
+
+    // Minimum interval between two rc6 samples for a meaningful busy ratio
+    private static final long MIN_RC6_INTERVAL_MS = 100;
+
+    private static final int KIND_BUSY_PERCENT = 0;
+    private static final int KIND_RC6_RESIDENCY = 1;
+
+    private final Path drmRoot;
+    private final Object lock = new Object();
+
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(64);
+
+    private boolean opened = false;
+    private FileChannel[] channels = new FileChannel[0];
+    private int[] kinds = new int[0];
+
+    // rc6 deltas (per channel)
+    private long[] prevValue = new long[0];
+    private long[] prevNanos = new long[0];
+
+    public SysfsGpuUsageProvider() {
+        this(DEFAULT_DRM_ROOT);
+    }
+
+    public SysfsGpuUsageProvider(Path drmRoot) {
+        this.drmRoot = (drmRoot != null) ? drmRoot : DEFAULT_DRM_ROOT;
+    }
+
+    @Override
+    public int readGpuUsagePercent() {
+        synchronized (lock) {
+            if (!opened) openChannels();
+            if (channels.length == 0) return -1;
+
+            long now = System.nanoTime();
+            int max = -1;
+
+            for (int i = 0; i < channels.length; i++) {
+                long raw = pread(channels[i]);
+                if (raw < 0) continue;
+
+                int v;
+                if (kinds[i] == KIND_BUSY_PERCENT) {
+                    v = (int) Math.min(100, raw);
+                } else {
+                    v = rc6Busy(i, raw, now);
+                }
+
+                if (v > max) max = v;
+            }
+
+            return max;
+        }
+    }
+
+    private int rc6Busy(int i, long residencyMs, long nowNanos) {
+        long pv = prevValue[i];
+        long pt = prevNanos[i];
+
+        long elapsedMs = (nowNanos - pt) / 1_000_000L;
+        if (pt != 0 && elapsedMs < MIN_RC6_INTERVAL_MS) {
+            return -1; // too soon; keep the previous baseline
+        }
+
+        prevValue[i] = residencyMs;
+        prevNanos[i] = nowNanos;
+
+        if (pt == 0 || pv < 0 || residencyMs < pv) return -1; // warm-up or counter reset
+
+        double idle = (residencyMs - pv) * 100.0 / elapsedMs;
+        int busy = (int) Math.round(100.0 - idle);
+        if (busy < 0) busy = 0;
+        if (busy > 100) busy = 100;
+        return busy;
+    }
+
+    /**
+     * Positional read at offset 0 into the shared buffer, parsed as a non-negative decimal.
+     */
+    private long pread(FileChannel ch) {
+        try {
+            buf.clear();
+            int n = ch.read(buf, 0);
+            if (n <= 0) return -1;
+
+            long v = 0;
+            boolean any = false;
+            for (int i = 0; i < n; i++) {
+                byte b = buf.get(i);
+                if (b >= '0' && b <= '9') {
+                    v = v * 10 + (b - '0');
+                    any = true;
+                } else if (any || (b != ' ' && b != '\t')) {
+                    break;
+                }
+            }
+            return any ? v : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void openChannels() {
+        opened = true;
+
+        List<FileChannel> chs = new ArrayList<>();
+        List<Integer> ks = new ArrayList<>();
+
+        for (Path card : listCards(drmRoot)) {
+            FileChannel amd = openIfReadable(card.resolve(AMD_BUSY));
+            if (amd != null) {
+                chs.add(amd);
+                ks.add(KIND_BUSY_PERCENT);
+                continue;
+            }
+
+            for (String rc6 : RC6_FILES) {
+                FileChannel ch = openIfReadable(card.resolve(rc6));
+                if (ch != null) {
+                    chs.add(ch);
+                    ks.add(KIND_RC6_RESIDENCY);
+                    break;
+                }
+            }
+        }
+
+        channels = chs.toArray(new FileChannel[0]);
+        kinds = new int[ks.size()];
+        for (int i = 0; i < kinds.length; i++) kinds[i] = ks.get(i);
+
+        prevValue = new long[channels.length];
+        prevNanos = new long[channels.length];
+        for (int i = 0; i < prevValue.length; i++) prevValue[i] = -1;
+    }
+
+    private static List<Path> listCards(Path root) {
+        List<Path> out = new ArrayList<>();
+        if (root == null || !Files.isDirectory(root)) return out;
+
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(root)) {
+            for (Path p : ds) {
+                Path name = p.getFileName();
+                if (name != null && CARD_DIR.matcher(name.toString()).matches()) out.add(p);
+            }
+        } catch (IOException | SecurityException ignored) {
+        }
+
+        out.sort(null);
+        return out;
+    }
+
+    private static FileChannel openIfReadable(Path p) {
+        try {
+            if (!Files.isReadable(p)) return null;
+            return FileChannel.open(p, StandardOpenOption.READ);
+        } catch (IOException | SecurityException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return isAvailableStatic(drmRoot);
+    }
+
+    public static boolean isAvailableStatic() {
+        return isAvailableStatic(DEFAULT_DRM_ROOT);
+    }
+
+    public static boolean isAvailableStatic(Path drmRoot) {
+        for (Path card : listCards(drmRoot)) {
+            if (Files.isReadable(card.resolve(AMD_BUSY))) return true;
+            for (String rc6 : RC6_FILES) {
+                if (Files.isReadable(card.resolve(rc6))) return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            for (FileChannel ch : channels) {
+                try { ch.close(); } catch (IOException ignored) {}
+            }
+            channels = new FileChannel[0];
+            kinds = new int[0];
+            prevValue = new long[0];
+            prevNanos = new long[0];
+            opened = false;
+        }
+    }
+}
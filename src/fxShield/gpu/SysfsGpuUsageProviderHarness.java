@@ -0,0 +1,130 @@
+package fxShield.GPU;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Checks {@link SysfsGpuUsageProvider} against a fake /sys/class/drm tree in a temp directory
+ * (no GPU, no Linux sysfs needed):
+ * - card discovery ignores connectors (card0-DP-1) and render nodes
+ * - amdgpu gpu_busy_percent is re-read in place through the cached channel
+ * - i915 rc6 residency turns into a busy share of the interval
+ * - the value is the max across cards; garbage content reads as -1
+ * - steady-state reads allocate nothing
+ *
+ * Run: java fxShield.GPU.SysfsGpuUsageProviderHarness
+ * Exit code 1 when a check fails.
+ */
+public final class SysfsGpuUsageProviderHarness {
+
+    private static final int ALLOC_READS = 10_000;
+
+    private static int failures = 0;
+
+    private SysfsGpuUsageProviderHarness() {}
+
+    public static void main(String[] args) throws Exception {
+        Path root = Files.createTempDirectory("fxShield-drm-");
+        try {
+            run(root);
+        } finally {
+            deleteTree(root);
+        }
+
+        System.out.println(failures == 0 ? "all checks passed" : failures + " check(s) failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static void run(Path root) throws Exception {
+        check("empty tree is not available", !SysfsGpuUsageProvider.isAvailableStatic(root), "");
+
+        // card0: amdgpu; card1: i915 rc6; plus entries that must be ignored
+        Path amd = write(root.resolve("card0/device/gpu_busy_percent"), "37\n");
+        Path rc6 = write(root.resolve("card1/gt/gt0/rc6_residency_ms"), "0\n");
+        write(root.resolve("card0-DP-1/device/gpu_busy_percent"), "99\n");
+        write(root.resolve("renderD128/device/gpu_busy_percent"), "99\n");
+
+        check("tree with cards is available", SysfsGpuUsageProvider.isAvailableStatic(root), "");
+
+        try (SysfsGpuUsageProvider p = new SysfsGpuUsageProvider(root)) {
+            int v = p.readGpuUsagePercent(); // rc6 warm-up: amd only
+            check("amdgpu busy percent", v == 37, "got " + v);
+
+            write(amd, "82\n");
+            v = p.readGpuUsagePercent();
+            check("re-read through cached channel", v == 82, "got " + v);
+
+            // rc6: ~50% of the interval idle => ~50% busy; amd drops below it so the max is rc6
+            write(amd, "5\n");
+            long t0 = System.nanoTime();
+            Thread.sleep(400);
+            long elapsedMs = (System.nanoTime() - t0) / 1_000_000;
+            write(rc6, Long.toString(elapsedMs / 2) + "\n");
+            v = p.readGpuUsagePercent();
+            check("rc6 residency -> busy share, max across cards", v >= 40 && v <= 60, "got " + v);
+
+            write(amd, "n/a\n");
+            write(rc6, "garbage\n");
+            Thread.sleep(150);
+            v = p.readGpuUsagePercent();
+            check("unparsable attributes read as -1", v == -1, "got " + v);
+
+            write(amd, "64\n");
+            for (int i = 0; i < 2000; i++) p.readGpuUsagePercent(); // JIT warm-up
+            long a0 = allocatedBytes();
+            for (int i = 0; i < ALLOC_READS; i++) p.readGpuUsagePercent();
+            long a1 = allocatedBytes();
+            if (a0 >= 0 && a1 >= 0) {
+                long perRead = (a1 - a0) / ALLOC_READS;
+                check("no allocation per sample", perRead == 0, (a1 - a0) + " bytes over " + ALLOC_READS + " reads");
+            } else {
+                System.out.println("skip allocation check (not supported by this JVM)");
+            }
+        }
+
+        Path intelOnly = Files.createDirectories(root.resolve("only-i915"));
+        write(intelOnly.resolve("card0/power/rc6_residency_ms"), "100\n");
+        try (SysfsGpuUsageProvider p = new SysfsGpuUsageProvider(intelOnly)) {
+            int v = p.readGpuUsagePercent();
+            check("power/rc6 fallback path, first sample is warm-up", v == -1, "got " + v);
+        }
+    }
+
+    private static void check(String name, boolean ok, String detail) {
+        System.out.println((ok ? "ok   " : "FAIL ") + name);
+        if (!ok) {
+            failures++;
+            System.out.println("     " + detail);
+        }
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        // in place (truncate, same inode) like sysfs regenerating the attribute
+        Files.writeString(file, content, StandardCharsets.US_ASCII);
+        return file;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemorySupported()) {
+            return sun.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    private static void deleteTree(Path root) {
+        try (Stream<Path> s = Files.walk(root)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try { Files.deleteIfExists(p); } catch (IOException ignored) {}
+            });
+        } catch (IOException ignored) {
+        }
+    }
+}
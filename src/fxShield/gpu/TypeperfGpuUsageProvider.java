@@ -3,6 +3,12 @@ package fxShield.GPU;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -48,17 +54,7 @@ public final class TypeperfGpuUsageProvider implements GpuUsageProvider {
                     String line;
                     while ((line = br.readLine()) != null) {
                         String trimmed = line.trim();
-                        if (!looksLikeCsv(trimmed)) continue;
-
-                        String first = firstQuotedToken(trimmed);
-                        if (first == null) continue;
-
-                        // Skip typeperf header lines
-                        if ("Time".equalsIgnoreCase(first)) continue;
-                        if (first.startsWith("(PDH-CSV")) continue;
-
-                        // Data line (timestamp + values)
-                        lastDataLine.set(trimmed);
+                        if (isDataLine(trimmed)) lastDataLine.set(trimmed);
                     }
                 } catch (Throwable ignored) {
                 }
@@ -78,16 +74,7 @@ public final class TypeperfGpuUsageProvider implements GpuUsageProvider {
 
             if (p.exitValue() != 0) return -1;
 
-            String line = lastDataLine.get();
-            if (line == null) return -1;
-
-            double max = parseMaxValueFromQuotedCsvLine(line);
-            if (!(max >= 0.0)) return -1;
-
-            int v = (int) Math.round(max);
-            if (v < 0) v = 0;
-            if (v > 100) v = 100;
-            return v;
+            return toPercent(lastDataLine.get());
 
         } catch (Throwable t) {
             if (p != null) {
@@ -97,6 +84,80 @@ public final class TypeperfGpuUsageProvider implements GpuUsageProvider {
         }
     }
 
+    /**
+     * Non-blocking read: typeperf writes to a temp file and completion is driven by Process.onExit(),
+     * so no thread waits on the ~2 s sampling window. Timeout or cancel kills the process.
+     */
+    @Override
+    public CompletableFuture<Integer> readGpuUsagePercentAsync(Executor executor, Duration timeout) {
+        if (!isWindows()) return CompletableFuture.completedFuture(-1);
+
+        Path out = null;
+        Process p;
+        try {
+            out = Files.createTempFile("fxShield-typeperf-", ".csv");
+            ProcessBuilder pb = new ProcessBuilder(
+                    "typeperf",
+                    COUNTER,
+                    "-sc", String.valueOf(SAMPLES)
+            );
+            pb.redirectErrorStream(true);
+            pb.redirectOutput(out.toFile());
+            p = pb.start();
+        } catch (Throwable t) {
+            deleteQuiet(out);
+            return CompletableFuture.completedFuture(-1);
+        }
+
+        final Path outFile = out;
+        final Process proc = p;
+        Executor ex = (executor != null) ? executor : GpuAsync.executor();
+        Duration t = (timeout != null) ? timeout : Duration.ofSeconds(TIMEOUT_SECONDS);
+
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        proc.onExit().whenCompleteAsync((done, err) -> {
+            int v = -1;
+            try {
+                if (err == null && done.exitValue() == 0) v = parseOutputFile(outFile);
+            } catch (Throwable ignored) {
+            } finally {
+                deleteQuiet(outFile);
+            }
+            result.complete(v);
+        }, ex);
+
+        GpuAsync.withTimeout(result, t);
+
+        // timeout / cancel => kill typeperf (onExit then cleans the temp file)
+        result.whenComplete((v, err) -> {
+            if (proc.isAlive()) {
+                try { proc.destroyForcibly(); } catch (Throwable ignored) {}
+            }
+        });
+
+        return result;
+    }
+
+    private static int parseOutputFile(Path file) {
+        try {
+            List<String> lines = Files.readAllLines(file, Charset.defaultCharset());
+            String last = null;
+            for (String line : lines) {
+                String trimmed = line.trim();
+                if (isDataLine(trimmed)) last = trimmed;
+            }
+            return toPercent(last);
+        } catch (Throwable t) {
+            return -1;
+        }
+    }
+
+    private static void deleteQuiet(Path p) {
+        if (p == null) return;
+        try { Files.deleteIfExists(p); } catch (Throwable ignored) {}
+    }
+
     @Override
     public boolean isAvailable() {
         if (!isWindows()) return false;
@@ -118,6 +179,32 @@ public final class TypeperfGpuUsageProvider implements GpuUsageProvider {
 
     // ---------- parsing helpers ----------
 
+    private static boolean isDataLine(String trimmed) {
+        if (!looksLikeCsv(trimmed)) return false;
+
+        String first = firstQuotedToken(trimmed);
+        if (first == null) return false;
+
+        // Skip typeperf header lines
+        if ("Time".equalsIgnoreCase(first)) return false;
+        if (first.startsWith("(PDH-CSV")) return false;
+
+        // Data line (timestamp + values)
+        return true;
+    }
+
+    private static int toPercent(String dataLine) {
+        if (dataLine == null) return -1;
+
+        double max = parseMaxValueFromQuotedCsvLine(dataLine);
+        if (!(max >= 0.0)) return -1;
+
+        int v = (int) Math.round(max);
+        if (v < 0) v = 0;
+        if (v > 100) v = 100;
+        return v;
+    }
+
     private static boolean looksLikeCsv(String line) {
         return line != null && line.indexOf('"') >= 0 && line.indexOf(',') >= 0;
     }